@@ -0,0 +1,288 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code BatchOperationHandle} class reports the progress of a batch operation, such as
+ * {@link IGenericFileService#restoreFiles(List, BatchOperationHandle)}, and allows cancelling it.
+ * <p>
+ * A handle is passed to a single batch operation, and can then be polled, or be given a progress listener, from any
+ * thread:
+ * <pre>{@code
+ * BatchOperationHandle handle = new BatchOperationHandle();
+ * asyncService.restoreFiles( paths, handle );
+ *
+ * // Later, e.g. when requested by an operator.
+ * log( handle.getCompletedCount() + " of " + handle.getTotalCount() );
+ * handle.cancel();
+ * }</pre>
+ * <p>
+ * Cancellation is cooperative. It is checked between the items of the batch, or between the groups of items passed to
+ * providers with native batch operations, and, for folders transferred between providers, between the files of the
+ * folder. Items which are in progress complete, while the items not yet started fail with an
+ * {@link OperationCancelledException}, as part of the {@link BatchOperationFailedException} thrown by the operation.
+ * <p>
+ * The methods which record progress are meant for implementations of batch operations.
+ */
+public class BatchOperationHandle {
+  /**
+   * Represents a listener of the progress of a batch operation.
+   * <p>
+   * The listener is called in the threads performing the operation, after each item completes and after each file is
+   * transferred, and so it should return quickly.
+   */
+  @FunctionalInterface
+  public interface IProgressListener {
+    void onProgress( @NonNull BatchOperationHandle handle );
+  }
+
+  /**
+   * Represents a batch operation which does not report its own progress.
+   *
+   * @see #runAsWhole(List, IBatchOperation)
+   */
+  @FunctionalInterface
+  public interface IBatchOperation {
+    void run() throws OperationFailedException;
+  }
+
+  @Nullable
+  private final IProgressListener progressListener;
+
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicInteger totalCount = new AtomicInteger();
+  private final AtomicInteger completedCount = new AtomicInteger();
+  private final AtomicInteger failedCount = new AtomicInteger();
+  private final AtomicLong transferredBytes = new AtomicLong();
+
+  private volatile boolean cancelled;
+  private volatile boolean done;
+
+  public BatchOperationHandle() {
+    this( null );
+  }
+
+  /**
+   * Creates a handle with a given progress listener.
+   *
+   * @param progressListener The progress listener, if any.
+   */
+  public BatchOperationHandle( @Nullable IProgressListener progressListener ) {
+    this.progressListener = progressListener;
+  }
+
+  // region Progress
+  /**
+   * Gets the number of items of the batch operation.
+   *
+   * @return The number of items; {@code 0}, if the operation has not started.
+   */
+  public int getTotalCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * Gets the number of items of the batch operation which completed, successfully or not.
+   *
+   * @return The number of completed items.
+   */
+  public int getCompletedCount() {
+    return completedCount.get();
+  }
+
+  /**
+   * Gets the number of items of the batch operation which failed, including those not processed due to cancellation.
+   *
+   * @return The number of failed items.
+   */
+  public int getFailedCount() {
+    return failedCount.get();
+  }
+
+  /**
+   * Gets the number of bytes of file content transferred so far.
+   * <p>
+   * Only transfers of files between providers are counted, as operations within a provider do not stream the content
+   * of files.
+   *
+   * @return The number of transferred bytes.
+   */
+  public long getTransferredBytes() {
+    return transferredBytes.get();
+  }
+
+  /**
+   * Determines if the batch operation has completed, successfully or not.
+   *
+   * @return {@code true}, if the operation is done; {@code false}, otherwise.
+   */
+  public boolean isDone() {
+    return done;
+  }
+  // endregion
+
+  // region Cancellation
+  /**
+   * Requests the cancellation of the batch operation.
+   * <p>
+   * The operation stops at the next cancellation check. Cancelling an operation which is done has no effect.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Determines if the cancellation of the batch operation was requested.
+   *
+   * @return {@code true}, if cancelled; {@code false}, otherwise.
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Checks if the cancellation of the batch operation was requested.
+   *
+   * @throws OperationCancelledException If cancelled.
+   */
+  public void checkCancelled() throws OperationCancelledException {
+    if ( cancelled ) {
+      throw new OperationCancelledException( "Batch operation was cancelled." );
+    }
+  }
+  // endregion
+
+  // region Recording
+  /**
+   * Records the start of the batch operation.
+   *
+   * @param totalCount The number of items of the operation.
+   * @throws IllegalStateException If the handle was already used by a batch operation.
+   */
+  public void start( int totalCount ) {
+    if ( totalCount < 0 ) {
+      throw new IllegalArgumentException( "Argument 'totalCount' must not be negative." );
+    }
+
+    if ( !started.compareAndSet( false, true ) ) {
+      throw new IllegalStateException( "Batch operation handle is already in use." );
+    }
+
+    this.totalCount.set( totalCount );
+  }
+
+  /**
+   * Records the completion of an item of the batch operation.
+   *
+   * @param failed Indicates whether the item failed.
+   */
+  public void recordCompleted( boolean failed ) {
+    recordCompleted( 1, failed ? 1 : 0 );
+  }
+
+  /**
+   * Records the completion of a number of items of the batch operation.
+   *
+   * @param count       The number of completed items.
+   * @param failedCount The number of those items which failed.
+   */
+  public void recordCompleted( int count, int failedCount ) {
+    if ( failedCount > 0 ) {
+      this.failedCount.addAndGet( failedCount );
+    }
+
+    completedCount.addAndGet( count );
+    notifyProgress();
+  }
+
+  /**
+   * Records the transfer of the content of a file.
+   *
+   * @param byteCount The number of transferred bytes.
+   */
+  public void recordTransferredBytes( long byteCount ) {
+    transferredBytes.addAndGet( byteCount );
+    notifyProgress();
+  }
+
+  /**
+   * Records the completion of the batch operation.
+   */
+  public void complete() {
+    done = true;
+    notifyProgress();
+  }
+
+  /**
+   * Runs a batch operation which does not report its own progress, recording all of its items as completing at once.
+   * <p>
+   * If the handle is cancelled, the operation is not run, and all paths fail with an
+   * {@link OperationCancelledException}.
+   *
+   * @param paths     The paths of the batch operation.
+   * @param operation The batch operation.
+   * @throws BatchOperationFailedException If the operation is cancelled, or fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  public void runAsWhole( @NonNull List<GenericFilePath> paths, @NonNull IBatchOperation operation )
+    throws OperationFailedException {
+    Objects.requireNonNull( paths );
+    Objects.requireNonNull( operation );
+
+    start( paths.size() );
+    try {
+      if ( cancelled ) {
+        BatchOperationFailedException batchException =
+          new BatchOperationFailedException( "Batch operation was cancelled." );
+        for ( GenericFilePath path : paths ) {
+          batchException.addFailedPath( path, new OperationCancelledException( "Batch operation was cancelled." ) );
+        }
+
+        recordCompleted( paths.size(), paths.size() );
+        throw batchException;
+      }
+
+      try {
+        operation.run();
+        recordCompleted( paths.size(), 0 );
+      } catch ( BatchOperationFailedException e ) {
+        recordCompleted( paths.size(), Math.min( e.getFailedFiles().size(), paths.size() ) );
+        throw e;
+      } catch ( OperationFailedException e ) {
+        recordCompleted( paths.size(), paths.size() );
+        throw e;
+      }
+    } finally {
+      complete();
+    }
+  }
+  // endregion
+
+  private void notifyProgress() {
+    if ( progressListener != null ) {
+      progressListener.onProgress( this );
+    }
+  }
+}
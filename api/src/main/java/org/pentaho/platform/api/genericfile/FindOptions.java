@@ -0,0 +1,425 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * This class contains the criteria and options for finding the files under a folder.
+ * <p>
+ * A file matches when it satisfies all the criteria which are specified. Criteria which are {@code null} are not
+ * applied. Files with no known modified or created date do not match the corresponding date range criteria.
+ *
+ * @see IGenericFileService#find(GenericFilePath, FindOptions)
+ * @see GenericFileFinder
+ */
+public class FindOptions {
+  @Nullable
+  private String namePattern;
+
+  @Nullable
+  private String extension;
+
+  @Nullable
+  private Date minModifiedDate;
+
+  @Nullable
+  private Date maxModifiedDate;
+
+  @Nullable
+  private Date minCreatedDate;
+
+  @Nullable
+  private Date maxCreatedDate;
+
+  @Nullable
+  private Long minFileSize;
+
+  @Nullable
+  private Long maxFileSize;
+
+  @Nullable
+  private String owner;
+
+  @NonNull
+  private GetTreeOptions.TreeFilter filter = GetTreeOptions.TreeFilter.ALL;
+
+  private boolean includeHidden;
+
+  @Nullable
+  private Integer maxDepth;
+
+  @Nullable
+  private Integer maxResults;
+
+  public FindOptions() {
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The options instance from which to initialize this instance.
+   */
+  public FindOptions( @NonNull FindOptions other ) {
+    Objects.requireNonNull( other );
+
+    this.namePattern = other.namePattern;
+    this.extension = other.extension;
+    this.minModifiedDate = other.minModifiedDate;
+    this.maxModifiedDate = other.maxModifiedDate;
+    this.minCreatedDate = other.minCreatedDate;
+    this.maxCreatedDate = other.maxCreatedDate;
+    this.minFileSize = other.minFileSize;
+    this.maxFileSize = other.maxFileSize;
+    this.owner = other.owner;
+    this.filter = other.filter;
+    this.includeHidden = other.includeHidden;
+    this.maxDepth = other.maxDepth;
+    this.maxResults = other.maxResults;
+  }
+
+  /**
+   * Gets the pattern which the name of files must match.
+   * <p>
+   * The pattern is a glob, where {@code *} matches any sequence of characters, possibly empty, and {@code ?} matches
+   * any single character. Names are compared considering case.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The name pattern.
+   */
+  @Nullable
+  public String getNamePattern() {
+    return namePattern;
+  }
+
+  /**
+   * Sets the pattern which the name of files must match.
+   *
+   * @param namePattern The name pattern.
+   */
+  public void setNamePattern( @Nullable String namePattern ) {
+    this.namePattern = namePattern;
+  }
+
+  /**
+   * Gets the extension which the name of files must have, without the leading dot, e.g. {@code prpt}.
+   * <p>
+   * Extensions are compared considering case.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The extension.
+   */
+  @Nullable
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Sets the extension which the name of files must have, without the leading dot.
+   *
+   * @param extension The extension.
+   */
+  public void setExtension( @Nullable String extension ) {
+    this.extension = extension;
+  }
+
+  /**
+   * Gets the minimum modified date of files, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The minimum modified date.
+   */
+  @Nullable
+  public Date getMinModifiedDate() {
+    return minModifiedDate;
+  }
+
+  /**
+   * Sets the minimum modified date of files, inclusive.
+   *
+   * @param minModifiedDate The minimum modified date.
+   */
+  public void setMinModifiedDate( @Nullable Date minModifiedDate ) {
+    this.minModifiedDate = minModifiedDate;
+  }
+
+  /**
+   * Gets the maximum modified date of files, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The maximum modified date.
+   */
+  @Nullable
+  public Date getMaxModifiedDate() {
+    return maxModifiedDate;
+  }
+
+  /**
+   * Sets the maximum modified date of files, inclusive.
+   *
+   * @param maxModifiedDate The maximum modified date.
+   */
+  public void setMaxModifiedDate( @Nullable Date maxModifiedDate ) {
+    this.maxModifiedDate = maxModifiedDate;
+  }
+
+  /**
+   * Gets the minimum created date of files, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The minimum created date.
+   */
+  @Nullable
+  public Date getMinCreatedDate() {
+    return minCreatedDate;
+  }
+
+  /**
+   * Sets the minimum created date of files, inclusive.
+   *
+   * @param minCreatedDate The minimum created date.
+   */
+  public void setMinCreatedDate( @Nullable Date minCreatedDate ) {
+    this.minCreatedDate = minCreatedDate;
+  }
+
+  /**
+   * Gets the maximum created date of files, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The maximum created date.
+   */
+  @Nullable
+  public Date getMaxCreatedDate() {
+    return maxCreatedDate;
+  }
+
+  /**
+   * Sets the maximum created date of files, inclusive.
+   *
+   * @param maxCreatedDate The maximum created date.
+   */
+  public void setMaxCreatedDate( @Nullable Date maxCreatedDate ) {
+    this.maxCreatedDate = maxCreatedDate;
+  }
+
+  /**
+   * Gets the minimum size of files, in bytes, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The minimum file size.
+   */
+  @Nullable
+  public Long getMinFileSize() {
+    return minFileSize;
+  }
+
+  /**
+   * Sets the minimum size of files, in bytes, inclusive.
+   *
+   * @param minFileSize The minimum file size.
+   */
+  public void setMinFileSize( @Nullable Long minFileSize ) {
+    this.minFileSize = minFileSize;
+  }
+
+  /**
+   * Gets the maximum size of files, in bytes, inclusive.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The maximum file size.
+   */
+  @Nullable
+  public Long getMaxFileSize() {
+    return maxFileSize;
+  }
+
+  /**
+   * Sets the maximum size of files, in bytes, inclusive.
+   *
+   * @param maxFileSize The maximum file size.
+   */
+  public void setMaxFileSize( @Nullable Long maxFileSize ) {
+    this.maxFileSize = maxFileSize;
+  }
+
+  /**
+   * Gets the name of the owner of files.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The owner.
+   */
+  @Nullable
+  public String getOwner() {
+    return owner;
+  }
+
+  /**
+   * Sets the name of the owner of files.
+   *
+   * @param owner The owner.
+   */
+  public void setOwner( @Nullable String owner ) {
+    this.owner = owner;
+  }
+
+  /**
+   * Gets the filter of the type of files found.
+   * <p>
+   * Defaults to {@link GetTreeOptions.TreeFilter#ALL}.
+   *
+   * @return The filter.
+   */
+  @NonNull
+  public GetTreeOptions.TreeFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Sets the filter of the type of files found.
+   *
+   * @param filter The filter.
+   */
+  public void setFilter( @NonNull GetTreeOptions.TreeFilter filter ) {
+    this.filter = Objects.requireNonNull( filter );
+  }
+
+  /**
+   * Gets a value that indicates whether hidden files are searched.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return {@code true} to search hidden files; {@code false}, otherwise.
+   */
+  public boolean isIncludeHidden() {
+    return includeHidden;
+  }
+
+  /**
+   * Sets the include hidden files value.
+   *
+   * @param includeHidden {@code true} to search hidden files; {@code false}, otherwise.
+   */
+  public void setIncludeHidden( boolean includeHidden ) {
+    this.includeHidden = includeHidden;
+  }
+
+  /**
+   * Gets the maximum depth, relative to the base folder, of the files searched.
+   * <p>
+   * The children of the base folder have depth {@code 1}. When {@code null}, all descendants are searched.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The maximum depth.
+   */
+  @Nullable
+  public Integer getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Sets the maximum depth, relative to the base folder, of the files searched.
+   *
+   * @param maxDepth The maximum depth.
+   */
+  public void setMaxDepth( @Nullable Integer maxDepth ) {
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Gets the maximum number of files found, after which the search stops.
+   * <p>
+   * When {@code null}, all matching files are found.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The maximum number of results.
+   */
+  @Nullable
+  public Integer getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * Sets the maximum number of files found, after which the search stops.
+   *
+   * @param maxResults The maximum number of results.
+   * @throws IllegalArgumentException If the maximum number of results is not greater than zero.
+   */
+  public void setMaxResults( @Nullable Integer maxResults ) {
+    if ( maxResults != null && maxResults <= 0 ) {
+      throw new IllegalArgumentException( "Maximum number of results must be greater than zero." );
+    }
+
+    this.maxResults = maxResults;
+  }
+
+  @Override
+  public boolean equals( Object other ) {
+    if ( this == other ) {
+      return true;
+    }
+
+    if ( other == null || getClass() != other.getClass() ) {
+      return false;
+    }
+
+    FindOptions that = (FindOptions) other;
+
+    return Objects.equals( namePattern, that.namePattern )
+      && Objects.equals( extension, that.extension )
+      && Objects.equals( minModifiedDate, that.minModifiedDate )
+      && Objects.equals( maxModifiedDate, that.maxModifiedDate )
+      && Objects.equals( minCreatedDate, that.minCreatedDate )
+      && Objects.equals( maxCreatedDate, that.maxCreatedDate )
+      && Objects.equals( minFileSize, that.minFileSize )
+      && Objects.equals( maxFileSize, that.maxFileSize )
+      && Objects.equals( owner, that.owner )
+      && Objects.equals( filter, that.filter )
+      && Objects.equals( includeHidden, that.includeHidden )
+      && Objects.equals( maxDepth, that.maxDepth )
+      && Objects.equals( maxResults, that.maxResults );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+      namePattern,
+      extension,
+      minModifiedDate,
+      maxModifiedDate,
+      minCreatedDate,
+      maxCreatedDate,
+      minFileSize,
+      maxFileSize,
+      owner,
+      filter,
+      includeHidden,
+      maxDepth,
+      maxResults );
+  }
+}
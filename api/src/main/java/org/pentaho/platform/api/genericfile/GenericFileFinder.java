@@ -0,0 +1,224 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The {@code GenericFileFinder} class evaluates the criteria of a {@link FindOptions} instance against files, and
+ * finds the matching files while walking a tree of files.
+ * <p>
+ * Providers which can apply some of the criteria natively should still evaluate all of them with
+ * {@link #matches(IGenericFile)}, so that all providers give the same results. Providers can also evaluate the
+ * criteria on their native files, before converting them, with
+ * {@link #matches(String, boolean, long, Supplier, Supplier, Supplier)}.
+ *
+ * @see IGenericFileProvider#find(GenericFilePath, FindOptions)
+ */
+public class GenericFileFinder {
+  @NonNull
+  private final FindOptions options;
+
+  @Nullable
+  private final Pattern namePattern;
+
+  /**
+   * Creates a finder for the given options.
+   *
+   * @param options The find options. These are copied, and so later changes have no effect on the finder.
+   */
+  public GenericFileFinder( @NonNull FindOptions options ) {
+    this.options = new FindOptions( Objects.requireNonNull( options ) );
+    this.namePattern = options.getNamePattern() != null ? compileGlob( options.getNamePattern() ) : null;
+  }
+
+  /**
+   * Gets the find options.
+   *
+   * @return A copy of the find options.
+   */
+  @NonNull
+  public FindOptions getOptions() {
+    return new FindOptions( options );
+  }
+
+  /**
+   * Determines if a file matches all the criteria of the find options.
+   * <p>
+   * The owner of the file is only obtained if all other criteria are met.
+   *
+   * @param file The file.
+   * @return {@code true}, if the file matches; {@code false}, otherwise.
+   */
+  public boolean matches( @NonNull IGenericFile file ) {
+    return matches( file.getName(), file.isFolder(), file.getFileSize(), file::getModifiedDate, file::getCreatedDate,
+      file::getOwner );
+  }
+
+  /**
+   * Determines if a file matches all the criteria of the find options, given its attributes.
+   * <p>
+   * Attributes which may be costly to obtain are given as suppliers, and are only obtained if there is a criterion on
+   * them. The owner of the file is only obtained if all other criteria are met.
+   *
+   * @param name         The name of the file.
+   * @param isFolder     Indicates whether the file is a folder.
+   * @param fileSize     The size of the file.
+   * @param modifiedDate The supplier of the modified date of the file.
+   * @param createdDate  The supplier of the created date of the file.
+   * @param owner        The supplier of the owner of the file.
+   * @return {@code true}, if the file matches; {@code false}, otherwise.
+   */
+  public boolean matches( @Nullable String name,
+                          boolean isFolder,
+                          long fileSize,
+                          @NonNull Supplier<Date> modifiedDate,
+                          @NonNull Supplier<Date> createdDate,
+                          @NonNull Supplier<String> owner ) {
+    return matchesType( isFolder )
+      && matchesName( name )
+      && matchesRange( fileSize, options.getMinFileSize(), options.getMaxFileSize() )
+      && matchesDateRange( modifiedDate, options.getMinModifiedDate(), options.getMaxModifiedDate() )
+      && matchesDateRange( createdDate, options.getMinCreatedDate(), options.getMaxCreatedDate() )
+      && ( options.getOwner() == null || options.getOwner().equals( owner.get() ) );
+  }
+
+  /**
+   * Determines if the maximum number of results of the find options is reached.
+   *
+   * @param resultCount The number of files found so far.
+   * @return {@code true}, if no more files should be found; {@code false}, otherwise.
+   */
+  public boolean isComplete( int resultCount ) {
+    return options.getMaxResults() != null && resultCount >= options.getMaxResults();
+  }
+
+  /**
+   * Creates the options with which to walk the tree of files in which to find the files.
+   *
+   * @param basePath The path of the base folder.
+   * @return The tree options.
+   */
+  @NonNull
+  public GetTreeOptions createWalkOptions( @NonNull GenericFilePath basePath ) {
+    GetTreeOptions treeOptions = new GetTreeOptions();
+    treeOptions.setBasePath( Objects.requireNonNull( basePath ) );
+    treeOptions.setMaxDepth( options.getMaxDepth() );
+    treeOptions.setIncludeHidden( options.isIncludeHidden() );
+
+    // Files must be walked to be found, while folders must always be walked, to reach their descendants.
+    treeOptions.setFilter( options.getFilter() == GetTreeOptions.TreeFilter.FOLDERS
+      ? GetTreeOptions.TreeFilter.FOLDERS
+      : GetTreeOptions.TreeFilter.ALL );
+
+    return treeOptions;
+  }
+
+  /**
+   * Creates a visitor which adds the matching files of a tree walk, other than the base folder, to a given list, and
+   * terminates the walk when the maximum number of results is reached.
+   *
+   * @param results The list to which to add the matching files.
+   * @return The visitor.
+   * @see #createWalkOptions(GenericFilePath)
+   */
+  @NonNull
+  public IGenericFileVisitor createVisitor( @NonNull List<IGenericFile> results ) {
+    Objects.requireNonNull( results );
+
+    return ( file, depth ) -> {
+      if ( depth > 0 && matches( file ) ) {
+        results.add( file );
+
+        if ( isComplete( results.size() ) ) {
+          return IGenericFileVisitor.VisitResult.TERMINATE;
+        }
+      }
+
+      return IGenericFileVisitor.VisitResult.CONTINUE;
+    };
+  }
+
+  private boolean matchesType( boolean isFolder ) {
+    return switch ( options.getFilter() ) {
+      case FOLDERS -> isFolder;
+      case FILES -> !isFolder;
+      default -> true;
+    };
+  }
+
+  private boolean matchesName( @Nullable String name ) {
+    if ( namePattern == null && options.getExtension() == null ) {
+      return true;
+    }
+
+    if ( name == null ) {
+      return false;
+    }
+
+    return ( namePattern == null || namePattern.matcher( name ).matches() )
+      && ( options.getExtension() == null || name.endsWith( "." + options.getExtension() ) );
+  }
+
+  private static boolean matchesRange( long value, @Nullable Long min, @Nullable Long max ) {
+    return ( min == null || value >= min ) && ( max == null || value <= max );
+  }
+
+  private static boolean matchesDateRange( @NonNull Supplier<Date> dateSupplier,
+                                           @Nullable Date min,
+                                           @Nullable Date max ) {
+    if ( min == null && max == null ) {
+      return true;
+    }
+
+    Date date = dateSupplier.get();
+    return date != null
+      && matchesRange( date.getTime(), min != null ? min.getTime() : null, max != null ? max.getTime() : null );
+  }
+
+  /**
+   * Compiles a glob, where {@code *} matches any sequence of characters and {@code ?} matches any single character.
+   */
+  @NonNull
+  private static Pattern compileGlob( @NonNull String glob ) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+
+    for ( char c : glob.toCharArray() ) {
+      if ( c == '*' || c == '?' ) {
+        if ( !literal.isEmpty() ) {
+          regex.append( Pattern.quote( literal.toString() ) );
+          literal.setLength( 0 );
+        }
+
+        regex.append( c == '*' ? ".*" : "." );
+      } else {
+        literal.append( c );
+      }
+    }
+
+    if ( !literal.isEmpty() ) {
+      regex.append( Pattern.quote( literal.toString() ) );
+    }
+
+    return Pattern.compile( regex.toString(), Pattern.DOTALL );
+  }
+}
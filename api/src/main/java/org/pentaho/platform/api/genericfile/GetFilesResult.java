@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class contains the result of getting several files at once: the files which could be obtained, and, for each
+ * of the other paths, the exception with which getting it failed.
+ * <p>
+ * Files and errors are kept in the order in which they are added.
+ *
+ * @see IGenericFileService#getFiles(java.util.List, GetFileOptions)
+ * @see IGenericFileProvider#getFiles(java.util.List, GetFileOptions)
+ */
+public class GetFilesResult {
+  @NonNull
+  private final Map<GenericFilePath, IGenericFile> files = new LinkedHashMap<>();
+
+  @NonNull
+  private final Map<GenericFilePath, OperationFailedException> errors = new LinkedHashMap<>();
+
+  /**
+   * Gets the files which could be obtained, by path.
+   *
+   * @return An unmodifiable map of files.
+   */
+  @NonNull
+  public Map<GenericFilePath, IGenericFile> getFiles() {
+    return Collections.unmodifiableMap( files );
+  }
+
+  /**
+   * Gets the file with a given path, if it could be obtained.
+   *
+   * @param path The path of the file.
+   * @return The file, if it could be obtained; {@code null}, otherwise.
+   */
+  @Nullable
+  public IGenericFile getFile( @NonNull GenericFilePath path ) {
+    return files.get( path );
+  }
+
+  /**
+   * Gets the exceptions with which getting files failed, by path.
+   * <p>
+   * A {@link org.pentaho.platform.api.genericfile.exception.NotFoundException} indicates the file does not exist, or
+   * the current user is not allowed to access it.
+   *
+   * @return An unmodifiable map of exceptions.
+   */
+  @NonNull
+  public Map<GenericFilePath, OperationFailedException> getErrors() {
+    return Collections.unmodifiableMap( errors );
+  }
+
+  /**
+   * Indicates whether getting any of the files failed.
+   *
+   * @return {@code true}, if getting any file failed; {@code false}, otherwise.
+   */
+  public boolean hasErrors() {
+    return !errors.isEmpty();
+  }
+
+  public void addFile( @NonNull GenericFilePath path, @NonNull IGenericFile file ) {
+    files.put( Objects.requireNonNull( path ), Objects.requireNonNull( file ) );
+  }
+
+  public void addError( @NonNull GenericFilePath path, @NonNull OperationFailedException error ) {
+    errors.put( Objects.requireNonNull( path ), Objects.requireNonNull( error ) );
+  }
+}
@@ -0,0 +1,368 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileAcl;
+import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
+import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The {@code IAsyncGenericFileService} interface contains the operations of {@link IGenericFileService}, as
+ * non-blocking variants which return a {@link CompletableFuture}.
+ * <p>
+ * Each operation is started in the background, in the context of the calling user session, and the calling thread
+ * returns immediately. The returned future completes with the result of the corresponding {@link IGenericFileService}
+ * operation, or, exceptionally, with the {@link OperationFailedException} it throws. Callers can thus compose
+ * operations, or fan out several operations and wait for all of them, without holding a thread while each runs.
+ *
+ * @see IGenericFileService
+ */
+public interface IAsyncGenericFileService {
+  /**
+   * Gets a tree of files, asynchronously.
+   *
+   * @param options The operation options. These cannot be changed until the returned future completes.
+   * @return A future of the file tree.
+   * @see IGenericFileService#getTree(GetTreeOptions)
+   */
+  @NonNull
+  CompletableFuture<IGenericFileTree> getTree( @NonNull GetTreeOptions options );
+
+  /**
+   * Gets the root trees of all generic file providers, asynchronously.
+   *
+   * @param options The operation options. These cannot be changed until the returned future completes.
+   * @return A future of the list of root trees.
+   * @see IGenericFileService#getRootTrees(GetTreeOptions)
+   */
+  @NonNull
+  CompletableFuture<List<IGenericFileTree>> getRootTrees( @NonNull GetTreeOptions options );
+
+  /**
+   * Walks a tree of files, asynchronously.
+   * <p>
+   * The visitor is called from the thread running the operation, one file at a time.
+   *
+   * @param options The operation options. These cannot be changed until the returned future completes.
+   * @param visitor The file visitor.
+   * @return A future of whether the whole tree was walked.
+   * @see IGenericFileService#walkTree(GetTreeOptions, IGenericFileVisitor)
+   */
+  @NonNull
+  CompletableFuture<Boolean> walkTree( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor );
+
+  /**
+   * Checks whether a folder with the given path exists, asynchronously.
+   *
+   * @param path The path of the generic file.
+   * @return A future of whether the folder exists.
+   * @see IGenericFileService#doesFolderExist(GenericFilePath)
+   */
+  @NonNull
+  CompletableFuture<Boolean> doesFolderExist( @NonNull GenericFilePath path );
+
+  /**
+   * Creates a folder with a given path, asynchronously.
+   *
+   * @param path The path of the generic folder to create.
+   * @return A future of whether the folder was created.
+   * @see IGenericFileService#createFolder(GenericFilePath)
+   */
+  @NonNull
+  CompletableFuture<Boolean> createFolder( @NonNull GenericFilePath path );
+
+  /**
+   * Creates a file with a given path and content, asynchronously.
+   *
+   * @param path              The path of the file to create.
+   * @param content           The content of the file. It is read in the background, and must not be closed until the
+   *                          returned future completes.
+   * @param createFileOptions The operation options.
+   * @return A future which completes when the file is created.
+   * @see IGenericFileService#createFile(GenericFilePath, InputStream, CreateFileOptions)
+   */
+  @NonNull
+  CompletableFuture<Void> createFile( @NonNull GenericFilePath path,
+                                      @NonNull InputStream content,
+                                      @NonNull CreateFileOptions createFileOptions );
+
+  /**
+   * Sets the content of an existing file, asynchronously.
+   *
+   * @param path    The path of the file.
+   * @param content The new content of the file. It is read in the background, and must not be closed until the
+   *                returned future completes.
+   * @return A future which completes when the content is set.
+   * @see IGenericFileService#setFileContent(GenericFilePath, InputStream)
+   */
+  @NonNull
+  CompletableFuture<Void> setFileContent( @NonNull GenericFilePath path, @NonNull InputStream content );
+
+  /**
+   * Checks whether the current user has the given permissions on a file, asynchronously.
+   *
+   * @param path        The path of the file.
+   * @param permissions The permissions to check.
+   * @return A future of whether the current user has all the permissions.
+   * @see IGenericFileService#hasAccess(GenericFilePath, EnumSet)
+   */
+  @NonNull
+  CompletableFuture<Boolean> hasAccess( @NonNull GenericFilePath path,
+                                        @NonNull EnumSet<GenericFilePermission> permissions );
+
+  /**
+   * Gets the content of a file, asynchronously.
+   *
+   * @param path       The path of the file.
+   * @param compressed Whether the content should be compressed.
+   * @return A future of the file content.
+   * @see IGenericFileService#getFileContent(GenericFilePath, boolean)
+   */
+  @NonNull
+  CompletableFuture<IGenericFileContent> getFileContent( @NonNull GenericFilePath path, boolean compressed );
+
+  /**
+   * Gets a file given its path, asynchronously.
+   *
+   * @param path    The path of the file.
+   * @param options The operation options.
+   * @return A future of the file.
+   * @see IGenericFileService#getFile(GenericFilePath, GetFileOptions)
+   */
+  @NonNull
+  CompletableFuture<IGenericFile> getFile( @NonNull GenericFilePath path, @NonNull GetFileOptions options );
+
+  /**
+   * Gets several files given their paths, asynchronously.
+   *
+   * @param paths   The paths of the files.
+   * @param options The operation options.
+   * @return A future of the result, with the files and the errors.
+   * @see IGenericFileService#getFiles(List, GetFileOptions)
+   */
+  @NonNull
+  CompletableFuture<GetFilesResult> getFiles( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options );
+
+  /**
+   * Lists a page of the files of a folder, asynchronously.
+   *
+   * @param path    The path of the folder.
+   * @param options The operation options. These cannot be changed until the returned future completes.
+   * @return A future of the files of the page, and the cursor of the next page, if any.
+   * @see IGenericFileService#listFolder(GenericFilePath, ListFolderOptions)
+   */
+  @NonNull
+  CompletableFuture<ListFolderResult> listFolder( @NonNull GenericFilePath path, @NonNull ListFolderOptions options );
+
+  /**
+   * Finds the files under a folder which match the given criteria, asynchronously.
+   *
+   * @param basePath The path of the base folder.
+   * @param options  The find criteria and options. These cannot be changed until the returned future completes.
+   * @return A future of the matching files.
+   * @see IGenericFileService#find(GenericFilePath, FindOptions)
+   */
+  @NonNull
+  CompletableFuture<List<IGenericFile>> find( @NonNull GenericFilePath basePath, @NonNull FindOptions options );
+
+  /**
+   * Gets the deleted files which are still available in the trash folder, asynchronously.
+   *
+   * @return A future of the list of deleted files.
+   * @see IGenericFileService#getDeletedFiles()
+   */
+  @NonNull
+  CompletableFuture<List<IGenericFile>> getDeletedFiles();
+
+  /**
+   * Deletes files, given their paths, asynchronously.
+   *
+   * @param paths     The paths of the files to delete.
+   * @param permanent Whether the files are deleted permanently, or moved to the trash.
+   * @return A future which completes when all files are deleted.
+   * @see IGenericFileService#deleteFiles(List, boolean)
+   */
+  @NonNull
+  CompletableFuture<Void> deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent );
+
+  /**
+   * Deletes files, given their paths, asynchronously, reporting progress to a batch operation handle.
+   *
+   * @param paths     The paths of the files to delete.
+   * @param permanent Whether the files are deleted permanently, or moved to the trash.
+   * @param handle    The batch operation handle, with which the operation can also be cancelled.
+   * @return A future which completes when all files are deleted.
+   * @see IGenericFileService#deleteFiles(List, boolean, BatchOperationHandle)
+   */
+  @NonNull
+  CompletableFuture<Void> deleteFiles( @NonNull List<GenericFilePath> paths,
+                                       boolean permanent,
+                                       @NonNull BatchOperationHandle handle );
+
+  /**
+   * Permanently deletes files in the trash, given their paths, asynchronously.
+   *
+   * @param paths The paths of the files to permanently delete.
+   * @return A future which completes when all files are deleted.
+   * @see IGenericFileService#deleteFilesPermanently(List)
+   */
+  @NonNull
+  CompletableFuture<Void> deleteFilesPermanently( @NonNull List<GenericFilePath> paths );
+
+  /**
+   * Restores files from the trash, given their paths, asynchronously.
+   *
+   * @param paths The paths of the files to restore.
+   * @return A future which completes when all files are restored.
+   * @see IGenericFileService#restoreFiles(List)
+   */
+  @NonNull
+  CompletableFuture<Void> restoreFiles( @NonNull List<GenericFilePath> paths );
+
+  /**
+   * Restores files from the trash, given their paths, asynchronously, reporting progress to a batch operation handle.
+   *
+   * @param paths  The paths of the files to restore.
+   * @param handle The batch operation handle, with which the operation can also be cancelled.
+   * @return A future which completes when all files are restored.
+   * @see IGenericFileService#restoreFiles(List, BatchOperationHandle)
+   */
+  @NonNull
+  CompletableFuture<Void> restoreFiles( @NonNull List<GenericFilePath> paths, @NonNull BatchOperationHandle handle );
+
+  /**
+   * Renames a file, asynchronously.
+   *
+   * @param path    The path of the file.
+   * @param newName The new name of the file.
+   * @return A future of whether the file was renamed.
+   * @see IGenericFileService#renameFile(GenericFilePath, String)
+   */
+  @NonNull
+  CompletableFuture<Boolean> renameFile( @NonNull GenericFilePath path, @NonNull String newName );
+
+  /**
+   * Copies files to a destination folder, asynchronously.
+   *
+   * @param paths             The paths of the files to copy.
+   * @param destinationFolder The path of the destination folder.
+   * @return A future which completes when all files are copied.
+   * @see IGenericFileService#copyFiles(List, GenericFilePath)
+   */
+  @NonNull
+  CompletableFuture<Void> copyFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder );
+
+  /**
+   * Copys files to a destination folder, asynchronously, reporting progress to a batch operation handle.
+   *
+   * @param paths             The paths of the files to copy.
+   * @param destinationFolder The path of the destination folder.
+   * @param handle            The batch operation handle, with which the operation can also be cancelled.
+   * @return A future which completes when all files are copied.
+   * @see IGenericFileService#copyFiles(List, GenericFilePath, BatchOperationHandle)
+   */
+  @NonNull
+  CompletableFuture<Void> copyFiles( @NonNull List<GenericFilePath> paths,
+                                     @NonNull GenericFilePath destinationFolder,
+                                     @NonNull BatchOperationHandle handle );
+
+  /**
+   * Moves files to a destination folder, asynchronously.
+   *
+   * @param paths             The paths of the files to move.
+   * @param destinationFolder The path of the destination folder.
+   * @return A future which completes when all files are moved.
+   * @see IGenericFileService#moveFiles(List, GenericFilePath)
+   */
+  @NonNull
+  CompletableFuture<Void> moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder );
+
+  /**
+   * Moves files to a destination folder, asynchronously, reporting progress to a batch operation handle.
+   *
+   * @param paths             The paths of the files to move.
+   * @param destinationFolder The path of the destination folder.
+   * @param handle            The batch operation handle, with which the operation can also be cancelled.
+   * @return A future which completes when all files are moved.
+   * @see IGenericFileService#moveFiles(List, GenericFilePath, BatchOperationHandle)
+   */
+  @NonNull
+  CompletableFuture<Void> moveFiles( @NonNull List<GenericFilePath> paths,
+                                     @NonNull GenericFilePath destinationFolder,
+                                     @NonNull BatchOperationHandle handle );
+
+  /**
+   * Gets the metadata of a file, asynchronously.
+   *
+   * @param path The path of the file.
+   * @return A future of the file metadata.
+   * @see IGenericFileService#getFileMetadata(GenericFilePath)
+   */
+  @NonNull
+  CompletableFuture<IGenericFileMetadata> getFileMetadata( @NonNull GenericFilePath path );
+
+  /**
+   * Sets the metadata of a file, asynchronously.
+   *
+   * @param path     The path of the file.
+   * @param metadata The new metadata of the file.
+   * @return A future which completes when the metadata is set.
+   * @see IGenericFileService#setFileMetadata(GenericFilePath, IGenericFileMetadata)
+   */
+  @NonNull
+  CompletableFuture<Void> setFileMetadata( @NonNull GenericFilePath path, @NonNull IGenericFileMetadata metadata );
+
+  /**
+   * Gets the access control list of a file, asynchronously.
+   *
+   * @param path            The path of the file.
+   * @param forceInheriting Whether the returned access control list is forced to inherit entries from its parent
+   *                        folders, if it does not have its own entries.
+   * @return A future of the access control list.
+   * @see IGenericFileService#getFileAcl(GenericFilePath, boolean)
+   */
+  @NonNull
+  CompletableFuture<IGenericFileAcl> getFileAcl( @NonNull GenericFilePath path, boolean forceInheriting );
+
+  /**
+   * Sets the access control list of a file, asynchronously.
+   *
+   * @param path The path of the file.
+   * @param acl  The new access control list of the file.
+   * @return A future which completes when the access control list is set.
+   * @see IGenericFileService#setFileAcl(GenericFilePath, IGenericFileAcl)
+   */
+  @NonNull
+  CompletableFuture<Void> setFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl );
+
+  /**
+   * Validates an access control list for a file, asynchronously.
+   *
+   * @param path The path of the file.
+   * @param acl  The access control list to validate.
+   * @return A future of whether the access control list is valid.
+   * @see IGenericFileService#validateFileAcl(GenericFilePath, IGenericFileAcl)
+   */
+  @NonNull
+  CompletableFuture<Boolean> validateFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl );
+}
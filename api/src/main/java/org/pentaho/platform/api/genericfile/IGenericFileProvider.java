@@ -14,7 +14,9 @@
 package org.pentaho.platform.api.genericfile;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.pentaho.platform.api.genericfile.exception.AccessControlException;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.ConflictException;
 import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
@@ -29,9 +31,12 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * The {@code IGenericFileProvider} interface contains operations to access and modify generic files
@@ -68,6 +73,19 @@ public interface IGenericFileProvider<T extends IGenericFile> {
   @NonNull
   String getType();
 
+  /**
+   * Gets a snapshot of the statistics of the tree cache of this provider.
+   * <p>
+   * The default implementation returns {@code null}, for providers which do not cache trees.
+   *
+   * @return The tree cache statistics, if this provider caches trees; {@code null}, otherwise.
+   * @see IGenericFileService#getTreeCacheStatistics()
+   */
+  @Nullable
+  default TreeCacheStatistics getTreeCacheStatistics() {
+    return null;
+  }
+
   /**
    * Gets a tree of files.
    *
@@ -86,6 +104,38 @@ public interface IGenericFileProvider<T extends IGenericFile> {
   @NonNull
   IGenericFileTree getTree( @NonNull GetTreeOptions options ) throws OperationFailedException;
 
+  /**
+   * Walks a tree of files, depth-first, visiting each of its files with a given visitor, as soon as it is obtained.
+   * <p>
+   * The tree is the one which {@link #getTree(GetTreeOptions)} would return for the same options, except that the
+   * {@link GetTreeOptions#getExpandedPaths() expanded paths} options are ignored. Contrary to that method, the whole
+   * tree needs not be held in memory. The walk can also stop early, or skip the children of some folders, as instructed
+   * by the visitor, in which case these need not be obtained at all.
+   * <p>
+   * The default implementation gets the whole tree and then walks it. Implementations should obtain each folder's
+   * children only when the walk reaches it.
+   *
+   * @param options The operation options.
+   * @param visitor The file visitor.
+   * @return {@code true}, if the whole tree was walked; {@code false}, if the visitor terminated the walk.
+   * @throws NotFoundException        If the specified base file does not exist, is not a folder, or the current user
+   *                                  is not allowed to read it.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason, or the visitor fails.
+   * @see IGenericFileService#walkTree(GetTreeOptions, IGenericFileVisitor)
+   */
+  default boolean walkTree( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+
+    Objects.requireNonNull( visitor );
+
+    GetTreeOptions treeOptions = new GetTreeOptions( options );
+    treeOptions.setExpandedPaths( null );
+    treeOptions.setExpandedMaxDepth( null );
+
+    return getTree( treeOptions ).walk( visitor );
+  }
+
   /**
    * Gets a list of the real root trees that this provider provides to the generic file system.
    * <p>
@@ -112,6 +162,24 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    */
   void clearTreeCache() throws OperationFailedException;
 
+  /**
+   * Clears the cached trees affected by a change to a given path, for the current user session.
+   * <p>
+   * A change to a path, such as its creation, deletion or renaming, affects the cached trees which include the
+   * children of its parent folder, and those whose base path is the path or is inside of it. Cached trees of unrelated
+   * subtrees are kept.
+   * <p>
+   * The default implementation of this method clears the whole cache, by calling {@link #clearTreeCache()}.
+   *
+   * @param path The changed path.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason.
+   * @see #clearTreeCache()
+   */
+  default void clearTreeCache( @NonNull GenericFilePath path ) throws OperationFailedException {
+    clearTreeCache();
+  }
+
   /**
    * Checks whether a generic file exists, is a folder and the current user can read it, given its path.
    *
@@ -129,7 +197,7 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    * This method ensures that each ancestor folder of the specified folder exists,
    * creating it if necessary, and allowed.
    * <p>
-   * When the operation is successful, the folder tree session cache is automatically cleared.
+   * When the operation is successful, the cached trees affected by the new folder are automatically cleared.
    *
    * @param path The path of the generic folder to create.
    * @return {@code true}, if the folder did not exist and was created; {@code false}, if the folder already existed.
@@ -141,7 +209,7 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    *                                   if the path does not exist and the current user is not allowed to create folders
    *                                   on the folder denoted by its longest existing prefix.
    * @throws OperationFailedException  If the operation fails for some other (checked) reason.
-   * @see #clearTreeCache()
+   * @see #clearTreeCache(GenericFilePath)
    * @see IGenericFileService#createFolder(GenericFilePath)
    */
   boolean createFolder( @NonNull GenericFilePath path ) throws OperationFailedException;
@@ -151,8 +219,8 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    * <p>
    * This method ensures that each ancestor folder of the specified file exists, creating it if necessary, and allowed.
    * <p>
-   * When the operation is successful, the folder session cache for the generic file provider owning the folder is
-   * automatically cleared.
+   * When the operation is successful, the cached trees which are affected by the change, of the generic file provider
+   * owning the folder, are automatically cleared.
    *
    * @param path              The path of the generic file to create.
    * @param content           The content to write to the file as an InputStream.
@@ -200,9 +268,29 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    *
    * @param path The generic file path to check.
    * @return {@code true}, if the provider owns the specified generic file path; {@code false}, otherwise.
+   * @see #getOwnedPathPrefixes()
    */
   boolean owns( @NonNull GenericFilePath path );
 
+  /**
+   * Gets the path prefixes owned by the provider, if these are known in advance.
+   * <p>
+   * A provider which declares its owned path prefixes must own exactly the paths which are
+   * {@link GenericFilePath#contains(GenericFilePath) contained} in one of them. This allows the generic file service to
+   * route paths to their owner provider without calling {@link #owns(GenericFilePath)}. Typically, a prefix consists
+   * of the {@link GenericFilePath#getFirstSegment() provider root segment} alone, such as {@code /} or
+   * {@code scheme://}, or is followed by the name of a connection, such as {@code scheme://connection}.
+   * <p>
+   * The default implementation returns an empty set, meaning that the owned paths are not known in advance, and that
+   * {@link #owns(GenericFilePath)} must be called for each path.
+   *
+   * @return The owned path prefixes, possibly empty.
+   */
+  @NonNull
+  default Set<GenericFilePath> getOwnedPathPrefixes() {
+    return Collections.emptySet();
+  }
+
   /**
    * Checks whether a generic file exists and the current user has the specified permissions on it.
    *
@@ -252,6 +340,88 @@ public interface IGenericFileProvider<T extends IGenericFile> {
   IGenericFile getFile( @NonNull GenericFilePath path, @NonNull GetFileOptions options )
     throws OperationFailedException;
 
+  /**
+   * Gets several files given their paths.
+   * <p>
+   * Each path is resolved independently, and the paths which cannot be resolved are reported in the result, along
+   * with the exception with which resolving them failed.
+   * <p>
+   * The default implementation calls {@link #getFile(GenericFilePath, GetFileOptions)} for each path. Providers whose
+   * backend can resolve several paths with fewer calls should override this method.
+   *
+   * @param paths   The paths of the files. All paths must be owned by this provider.
+   * @param options The operation options.
+   * @return The result, with the files and the errors, in path order.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails as a whole, for some other (checked) reason.
+   * @see IGenericFileService#getFiles(List, GetFileOptions)
+   */
+  @NonNull
+  default GetFilesResult getFiles( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options )
+    throws OperationFailedException {
+    GetFilesResult result = new GetFilesResult();
+
+    for ( GenericFilePath path : paths ) {
+      try {
+        result.addFile( path, getFile( path, options ) );
+      } catch ( OperationFailedException e ) {
+        result.addError( path, e );
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Lists a page of the files of a folder.
+   * <p>
+   * The default implementation gets the tree of the folder, of depth {@code 1}, and then selects the page with
+   * {@link ListFolderPaging}. Providers which can list the files of a folder without converting all of them to generic
+   * files should override this method.
+   *
+   * @param path    The path of the folder.
+   * @param options The operation options.
+   * @return The files of the page, and the cursor of the next page, if any.
+   * @throws NotFoundException         If the specified folder does not exist, is not a folder, or the current user is
+   *                                   not allowed to read it.
+   * @throws InvalidOperationException If the cursor option is not valid for the sort order option.
+   * @throws AccessControlException    If the current user cannot perform this operation.
+   * @throws OperationFailedException  If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#listFolder(GenericFilePath, ListFolderOptions)
+   */
+  @NonNull
+  default ListFolderResult listFolder( @NonNull GenericFilePath path, @NonNull ListFolderOptions options )
+    throws OperationFailedException {
+    return ListFolderPaging.getPage( getTree( ListFolderPaging.createFolderTreeOptions( path, options ) ), options );
+  }
+
+  /**
+   * Finds the files under a folder which match the given criteria.
+   * <p>
+   * The default implementation walks the tree of the folder, with
+   * {@link #walkTree(GetTreeOptions, IGenericFileVisitor)}, and evaluates the criteria on each file, with
+   * {@link GenericFileFinder}. Providers which can apply some of the
+   * criteria natively, so that non-matching files need not be obtained, should override this method.
+   *
+   * @param basePath The path of the base folder.
+   * @param options  The find criteria and options.
+   * @return The matching files, in depth-first order, not including the base folder.
+   * @throws NotFoundException        If the specified base folder does not exist, is not a folder, or the current user
+   *                                  is not allowed to read it.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#find(GenericFilePath, FindOptions)
+   */
+  @NonNull
+  default List<IGenericFile> find( @NonNull GenericFilePath basePath, @NonNull FindOptions options )
+    throws OperationFailedException {
+    GenericFileFinder finder = new GenericFileFinder( options );
+
+    List<IGenericFile> results = new ArrayList<>();
+    walkTree( finder.createWalkOptions( basePath ), finder.createVisitor( results ) );
+    return results;
+  }
+
   /**
    * Gets a list of deleted files which are still available in the trash folder.
    *
@@ -265,6 +435,21 @@ public interface IGenericFileProvider<T extends IGenericFile> {
     return Collections.emptyList();
   }
 
+  /**
+   * Determines if the batch operations of the provider, such as {@link #deleteFiles(List, boolean)}, process several
+   * paths together, more efficiently than one at a time.
+   * <p>
+   * When this is not the case, the generic file service performs the single path operations concurrently, instead of
+   * calling the batch operations.
+   * <p>
+   * The default implementation returns {@code false}, matching the default implementations of the batch operations.
+   *
+   * @return {@code true}, if the batch operations are native; {@code false}, otherwise.
+   */
+  default boolean hasNativeBatchOperations() {
+    return false;
+  }
+
   /**
    * Permanently deletes a file, given its path.
    *
@@ -278,6 +463,24 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    */
   void deleteFilePermanently( @NonNull GenericFilePath path ) throws OperationFailedException;
 
+  /**
+   * Permanently deletes files, given their paths.
+   * <p>
+   * The default implementation calls {@link #deleteFilePermanently(GenericFilePath)} for each path, collecting the
+   * failed ones. Providers which can delete several files with a single call to the underlying file system should
+   * override this method.
+   *
+   * @param paths The list of file paths to be permanently deleted. These paths must refer to items that are in the
+   *              trash (deleted).
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#deleteFilesPermanently(List)
+   */
+  default void deleteFilesPermanently( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
+    applyToEachPath( paths, "Error(s) occurred during permanent deletion.", this::deleteFilePermanently );
+  }
+
   /**
    * Deletes a file, given its path, by sending it to the trash or permanently deleting it, depending on the value of
    * the {@code permanent} variable.
@@ -292,6 +495,28 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    */
   void deleteFile( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException;
 
+  /**
+   * Deletes files, given their paths, by sending them to the trash or permanently deleting them, depending on the
+   * value of the {@code permanent} variable.
+   * <p>
+   * The default implementation calls {@link #deleteFile(GenericFilePath, boolean)} for each path, collecting the
+   * failed ones. Providers which can delete several files with a single call to the underlying file system should
+   * override this method.
+   *
+   * @param paths     The list of file paths to be deleted. These paths must not refer to items that are in the
+   *                  trash (deleted).
+   * @param permanent If {@code true}, the files are permanently deleted; if {@code false}, the files are sent to the
+   *                  trash.
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#deleteFiles(List, boolean)
+   */
+  default void deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent )
+    throws OperationFailedException {
+    applyToEachPath( paths, "Error(s) occurred during deletion.", path -> deleteFile( path, permanent ) );
+  }
+
   /**
    * Restores a file, given its path.
    *
@@ -305,6 +530,23 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    */
   void restoreFile( @NonNull GenericFilePath path ) throws OperationFailedException;
 
+  /**
+   * Restores files, given their paths.
+   * <p>
+   * The default implementation calls {@link #restoreFile(GenericFilePath)} for each path, collecting the failed ones.
+   * Providers which can restore several files with a single call to the underlying file system should override this
+   * method.
+   *
+   * @param paths The list of file paths to be restored. These paths must refer to items in the trash (deleted).
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#restoreFiles(List)
+   */
+  default void restoreFiles( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
+    applyToEachPath( paths, "Error(s) occurred while attempting to restore files.", this::restoreFile );
+  }
+
   /**
    * Renames a file or folder, given its path and the new name. If it's a file, this method does not change its
    * extension.
@@ -343,6 +585,28 @@ public interface IGenericFileProvider<T extends IGenericFile> {
   void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException;
 
+  /**
+   * Copies files or folders from the given paths to a destination folder.
+   * <p>
+   * The default implementation calls {@link #copyFile(GenericFilePath, GenericFilePath)} for each path, collecting the
+   * failed ones. Providers which can copy several files with a single call to the underlying file system should
+   * override this method.
+   *
+   * @param paths             The list of paths of the files or folders to be copied. These paths must not refer to
+   *                          items in the trash (deleted).
+   * @param destinationFolder The path of the destination folder. This path must not refer to a folder in the trash
+   *                          (deleted).
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#copyFiles(List, GenericFilePath)
+   */
+  default void copyFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    applyToEachPath( paths, "Error(s) occurred while attempting to copy files.",
+      path -> copyFile( path, destinationFolder ) );
+  }
+
   /**
    * Moves a file or folder from a given path to a destination folder.
    *
@@ -361,6 +625,28 @@ public interface IGenericFileProvider<T extends IGenericFile> {
   void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException;
 
+  /**
+   * Moves files or folders from the given paths to a destination folder.
+   * <p>
+   * The default implementation calls {@link #moveFile(GenericFilePath, GenericFilePath)} for each path, collecting the
+   * failed ones. Providers which can move several files with a single call to the underlying file system should
+   * override this method.
+   *
+   * @param paths             The list of paths of the files or folders to be moved. These paths must not refer to
+   *                          items in the trash (deleted).
+   * @param destinationFolder The path of the destination folder. This path must not refer to a folder in the trash
+   *                          (deleted).
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   * @see IGenericFileService#moveFiles(List, GenericFilePath)
+   */
+  default void moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    applyToEachPath( paths, "Error(s) occurred while attempting to move files.",
+      path -> moveFile( path, destinationFolder ) );
+  }
+
   /**
    * Gets the file metadata, given its path.
    *
@@ -443,4 +729,48 @@ public interface IGenericFileProvider<T extends IGenericFile> {
    * @return {@code true} if the ACL is valid; {@code false} otherwise.
    */
   boolean validateFileAcl( @NonNull IGenericFileAcl acl ) throws OperationFailedException;
+
+  /**
+   * Represents an operation on a single path, as part of a batch operation.
+   *
+   * @see #applyToEachPath(List, String, IPathOperation)
+   */
+  @FunctionalInterface
+  interface IPathOperation {
+    void apply( @NonNull GenericFilePath path ) throws OperationFailedException;
+  }
+
+  /**
+   * Performs an operation on each of the given paths, continuing after failures, and collecting the failed paths.
+   * <p>
+   * Meant for implementations of batch operations which do not have a native counterpart, such as the default
+   * implementation of {@link #deleteFiles(List, boolean)}.
+   *
+   * @param paths        The paths.
+   * @param errorMessage The message of the batch exception.
+   * @param operation    The operation.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   */
+  static void applyToEachPath( @NonNull List<GenericFilePath> paths,
+                               @NonNull String errorMessage,
+                               @NonNull IPathOperation operation )
+    throws BatchOperationFailedException {
+    BatchOperationFailedException batchException = null;
+
+    for ( GenericFilePath path : paths ) {
+      try {
+        operation.apply( path );
+      } catch ( OperationFailedException e ) {
+        if ( batchException == null ) {
+          batchException = new BatchOperationFailedException( errorMessage );
+        }
+
+        batchException.addFailedPath( path, e );
+      }
+    }
+
+    if ( batchException != null ) {
+      throw batchException;
+    }
+  }
 }
@@ -21,6 +21,7 @@ import org.pentaho.platform.api.genericfile.exception.ConflictException;
 import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
 import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
 import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.ResourceAccessDeniedException;
 import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
@@ -31,8 +32,12 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * The {@code IGenericFileService} interface contains operations to access and modify generic files.
@@ -52,6 +57,75 @@ public interface IGenericFileService {
    */
   void clearTreeCache() throws OperationFailedException;
 
+  /**
+   * Clears the cached trees affected by a change to a given path, for the current user session.
+   * <p>
+   * Only the cache of the generic file provider owning the path is affected, and, of it, only the trees which include
+   * the changed path.
+   * <p>
+   * The default implementation of this method clears the whole cache, by calling {@link #clearTreeCache()}.
+   *
+   * @param path The changed path.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason.
+   * @see IGenericFileProvider#clearTreeCache(GenericFilePath)
+   */
+  default void clearTreeCache( @NonNull GenericFilePath path ) throws OperationFailedException {
+    clearTreeCache();
+  }
+
+  /**
+   * Preloads trees into the tree cache, in the background, so that later requests for them, or for the trees they
+   * cover, are served from the cache.
+   * <p>
+   * Each of the given options is a template of a {@link #getTree(GetTreeOptions)} request, such as the root tree at
+   * depth 1, or the {@code /public} folder at depth 2. The options are copied, and can be changed once this method
+   * returns.
+   * <p>
+   * The trees land in the cache partitions of the contexts in which they are loaded. Unless an implementation is
+   * configured with specific contexts, these are loaded for the current user session, and so only warm the cache for
+   * the users which share cached trees with it. Failures to load a tree are logged, and otherwise ignored.
+   * <p>
+   * The default implementation does nothing.
+   *
+   * @param optionsTemplates The options of the trees to preload.
+   * @see #clearTreeCache()
+   */
+  default void warmUpTreeCache( @NonNull List<GetTreeOptions> optionsTemplates ) {
+  }
+
+  /**
+   * Gets a snapshot of the statistics of the tree caches of the generic file providers.
+   * <p>
+   * Only providers which cache trees are included.
+   * <p>
+   * The default implementation returns an empty map.
+   *
+   * @return A map of tree cache statistics, keyed by {@link IGenericFileProvider#getType() provider type}.
+   * @see IGenericFileProvider#getTreeCacheStatistics()
+   */
+  @NonNull
+  default Map<String, TreeCacheStatistics> getTreeCacheStatistics() {
+    return Map.of();
+  }
+
+  /**
+   * Gets a snapshot of the call statistics of the operations of this service and of the generic file providers.
+   * <p>
+   * Only the operations which access files are recorded. Comparing the latency of an operation of the service with that
+   * of the same operation of a provider tells apart the time spent in the provider from that spent in the service
+   * itself, such as decorating files.
+   * <p>
+   * The default implementation returns an empty list.
+   *
+   * @return The list of operation statistics, ordered by provider type, with the operations of the service first,
+   * and then by operation.
+   */
+  @NonNull
+  default List<OperationStatistics> getOperationStatistics() {
+    return List.of();
+  }
+
   /**
    * Gets a tree of files.
    *
@@ -129,6 +203,55 @@ public interface IGenericFileService {
     return getTree( new GetTreeOptions() );
   }
 
+  /**
+   * Walks a tree of files, depth-first, visiting each of its files with a given visitor, as soon as it is obtained.
+   * <p>
+   * Contrary to {@link #getTree(GetTreeOptions)}, the whole tree needs not be held in memory, which makes this method
+   * suitable for large trees. The walk can also stop early, or skip the children of some folders, as instructed by the
+   * visitor, in which case these need not be obtained at all. The
+   * {@link GetTreeOptions#getExpandedPaths() expanded paths} options are ignored.
+   *
+   * <h3>Walking the root trees</h3>
+   * When called with a {@code null} {@link GetTreeOptions#getBasePath() base path option}, each of the real root
+   * trees of the generic file system, as returned by {@link #getRootTrees(GetTreeOptions)}, is walked in turn, its
+   * root folder having a depth of {@code 0}. No <i>abstract</i> root tree folder is visited.
+   *
+   * <h3>Walking a subtree</h3>
+   * When {@link GetTreeOptions#getBasePath() base path} is specified, the walked tree is rooted at the specified
+   * <i>base</i> folder. The <i>base</i> folder is considered to have a depth of {@code 0}.
+   * <p>
+   * The default implementation gets the whole tree and then walks it.
+   *
+   * @param options The operation options.
+   * @param visitor The file visitor.
+   * @return {@code true}, if the whole tree was walked; {@code false}, if the visitor terminated the walk.
+   * @throws NotFoundException        If the specified base file does not exist, is not a folder, or the current user
+   *                                  is not allowed to read it.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason, or the visitor fails.
+   */
+  default boolean walkTree( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+
+    Objects.requireNonNull( visitor );
+
+    GetTreeOptions treeOptions = new GetTreeOptions( options );
+    treeOptions.setExpandedPaths( null );
+    treeOptions.setExpandedMaxDepth( null );
+
+    if ( treeOptions.getBasePath() != null ) {
+      return getTree( treeOptions ).walk( visitor );
+    }
+
+    for ( IGenericFileTree rootTree : getRootTrees( treeOptions ) ) {
+      if ( !rootTree.walk( visitor ) ) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   /**
    * Gets a list of the real root trees of the generic file system.
    * <p>
@@ -206,8 +329,8 @@ public interface IGenericFileService {
    * This method ensures that each ancestor folder of the specified folder exists, creating it if necessary, and
    * allowed.
    * <p>
-   * When the operation is successful, the folder session cache for the generic file provider owning the folder is
-   * automatically cleared.
+   * When the operation is successful, the cached trees which are affected by the change, of the generic file provider
+   * owning the folder, are automatically cleared.
    *
    * @param path The path of the generic folder to create.
    * @return {@code true}, if the folder did not exist and was created; {@code false}, if the folder already existed.
@@ -233,8 +356,8 @@ public interface IGenericFileService {
    * {@link GenericFilePath#parseRequired(String)} and then calls {@link #createFolder(GenericFilePath)} with the
    * result.
    * <p>
-   * When the operation is successful, the folder session cache for the generic file provider owning the folder is
-   * automatically cleared.
+   * When the operation is successful, the cached trees which are affected by the change, of the generic file provider
+   * owning the folder, are automatically cleared.
    *
    * @param path The string representation of the path of the generic folder to create.
    * @return {@code true}, if the folder did not exist and was created; {@code false}, if the folder already existed.
@@ -259,8 +382,8 @@ public interface IGenericFileService {
    * <p>
    * This method ensures that each ancestor folder of the specified file exists, creating it if necessary, and allowed.
    * <p>
-   * When the operation is successful, the folder session cache for the generic file provider owning the folder is
-   * automatically cleared.
+   * When the operation is successful, the cached trees which are affected by the change, of the generic file provider
+   * owning the folder, are automatically cleared.
    *
    * @param path              The path of the generic file to create.
    * @param content           The content to write to the file as an InputStream.
@@ -290,8 +413,8 @@ public interface IGenericFileService {
    * <p>
    * This method ensures that each ancestor folder of the specified file exists, creating it if necessary, and allowed.
    * <p>
-   * When the operation is successful, the folder session cache for the generic file provider owning the folder is
-   * automatically cleared.
+   * When the operation is successful, the cached trees which are affected by the change, of the generic file provider
+   * owning the folder, are automatically cleared.
    * <p>
    * The default implementation of this method parses the given path's string representation using
    * {@link GenericFilePath#parseRequired(String)} and then calls
@@ -557,6 +680,88 @@ public interface IGenericFileService {
   IGenericFile getFile( @NonNull GenericFilePath path, @NonNull GetFileOptions options )
     throws OperationFailedException;
 
+  /**
+   * Gets several files given their paths, such as those of a list of recent or favorite files.
+   * <p>
+   * Each path is resolved independently, and the paths which cannot be resolved are reported in the result, along
+   * with the exception with which resolving them failed. Duplicate paths are resolved once.
+   * <p>
+   * The default implementation calls {@link #getFile(GenericFilePath, GetFileOptions)} for each path.
+   *
+   * @param paths   The paths of the files.
+   * @param options The operation options.
+   * @return The result, with the files and the errors, in path order.
+   * @throws OperationFailedException If the operation fails as a whole, for some (checked) reason.
+   */
+  @NonNull
+  default GetFilesResult getFiles( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options )
+    throws OperationFailedException {
+    GetFilesResult result = new GetFilesResult();
+
+    for ( GenericFilePath path : new LinkedHashSet<>( paths ) ) {
+      try {
+        result.addFile( path, getFile( path, options ) );
+      } catch ( OperationFailedException e ) {
+        result.addError( path, e );
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Lists a page of the files of a folder.
+   * <p>
+   * Use this method, rather than {@link #getTree(GetTreeOptions)}, to show the files of folders which may hold many
+   * files, a page at a time. Get the first page with a {@code null} {@link ListFolderOptions#getCursor() cursor
+   * option}, and each following page with the {@link ListFolderResult#getNextCursor() next cursor} of the previous
+   * page, until it is {@code null}.
+   * <p>
+   * The default implementation gets the tree of the folder, of depth {@code 1}, and then selects the page.
+   *
+   * @param path    The path of the folder.
+   * @param options The operation options.
+   * @return The files of the page, and the cursor of the next page, if any.
+   * @throws NotFoundException         If the specified folder does not exist, is not a folder, or the current user is
+   *                                   not allowed to read it.
+   * @throws InvalidOperationException If the cursor option is not valid for the sort order option.
+   * @throws AccessControlException    If the current user cannot perform this operation.
+   * @throws OperationFailedException  If the operation fails for some other (checked) reason.
+   */
+  @NonNull
+  default ListFolderResult listFolder( @NonNull GenericFilePath path, @NonNull ListFolderOptions options )
+    throws OperationFailedException {
+    return ListFolderPaging.getPage( getTree( ListFolderPaging.createFolderTreeOptions( path, options ) ), options );
+  }
+
+  /**
+   * Finds the files under a folder which match the given criteria.
+   * <p>
+   * Use this method, rather than getting a deep tree with {@link #getTree(GetTreeOptions)} and filtering it, to find
+   * files by name, extension, modified or created date, size or owner. Criteria are applied by the provider of the
+   * folder, natively where possible, and only the matching files are returned.
+   * <p>
+   * The default implementation walks the tree of the folder, with
+   * {@link #walkTree(GetTreeOptions, IGenericFileVisitor)}, and evaluates the criteria on each file.
+   *
+   * @param basePath The path of the base folder.
+   * @param options  The find criteria and options.
+   * @return The matching files, in depth-first order, not including the base folder.
+   * @throws NotFoundException        If the specified base folder does not exist, is not a folder, or the current user
+   *                                  is not allowed to read it.
+   * @throws AccessControlException   If the current user cannot perform this operation.
+   * @throws OperationFailedException If the operation fails for some other (checked) reason.
+   */
+  @NonNull
+  default List<IGenericFile> find( @NonNull GenericFilePath basePath, @NonNull FindOptions options )
+    throws OperationFailedException {
+    GenericFileFinder finder = new GenericFileFinder( options );
+
+    List<IGenericFile> results = new ArrayList<>();
+    walkTree( finder.createWalkOptions( basePath ), finder.createVisitor( results ) );
+    return results;
+  }
+
   /**
    * Gets a list of deleted files which are still available in the trash folder.
    *
@@ -625,6 +830,30 @@ public interface IGenericFileService {
    */
   void deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent ) throws OperationFailedException;
 
+  /**
+   * Deletes files, given their paths, by sending them to the trash or permanently deleting them, depending on the
+   * value of the {@code permanent} variable, reporting progress to a batch operation handle.
+   * <p>
+   * The progress of the operation is reported to the given handle, which also allows cancelling it. Paths which are not
+   * processed due to cancellation fail with an {@link OperationCancelledException}.
+   * <p>
+   * The default implementation of this method calls {@link #deleteFiles(List, boolean)}, and records all paths as
+   * completing at once, via {@link BatchOperationHandle#runAsWhole(List, BatchOperationHandle.IBatchOperation)}.
+   *
+   * @param paths     The list of file paths to be deleted. These paths must not refer to items that are in the
+   *                  trash (deleted).
+   * @param permanent If {@code true}, the file is permanently deleted; if {@code false}, the file is sent to the trash.
+   * @param handle    The batch operation handle.
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the batch operation fails, or is cancelled, for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  default void deleteFiles( @NonNull List<GenericFilePath> paths,
+                            boolean permanent,
+                            @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    handle.runAsWhole( paths, () -> deleteFiles( paths, permanent ) );
+  }
+
   /**
    * Deletes files, given their paths, by sending them to the trash.
    *
@@ -720,6 +949,27 @@ public interface IGenericFileService {
    */
   void restoreFiles( @NonNull List<GenericFilePath> paths ) throws OperationFailedException;
 
+  /**
+   * Restores files, given their paths, reporting progress to a batch operation handle.
+   * <p>
+   * The progress of the operation is reported to the given handle, which also allows cancelling it. Paths which are not
+   * processed due to cancellation fail with an {@link OperationCancelledException}.
+   * <p>
+   * The default implementation of this method calls {@link #restoreFiles(List)}, and records all paths as
+   * completing at once, via {@link BatchOperationHandle#runAsWhole(List, BatchOperationHandle.IBatchOperation)}.
+   *
+   * @param paths  The list of file paths to be restored. These paths must refer to items that are in the trash
+   *               (deleted).
+   * @param handle The batch operation handle.
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the batch operation fails, or is cancelled, for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  default void restoreFiles( @NonNull List<GenericFilePath> paths, @NonNull BatchOperationHandle handle )
+    throws OperationFailedException {
+    handle.runAsWhole( paths, () -> restoreFiles( paths ) );
+  }
+
   /**
    * Restores a file, given its path.
    *
@@ -815,6 +1065,30 @@ public interface IGenericFileService {
   void copyFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException;
 
+  /**
+   * Copys files or folders from a given path to a destination folder, reporting progress to a batch operation handle.
+   * <p>
+   * The progress of the operation is reported to the given handle, which also allows cancelling it. Paths which are not
+   * processed due to cancellation fail with an {@link OperationCancelledException}.
+   * <p>
+   * The default implementation of this method calls {@link #copyFiles(List, GenericFilePath)}, and records all paths as
+   * completing at once, via {@link BatchOperationHandle#runAsWhole(List, BatchOperationHandle.IBatchOperation)}.
+   *
+   * @param paths             The list of file or folder paths to be copied. These paths must not refer to an item in
+   *                          the trash (deleted).
+   * @param destinationFolder The folder path to copy the files to. This path must not refer to a folder in the trash
+   *                          (deleted).
+   * @param handle            The batch operation handle.
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the batch operation fails, or is cancelled, for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  default void copyFiles( @NonNull List<GenericFilePath> paths,
+                          @NonNull GenericFilePath destinationFolder,
+                          @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    handle.runAsWhole( paths, () -> copyFiles( paths, destinationFolder ) );
+  }
+
   /**
    * Copies a file or folder from a given path to a destination folder.
    *
@@ -859,6 +1133,9 @@ public interface IGenericFileService {
 
   /**
    * Moves files or folders from a given path to a destination folder.
+   * <p>
+   * Files or folders moved to a folder of a different provider are copied, and then sent to the trash of their
+   * provider, from which they can still be restored.
    *
    * @param paths             The list of file or folder paths to be moved. These paths must not refer to an item in
    *                          the trash (deleted).
@@ -871,8 +1148,35 @@ public interface IGenericFileService {
   void moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException;
 
+  /**
+   * Moves files or folders from a given path to a destination folder, reporting progress to a batch operation handle.
+   * <p>
+   * The progress of the operation is reported to the given handle, which also allows cancelling it. Paths which are not
+   * processed due to cancellation fail with an {@link OperationCancelledException}.
+   * <p>
+   * The default implementation of this method calls {@link #moveFiles(List, GenericFilePath)}, and records all paths as
+   * completing at once, via {@link BatchOperationHandle#runAsWhole(List, BatchOperationHandle.IBatchOperation)}.
+   *
+   * @param paths             The list of file or folder paths to be moved. These paths must not refer to an item in
+   *                          the trash (deleted).
+   * @param destinationFolder The folder path to move the files to. This path must not refer to a folder in the trash
+   *                          (deleted).
+   * @param handle            The batch operation handle.
+   * @throws AccessControlException        If the current user cannot perform this operation.
+   * @throws BatchOperationFailedException If the batch operation fails, or is cancelled, for some of the paths.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  default void moveFiles( @NonNull List<GenericFilePath> paths,
+                          @NonNull GenericFilePath destinationFolder,
+                          @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    handle.runAsWhole( paths, () -> moveFiles( paths, destinationFolder ) );
+  }
+
   /**
    * Moves a file or folder from a given path to a destination folder.
+   * <p>
+   * A file or folder moved to a folder of a different provider is copied, and then sent to the trash of its provider,
+   * from which it can still be restored.
    *
    * @param path              The path of the file or folder to be moved. This path must not refer to an item in the
    *                          trash (deleted).
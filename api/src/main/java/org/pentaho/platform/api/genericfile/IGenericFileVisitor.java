@@ -0,0 +1,65 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+
+/**
+ * The {@code IGenericFileVisitor} interface is implemented by callers of a tree walk, to receive each file of the tree
+ * as soon as it is obtained, rather than the whole tree at once.
+ * <p>
+ * Files are visited depth-first, each folder before its children. The parent of each file is given by its
+ * {@link IGenericFile#getParentPath() parent path}, and is always visited before it.
+ *
+ * @see IGenericFileService#walkTree(GetTreeOptions, IGenericFileVisitor)
+ * @see IGenericFileProvider#walkTree(GetTreeOptions, IGenericFileVisitor)
+ */
+@FunctionalInterface
+public interface IGenericFileVisitor {
+  /**
+   * The ways in which a tree walk can continue after visiting a file.
+   */
+  enum VisitResult {
+    /**
+     * Continue the walk, visiting the children of the file, if it is a folder.
+     */
+    CONTINUE,
+
+    /**
+     * Continue the walk, without visiting the children of the file.
+     */
+    SKIP_CHILDREN,
+
+    /**
+     * Stop the walk.
+     */
+    TERMINATE
+  }
+
+  /**
+   * Visits a file of the tree.
+   * <p>
+   * The file may be shared with other callers, such as when it is obtained from a tree cache, and so should not be
+   * retained or modified by the visitor, unless the visitor knows otherwise.
+   *
+   * @param file  The file.
+   * @param depth The depth of the file, relative to the base folder of the walk, which has a depth of {@code 0}.
+   * @return How the walk continues.
+   * @throws OperationFailedException If the visitor fails, in which case the walk stops, and the exception is thrown by
+   *                                  the walk.
+   */
+  @NonNull
+  VisitResult visit( @NonNull IGenericFile file, int depth ) throws OperationFailedException;
+}
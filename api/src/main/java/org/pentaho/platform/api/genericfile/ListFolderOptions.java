@@ -0,0 +1,237 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * This class contains the options for listing a page of the files of a folder.
+ *
+ * @see IGenericFileService#listFolder(GenericFilePath, ListFolderOptions)
+ */
+public class ListFolderOptions {
+  /**
+   * The default number of files per page.
+   */
+  public static final int DEFAULT_PAGE_SIZE = 100;
+
+  /**
+   * Enum to represent the orders in which the files of a folder can be listed.
+   * <p>
+   * Files with equal modified dates are further ordered by name. Names are compared ignoring case, and then, only if
+   * equal, considering case.
+   */
+  public enum SortOrder {
+    NAME_ASCENDING,
+    NAME_DESCENDING,
+    MODIFIED_DATE_ASCENDING,
+    MODIFIED_DATE_DESCENDING
+  }
+
+  private int pageSize = DEFAULT_PAGE_SIZE;
+
+  @Nullable
+  private String cursor;
+
+  @NonNull
+  private SortOrder sortOrder = SortOrder.NAME_ASCENDING;
+
+  @NonNull
+  private GetTreeOptions.TreeFilter filter = GetTreeOptions.TreeFilter.ALL;
+
+  private boolean includeHidden;
+
+  private boolean includeMetadata;
+
+  public ListFolderOptions() {
+  }
+
+  /**
+   * Copy constructor.
+   *
+   * @param other The options instance from which to initialize this instance.
+   */
+  public ListFolderOptions( @NonNull ListFolderOptions other ) {
+    Objects.requireNonNull( other );
+
+    this.pageSize = other.pageSize;
+    this.cursor = other.cursor;
+    this.sortOrder = other.sortOrder;
+    this.filter = other.filter;
+    this.includeHidden = other.includeHidden;
+    this.includeMetadata = other.includeMetadata;
+  }
+
+  /**
+   * Gets the maximum number of files of the page.
+   * <p>
+   * Defaults to {@link #DEFAULT_PAGE_SIZE}.
+   *
+   * @return The page size.
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  /**
+   * Sets the maximum number of files of the page.
+   *
+   * @param pageSize The page size.
+   * @throws IllegalArgumentException If the page size is not greater than zero.
+   */
+  public void setPageSize( int pageSize ) {
+    if ( pageSize <= 0 ) {
+      throw new IllegalArgumentException( "Page size must be greater than zero." );
+    }
+
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Gets the cursor of the page.
+   * <p>
+   * When {@code null}, the first page is listed. Otherwise, the page which follows the page that returned the cursor,
+   * as its {@link ListFolderResult#getNextCursor() next cursor}, is listed. A cursor can only be used with the same
+   * {@link #getSortOrder() sort order} as that of the page which returned it.
+   * <p>
+   * Cursors identify the position of the last file of a page, and not its index, and so files added to or removed from
+   * the folder in between requests do not cause other files to be listed twice, or not at all.
+   * <p>
+   * Defaults to {@code null}.
+   *
+   * @return The cursor.
+   */
+  @Nullable
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Sets the cursor of the page.
+   *
+   * @param cursor The cursor.
+   */
+  public void setCursor( @Nullable String cursor ) {
+    this.cursor = cursor;
+  }
+
+  /**
+   * Gets the order in which files are listed.
+   * <p>
+   * Defaults to {@link SortOrder#NAME_ASCENDING}.
+   *
+   * @return The sort order.
+   */
+  @NonNull
+  public SortOrder getSortOrder() {
+    return sortOrder;
+  }
+
+  /**
+   * Sets the order in which files are listed.
+   *
+   * @param sortOrder The sort order.
+   */
+  public void setSortOrder( @NonNull SortOrder sortOrder ) {
+    this.sortOrder = Objects.requireNonNull( sortOrder );
+  }
+
+  /**
+   * Gets the filter of the type of files listed.
+   * <p>
+   * Defaults to {@link GetTreeOptions.TreeFilter#ALL}.
+   *
+   * @return The filter.
+   */
+  @NonNull
+  public GetTreeOptions.TreeFilter getFilter() {
+    return filter;
+  }
+
+  /**
+   * Sets the filter of the type of files listed.
+   *
+   * @param filter The filter.
+   */
+  public void setFilter( @NonNull GetTreeOptions.TreeFilter filter ) {
+    this.filter = Objects.requireNonNull( filter );
+  }
+
+  /**
+   * Gets a value that indicates whether hidden files are included in the result.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return {@code true} to include hidden files; {@code false}, otherwise.
+   */
+  public boolean isIncludeHidden() {
+    return includeHidden;
+  }
+
+  /**
+   * Sets the include hidden files value.
+   *
+   * @param includeHidden {@code true} to include hidden files; {@code false}, otherwise.
+   */
+  public void setIncludeHidden( boolean includeHidden ) {
+    this.includeHidden = includeHidden;
+  }
+
+  /**
+   * Gets a value that indicates whether metadata for files is included in the result.
+   * <p>
+   * Defaults to {@code false}.
+   *
+   * @return {@code true} to include metadata; {@code false}, otherwise.
+   */
+  public boolean isIncludeMetadata() {
+    return includeMetadata;
+  }
+
+  /**
+   * Sets the include metadata value.
+   *
+   * @param includeMetadata {@code true} to include metadata; {@code false}, otherwise.
+   */
+  public void setIncludeMetadata( boolean includeMetadata ) {
+    this.includeMetadata = includeMetadata;
+  }
+
+  @Override
+  public boolean equals( Object other ) {
+    if ( this == other ) {
+      return true;
+    }
+
+    if ( other == null || getClass() != other.getClass() ) {
+      return false;
+    }
+
+    ListFolderOptions that = (ListFolderOptions) other;
+
+    return pageSize == that.pageSize
+      && Objects.equals( cursor, that.cursor )
+      && Objects.equals( sortOrder, that.sortOrder )
+      && Objects.equals( filter, that.filter )
+      && Objects.equals( includeHidden, that.includeHidden )
+      && Objects.equals( includeMetadata, that.includeMetadata );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash( pageSize, cursor, sortOrder, filter, includeHidden, includeMetadata );
+  }
+}
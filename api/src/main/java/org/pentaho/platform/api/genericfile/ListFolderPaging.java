@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The {@code ListFolderPaging} class selects a page of the files of a folder, as specified by
+ * {@link ListFolderOptions}, and creates the cursor of the next page.
+ * <p>
+ * Providers use it to page the files of a folder in their native representation, so that only the files of the page
+ * need to be converted to generic files. This way, all providers share the same sort orders and cursor format.
+ *
+ * @see IGenericFileProvider#listFolder(GenericFilePath, ListFolderOptions)
+ */
+public final class ListFolderPaging {
+  private static final String CURSOR_SEPARATOR = "\n";
+
+  private static final Comparator<SortKey> NAME_ORDER = Comparator
+    .comparing( ( SortKey key ) -> key.name, String.CASE_INSENSITIVE_ORDER )
+    .thenComparing( key -> key.name );
+
+  private static final Comparator<SortKey> MODIFIED_DATE_ORDER = Comparator
+    .comparingLong( ( SortKey key ) -> key.modifiedTime )
+    .thenComparing( NAME_ORDER );
+
+  /**
+   * The position of a file in a sort order.
+   */
+  private static class SortKey {
+    @NonNull
+    final String name;
+
+    final long modifiedTime;
+
+    SortKey( @NonNull String name, long modifiedTime ) {
+      this.name = name;
+      this.modifiedTime = modifiedTime;
+    }
+  }
+
+  /**
+   * A page of the files of a folder.
+   *
+   * @param <F> The type of file.
+   */
+  public static final class Page<F> {
+    @NonNull
+    private final List<F> files;
+
+    @Nullable
+    private final String nextCursor;
+
+    private Page( @NonNull List<F> files, @Nullable String nextCursor ) {
+      this.files = files;
+      this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the files of the page, in order.
+     */
+    @NonNull
+    public List<F> getFiles() {
+      return files;
+    }
+
+    /**
+     * Gets the cursor of the next page, if any; {@code null}, if this is the last page.
+     */
+    @Nullable
+    public String getNextCursor() {
+      return nextCursor;
+    }
+  }
+
+  private ListFolderPaging() {
+  }
+
+  /**
+   * Selects the page of the files of a folder specified by the given options.
+   * <p>
+   * The files must already be filtered by the {@link ListFolderOptions#getFilter() filter} and
+   * {@link ListFolderOptions#isIncludeHidden() include hidden} options. Only the files after the cursor, if any, are
+   * sorted.
+   *
+   * @param files                The files of the folder, in any order.
+   * @param options              The listing options.
+   * @param nameFunction         The function which gets the name of a file.
+   * @param modifiedDateFunction The function which gets the modified date of a file, possibly {@code null}.
+   * @param <F>                  The type of file.
+   * @return The page.
+   * @throws InvalidOperationException If the cursor option is not valid, or was not created for the sort order option.
+   */
+  @NonNull
+  public static <F> Page<F> getPage( @NonNull List<F> files,
+                                     @NonNull ListFolderOptions options,
+                                     @NonNull Function<F, String> nameFunction,
+                                     @NonNull Function<F, Date> modifiedDateFunction )
+    throws InvalidOperationException {
+    Objects.requireNonNull( files );
+    Objects.requireNonNull( options );
+
+    ListFolderOptions.SortOrder sortOrder = options.getSortOrder();
+    Comparator<SortKey> keyOrder = getKeyOrder( sortOrder );
+    SortKey cursorKey = options.getCursor() != null ? decodeCursor( options.getCursor(), sortOrder ) : null;
+
+    Function<F, SortKey> keyFunction = file -> {
+      Date modifiedDate = modifiedDateFunction.apply( file );
+      return new SortKey( nameFunction.apply( file ), modifiedDate != null ? modifiedDate.getTime() : Long.MIN_VALUE );
+    };
+
+    List<F> pendingFiles = new ArrayList<>();
+    for ( F file : files ) {
+      if ( cursorKey == null || keyOrder.compare( keyFunction.apply( file ), cursorKey ) > 0 ) {
+        pendingFiles.add( file );
+      }
+    }
+
+    pendingFiles.sort( Comparator.comparing( keyFunction, keyOrder ) );
+
+    int pageSize = options.getPageSize();
+    if ( pendingFiles.size() <= pageSize ) {
+      return new Page<>( pendingFiles, null );
+    }
+
+    List<F> pageFiles = new ArrayList<>( pendingFiles.subList( 0, pageSize ) );
+    String nextCursor = encodeCursor( keyFunction.apply( pageFiles.get( pageSize - 1 ) ), sortOrder );
+    return new Page<>( pageFiles, nextCursor );
+  }
+
+  /**
+   * Creates the options to get the tree of a folder, of depth {@code 1}, from which to list its files.
+   * <p>
+   * This is used to list folders with {@link IGenericFileProvider#getTree(GetTreeOptions)}, by providers which cannot
+   * list their folders more efficiently.
+   *
+   * @param path    The path of the folder.
+   * @param options The listing options.
+   * @return The tree options.
+   * @see #getPage(IGenericFileTree, ListFolderOptions)
+   */
+  @NonNull
+  public static GetTreeOptions createFolderTreeOptions( @NonNull GenericFilePath path,
+                                                        @NonNull ListFolderOptions options ) {
+    GetTreeOptions treeOptions = new GetTreeOptions();
+    treeOptions.setBasePath( Objects.requireNonNull( path ) );
+    treeOptions.setMaxDepth( 1 );
+    treeOptions.setFilter( options.getFilter() );
+    treeOptions.setIncludeHidden( options.isIncludeHidden() );
+    treeOptions.setIncludeMetadata( options.isIncludeMetadata() );
+    return treeOptions;
+  }
+
+  /**
+   * Selects the page of the files of a folder tree specified by the given options.
+   *
+   * @param folderTree The tree of the folder, as obtained with the options created by
+   *                   {@link #createFolderTreeOptions(GenericFilePath, ListFolderOptions)}.
+   * @param options    The listing options.
+   * @return The listing result.
+   * @throws InvalidOperationException If the cursor option is not valid, or was not created for the sort order option.
+   */
+  @NonNull
+  public static ListFolderResult getPage( @NonNull IGenericFileTree folderTree, @NonNull ListFolderOptions options )
+    throws InvalidOperationException {
+    List<IGenericFile> files = new ArrayList<>();
+    if ( folderTree.getChildren() != null ) {
+      folderTree.getChildren().forEach( childTree -> files.add( childTree.getFile() ) );
+    }
+
+    Page<IGenericFile> page = getPage( files, options, IGenericFile::getName, IGenericFile::getModifiedDate );
+    return new ListFolderResult( page.getFiles(), page.getNextCursor() );
+  }
+
+  @NonNull
+  private static Comparator<SortKey> getKeyOrder( @NonNull ListFolderOptions.SortOrder sortOrder ) {
+    return switch ( sortOrder ) {
+      case NAME_ASCENDING -> NAME_ORDER;
+      case NAME_DESCENDING -> NAME_ORDER.reversed();
+      case MODIFIED_DATE_ASCENDING -> MODIFIED_DATE_ORDER;
+      case MODIFIED_DATE_DESCENDING -> MODIFIED_DATE_ORDER.reversed();
+    };
+  }
+
+  @NonNull
+  private static String encodeCursor( @NonNull SortKey key, @NonNull ListFolderOptions.SortOrder sortOrder ) {
+    String cursor = sortOrder.name() + CURSOR_SEPARATOR + key.modifiedTime + CURSOR_SEPARATOR + key.name;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString( cursor.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  @NonNull
+  private static SortKey decodeCursor( @NonNull String cursor, @NonNull ListFolderOptions.SortOrder sortOrder )
+    throws InvalidOperationException {
+    try {
+      String[] parts = new String( Base64.getUrlDecoder().decode( cursor ), StandardCharsets.UTF_8 )
+        .split( CURSOR_SEPARATOR, 3 );
+
+      if ( parts.length == 3 && parts[ 0 ].equals( sortOrder.name() ) ) {
+        return new SortKey( parts[ 2 ], Long.parseLong( parts[ 1 ] ) );
+      }
+    } catch ( IllegalArgumentException e ) {
+      // Not Base64, or not a number. Reported below.
+    }
+
+    throw new InvalidOperationException( "Invalid cursor for sort order " + sortOrder + "." );
+  }
+}
@@ -0,0 +1,75 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+
+import java.util.List;
+
+/**
+ * This class contains the result of listing a page of the files of a folder: the files of the page, and the cursor
+ * of the next page, if any.
+ *
+ * @see IGenericFileService#listFolder(GenericFilePath, ListFolderOptions)
+ * @see IGenericFileProvider#listFolder(GenericFilePath, ListFolderOptions)
+ */
+public class ListFolderResult {
+  @NonNull
+  private final List<IGenericFile> files;
+
+  @Nullable
+  private final String nextCursor;
+
+  /**
+   * Creates a folder listing result.
+   *
+   * @param files      The files of the page.
+   * @param nextCursor The cursor of the next page, if any; {@code null}, if this is the last page.
+   */
+  public ListFolderResult( @NonNull List<? extends IGenericFile> files, @Nullable String nextCursor ) {
+    this.files = List.copyOf( files );
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Gets the files of the page, in the requested order.
+   *
+   * @return An unmodifiable list of files.
+   */
+  @NonNull
+  public List<IGenericFile> getFiles() {
+    return files;
+  }
+
+  /**
+   * Gets the cursor of the next page.
+   *
+   * @return The cursor of the next page, to use as {@link ListFolderOptions#setCursor(String)}; {@code null}, if this
+   * is the last page.
+   */
+  @Nullable
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  /**
+   * Gets a value that indicates whether there are more files, after those of this page.
+   *
+   * @return {@code true}, if there is a next page; {@code false}, otherwise.
+   */
+  public boolean hasMore() {
+    return nextCursor != null;
+  }
+}
@@ -0,0 +1,174 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * This class contains a snapshot of the call statistics of an operation of the generic file service, or of one of the
+ * generic file providers.
+ * <p>
+ * The latency percentiles are estimated from a histogram, and are accurate to within 12.5% of the actual value.
+ *
+ * @see IGenericFileService#getOperationStatistics()
+ */
+public class OperationStatistics {
+  @Nullable
+  private String providerType;
+
+  private String operation;
+
+  private long callCount;
+
+  private long errorCount;
+
+  private long totalTimeNanos;
+
+  private long maxTimeNanos;
+
+  private long p50TimeNanos;
+
+  private long p95TimeNanos;
+
+  private long p99TimeNanos;
+
+  /**
+   * Gets the type of the provider of the operation.
+   * <p>
+   * Calls to the service itself, which include the time spent in providers and decorating files, have a {@code null}
+   * provider type.
+   *
+   * @return The provider type, if any; {@code null}, for operations of the service.
+   */
+  @Nullable
+  public String getProviderType() {
+    return providerType;
+  }
+
+  public void setProviderType( @Nullable String providerType ) {
+    this.providerType = providerType;
+  }
+
+  /**
+   * Gets the name of the operation, which is the name of the called method, e.g. {@code getTree}.
+   *
+   * @return The operation name.
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  public void setOperation( String operation ) {
+    this.operation = operation;
+  }
+
+  /**
+   * Gets the number of calls which completed, successfully or not.
+   *
+   * @return The number of calls.
+   */
+  public long getCallCount() {
+    return callCount;
+  }
+
+  public void setCallCount( long callCount ) {
+    this.callCount = callCount;
+  }
+
+  /**
+   * Gets the number of calls which failed, by throwing an exception.
+   *
+   * @return The number of errors.
+   */
+  public long getErrorCount() {
+    return errorCount;
+  }
+
+  public void setErrorCount( long errorCount ) {
+    this.errorCount = errorCount;
+  }
+
+  /**
+   * Gets the total time spent in calls, in nanoseconds.
+   *
+   * @return The total time.
+   */
+  public long getTotalTimeNanos() {
+    return totalTimeNanos;
+  }
+
+  public void setTotalTimeNanos( long totalTimeNanos ) {
+    this.totalTimeNanos = totalTimeNanos;
+  }
+
+  /**
+   * Gets the time of the slowest call, in nanoseconds.
+   *
+   * @return The maximum time; {@code 0}, if there were no calls.
+   */
+  public long getMaxTimeNanos() {
+    return maxTimeNanos;
+  }
+
+  public void setMaxTimeNanos( long maxTimeNanos ) {
+    this.maxTimeNanos = maxTimeNanos;
+  }
+
+  /**
+   * Gets the median time of calls, in nanoseconds.
+   *
+   * @return The 50th percentile time; {@code 0}, if there were no calls.
+   */
+  public long getP50TimeNanos() {
+    return p50TimeNanos;
+  }
+
+  public void setP50TimeNanos( long p50TimeNanos ) {
+    this.p50TimeNanos = p50TimeNanos;
+  }
+
+  /**
+   * Gets the time within which 95% of calls completed, in nanoseconds.
+   *
+   * @return The 95th percentile time; {@code 0}, if there were no calls.
+   */
+  public long getP95TimeNanos() {
+    return p95TimeNanos;
+  }
+
+  public void setP95TimeNanos( long p95TimeNanos ) {
+    this.p95TimeNanos = p95TimeNanos;
+  }
+
+  /**
+   * Gets the time within which 99% of calls completed, in nanoseconds.
+   *
+   * @return The 99th percentile time; {@code 0}, if there were no calls.
+   */
+  public long getP99TimeNanos() {
+    return p99TimeNanos;
+  }
+
+  public void setP99TimeNanos( long p99TimeNanos ) {
+    this.p99TimeNanos = p99TimeNanos;
+  }
+
+  /**
+   * Gets the average time of calls, in nanoseconds.
+   *
+   * @return The average time; {@code 0}, if there were no calls.
+   */
+  public long getAverageTimeNanos() {
+    return callCount > 0 ? totalTimeNanos / callCount : 0;
+  }
+}
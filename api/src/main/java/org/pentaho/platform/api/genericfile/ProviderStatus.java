@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+/**
+ * The status of a generic file provider, as part of an operation which aggregates the results of all providers.
+ */
+public enum ProviderStatus {
+  /**
+   * The provider responded successfully.
+   */
+  AVAILABLE,
+
+  /**
+   * The provider responded with an error.
+   */
+  FAILED,
+
+  /**
+   * The provider did not respond in time.
+   */
+  TIMED_OUT,
+
+  /**
+   * The provider was not queried, as it failed repeatedly in recent operations.
+   */
+  UNAVAILABLE
+}
@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+/**
+ * This class contains a snapshot of the statistics of the tree cache of a generic file provider.
+ * <p>
+ * Counts are cumulative, since the provider was created, except for the entry and node counts, which reflect the
+ * current contents of the cache.
+ *
+ * @see IGenericFileProvider#getTreeCacheStatistics()
+ * @see IGenericFileService#getTreeCacheStatistics()
+ */
+public class TreeCacheStatistics {
+  private long hitCount;
+
+  private long missCount;
+
+  private long loadCount;
+
+  private long totalLoadTimeNanos;
+
+  private long evictionCount;
+
+  private long invalidationCount;
+
+  private long entryCount;
+
+  private long nodeCount;
+
+  /**
+   * Gets the number of trees which were obtained from the cache.
+   * <p>
+   * Each 'get tree' call counts as a single hit or miss, regardless of the number of cached folder listings from
+   * which its tree is composed.
+   *
+   * @return The number of hits.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public void setHitCount( long hitCount ) {
+    this.hitCount = hitCount;
+  }
+
+  /**
+   * Gets the number of trees which could not be obtained from the cache, or for which the cache was bypassed, and
+   * had to be loaded, in whole or in part.
+   *
+   * @return The number of misses.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public void setMissCount( long missCount ) {
+    this.missCount = missCount;
+  }
+
+  /**
+   * Gets the number of trees loaded from the underlying file system, including background refreshes.
+   *
+   * @return The number of loads.
+   */
+  public long getLoadCount() {
+    return loadCount;
+  }
+
+  public void setLoadCount( long loadCount ) {
+    this.loadCount = loadCount;
+  }
+
+  /**
+   * Gets the total time spent loading trees from the underlying file system, in nanoseconds.
+   *
+   * @return The total load time.
+   */
+  public long getTotalLoadTimeNanos() {
+    return totalLoadTimeNanos;
+  }
+
+  public void setTotalLoadTimeNanos( long totalLoadTimeNanos ) {
+    this.totalLoadTimeNanos = totalLoadTimeNanos;
+  }
+
+  /**
+   * Gets the number of entries removed from the cache to stay within its budget, or because they expired.
+   *
+   * @return The number of evictions.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public void setEvictionCount( long evictionCount ) {
+    this.evictionCount = evictionCount;
+  }
+
+  /**
+   * Gets the number of entries removed from the cache by clearing it, either wholly or for a changed path.
+   * <p>
+   * A high number, relative to the number of loads, indicates that clearing the cache is defeating it.
+   *
+   * @return The number of invalidated entries.
+   */
+  public long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  public void setInvalidationCount( long invalidationCount ) {
+    this.invalidationCount = invalidationCount;
+  }
+
+  /**
+   * Gets the number of entries currently in the cache.
+   *
+   * @return The number of entries.
+   */
+  public long getEntryCount() {
+    return entryCount;
+  }
+
+  public void setEntryCount( long entryCount ) {
+    this.entryCount = entryCount;
+  }
+
+  /**
+   * Gets the estimated number of tree nodes currently held by the cache.
+   *
+   * @return The number of nodes.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  public void setNodeCount( long nodeCount ) {
+    this.nodeCount = nodeCount;
+  }
+
+  /**
+   * Gets the ratio of hits to the total number of requests, hits and misses.
+   *
+   * @return The hit ratio, between {@code 0} and {@code 1}; {@code 0}, if there were no requests.
+   */
+  public double getHitRatio() {
+    long requestCount = hitCount + missCount;
+    return requestCount > 0 ? (double) hitCount / requestCount : 0;
+  }
+
+  /**
+   * Gets the average time spent loading a tree from the underlying file system, in nanoseconds.
+   *
+   * @return The average load time; {@code 0}, if there were no loads.
+   */
+  public long getAverageLoadTimeNanos() {
+    return loadCount > 0 ? totalLoadTimeNanos / loadCount : 0;
+  }
+}
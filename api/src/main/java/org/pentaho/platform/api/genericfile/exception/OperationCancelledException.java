@@ -0,0 +1,37 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile.exception;
+
+/**
+ * The exception class thrown for the paths of a batch operation which were not processed because the operation was
+ * cancelled, via {@link org.pentaho.platform.api.genericfile.BatchOperationHandle#cancel()}.
+ * <p>
+ * Paths which were already processed when the operation was cancelled keep their outcome.
+ */
+public class OperationCancelledException extends OperationFailedException {
+  public OperationCancelledException() {
+    super();
+  }
+
+  public OperationCancelledException( String message ) {
+    super( message );
+  }
+
+  public OperationCancelledException( Throwable cause ) {
+    super( cause );
+  }
+
+  public OperationCancelledException( String message, Throwable cause ) {
+    super( message, cause );
+  }
+}
@@ -14,6 +14,8 @@ package org.pentaho.platform.api.genericfile.model;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -74,4 +76,40 @@ public interface IGenericFileTree {
 
     children.add( childTree );
   }
+
+  /**
+   * Walks this file tree, depth-first, visiting each of its files with a given visitor.
+   * <p>
+   * The file of this tree is visited with a depth of {@code 0}. Folders whose {@link #getChildren() child trees} are
+   * {@code null} are visited, but, naturally, not their children.
+   *
+   * @param visitor The file visitor.
+   * @return {@code true}, if the whole tree was walked; {@code false}, if the visitor terminated the walk.
+   * @throws OperationFailedException If the visitor fails.
+   */
+  default boolean walk( @NonNull IGenericFileVisitor visitor ) throws OperationFailedException {
+    Objects.requireNonNull( visitor );
+
+    return walk( this, 0, visitor );
+  }
+
+  private static boolean walk( @NonNull IGenericFileTree tree, int depth, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+
+    IGenericFileVisitor.VisitResult result = visitor.visit( tree.getFile(), depth );
+    if ( result == IGenericFileVisitor.VisitResult.TERMINATE ) {
+      return false;
+    }
+
+    List<IGenericFileTree> children = tree.getChildren();
+    if ( result == IGenericFileVisitor.VisitResult.CONTINUE && children != null ) {
+      for ( IGenericFileTree childTree : children ) {
+        if ( !walk( childTree, depth + 1, visitor ) ) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
 }
@@ -0,0 +1,103 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link BatchOperationHandle} class.
+ */
+class BatchOperationHandleTest {
+  @Test
+  void testRunAsWholeRecordsAllPathsAsCompleted() throws OperationFailedException {
+    List<GenericFilePath> paths =
+      List.of( GenericFilePath.parseRequired( "/a" ), GenericFilePath.parseRequired( "/b" ) );
+    BatchOperationHandle handle = new BatchOperationHandle();
+
+    handle.runAsWhole( paths, () -> { } );
+
+    assertEquals( 2, handle.getTotalCount() );
+    assertEquals( 2, handle.getCompletedCount() );
+    assertEquals( 0, handle.getFailedCount() );
+    assertTrue( handle.isDone() );
+  }
+
+  @Test
+  void testRunAsWholeRecordsFailedPathsOfBatchException() throws OperationFailedException {
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/b" );
+    BatchOperationHandle handle = new BatchOperationHandle();
+
+    BatchOperationFailedException batchException = new BatchOperationFailedException( "Failed." );
+    batchException.addFailedPath( path2, new OperationFailedException( "Failed." ) );
+
+    BatchOperationFailedException thrown = assertThrows( BatchOperationFailedException.class,
+      () -> handle.runAsWhole( List.of( path1, path2 ), () -> {
+        throw batchException;
+      } ) );
+
+    assertSame( batchException, thrown );
+    assertEquals( 2, handle.getCompletedCount() );
+    assertEquals( 1, handle.getFailedCount() );
+    assertTrue( handle.isDone() );
+  }
+
+  @Test
+  void testRunAsWholeDoesNotRunOperationWhenCancelled() throws OperationFailedException {
+    GenericFilePath path = GenericFilePath.parseRequired( "/a" );
+    BatchOperationHandle handle = new BatchOperationHandle();
+    handle.cancel();
+
+    BatchOperationFailedException thrown = assertThrows( BatchOperationFailedException.class,
+      () -> handle.runAsWhole( List.of( path ), () -> {
+        throw new AssertionError( "Operation should not run." );
+      } ) );
+
+    assertInstanceOf( OperationCancelledException.class, thrown.getFailedFiles().get( path ) );
+    assertEquals( 1, handle.getFailedCount() );
+    assertTrue( handle.isDone() );
+  }
+
+  @Test
+  void testCheckCancelled() throws OperationCancelledException {
+    BatchOperationHandle handle = new BatchOperationHandle();
+
+    handle.checkCancelled();
+    assertFalse( handle.isCancelled() );
+
+    handle.cancel();
+
+    assertTrue( handle.isCancelled() );
+    assertThrows( OperationCancelledException.class, handle::checkCancelled );
+  }
+
+  @Test
+  void testStartThrowsIfAlreadyStarted() {
+    BatchOperationHandle handle = new BatchOperationHandle();
+    handle.start( 1 );
+
+    assertThrows( IllegalStateException.class, () -> handle.start( 1 ) );
+  }
+}
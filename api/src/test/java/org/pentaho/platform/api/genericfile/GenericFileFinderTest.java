@@ -0,0 +1,196 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the {@link GenericFileFinder} class.
+ */
+class GenericFileFinderTest {
+  @NonNull
+  private static IGenericFile createFileMock( String name, boolean isFolder ) {
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doReturn( name ).when( fileMock ).getName();
+    doReturn( isFolder ).when( fileMock ).isFolder();
+    return fileMock;
+  }
+
+  @Nested
+  class MatchesTests {
+    @Test
+    void testNoCriteriaMatchesAllFiles() {
+      GenericFileFinder finder = new GenericFileFinder( new FindOptions() );
+
+      assertTrue( finder.matches( createFileMock( "a.prpt", false ) ) );
+      assertTrue( finder.matches( createFileMock( "folder", true ) ) );
+    }
+
+    @Test
+    void testNamePatternIsGlob() {
+      FindOptions options = new FindOptions();
+      options.setNamePattern( "sales-?.*" );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      assertTrue( finder.matches( createFileMock( "sales-1.prpt", false ) ) );
+      assertTrue( finder.matches( createFileMock( "sales-2.", false ) ) );
+      assertFalse( finder.matches( createFileMock( "sales-10.prpt", false ) ) );
+      assertFalse( finder.matches( createFileMock( "Sales-1.prpt", false ) ) );
+      // Other characters are not special.
+      assertFalse( finder.matches( createFileMock( "sales-1xprpt", false ) ) );
+    }
+
+    @Test
+    void testExtensionAndFilter() {
+      FindOptions options = new FindOptions();
+      options.setExtension( "prpt" );
+      options.setFilter( GetTreeOptions.TreeFilter.FILES );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      assertTrue( finder.matches( createFileMock( "a.prpt", false ) ) );
+      assertFalse( finder.matches( createFileMock( "a.prpt", true ) ) );
+      assertFalse( finder.matches( createFileMock( "aprpt", false ) ) );
+    }
+
+    @Test
+    void testSizeAndDateRangesAreInclusive() {
+      FindOptions options = new FindOptions();
+      options.setMinFileSize( 10L );
+      options.setMaxFileSize( 20L );
+      options.setMinModifiedDate( new Date( 100 ) );
+      options.setMaxModifiedDate( new Date( 200 ) );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      IGenericFile fileMock = createFileMock( "a", false );
+      doReturn( 10L ).when( fileMock ).getFileSize();
+      doReturn( new Date( 200 ) ).when( fileMock ).getModifiedDate();
+      assertTrue( finder.matches( fileMock ) );
+
+      doReturn( 21L ).when( fileMock ).getFileSize();
+      assertFalse( finder.matches( fileMock ) );
+
+      doReturn( 20L ).when( fileMock ).getFileSize();
+      doReturn( new Date( 99 ) ).when( fileMock ).getModifiedDate();
+      assertFalse( finder.matches( fileMock ) );
+
+      // Files with no known date do not match a date range.
+      doReturn( null ).when( fileMock ).getModifiedDate();
+      assertFalse( finder.matches( fileMock ) );
+    }
+
+    @Test
+    void testOwnerIsOnlyObtainedWhenOtherCriteriaAreMet() {
+      FindOptions options = new FindOptions();
+      options.setNamePattern( "a*" );
+      options.setOwner( "admin" );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      IGenericFile otherFileMock = createFileMock( "b", false );
+      assertFalse( finder.matches( otherFileMock ) );
+      verify( otherFileMock, never() ).getOwner();
+
+      IGenericFile fileMock = createFileMock( "a", false );
+      doReturn( "admin" ).when( fileMock ).getOwner();
+      assertTrue( finder.matches( fileMock ) );
+    }
+
+    @Test
+    void testDatesAreOnlyObtainedWhenThereAreDateCriteria() {
+      FindOptions options = new FindOptions();
+      options.setMaxCreatedDate( new Date( 200 ) );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      assertTrue( finder.matches( "a", false, 0L,
+        () -> {
+          throw new AssertionError( "Modified date should not be obtained." );
+        },
+        () -> new Date( 100 ),
+        () -> null ) );
+    }
+
+    @Test
+    void testLaterChangesOfOptionsHaveNoEffect() {
+      FindOptions options = new FindOptions();
+      options.setNamePattern( "a" );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      options.setNamePattern( "b" );
+
+      assertTrue( finder.matches( createFileMock( "a", false ) ) );
+    }
+  }
+
+  @Nested
+  class VisitorTests {
+    @Test
+    void testVisitorSkipsBaseFolderAndTerminatesAtMaxResults() throws OperationFailedException {
+      FindOptions options = new FindOptions();
+      options.setMaxResults( 2 );
+      GenericFileFinder finder = new GenericFileFinder( options );
+
+      List<IGenericFile> results = new ArrayList<>();
+      IGenericFileVisitor visitor = finder.createVisitor( results );
+
+      IGenericFile baseMock = createFileMock( "base", true );
+      IGenericFile file1Mock = createFileMock( "a", false );
+      IGenericFile file2Mock = createFileMock( "b", false );
+
+      assertEquals( IGenericFileVisitor.VisitResult.CONTINUE, visitor.visit( baseMock, 0 ) );
+      assertEquals( IGenericFileVisitor.VisitResult.CONTINUE, visitor.visit( file1Mock, 1 ) );
+      assertEquals( IGenericFileVisitor.VisitResult.TERMINATE, visitor.visit( file2Mock, 2 ) );
+
+      assertEquals( List.of( file1Mock, file2Mock ), results );
+    }
+
+    @Test
+    void testWalkOptionsWalkAllFoldersWhenFindingFiles() throws InvalidPathException {
+      FindOptions options = new FindOptions();
+      options.setFilter( GetTreeOptions.TreeFilter.FILES );
+      options.setMaxDepth( 3 );
+      options.setIncludeHidden( true );
+
+      GetTreeOptions treeOptions =
+        new GenericFileFinder( options ).createWalkOptions( GenericFilePath.parseRequired( "/public" ) );
+
+      assertEquals( "/public", String.valueOf( treeOptions.getBasePath() ) );
+      assertEquals( GetTreeOptions.TreeFilter.ALL, treeOptions.getFilter() );
+      assertEquals( 3, treeOptions.getMaxDepth() );
+      assertTrue( treeOptions.isIncludeHidden() );
+    }
+  }
+
+  @Test
+  void testMaxResultsMustBeGreaterThanZero() {
+    FindOptions options = new FindOptions();
+
+    assertThrows( IllegalArgumentException.class, () -> options.setMaxResults( 0 ) );
+  }
+}
@@ -0,0 +1,62 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the static methods of the {@link IGenericFileProvider} interface.
+ */
+class IGenericFileProviderTest {
+  @Test
+  void testApplyToEachPathContinuesAfterFailuresAndCollectsFailedPaths() throws OperationFailedException {
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/b" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "/c" );
+    NotFoundException failure = new NotFoundException( "Not found." );
+    List<GenericFilePath> appliedPaths = new ArrayList<>();
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> IGenericFileProvider.applyToEachPath( List.of( path1, path2, path3 ), "Failed.", path -> {
+        appliedPaths.add( path );
+        if ( path.equals( path2 ) ) {
+          throw failure;
+        }
+      } ) );
+
+    assertEquals( List.of( path1, path2, path3 ), appliedPaths );
+    assertEquals( "Failed.", exception.getMessage() );
+    assertEquals( Map.of( path2, failure ), exception.getFailedFiles() );
+    assertSame( failure, exception.getSuppressed()[ 0 ] );
+  }
+
+  @Test
+  void testApplyToEachPathDoesNotThrowWhenAllPathsSucceed() throws OperationFailedException {
+    List<GenericFilePath> paths =
+      List.of( GenericFilePath.parseRequired( "/a" ), GenericFilePath.parseRequired( "/b" ) );
+
+    assertDoesNotThrow( () -> IGenericFileProvider.applyToEachPath( paths, "Failed.", path -> { } ) );
+  }
+}
@@ -26,16 +26,23 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -330,4 +337,91 @@ class IGenericFileServiceTest {
       assertThrows( InvalidPathException.class, () -> service.createFile( "foo", mockContent, options ) );
     }
   }
+
+  /**
+   * Tests for the {@link IGenericFileService#getFiles(List, GetFileOptions)} method.
+   */
+  @Nested
+  class GetFilesTests {
+    @Test
+    void testGetsEachDistinctPathAndCollectsErrors() throws OperationFailedException {
+      GenericFileServiceForTesting service = spy( new GenericFileServiceForTesting() );
+      GenericFilePath path1 = GenericFilePath.parseRequired( "/foo" );
+      GenericFilePath path2 = GenericFilePath.parseRequired( "/bar" );
+      GetFileOptions options = new GetFileOptions();
+      IGenericFile file1 = mock( IGenericFile.class );
+      OperationFailedException exception = new OperationFailedException( "Failed." );
+
+      doReturn( file1 ).when( service ).getFile( path1, options );
+      doThrow( exception ).when( service ).getFile( path2, options );
+
+      GetFilesResult result = service.getFiles( List.of( path1, path2, path1 ), options );
+
+      assertSame( file1, result.getFile( path1 ) );
+      assertSame( exception, result.getErrors().get( path2 ) );
+      assertTrue( result.hasErrors() );
+      verify( service, times( 1 ) ).getFile( path1, options );
+    }
+  }
+
+  /**
+   * Tests for the {@link IGenericFileService#walkTree(GetTreeOptions, IGenericFileVisitor)} method.
+   */
+  @Nested
+  class WalkTreeTests {
+    private IGenericFileTree createTree( String path, List<IGenericFileTree> children ) {
+      IGenericFile file = mock( IGenericFile.class );
+      doReturn( path ).when( file ).getPath();
+
+      IGenericFileTree tree = mock( IGenericFileTree.class, CALLS_REAL_METHODS );
+      doReturn( file ).when( tree ).getFile();
+      doReturn( children ).when( tree ).getChildren();
+      return tree;
+    }
+
+    private IGenericFileVisitor createRecordingVisitor( List<String> visits, String terminatePath ) {
+      return ( file, depth ) -> {
+        visits.add( file.getPath() + "@" + depth );
+        return file.getPath().equals( terminatePath )
+          ? IGenericFileVisitor.VisitResult.TERMINATE
+          : IGenericFileVisitor.VisitResult.CONTINUE;
+      };
+    }
+
+    @Test
+    void testWalksTreeOfBasePathWithoutExpandedPaths() throws OperationFailedException {
+      GenericFileServiceForTesting service = spy( new GenericFileServiceForTesting() );
+      IGenericFileTree tree = createTree( "/foo", List.of(
+        createTree( "/foo/bar", List.of( createTree( "/foo/bar/baz", List.of() ) ) ),
+        createTree( "/foo/qux", null ) ) );
+      ArgumentCaptor<GetTreeOptions> optionsCaptor = ArgumentCaptor.forClass( GetTreeOptions.class );
+      doReturn( tree ).when( service ).getTree( optionsCaptor.capture() );
+
+      GetTreeOptions options = new GetTreeOptions();
+      options.setBasePath( "/foo" );
+      options.setExpandedPaths( List.of( GenericFilePath.parseRequired( "/foo/bar" ) ) );
+
+      List<String> visits = new ArrayList<>();
+      assertTrue( service.walkTree( options, createRecordingVisitor( visits, null ) ) );
+
+      assertEquals( List.of( "/foo@0", "/foo/bar@1", "/foo/bar/baz@2", "/foo/qux@1" ), visits );
+      assertEquals( "/foo", optionsCaptor.getValue().getBasePath().toString() );
+      assertNull( optionsCaptor.getValue().getExpandedPaths() );
+    }
+
+    @Test
+    void testWalksRootTreesUntilTerminated() throws OperationFailedException {
+      GenericFileServiceForTesting service = spy( new GenericFileServiceForTesting() );
+      doReturn( List.of(
+        createTree( "/", List.of( createTree( "/foo", List.of() ) ) ),
+        createTree( "scheme://bar", List.of() ),
+        createTree( "scheme://baz", List.of() ) ) )
+        .when( service ).getRootTrees( any( GetTreeOptions.class ) );
+
+      List<String> visits = new ArrayList<>();
+      assertFalse( service.walkTree( new GetTreeOptions(), createRecordingVisitor( visits, "scheme://bar" ) ) );
+
+      assertEquals( List.of( "/@0", "/foo@1", "scheme://bar@0" ), visits );
+    }
+  }
 }
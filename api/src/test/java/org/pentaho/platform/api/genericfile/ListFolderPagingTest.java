@@ -0,0 +1,150 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.api.genericfile;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link ListFolderPaging} class.
+ */
+class ListFolderPagingTest {
+  private static final Map<String, Date> MODIFIED_DATES = Map.of(
+    "b", new Date( 300 ),
+    "A", new Date( 100 ),
+    "c", new Date( 100 ),
+    "D", new Date( 200 ) );
+
+  private static final List<String> FILES = List.of( "b", "D", "A", "c" );
+
+  private static ListFolderPaging.Page<String> getPage( List<String> files, ListFolderOptions options )
+    throws InvalidOperationException {
+    return ListFolderPaging.getPage( files, options, name -> name, MODIFIED_DATES::get );
+  }
+
+  /**
+   * Gets all pages, following the cursors, and returns the files of each page.
+   */
+  private static List<List<String>> getAllPages( List<String> files, ListFolderOptions options )
+    throws InvalidOperationException {
+    List<List<String>> pages = new ArrayList<>();
+
+    ListFolderOptions pageOptions = new ListFolderOptions( options );
+    do {
+      ListFolderPaging.Page<String> page = getPage( files, pageOptions );
+      pages.add( page.getFiles() );
+      pageOptions.setCursor( page.getNextCursor() );
+    } while ( pageOptions.getCursor() != null );
+
+    return pages;
+  }
+
+  private static ListFolderOptions createOptions( int pageSize, ListFolderOptions.SortOrder sortOrder ) {
+    ListFolderOptions options = new ListFolderOptions();
+    options.setPageSize( pageSize );
+    options.setSortOrder( sortOrder );
+    return options;
+  }
+
+  @Nested
+  class SortOrderTests {
+    @Test
+    void testNameAscendingIgnoresCase() throws InvalidOperationException {
+      assertEquals(
+        List.of( List.of( "A", "b", "c" ), List.of( "D" ) ),
+        getAllPages( FILES, createOptions( 3, ListFolderOptions.SortOrder.NAME_ASCENDING ) ) );
+    }
+
+    @Test
+    void testNameDescending() throws InvalidOperationException {
+      assertEquals(
+        List.of( List.of( "D", "c" ), List.of( "b", "A" ) ),
+        getAllPages( FILES, createOptions( 2, ListFolderOptions.SortOrder.NAME_DESCENDING ) ) );
+    }
+
+    @Test
+    void testModifiedDateAscendingOrdersEqualDatesByName() throws InvalidOperationException {
+      assertEquals(
+        List.of( List.of( "A" ), List.of( "c" ), List.of( "D" ), List.of( "b" ) ),
+        getAllPages( FILES, createOptions( 1, ListFolderOptions.SortOrder.MODIFIED_DATE_ASCENDING ) ) );
+    }
+
+    @Test
+    void testModifiedDateDescending() throws InvalidOperationException {
+      assertEquals(
+        List.of( List.of( "b", "D", "c", "A" ) ),
+        getAllPages( FILES, createOptions( 4, ListFolderOptions.SortOrder.MODIFIED_DATE_DESCENDING ) ) );
+    }
+  }
+
+  @Nested
+  class CursorTests {
+    @Test
+    void testLastPageHasNoNextCursor() throws InvalidOperationException {
+      ListFolderPaging.Page<String> page =
+        getPage( FILES, createOptions( 4, ListFolderOptions.SortOrder.NAME_ASCENDING ) );
+
+      assertEquals( 4, page.getFiles().size() );
+      assertNull( page.getNextCursor() );
+    }
+
+    @Test
+    void testNextPageIsNotAffectedByFilesAddedOrRemovedBeforeTheCursor() throws InvalidOperationException {
+      ListFolderOptions options = createOptions( 2, ListFolderOptions.SortOrder.NAME_ASCENDING );
+      ListFolderPaging.Page<String> page1 = getPage( FILES, options );
+      assertEquals( List.of( "A", "b" ), page1.getFiles() );
+      assertNotNull( page1.getNextCursor() );
+
+      // "A" is removed and "a0" is added, before the cursor.
+      options.setCursor( page1.getNextCursor() );
+      ListFolderPaging.Page<String> page2 = getPage( List.of( "b", "D", "a0", "c" ), options );
+
+      assertEquals( List.of( "c", "D" ), page2.getFiles() );
+    }
+
+    @Test
+    void testCursorOfOtherSortOrderIsInvalid() throws InvalidOperationException {
+      ListFolderOptions options = createOptions( 1, ListFolderOptions.SortOrder.NAME_ASCENDING );
+      options.setCursor( getPage( FILES, options ).getNextCursor() );
+      options.setSortOrder( ListFolderOptions.SortOrder.NAME_DESCENDING );
+
+      assertThrows( InvalidOperationException.class, () -> getPage( FILES, options ) );
+    }
+
+    @Test
+    void testMalformedCursorIsInvalid() {
+      ListFolderOptions options = new ListFolderOptions();
+      options.setCursor( "not a cursor!" );
+
+      assertThrows( InvalidOperationException.class, () -> getPage( FILES, options ) );
+    }
+  }
+
+  @Test
+  void testPageSizeMustBeGreaterThanZero() {
+    ListFolderOptions options = new ListFolderOptions();
+
+    assertThrows( IllegalArgumentException.class, () -> options.setPageSize( 0 ) );
+  }
+}
@@ -17,27 +17,117 @@ import edu.umd.cs.findbugs.annotations.Nullable;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
 import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
 import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
 import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
 import org.pentaho.platform.api.genericfile.model.IGenericFile;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+import org.pentaho.platform.genericfile.cache.ITreeCache;
+import org.pentaho.platform.genericfile.cache.ITreeCachePartitioner;
+import org.pentaho.platform.genericfile.cache.LruTreeCache;
+import org.pentaho.platform.genericfile.cache.SingleFlight;
+import org.pentaho.platform.genericfile.cache.TreeCacheKey;
+import org.pentaho.platform.genericfile.model.BaseGenericFile;
 import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
+import org.pentaho.platform.genericfile.model.ImmutableGenericFileTree;
 import org.pentaho.platform.util.logging.Logger;
 
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public abstract class BaseGenericFileProvider<T extends IGenericFile> implements IGenericFileProvider<T> {
+  /**
+   * The maximum number of folders missing from the tree cache which are loaded individually when composing a tree.
+   * When more are missing, the whole tree is loaded at once.
+   */
+  static final int MAX_MISSING_FOLDER_LOADS = 4;
+
+  @NonNull
+  private final ITreeCache cachedTrees;
+
+  @NonNull
+  private final SingleFlight<TreeCacheKey, BaseGenericFileTree> treeLoads = new SingleFlight<>();
+
+  @NonNull
+  private final Executor treeRefreshExecutor;
+
+  /**
+   * The keys of the stale tree cache entries being refreshed in the background.
+   */
+  @NonNull
+  private final Set<TreeCacheKey> treeRefreshes = ConcurrentHashMap.newKeySet();
+
+  // Tree cache statistics.
+  @NonNull
+  private final LongAdder treeCacheHitCount = new LongAdder();
+  @NonNull
+  private final LongAdder treeCacheMissCount = new LongAdder();
+  @NonNull
+  private final LongAdder treeLoadCount = new LongAdder();
   @NonNull
-  private final Map<GetTreeOptions, BaseGenericFileTree> cachedTrees;
+  private final LongAdder treeLoadTimeNanos = new LongAdder();
+
+  /**
+   * Lazily creates the executor shared by all providers to refresh stale tree cache entries.
+   */
+  private static class DefaultTreeRefreshExecutorHolder {
+    private static final int THREAD_COUNT = 2;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    static final Executor INSTANCE = Executors.newFixedThreadPool( THREAD_COUNT, runnable -> {
+      Thread thread = new Thread( runnable, "generic-file-tree-refresh-" + threadNumber.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
 
   protected BaseGenericFileProvider() {
-    cachedTrees = new ConcurrentHashMap<>();
+    this( new LruTreeCache() );
+  }
+
+  /**
+   * Creates a provider which uses the given tree cache.
+   *
+   * @param treeCache The tree cache, which determines the eviction policy and budget.
+   */
+  protected BaseGenericFileProvider( @NonNull ITreeCache treeCache ) {
+    this( treeCache, null );
+  }
+
+  /**
+   * Creates a provider which uses the given tree cache, and which refreshes its stale entries using the given
+   * executor.
+   *
+   * @param treeCache           The tree cache, which determines the eviction policy, budget and expiry.
+   * @param treeRefreshExecutor The executor of background refreshes of stale tree cache entries. When {@code null},
+   *                            an executor shared by all providers is used.
+   * @see ITreeCache#isStale(TreeCacheKey)
+   */
+  protected BaseGenericFileProvider( @NonNull ITreeCache treeCache, @Nullable Executor treeRefreshExecutor ) {
+    this.cachedTrees = Objects.requireNonNull( treeCache );
+    this.treeRefreshExecutor = treeRefreshExecutor != null
+      ? treeRefreshExecutor
+      : DefaultTreeRefreshExecutorHolder.INSTANCE;
   }
 
   // region Create Folder
@@ -48,7 +138,7 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
     boolean folderCreated = createFolderCore( path );
 
     if ( folderCreated ) {
-      clearTreeCache();
+      clearTreeCache( path );
     }
 
     return folderCreated;
@@ -66,7 +156,7 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
     Objects.requireNonNull( content );
 
     createFileCore( path, content, createFileOptions );
-    clearTreeCache();
+    clearTreeCache( path );
   }
 
   protected abstract void createFileCore( @NonNull GenericFilePath path,
@@ -86,13 +176,320 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
   protected abstract void setFileContentCore( @NonNull GenericFilePath path, @NonNull InputStream content )
     throws OperationFailedException;
 
+  // region Delete File
+  @Override
+  public void deleteFile( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException {
+    Objects.requireNonNull( path );
+
+    deleteFileCore( path, permanent );
+    clearTreeCache( path );
+  }
+
+  /**
+   * Deletes a file, given its path.
+   * <p>
+   * The default implementation throws an {@link OperationFailedException}, for providers which do not support the
+   * operation, or which still override {@link #deleteFile(GenericFilePath, boolean)}.
+   *
+   * @param path      The file path to be deleted.
+   * @param permanent If {@code true}, the file is permanently deleted; if {@code false}, it is sent to the trash.
+   * @throws OperationFailedException If the operation fails.
+   */
+  protected void deleteFileCore( @NonNull GenericFilePath path, boolean permanent )
+    throws OperationFailedException {
+    throw createNotSupportedException( "deleteFile" );
+  }
+
+  @Override
+  public void deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent ) throws OperationFailedException {
+    Objects.requireNonNull( paths );
+
+    try {
+      deleteFilesCore( paths, permanent );
+    } finally {
+      // Failed paths may have been deleted in part.
+      paths.forEach( this::clearTreeCache );
+    }
+  }
+
+  /**
+   * Deletes files, given their paths.
+   * <p>
+   * The default implementation calls {@link #deleteFileCore(GenericFilePath, boolean)} for each path, collecting the
+   * failed ones.
+   *
+   * @param paths     The file paths to be deleted.
+   * @param permanent If {@code true}, the files are permanently deleted; if {@code false}, they are sent to the trash.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails as a whole.
+   */
+  protected void deleteFilesCore( @NonNull List<GenericFilePath> paths, boolean permanent )
+    throws OperationFailedException {
+    IGenericFileProvider.applyToEachPath( paths, "Error(s) occurred during deletion.",
+      path -> deleteFileCore( path, permanent ) );
+  }
+  // endregion
+
+  // region Restore File
+  @Override
+  public void restoreFile( @NonNull GenericFilePath path ) throws OperationFailedException {
+    Objects.requireNonNull( path );
+
+    GenericFilePath restoredPath = restoreFileCore( path );
+
+    if ( restoredPath != null ) {
+      clearTreeCache( restoredPath );
+    } else {
+      clearTreeCache();
+    }
+  }
+
+  /**
+   * Restores a file, given its path in the trash.
+   * <p>
+   * The default implementation throws an {@link OperationFailedException}, for providers which do not support the
+   * operation, or which still override {@link #restoreFile(GenericFilePath)}.
+   *
+   * @param path The file path to be restored. This path must refer to an item in the trash (deleted).
+   * @return The path to which the file was restored, if known; {@code null}, otherwise, in which case the whole tree
+   * cache is cleared.
+   * @throws OperationFailedException If the operation fails.
+   */
+  @Nullable
+  protected GenericFilePath restoreFileCore( @NonNull GenericFilePath path ) throws OperationFailedException {
+    throw createNotSupportedException( "restoreFile" );
+  }
+
+  @Override
+  public void restoreFiles( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
+    Objects.requireNonNull( paths );
+
+    List<GenericFilePath> restoredPaths = null;
+    try {
+      restoredPaths = restoreFilesCore( paths );
+    } finally {
+      if ( restoredPaths != null && restoredPaths.stream().noneMatch( Objects::isNull ) ) {
+        restoredPaths.forEach( this::clearTreeCache );
+      } else {
+        // Some files may have been restored to unknown paths.
+        clearTreeCache();
+      }
+    }
+  }
+
+  /**
+   * Restores files, given their paths in the trash.
+   * <p>
+   * The default implementation calls {@link #restoreFileCore(GenericFilePath)} for each path, collecting the failed
+   * ones.
+   *
+   * @param paths The file paths to be restored. These paths must refer to items in the trash (deleted).
+   * @return The paths to which the files were restored, each of which may be {@code null}, when not known, in which
+   * case the whole tree cache is cleared. When the operation fails for some of the paths, the whole tree cache is
+   * cleared as well.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails as a whole.
+   */
+  @NonNull
+  protected List<GenericFilePath> restoreFilesCore( @NonNull List<GenericFilePath> paths )
+    throws OperationFailedException {
+    List<GenericFilePath> restoredPaths = new ArrayList<>( paths.size() );
+
+    IGenericFileProvider.applyToEachPath( paths, "Error(s) occurred while attempting to restore files.",
+      path -> restoredPaths.add( restoreFileCore( path ) ) );
+
+    return restoredPaths;
+  }
+  // endregion
+
+  // region Rename File
+  @Override
+  public boolean renameFile( @NonNull GenericFilePath path, @NonNull String newName )
+    throws OperationFailedException {
+    Objects.requireNonNull( path );
+    Objects.requireNonNull( newName );
+
+    boolean fileRenamed = renameFileCore( path, newName );
+
+    if ( fileRenamed ) {
+      // The renamed file stays in the same parent folder, so invalidating the old path also covers the new one.
+      clearTreeCache( path );
+    }
+
+    return fileRenamed;
+  }
+
+  /**
+   * Renames a file or folder, given its path and the new name.
+   * <p>
+   * The default implementation throws an {@link OperationFailedException}, for providers which do not support the
+   * operation, or which still override {@link #renameFile(GenericFilePath, String)}.
+   *
+   * @param path    The path of the file or folder to be renamed.
+   * @param newName The new name of the file or folder.
+   * @return {@code true} if the file or folder was renamed, {@code false} otherwise.
+   * @throws OperationFailedException If the operation fails.
+   */
+  protected boolean renameFileCore( @NonNull GenericFilePath path, @NonNull String newName )
+    throws OperationFailedException {
+    throw createNotSupportedException( "renameFile" );
+  }
+  // endregion
+
+  // region Copy File
+  @Override
+  public void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    Objects.requireNonNull( path );
+    Objects.requireNonNull( destinationFolder );
+
+    copyFileCore( path, destinationFolder );
+    clearTreeCache( destinationFolder.child( path.getLastSegment() ) );
+  }
+
+  /**
+   * Copies a file or folder to a destination folder.
+   * <p>
+   * The default implementation throws an {@link OperationFailedException}, for providers which do not support the
+   * operation, or which still override {@link #copyFile(GenericFilePath, GenericFilePath)}.
+   *
+   * @param path              The path of the file or folder to be copied.
+   * @param destinationFolder The path of the destination folder.
+   * @throws OperationFailedException If the operation fails.
+   */
+  protected void copyFileCore( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    throw createNotSupportedException( "copyFile" );
+  }
+
+  @Override
+  public void copyFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    Objects.requireNonNull( paths );
+    Objects.requireNonNull( destinationFolder );
+
+    List<GenericFilePath> newPaths = getNewPaths( paths, destinationFolder );
+    try {
+      copyFilesCore( paths, destinationFolder );
+    } finally {
+      newPaths.forEach( this::clearTreeCache );
+    }
+  }
+
+  /**
+   * Copies files or folders to a destination folder.
+   * <p>
+   * The default implementation calls {@link #copyFileCore(GenericFilePath, GenericFilePath)} for each path, collecting
+   * the failed ones.
+   *
+   * @param paths             The paths of the files or folders to be copied.
+   * @param destinationFolder The path of the destination folder.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails as a whole.
+   */
+  protected void copyFilesCore( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    IGenericFileProvider.applyToEachPath( paths, "Error(s) occurred while attempting to copy files.",
+      path -> copyFileCore( path, destinationFolder ) );
+  }
+  // endregion
+
+  // region Move File
+  @Override
+  public void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    Objects.requireNonNull( path );
+    Objects.requireNonNull( destinationFolder );
+
+    moveFileCore( path, destinationFolder );
+    clearTreeCache( path );
+    clearTreeCache( destinationFolder.child( path.getLastSegment() ) );
+  }
+
+  /**
+   * Moves a file or folder to a destination folder.
+   * <p>
+   * The default implementation throws an {@link OperationFailedException}, for providers which do not support the
+   * operation, or which still override {@link #moveFile(GenericFilePath, GenericFilePath)}.
+   *
+   * @param path              The path of the file or folder to be moved.
+   * @param destinationFolder The path of the destination folder.
+   * @throws OperationFailedException If the operation fails.
+   */
+  protected void moveFileCore( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    throw createNotSupportedException( "moveFile" );
+  }
+
+  /**
+   * Creates the exception thrown by operations which the provider does not support.
+   *
+   * @param operationName The name of the operation.
+   * @return The exception.
+   */
+  @NonNull
+  protected OperationFailedException createNotSupportedException( @NonNull String operationName ) {
+    return new OperationFailedException(
+      String.format( "Operation '%s' is not supported by provider '%s'.", operationName, getType() ) );
+  }
+
+  @Override
+  public void moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    Objects.requireNonNull( paths );
+    Objects.requireNonNull( destinationFolder );
+
+    List<GenericFilePath> newPaths = getNewPaths( paths, destinationFolder );
+    try {
+      moveFilesCore( paths, destinationFolder );
+    } finally {
+      paths.forEach( this::clearTreeCache );
+      newPaths.forEach( this::clearTreeCache );
+    }
+  }
+
+  /**
+   * Moves files or folders to a destination folder.
+   * <p>
+   * The default implementation calls {@link #moveFileCore(GenericFilePath, GenericFilePath)} for each path, collecting
+   * the failed ones.
+   *
+   * @param paths             The paths of the files or folders to be moved.
+   * @param destinationFolder The path of the destination folder.
+   * @throws BatchOperationFailedException If the operation fails for some of the paths.
+   * @throws OperationFailedException      If the operation fails as a whole.
+   */
+  protected void moveFilesCore( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    IGenericFileProvider.applyToEachPath( paths, "Error(s) occurred while attempting to move files.",
+      path -> moveFileCore( path, destinationFolder ) );
+  }
+  // endregion
+
+  // region Batch Operations
+  /**
+   * Gets the paths which files or folders copied, or moved, to a destination folder get.
+   */
+  @NonNull
+  private static List<GenericFilePath> getNewPaths( @NonNull List<GenericFilePath> paths,
+                                                    @NonNull GenericFilePath destinationFolder )
+    throws InvalidPathException {
+    List<GenericFilePath> newPaths = new ArrayList<>( paths.size() );
+    for ( GenericFilePath path : paths ) {
+      newPaths.add( destinationFolder.child( path.getLastSegment() ) );
+    }
+
+    return newPaths;
+  }
+  // endregion
+
   // region Get Root Trees
   @NonNull
   @Override
   public List<IGenericFileTree> getRootTrees( @NonNull GetTreeOptions options ) throws OperationFailedException {
     Objects.requireNonNull( options );
 
-    List<BaseGenericFileTree> rootTrees = getRootTreesCore( options );
+    List<BaseGenericFileTree> rootTrees = new ArrayList<>( getRootTreesCore( options ) );
 
     if ( shouldProcessExpandedPath( options ) ) {
       expandPathsInTrees( rootTrees, options );
@@ -112,23 +509,50 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
   public IGenericFileTree getTree( @NonNull GetTreeOptions options ) throws OperationFailedException {
     Objects.requireNonNull( options );
 
-    // (Sonar) Cannot use computeIfAbsent because a checked exception needs to be thrown from the mapping function.
+    String partition = getTreeCachePartition();
     BaseGenericFileTree tree = null;
 
     if ( !options.isBypassCache() ) {
-      tree = loadFromTreeCache( options );
+      tree = composeFromTreeCache( partition, options );
     }
 
-    if ( tree == null ) {
-      tree = getTreeCore( options );
+    // Each call counts as a single hit or miss. Composed trees are counted by composeFromTreeCache.
+    if ( tree != null ) {
+      // Composed trees share the read-only listings of the tree cache. Callers get a tree which they can change.
+      tree = toMutableTree( tree );
+    } else {
+      treeCacheMissCount.increment();
 
-      List<GenericFilePath> effectiveExpandedPaths = null;
+      tree = loadSharedTree( partition, options );
+    }
 
-      if ( shouldProcessExpandedPath( options ) ) {
-        effectiveExpandedPaths = expandPathsInTrees( List.of( tree ), options );
-      }
+    return tree;
+  }
+
+  /**
+   * Loads a tree, sharing the load with concurrent callers with equal options, such as right after the cache is
+   * cleared.
+   */
+  @NonNull
+  private BaseGenericFileTree loadSharedTree( @NonNull String partition, @NonNull GetTreeOptions options )
+    throws OperationFailedException {
+    // Options are copied, so that the key of the in-flight load is not affected by later changes of the caller.
+    return treeLoads.load(
+      new TreeCacheKey( partition, new GetTreeOptions( options ) ),
+      () -> loadTree( partition, options ),
+      this::copyTree );
+  }
+
+  @NonNull
+  private BaseGenericFileTree loadTree( @NonNull String partition, @NonNull GetTreeOptions options )
+    throws OperationFailedException {
+    BaseGenericFileTree tree = loadTreeCore( options );
 
-      storeInTreeCache( tree, options, effectiveExpandedPaths );
+    // Take the chance to store/update the cache, even if bypassing cache.
+    storeInTreeCache( tree, partition, options );
+
+    if ( shouldProcessExpandedPath( options ) ) {
+      tree = expandPathsInTree( tree, options );
     }
 
     return tree;
@@ -136,6 +560,104 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
 
   @NonNull
   protected abstract BaseGenericFileTree getTreeCore( @NonNull GetTreeOptions options ) throws OperationFailedException;
+
+  /**
+   * Calls {@link #getTreeCore(GetTreeOptions)}, accounting for it in the tree cache statistics.
+   */
+  @NonNull
+  private BaseGenericFileTree loadTreeCore( @NonNull GetTreeOptions options ) throws OperationFailedException {
+    long startNanos = System.nanoTime();
+    try {
+      return getTreeCore( options );
+    } finally {
+      treeLoadCount.increment();
+      treeLoadTimeNanos.add( System.nanoTime() - startNanos );
+    }
+  }
+  // endregion
+
+  // region Walk Tree
+  /**
+   * Walks a tree of files, depth-first, getting the children of each folder only when the walk reaches it.
+   * <p>
+   * The children of each folder are obtained by a {@link #getTree(GetTreeOptions)} call with a maximum depth of
+   * {@code 1}, and so are served by the tree cache, when possible. At any time, only the children of the folders in
+   * the path being walked are held in memory.
+   */
+  @Override
+  public boolean walkTree( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+    Objects.requireNonNull( options );
+    Objects.requireNonNull( visitor );
+
+    Integer maxDepth = options.getMaxDepth();
+
+    IGenericFileTree baseTree = getTree( createWalkOptions( options, options.getBasePath(), maxDepth ) );
+
+    IGenericFileVisitor.VisitResult result = visitor.visit( baseTree.getFile(), 0 );
+    if ( result == IGenericFileVisitor.VisitResult.TERMINATE ) {
+      return false;
+    }
+
+    if ( result == IGenericFileVisitor.VisitResult.SKIP_CHILDREN || baseTree.getChildren() == null ) {
+      return true;
+    }
+
+    // The child trees yet to visit of each folder in the path being walked. The depth of the child trees at the top of
+    // the stack is the size of the stack.
+    Deque<Iterator<IGenericFileTree>> pendingChildTrees = new ArrayDeque<>();
+    pendingChildTrees.push( baseTree.getChildren().iterator() );
+
+    while ( !pendingChildTrees.isEmpty() ) {
+      Iterator<IGenericFileTree> childTrees = pendingChildTrees.peek();
+      if ( !childTrees.hasNext() ) {
+        pendingChildTrees.pop();
+        continue;
+      }
+
+      IGenericFile file = childTrees.next().getFile();
+      int depth = pendingChildTrees.size();
+
+      result = visitor.visit( file, depth );
+      if ( result == IGenericFileVisitor.VisitResult.TERMINATE ) {
+        return false;
+      }
+
+      if ( result == IGenericFileVisitor.VisitResult.CONTINUE
+        && file.isFolder()
+        && ( maxDepth == null || depth < maxDepth ) ) {
+
+        GetTreeOptions folderOptions = createWalkOptions( options, GenericFilePath.parseRequired( file.getPath() ), 1 );
+        List<IGenericFileTree> folderChildTrees = getTree( folderOptions ).getChildren();
+        if ( folderChildTrees != null && !folderChildTrees.isEmpty() ) {
+          pendingChildTrees.push( folderChildTrees.iterator() );
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Creates the options to get the children of a folder, during a tree walk.
+   *
+   * @param walkOptions The options of the tree walk.
+   * @param basePath    The path of the folder.
+   * @param maxDepth    The maximum depth of the tree walk, remaining at the folder.
+   * @return The options.
+   */
+  @NonNull
+  private static GetTreeOptions createWalkOptions( @NonNull GetTreeOptions walkOptions,
+                                                   @Nullable GenericFilePath basePath,
+                                                   @Nullable Integer maxDepth ) {
+    // Will use the same bypassCache option.
+    GetTreeOptions options = new GetTreeOptions( walkOptions );
+    options.setBasePath( basePath );
+    options.setMaxDepth( maxDepth == null ? 1 : Math.min( maxDepth, 1 ) );
+    options.setExpandedPaths( null );
+    options.setExpandedMaxDepth( null );
+    return options;
+  }
   // endregion
 
   // region Expanded Path
@@ -153,85 +675,330 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
       && options.getMaxDepth() != null;
   }
 
-  private List<GenericFilePath> expandPathsInTrees( @NonNull List<BaseGenericFileTree> baseTrees,
-                                                    @NonNull GetTreeOptions options ) throws OperationFailedException {
+  /**
+   * Expands the given paths in the given trees.
+   * <p>
+   * The expanded paths are merged into a trie per tree, so that shared ancestors are visited once. The folders whose
+   * children are missing are then fetched one tree level at a time, with a single call to
+   * {@link #getChildTreesOfFolders(List, GetTreeOptions, int)} per level and depth, so that expanding many paths costs
+   * a number of calls proportional to their depth, and not to their number.
+   * <p>
+   * Trees are changed in place, unless read-only, such as those composed from the tree cache, in which case the nodes
+   * along each expanded path are copied, and the untouched subtrees are shared. The trees of the given list are
+   * replaced by their expanded versions.
+   *
+   * @param baseTrees The list of trees. Must be modifiable.
+   * @param options   The 'get tree' options.
+   * @throws OperationFailedException If an error occurs while getting children.
+   */
+  private void expandPathsInTrees( @NonNull List<BaseGenericFileTree> baseTrees,
+                                   @NonNull GetTreeOptions options ) throws OperationFailedException {
     assert options.getExpandedPaths() != null;
 
-    List<GenericFilePath> effectiveExpandedPaths = null;
+    List<GenericFilePath> basePaths = new ArrayList<>( baseTrees.size() );
+    List<ExpandedPathTrie> tries = new ArrayList<>( baseTrees.size() );
+    for ( BaseGenericFileTree baseTree : baseTrees ) {
+      basePaths.add( GenericFilePath.parseRequired( baseTree.getFile().getPath() ) );
+      tries.add( null );
+    }
 
     for ( GenericFilePath expandedPath : options.getExpandedPaths() ) {
-      if ( owns( expandedPath ) && expandOwnPathInTrees( baseTrees, options, expandedPath ) ) {
-        if ( effectiveExpandedPaths == null ) {
-          effectiveExpandedPaths = new ArrayList<>();
-        }
+      if ( owns( expandedPath ) ) {
+        addExpandedPathToTries( basePaths, tries, expandedPath );
+      }
+    }
+
+    int expandedMaxDepth = getEffectiveExpandedMaxDepth( options );
+
+    List<ExpandedPathWork> level = new ArrayList<>();
+    for ( int i = 0; i < baseTrees.size(); i++ ) {
+      if ( tries.get( i ) != null ) {
+        level.add( new ExpandedPathWork( baseTrees.get( i ), basePaths.get( i ), tries.get( i ), 0 ) );
+      }
+    }
 
-        effectiveExpandedPaths.add( expandedPath );
+    Map<GenericFilePath, List<IGenericFileTree>> fetchedChildTrees =
+      fetchExpandedPathChildTrees( level, options, expandedMaxDepth );
+
+    for ( int i = 0; i < baseTrees.size(); i++ ) {
+      if ( tries.get( i ) != null ) {
+        baseTrees.set( i, applyExpandedPathTrie(
+          new ExpandedPathWork( baseTrees.get( i ), basePaths.get( i ), tries.get( i ), 0 ),
+          expandedMaxDepth,
+          fetchedChildTrees ) );
       }
     }
+  }
 
-    return effectiveExpandedPaths;
+  @NonNull
+  private BaseGenericFileTree expandPathsInTree( @NonNull BaseGenericFileTree tree, @NonNull GetTreeOptions options )
+    throws OperationFailedException {
+    List<BaseGenericFileTree> trees = new ArrayList<>( List.of( tree ) );
+    expandPathsInTrees( trees, options );
+    return trees.get( 0 );
   }
 
-  private boolean expandOwnPathInTrees( @NonNull List<BaseGenericFileTree> baseTrees,
-                                        @NonNull GetTreeOptions options,
-                                        @NonNull GenericFilePath expandedPath ) throws OperationFailedException {
-    for ( BaseGenericFileTree baseTree : baseTrees ) {
-      if ( expandOwnPathInTree( baseTree, options, expandedPath ) ) {
-        return true;
+  /**
+   * Adds an expanded path to the trie of the first tree which contains it, if any.
+   */
+  private static void addExpandedPathToTries( @NonNull List<GenericFilePath> basePaths,
+                                              @NonNull List<ExpandedPathTrie> tries,
+                                              @NonNull GenericFilePath expandedPath ) {
+    for ( int i = 0; i < basePaths.size(); i++ ) {
+      // If 'expandedPath' is not within the tree's root, then ignore it.
+      List<String> segments = expandedPath.relativeSegments( basePaths.get( i ) );
+
+      if ( segments != null ) {
+        ExpandedPathTrie trie = tries.get( i );
+        if ( trie == null ) {
+          trie = new ExpandedPathTrie();
+          tries.set( i, trie );
+        }
+
+        trie.add( segments );
+        return;
       }
     }
+  }
+
+  /**
+   * Fetches the missing children of the folders along the expanded paths, and below them, one tree level at a time.
+   *
+   * @param level            The work items of the first level.
+   * @param options          The 'get tree' options.
+   * @param expandedMaxDepth The effective expanded max depth.
+   * @return The fetched child trees, by folder path.
+   */
+  @NonNull
+  private Map<GenericFilePath, List<IGenericFileTree>> fetchExpandedPathChildTrees(
+    @NonNull List<ExpandedPathWork> level,
+    @NonNull GetTreeOptions options,
+    int expandedMaxDepth ) throws OperationFailedException {
 
-    return false;
+    Map<GenericFilePath, List<IGenericFileTree>> fetchedChildTrees = new HashMap<>();
+
+    while ( !level.isEmpty() ) {
+      // Folders whose children are missing, by the depth to which they must be fetched.
+      Map<Integer, List<GenericFilePath>> missingFolderPathsByDepth = new TreeMap<>();
+
+      for ( ExpandedPathWork work : level ) {
+        int fetchDepth = work.getFetchDepth( expandedMaxDepth );
+        if ( fetchDepth >= 1 && work.getChildTrees( fetchedChildTrees ) == null ) {
+          missingFolderPathsByDepth.computeIfAbsent( fetchDepth, depth -> new ArrayList<>() ).add( work.path );
+        }
+      }
+
+      for ( Map.Entry<Integer, List<GenericFilePath>> entry : missingFolderPathsByDepth.entrySet() ) {
+        fetchedChildTrees.putAll( getChildTreesOfFolders( entry.getValue(), options, entry.getKey() ) );
+      }
+
+      List<ExpandedPathWork> nextLevel = new ArrayList<>();
+      for ( ExpandedPathWork work : level ) {
+        if ( work.getFetchDepth( expandedMaxDepth ) >= 1 ) {
+          List<IGenericFileTree> childTrees = work.getChildTrees( fetchedChildTrees );
+          if ( childTrees != null ) {
+            addChildWorks( work, childTrees, expandedMaxDepth, nextLevel );
+          }
+        }
+      }
+
+      level = nextLevel;
+    }
+
+    return fetchedChildTrees;
   }
 
-  private boolean expandOwnPathInTree( @NonNull BaseGenericFileTree tree,
-                                       @NonNull GetTreeOptions options,
-                                       @NonNull GenericFilePath expandedPath ) throws OperationFailedException {
-    GenericFilePath path = GenericFilePath.parseRequired( tree.getFile().getPath() );
+  /**
+   * Applies the fetched child trees to a tree, along its expanded paths, and below them.
+   *
+   * @return The expanded tree, which is either the given tree, changed, or a copy of it, if it is read-only.
+   */
+  @NonNull
+  private BaseGenericFileTree applyExpandedPathTrie( @NonNull ExpandedPathWork work,
+                                                     int expandedMaxDepth,
+                                                     @NonNull Map<GenericFilePath, List<IGenericFileTree>>
+                                                       fetchedChildTrees ) {
+    BaseGenericFileTree tree = work.tree;
+
+    if ( work.getFetchDepth( expandedMaxDepth ) < 1 ) {
+      return tree;
+    }
 
-    // If 'expandedPath' is not within the tree's root, then ignore it.
-    List<String> segments = expandedPath.relativeSegments( path );
+    List<IGenericFileTree> childTrees = work.getChildTrees( fetchedChildTrees );
+    if ( childTrees == null ) {
+      // Could not get children.
+      return tree;
+    }
 
-    if ( segments == null ) {
-      return false;
+    if ( tree.getChildren() == null ) {
+      tree = withChildren( tree, childTrees );
     }
 
-    List<IGenericFileTree> childTrees = tree.getChildren();
+    List<ExpandedPathWork> childWorks = new ArrayList<>();
+    addChildWorks( work, childTrees, expandedMaxDepth, childWorks );
 
-    for ( String segment : segments ) {
-      // Find the child tree whose file name is 'segment'.
+    List<IGenericFileTree> newChildTrees = null;
 
-      if ( childTrees == null ) {
-        // Children were cut / not included due to max depth.
-        // Get the children of this tree as well.
-        childTrees = getChildTrees( path, options, 1 );
+    for ( ExpandedPathWork childWork : childWorks ) {
+      BaseGenericFileTree expandedChildTree = applyExpandedPathTrie( childWork, expandedMaxDepth, fetchedChildTrees );
+
+      if ( expandedChildTree != childWork.tree ) {
+        if ( newChildTrees == null ) {
+          // The children list may be shared or unmodifiable, so it is copied.
+          newChildTrees = new ArrayList<>( childTrees );
+        }
+
+        newChildTrees.set( childWork.index, expandedChildTree );
+      }
+    }
+
+    return newChildTrees != null ? withChildren( tree, newChildTrees ) : tree;
+  }
+
+  /**
+   * Adds the work items of the child trees of a work item which are along an expanded path, or below one.
+   */
+  private void addChildWorks( @NonNull ExpandedPathWork work,
+                              @NonNull List<IGenericFileTree> childTrees,
+                              int expandedMaxDepth,
+                              @NonNull List<ExpandedPathWork> childWorks ) {
+    int childRequiredDepth = work.getRequiredDepth( expandedMaxDepth ) - 1;
+
+    for ( int i = 0; i < childTrees.size(); i++ ) {
+      BaseGenericFileTree childTree = (BaseGenericFileTree) childTrees.get( i );
+      ExpandedPathTrie childTrie = null;
+      GenericFilePath childPath = null;
+
+      if ( work.trie != null && !work.trie.children.isEmpty() ) {
+        childPath = parsePath( childTree.getFile().getPath() );
+        childTrie = childPath != null ? work.trie.children.get( childPath.getLastSegment() ) : null;
+      }
 
-        if ( childTrees == null ) {
-          assert tree.getChildren() == null;
+      if ( childTrie != null || childRequiredDepth >= 1 ) {
+        if ( childPath == null ) {
+          childPath = parsePath( childTree.getFile().getPath() );
+        }
 
-          // Could not get children.
-          return true;
+        if ( childPath != null ) {
+          ExpandedPathWork childWork = new ExpandedPathWork( childTree, childPath, childTrie, childRequiredDepth );
+          childWork.index = i;
+          childWorks.add( childWork );
         }
+      }
+    }
+  }
 
-        tree.setChildren( childTrees );
+  /**
+   * A node of the trie of the expanded paths of a tree, keyed by path segment.
+   */
+  private static class ExpandedPathTrie {
+    @NonNull
+    final Map<String, ExpandedPathTrie> children = new LinkedHashMap<>();
+
+    /**
+     * Indicates that the path of this node is itself an expanded path, and not only the ancestor of one.
+     */
+    boolean isExpandedPath;
+
+    void add( @NonNull List<String> segments ) {
+      ExpandedPathTrie node = this;
+      for ( String segment : segments ) {
+        node = node.children.computeIfAbsent( segment, key -> new ExpandedPathTrie() );
       }
 
-      BaseGenericFileTree childTree = (BaseGenericFileTree) findChildTreeByName( childTrees, segment );
+      node.isExpandedPath = true;
+    }
+  }
+
+  /**
+   * A tree visited while expanding paths.
+   */
+  private static class ExpandedPathWork {
+    @NonNull
+    final BaseGenericFileTree tree;
+    @NonNull
+    final GenericFilePath path;
+    @Nullable
+    final ExpandedPathTrie trie;
+
+    /**
+     * The number of levels of children required below this tree, due to an expanded path above it.
+     */
+    final int inheritedDepth;
+
+    /**
+     * The index of the tree among the children of its parent.
+     */
+    int index;
+
+    ExpandedPathWork( @NonNull BaseGenericFileTree tree,
+                      @NonNull GenericFilePath path,
+                      @Nullable ExpandedPathTrie trie,
+                      int inheritedDepth ) {
+      this.tree = tree;
+      this.path = path;
+      this.trie = trie;
+      this.inheritedDepth = inheritedDepth;
+    }
+
+    /**
+     * Gets the number of levels of children required below this tree, if it is an expanded path, or is below one.
+     */
+    int getRequiredDepth( int expandedMaxDepth ) {
+      return trie != null && trie.isExpandedPath ? Math.max( inheritedDepth, expandedMaxDepth ) : inheritedDepth;
+    }
 
-      if ( childTree == null ) {
-        // Child does not exist (anymore?).
-        return true;
+    /**
+     * Gets the depth to which the children of this tree must be fetched, if missing; less than 1, if they are not
+     * needed.
+     */
+    int getFetchDepth( int expandedMaxDepth ) {
+      if ( !tree.getFile().isFolder() ) {
+        return 0;
       }
 
-      tree = childTree;
-      childTrees = tree.getChildren();
-      path = path.child( segment );
+      // Getting to the expanded paths below requires the children.
+      int minDepth = trie != null && !trie.children.isEmpty() ? 1 : 0;
+      return Math.max( minDepth, getRequiredDepth( expandedMaxDepth ) );
     }
 
-    // At this point, 'tree' is the tree that represents the last segment of the expanded path.
-    // Now, we need to add the children of this last segment ensuring the specified expanded max depth.
-    addChildrenToExpandedPath( tree, options, getEffectiveExpandedMaxDepth( options ) );
-    return true;
+    @Nullable
+    List<IGenericFileTree> getChildTrees( @NonNull Map<GenericFilePath, List<IGenericFileTree>> fetchedChildTrees ) {
+      return tree.getChildren() != null ? tree.getChildren() : fetchedChildTrees.get( path );
+    }
+  }
+
+  /**
+   * Gets the child trees of several folders, each to a given depth.
+   * <p>
+   * Used to expand paths, one tree level at a time. The default implementation gets the tree of each folder through
+   * {@link #getTree(GetTreeOptions)}, and so from the tree cache, when possible. Providers whose backend can get the
+   * trees of several folders in a single call should override this method.
+   * <p>
+   * Folders whose children cannot be obtained are logged, and left out of the result.
+   *
+   * @param folderPaths The paths of the folders.
+   * @param baseOptions The 'get tree' options of the expanded tree.
+   * @param maxDepth    The depth of the child trees to get, greater than or equal to 1.
+   * @return The child trees, by folder path.
+   * @throws OperationFailedException If the operation fails as a whole.
+   */
+  @NonNull
+  protected Map<GenericFilePath, List<IGenericFileTree>> getChildTreesOfFolders(
+    @NonNull List<GenericFilePath> folderPaths,
+    @NonNull GetTreeOptions baseOptions,
+    int maxDepth ) throws OperationFailedException {
+
+    Map<GenericFilePath, List<IGenericFileTree>> childTreesByPath = new HashMap<>();
+
+    for ( GenericFilePath folderPath : folderPaths ) {
+      List<IGenericFileTree> childTrees = getChildTrees( folderPath, baseOptions, maxDepth );
+      if ( childTrees != null ) {
+        childTreesByPath.put( folderPath, childTrees );
+      }
+    }
+
+    return childTreesByPath;
   }
 
   @Nullable
@@ -261,101 +1028,450 @@ public abstract class BaseGenericFileProvider<T extends IGenericFile> implements
   }
 
   /**
-   * Recursively adds children to the given tree up to a given depth. If expandedMaxDepth is less than 1 or the tree
-   * root is not a folder, then nothing is done.
+   * Sets the children of a tree, or, if it is read-only, of a copy of it.
    *
-   * @param tree             The tree to which children will be added.
-   * @param options          The 'get tree' options.
-   * @param expandedMaxDepth The max depth to which children will be added.
-   * @throws OperationFailedException If an error occurs while getting the children.
+   * @return The given tree, or its copy.
    */
-  private void addChildrenToExpandedPath( @NonNull BaseGenericFileTree tree,
-                                          @NonNull GetTreeOptions options,
-                                          int expandedMaxDepth ) throws OperationFailedException {
-    if ( expandedMaxDepth < 1 || !tree.getFile().isFolder() ) {
-      return;
+  @NonNull
+  private static BaseGenericFileTree withChildren( @NonNull BaseGenericFileTree tree,
+                                                   @NonNull List<IGenericFileTree> children ) {
+    if ( tree instanceof ImmutableGenericFileTree ) {
+      tree = new BaseGenericFileTree( tree.getFile() );
     }
 
-    List<IGenericFileTree> childTrees = tree.getChildren();
+    tree.setChildren( children );
+    return tree;
+  }
+  // endregion
 
-    // If 'tree' has no children yet, try to get them (and even the children of its children) based on the max depth.
-    if ( childTrees == null ) {
-      childTrees = getChildTrees(
-        GenericFilePath.parseRequired( tree.getFile().getPath() ),
-        options,
-        expandedMaxDepth );
+  // region Tree Cache
+  @Override
+  public void clearTreeCache() {
+    cachedTrees.clear();
+  }
 
-      tree.setChildren( childTrees );
-      return;
+  /**
+   * Clears the cached trees affected by a change to a given path, such as its creation, deletion or renaming.
+   * Cached trees of unrelated subtrees are kept.
+   *
+   * @param path The changed path.
+   * @see ITreeCache#invalidate(GenericFilePath)
+   */
+  @Override
+  public void clearTreeCache( @NonNull GenericFilePath path ) {
+    Objects.requireNonNull( path );
+
+    cachedTrees.invalidate( path );
+  }
+
+  @NonNull
+  @Override
+  public TreeCacheStatistics getTreeCacheStatistics() {
+    TreeCacheStatistics statistics = new TreeCacheStatistics();
+    statistics.setHitCount( treeCacheHitCount.sum() );
+    statistics.setMissCount( treeCacheMissCount.sum() );
+    statistics.setLoadCount( treeLoadCount.sum() );
+    statistics.setTotalLoadTimeNanos( treeLoadTimeNanos.sum() );
+    statistics.setEvictionCount( cachedTrees.getEvictionCount() );
+    statistics.setInvalidationCount( cachedTrees.getInvalidationCount() );
+    statistics.setEntryCount( cachedTrees.size() );
+    statistics.setNodeCount( cachedTrees.getNodeCount() );
+    return statistics;
+  }
+
+  /**
+   * Gets the tree cache partition of the current caller.
+   * <p>
+   * Callers in the same partition share cached trees, and in-flight loads. Providers whose trees depend on the
+   * caller, e.g. due to permissions, must override this method to only place two callers in the same partition if
+   * they are guaranteed to get the same tree for the same options.
+   * <p>
+   * The default implementation returns the {@link TreeCacheKey#SHARED_PARTITION}.
+   *
+   * @return The partition.
+   * @see ITreeCachePartitioner
+   */
+  @NonNull
+  protected String getTreeCachePartition() {
+    return TreeCacheKey.SHARED_PARTITION;
+  }
+
+  // region Tree Cache Composition
+  /**
+   * Composes the tree for the given options from the folder listings in the tree cache.
+   * <p>
+   * Any cached tree which covers the requested one is used: a tree rooted at an ancestor of the base path, of a greater
+   * depth, or loaded with the {@link GetTreeOptions.TreeFilter#ALL} filter, is pruned and filtered as needed, as it is
+   * stored as the listings of all of its folders.
+   * <p>
+   * The folders whose listings are missing are loaded as subtrees, as long as there are at most
+   * {@link #MAX_MISSING_FOLDER_LOADS} of them. Otherwise, it is cheaper to load the whole tree with a single call to
+   * {@link #getTreeCore(GetTreeOptions)}, and {@code null} is returned.
+   * <p>
+   * A composed tree is counted in the tree cache statistics as a single hit, or, if any missing subtrees had to be
+   * loaded, as a single miss. The loads of the missing subtrees are not counted as hits or misses of their own.
+   *
+   * @param partition The tree cache partition.
+   * @param options   The 'get tree' options.
+   * @return The composed tree, if the listing of its base path is cached; {@code null}, otherwise.
+   * @throws OperationFailedException If loading a missing subtree, or expanding a path, fails.
+   */
+  @Nullable
+  private BaseGenericFileTree composeFromTreeCache( @NonNull String partition, @NonNull GetTreeOptions options )
+    throws OperationFailedException {
+    List<MissingSubtree> missingSubtrees = new ArrayList<>();
+
+    BaseGenericFileTree tree = composeTree( partition, options, options.getBasePath(), options.getMaxDepth(),
+      missingSubtrees );
+
+    if ( tree == null || missingSubtrees.size() > MAX_MISSING_FOLDER_LOADS ) {
+      return null;
     }
 
-    int nextDepth = expandedMaxDepth - 1;
+    if ( missingSubtrees.isEmpty() ) {
+      treeCacheHitCount.increment();
+    } else {
+      treeCacheMissCount.increment();
+    }
+
+    for ( MissingSubtree missingSubtree : missingSubtrees ) {
+      GetTreeOptions subtreeOptions = new GetTreeOptions( options );
+      subtreeOptions.setBasePath( missingSubtree.path );
+      subtreeOptions.setMaxDepth( missingSubtree.maxDepth );
+      subtreeOptions.setExpandedPaths( null );
+      subtreeOptions.setExpandedMaxDepth( null );
 
-    // If children were previously fetched, then we want to recursively look for its children, controlling the max
-    // depth.
-    for ( IGenericFileTree child : childTrees ) {
-      addChildrenToExpandedPath( (BaseGenericFileTree) child, options, nextDepth );
+      missingSubtree.siblings.set( missingSubtree.index, loadSharedTree( partition, subtreeOptions ) );
     }
+
+    if ( shouldProcessExpandedPath( options ) ) {
+      tree = expandPathsInTree( tree, options );
+    }
+
+    return tree;
   }
 
-  // This method used the getFile().getName() and now uses GenericFilePath to get the last segment from the path of
-  // the same file. This was changed because, in the previous way, the getName(), was returning a URL decoded name
-  // while the expanded paths were using encoded names, causing mismatches.
   @Nullable
-  private IGenericFileTree findChildTreeByName( @NonNull List<IGenericFileTree> childTrees, @NonNull String name ) {
-    return childTrees.stream()
-      .filter( childTree -> equalsName( childTree.getFile(), name ) )
-      .findFirst().orElse( null );
+  private BaseGenericFileTree composeTree( @NonNull String partition,
+                                           @NonNull GetTreeOptions options,
+                                           @Nullable GenericFilePath path,
+                                           @Nullable Integer maxDepth,
+                                           @NonNull List<MissingSubtree> missingSubtrees ) {
+    BaseGenericFileTree listing = getCachedListing( partition, options, path );
+    if ( listing == null ) {
+      return null;
+    }
+
+    List<IGenericFileTree> listingChildTrees = listing.getChildren();
+
+    if ( listingChildTrees == null || ( maxDepth != null && maxDepth == 1 ) ) {
+      // Listings are read-only, and so are shared as is.
+      return listing;
+    }
+
+    if ( maxDepth != null && maxDepth == 0 ) {
+      return new ImmutableGenericFileTree( listing.getFile(), null );
+    }
+
+    Integer childMaxDepth = maxDepth != null ? maxDepth - 1 : null;
+    List<IGenericFileTree> childTrees = new ArrayList<>( listingChildTrees.size() );
+
+    for ( IGenericFileTree listingChildTree : listingChildTrees ) {
+      BaseGenericFile childFile = ( (BaseGenericFileTree) listingChildTree ).getFile();
+      BaseGenericFileTree childTree = null;
+
+      if ( childFile.isFolder() ) {
+        GenericFilePath childPath = parsePath( childFile.getPath() );
+        if ( childPath != null ) {
+          childTree = composeTree( partition, options, childPath, childMaxDepth, missingSubtrees );
+          if ( childTree == null ) {
+            missingSubtrees.add( new MissingSubtree( childTrees, childTrees.size(), childPath, childMaxDepth ) );
+          }
+        }
+      }
+
+      // Files, and folders which could not be composed, share the read-only child tree of the listing.
+      childTrees.add( childTree != null ? childTree : listingChildTree );
+    }
+
+    // Only the nodes above the depth of the listings are created. These are not shared, but can be changed, such as
+    // when filling in missing subtrees.
+    BaseGenericFileTree tree = new BaseGenericFileTree( listing.getFile() );
+    tree.setChildren( childTrees );
+
+    return tree;
   }
 
-  private boolean equalsName( @NonNull IGenericFile file, @NonNull String name ) {
+  /**
+   * Gets the cached folder listing of a given path, for the given options.
+   * <p>
+   * When the listing is not cached for the requested filter, but is cached for the
+   * {@link GetTreeOptions.TreeFilter#ALL} filter, which subsumes all other filters, the listing is derived from the
+   * latter, by filtering its children. The derived listing is not stored, so that the cache holds a single copy of
+   * each folder's children.
+   * <p>
+   * A stale listing is returned, and is refreshed in the background for later requests.
+   *
+   * @return The listing, if cached; {@code null}, otherwise.
+   */
+  @Nullable
+  private BaseGenericFileTree getCachedListing( @NonNull String partition,
+                                                @NonNull GetTreeOptions options,
+                                                @Nullable GenericFilePath path ) {
+    TreeCacheKey listingKey = getListingKey( partition, options, path );
+    BaseGenericFileTree listing = cachedTrees.get( listingKey );
+
+    if ( listing == null && options.getFilter() != GetTreeOptions.TreeFilter.ALL ) {
+      GetTreeOptions allOptions = new GetTreeOptions( options );
+      allOptions.setFilter( GetTreeOptions.TreeFilter.ALL );
+
+      listingKey = getListingKey( partition, allOptions, path );
+      listing = cachedTrees.get( listingKey );
+      if ( listing != null ) {
+        listing = filterListing( listing, options.getFilter() );
+      }
+    }
+
+    if ( listing != null && cachedTrees.isStale( listingKey ) ) {
+      refreshInBackground( partition, listingKey );
+    }
+
+    return listing;
+  }
+
+  @NonNull
+  private static BaseGenericFileTree filterListing( @NonNull BaseGenericFileTree listing,
+                                                    @NonNull GetTreeOptions.TreeFilter filter ) {
+    if ( listing.getChildren() == null ) {
+      return listing;
+    }
+
+    // The child trees of a listing are read-only leaves, and so are shared.
+    List<IGenericFileTree> filteredChildTrees = new ArrayList<>( listing.getChildren().size() );
+    for ( IGenericFileTree childTree : listing.getChildren() ) {
+      if ( filter.passesFilter( childTree.getFile().isFolder() ) ) {
+        filteredChildTrees.add( childTree );
+      }
+    }
+
+    return new ImmutableGenericFileTree( listing.getFile(), filteredChildTrees );
+  }
+
+  /**
+   * A folder of a composed tree whose listing is not cached, and which must be loaded as a subtree.
+   */
+  private static class MissingSubtree {
+    @NonNull
+    final List<IGenericFileTree> siblings;
+    final int index;
+    @NonNull
+    final GenericFilePath path;
+    @Nullable
+    final Integer maxDepth;
+
+    MissingSubtree( @NonNull List<IGenericFileTree> siblings,
+                    int index,
+                    @NonNull GenericFilePath path,
+                    @Nullable Integer maxDepth ) {
+      this.siblings = siblings;
+      this.index = index;
+      this.path = path;
+      this.maxDepth = maxDepth;
+    }
+  }
+  // endregion
+
+  // region Tree Cache Refresh
+  /**
+   * Reloads a stale folder listing, using {@link #getTreeCore(GetTreeOptions)}, in the background.
+   * <p>
+   * A listing which is already being refreshed is not refreshed again. If the refresh fails, the stale listing is
+   * kept, until it expires.
+   */
+  private void refreshInBackground( @NonNull String partition, @NonNull TreeCacheKey listingKey ) {
+    if ( !treeRefreshes.add( listingKey ) ) {
+      return;
+    }
+
+    Runnable refresh = propagateCallerContext( () -> {
+      try {
+        GetTreeOptions options = new GetTreeOptions( listingKey.getOptions() );
+        storeInTreeCache( loadTreeCore( options ), partition, options );
+      } catch ( OperationFailedException | RuntimeException e ) {
+        Logger.error( this.getClass().getName(),
+          "Failed to refresh the cached tree for path: " + listingKey.getOptions().getBasePath(), e );
+      } finally {
+        treeRefreshes.remove( listingKey );
+      }
+    } );
+
     try {
-      return name.equals( GenericFilePath.parseRequired( file.getPath() ).getLastSegment() );
-    } catch ( InvalidPathException e ) {
-      Logger.error( this.getClass().getName(), "Failed to parse file path: " + file.getPath(), e );
-      return false;
+      treeRefreshExecutor.execute( refresh );
+    } catch ( RejectedExecutionException e ) {
+      treeRefreshes.remove( listingKey );
+      Logger.error( this.getClass().getName(), "Failed to schedule the refresh of a cached tree.", e );
     }
   }
+
+  /**
+   * Wraps a task, to be run in another thread, so that it runs in the context of the current caller.
+   * <p>
+   * Background refreshes of the tree cache must load the same trees as the caller would, and so must run with its
+   * permissions. The default implementation propagates the current Pentaho session and Spring Security context.
+   * Providers whose {@link #getTreeCore(GetTreeOptions)} depends on other thread-bound state should override this
+   * method.
+   *
+   * @param task The task.
+   * @return The wrapped task.
+   */
+  @NonNull
+  protected Runnable propagateCallerContext( @NonNull Runnable task ) {
+    return CallerContext.propagate( task );
+  }
   // endregion
 
-  // region Tree Cache
-  @Override
-  public void clearTreeCache() {
-    cachedTrees.clear();
+  /**
+   * Copies a shared tree, such as one loaded for a concurrent caller.
+   * <p>
+   * Files are shared, but tree nodes are copied, so that changing the copy does not affect the original.
+   */
+  @NonNull
+  private BaseGenericFileTree copyTree( @NonNull BaseGenericFileTree tree ) {
+    BaseGenericFileTree copyTree = new BaseGenericFileTree( tree.getFile() );
+
+    if ( tree.getChildren() != null ) {
+      List<IGenericFileTree> copyChildren = new ArrayList<>( tree.getChildren().size() );
+      for ( IGenericFileTree child : tree.getChildren() ) {
+        copyChildren.add( copyTree( (BaseGenericFileTree) child ) );
+      }
+
+      copyTree.setChildren( copyChildren );
+    }
+
+    return copyTree;
   }
 
-  @Nullable
-  private BaseGenericFileTree loadFromTreeCache( @NonNull GetTreeOptions options ) {
-    BaseGenericFileTree cachedTree = cachedTrees.get( options );
+  /**
+   * Replaces the read-only nodes of a tree, those shared with the tree cache, by mutable copies.
+   * <p>
+   * The other nodes of a tree, created for the caller when composing it, are kept and changed in place.
+   *
+   * @return The given tree, or, if it is read-only, its copy.
+   */
+  @NonNull
+  private BaseGenericFileTree toMutableTree( @NonNull BaseGenericFileTree tree ) {
+    if ( tree instanceof ImmutableGenericFileTree ) {
+      return copyTree( tree );
+    }
 
-    if ( cachedTree == null ) {
-      return null;
+    List<IGenericFileTree> childTrees = tree.getChildren();
+    if ( childTrees == null ) {
+      return tree;
     }
 
-    // Prevent cache pollution due to reuse across multiple expanded levels.
-    BaseGenericFileTree copyTree = new BaseGenericFileTree( cachedTree.getFile() );
+    List<IGenericFileTree> mutableChildTrees = null;
+    for ( int i = 0; i < childTrees.size(); i++ ) {
+      BaseGenericFileTree childTree = (BaseGenericFileTree) childTrees.get( i );
+      BaseGenericFileTree mutableChildTree = toMutableTree( childTree );
+      if ( mutableChildTree != childTree ) {
+        if ( mutableChildTrees == null ) {
+          mutableChildTrees = new ArrayList<>( childTrees );
+        }
+
+        mutableChildTrees.set( i, mutableChildTree );
+      }
+    }
 
-    if ( cachedTree.getChildren() != null ) {
-      copyTree.setChildren( List.copyOf( cachedTree.getChildren() ) );
+    if ( mutableChildTrees != null ) {
+      tree.setChildren( mutableChildTrees );
     }
 
-    return copyTree;
+    return tree;
   }
 
+  /**
+   * Stores the folder listings of a loaded tree in the tree cache.
+   * <p>
+   * Each folder whose children are included in the tree is stored as a tree of depth 1, keyed by its path and by the
+   * options which affect its listing, such as the filter and whether hidden files are included. A tree root which is
+   * a file is stored as well, so that getting its tree can also be served from the cache.
+   */
   private void storeInTreeCache( @NonNull BaseGenericFileTree tree,
-                                 @NonNull GetTreeOptions options,
-                                 @Nullable List<GenericFilePath> effectiveExpandedPaths ) {
-    // Take the chance to store/update the cache, even if bypassing cache.
-    // However, we must create a clone and change bypassCache to false...
-    // Also, store in cache for both the specified expanded paths and for the existing ones.
-    GetTreeOptions cacheOptions = new GetTreeOptions( options );
-    cacheOptions.setBypassCache( false );
-    cachedTrees.put( cacheOptions, tree );
-
-    cacheOptions = new GetTreeOptions( options );
-    cacheOptions.setBypassCache( false );
-    cacheOptions.setExpandedPaths( effectiveExpandedPaths );
-    cachedTrees.put( cacheOptions, tree );
+                                 @NonNull String partition,
+                                 @NonNull GetTreeOptions options ) {
+    if ( tree.getChildren() == null && tree.getFile().isFolder() ) {
+      return;
+    }
+
+    if ( options.getBasePath() == null ) {
+      // Also serve later requests for the whole tree, whose root path is only known after loading it.
+      cachedTrees.put( getListingKey( partition, options, null ), createListing( tree ) );
+    }
+
+    storeListingsInTreeCache( tree, partition, options );
+  }
+
+  private void storeListingsInTreeCache( @NonNull BaseGenericFileTree tree,
+                                         @NonNull String partition,
+                                         @NonNull GetTreeOptions options ) {
+    GenericFilePath path = parsePath( tree.getFile().getPath() );
+    if ( path == null ) {
+      return;
+    }
+
+    cachedTrees.put( getListingKey( partition, options, path ), createListing( tree ) );
+
+    if ( tree.getChildren() != null ) {
+      for ( IGenericFileTree child : tree.getChildren() ) {
+        if ( child.getChildren() != null ) {
+          storeListingsInTreeCache( (BaseGenericFileTree) child, partition, options );
+        }
+      }
+    }
+  }
+
+  @NonNull
+  private static ImmutableGenericFileTree createListing( @NonNull BaseGenericFileTree tree ) {
+    List<IGenericFileTree> listingChildren = null;
+
+    if ( tree.getChildren() != null ) {
+      listingChildren = new ArrayList<>( tree.getChildren().size() );
+      for ( IGenericFileTree child : tree.getChildren() ) {
+        listingChildren.add( new ImmutableGenericFileTree( ( (BaseGenericFileTree) child ).getFile(), null ) );
+      }
+    }
+
+    return new ImmutableGenericFileTree( tree.getFile(), listingChildren );
+  }
+
+  /**
+   * Gets the cache key of the folder listing of a given path.
+   * <p>
+   * The key keeps all options which affect the listing of a folder, such as the filter, and whether hidden files or
+   * metadata are included, and resets those which only affect the shape of the tree.
+   */
+  @NonNull
+  private static TreeCacheKey getListingKey( @NonNull String partition,
+                                             @NonNull GetTreeOptions options,
+                                             @Nullable GenericFilePath path ) {
+    GetTreeOptions listingOptions = new GetTreeOptions( options );
+    listingOptions.setBasePath( path );
+    listingOptions.setMaxDepth( 1 );
+    listingOptions.setExpandedPaths( null );
+    listingOptions.setExpandedMaxDepth( null );
+    listingOptions.setBypassCache( false );
+
+    return new TreeCacheKey( partition, listingOptions );
+  }
+
+  @Nullable
+  private GenericFilePath parsePath( @Nullable String path ) {
+    try {
+      return GenericFilePath.parse( path );
+    } catch ( InvalidPathException e ) {
+      Logger.error( this.getClass().getName(), "Failed to parse file path: " + path, e );
+      return null;
+    }
   }
   // endregion
 }
@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Runs tasks in other threads in the context of the current caller, that is, with its Pentaho session and Spring
+ * Security context.
+ */
+final class CallerContext {
+  private CallerContext() {
+  }
+
+  /**
+   * Wraps a task, to be run in another thread, so that it runs in the context of the current caller.
+   * <p>
+   * The context of the running thread is restored once the task completes.
+   *
+   * @param task The task.
+   * @return The wrapped task.
+   */
+  @NonNull
+  static Runnable propagate( @NonNull Runnable task ) {
+    IPentahoSession callerSession = PentahoSessionHolder.getSession();
+    SecurityContext callerSecurityContext = SecurityContextHolder.getContext();
+
+    return () -> run( callerSession, callerSecurityContext, task );
+  }
+
+  /**
+   * Runs a task in the current thread, with the given Pentaho session and Spring Security context.
+   * <p>
+   * The context of the current thread is restored once the task completes.
+   *
+   * @param session         The Pentaho session, if any.
+   * @param securityContext The Spring Security context.
+   * @param task            The task.
+   */
+  static void run( @Nullable IPentahoSession session,
+                   @NonNull SecurityContext securityContext,
+                   @NonNull Runnable task ) {
+    IPentahoSession previousSession = PentahoSessionHolder.getSession();
+    SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+
+    setSession( session );
+    SecurityContextHolder.setContext( securityContext );
+    try {
+      task.run();
+    } finally {
+      setSession( previousSession );
+      SecurityContextHolder.setContext( previousSecurityContext );
+    }
+  }
+
+  private static void setSession( @Nullable IPentahoSession session ) {
+    if ( session != null ) {
+      PentahoSessionHolder.setSession( session );
+    } else {
+      PentahoSessionHolder.removeSession();
+    }
+  }
+}
@@ -0,0 +1,281 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import com.google.common.io.CountingInputStream;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.ConflictException;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Copies, or moves, files and folders from one provider to another, using only the operations of the generic file
+ * provider interface.
+ * <p>
+ * The content of each file is streamed from {@link IGenericFileProvider#getFileContent(GenericFilePath, boolean)}
+ * straight into {@link IGenericFileProvider#createFile(GenericFilePath, InputStream, CreateFileOptions)}, without being
+ * buffered in full. Folders are copied recursively. The files of each folder are transferred concurrently, with up to
+ * a given number of files in flight, so that reading from the source overlaps writing to the target.
+ * <p>
+ * A move only deletes the source once all of its files are copied, and the copies are verified to exist on the target
+ * with the size of the source. The source is then sent to the trash, rather than permanently deleted, so that it can
+ * still be restored. Existing files and folders on the target are never overwritten.
+ * <p>
+ * When given a {@link BatchOperationHandle}, the transferred bytes of each file are recorded to it, and its
+ * cancellation is checked before each file and sub-folder is transferred.
+ */
+final class CrossProviderFileTransfer {
+  @NonNull
+  private final IGenericFileProvider<?> sourceProvider;
+
+  @NonNull
+  private final IGenericFileProvider<?> targetProvider;
+
+  private final int parallelism;
+
+  @NonNull
+  private final Executor executor;
+
+  @Nullable
+  private final BatchOperationHandle handle;
+
+  /**
+   * Creates a transfer between two providers.
+   *
+   * @param sourceProvider The provider of the files to copy, or move.
+   * @param targetProvider The provider of the destination folder.
+   * @param parallelism    The maximum number of files of a folder which are transferred concurrently.
+   * @param executor       The executor of concurrent file transfers.
+   */
+  CrossProviderFileTransfer( @NonNull IGenericFileProvider<?> sourceProvider,
+                             @NonNull IGenericFileProvider<?> targetProvider,
+                             int parallelism,
+                             @NonNull Executor executor ) {
+    this( sourceProvider, targetProvider, parallelism, executor, null );
+  }
+
+  /**
+   * Creates a transfer between two providers, which records its progress to a batch operation handle.
+   *
+   * @param sourceProvider The provider of the files to copy, or move.
+   * @param targetProvider The provider of the destination folder.
+   * @param parallelism    The maximum number of files of a folder which are transferred concurrently.
+   * @param executor       The executor of concurrent file transfers.
+   * @param handle         The batch operation handle, if any.
+   */
+  CrossProviderFileTransfer( @NonNull IGenericFileProvider<?> sourceProvider,
+                             @NonNull IGenericFileProvider<?> targetProvider,
+                             int parallelism,
+                             @NonNull Executor executor,
+                             @Nullable BatchOperationHandle handle ) {
+    this.sourceProvider = Objects.requireNonNull( sourceProvider );
+    this.targetProvider = Objects.requireNonNull( targetProvider );
+    this.parallelism = parallelism;
+    this.executor = Objects.requireNonNull( executor );
+    this.handle = handle;
+  }
+
+  /**
+   * Copies a file or folder to a destination folder of the target provider.
+   *
+   * @param path              The path of the file or folder to copy.
+   * @param destinationFolder The path of the destination folder.
+   * @throws NotFoundException             If the file, or the destination folder, does not exist.
+   * @throws ConflictException             If a file or folder with the same name exists in the destination folder.
+   * @throws BatchOperationFailedException If some of the files or sub-folders of a folder could not be copied.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  void copy( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    transfer( path, destinationFolder, false );
+  }
+
+  /**
+   * Moves a file or folder to a destination folder of the target provider.
+   * <p>
+   * The file or folder is first copied, and the copies verified. Only if all succeed is the source sent to the trash.
+   * Otherwise, the source is left untouched, along with the copies made so far.
+   *
+   * @param path              The path of the file or folder to move.
+   * @param destinationFolder The path of the destination folder.
+   * @throws NotFoundException             If the file, or the destination folder, does not exist.
+   * @throws ConflictException             If a file or folder with the same name exists in the destination folder.
+   * @throws BatchOperationFailedException If some of the files or sub-folders of a folder could not be copied.
+   * @throws OperationFailedException      If the operation fails for some other (checked) reason.
+   */
+  void move( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    transfer( path, destinationFolder, true );
+
+    sourceProvider.deleteFile( path, false );
+  }
+
+  private void transfer( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder, boolean verify )
+    throws OperationFailedException {
+    Objects.requireNonNull( path );
+    Objects.requireNonNull( destinationFolder );
+
+    if ( !targetProvider.doesFolderExist( destinationFolder ) ) {
+      throw new NotFoundException( String.format( "Destination folder not found '%s'.", destinationFolder ),
+        destinationFolder );
+    }
+
+    IGenericFile file = sourceProvider.getFile( path, new GetFileOptions() );
+    GenericFilePath targetPath = getTargetPath( path, destinationFolder );
+
+    if ( !file.isFolder() ) {
+      transferFile( path, file, targetPath, verify );
+      return;
+    }
+
+    BatchOperationFailedException batchException =
+      new BatchOperationFailedException( String.format( "Error(s) occurred while transferring folder '%s'.", path ) );
+
+    transferFolder( path, targetPath, verify, batchException );
+
+    if ( !batchException.getFailedFiles().isEmpty() ) {
+      throw batchException;
+    }
+  }
+
+  private void transferFolder( @NonNull GenericFilePath path,
+                               @NonNull GenericFilePath targetPath,
+                               boolean verify,
+                               @NonNull BatchOperationFailedException batchException )
+    throws OperationFailedException {
+    if ( !targetProvider.createFolder( targetPath ) ) {
+      throw new ConflictException( String.format( "Folder already exists at '%s'.", targetPath ) );
+    }
+
+    List<GenericFilePath> childFilePaths = new ArrayList<>();
+    Map<GenericFilePath, IGenericFile> childFiles = new HashMap<>();
+
+    for ( IGenericFileTree childTree : getChildTrees( path ) ) {
+      IGenericFile childFile = childTree.getFile();
+      GenericFilePath childPath = GenericFilePath.parseRequired( childFile.getPath() );
+
+      if ( childFile.isFolder() ) {
+        // Recursing in the current thread bounds the number of concurrent transfers by the parallelism.
+        try {
+          checkCancelled();
+          transferFolder( childPath, getTargetPath( childPath, targetPath ), verify, batchException );
+        } catch ( OperationFailedException e ) {
+          batchException.addFailedPath( childPath, e );
+        }
+      } else {
+        childFilePaths.add( childPath );
+        childFiles.put( childPath, childFile );
+      }
+    }
+
+    PathBatchRunner.run( childFilePaths, parallelism, executor,
+      childPath -> transferFile( childPath, childFiles.get( childPath ), getTargetPath( childPath, targetPath ),
+        verify ),
+      batchException );
+  }
+
+  @NonNull
+  private List<IGenericFileTree> getChildTrees( @NonNull GenericFilePath path ) throws OperationFailedException {
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( path );
+    options.setMaxDepth( 1 );
+    options.setIncludeHidden( true );
+    options.setBypassCache( true );
+
+    List<IGenericFileTree> children = sourceProvider.getTree( options ).getChildren();
+    return children != null ? children : List.of();
+  }
+
+  private void transferFile( @NonNull GenericFilePath path,
+                             @NonNull IGenericFile file,
+                             @NonNull GenericFilePath targetPath,
+                             boolean verify )
+    throws OperationFailedException {
+    checkCancelled();
+
+    IGenericFileContent content = sourceProvider.getFileContent( path, false );
+
+    long copiedSize;
+    try ( CountingInputStream input = new CountingInputStream( content.getInputStream() ) ) {
+      targetProvider.createFile( targetPath, input, new CreateFileOptions() );
+      copiedSize = input.getCount();
+    } catch ( IOException e ) {
+      throw new OperationFailedException( e );
+    }
+
+    if ( handle != null ) {
+      handle.recordTransferredBytes( copiedSize );
+    }
+
+    if ( verify ) {
+      verifyFile( path, file, targetPath, copiedSize );
+    }
+  }
+
+  /**
+   * Verifies that a copied file exists on the target provider and that, where the providers report file sizes, these
+   * match the number of copied bytes.
+   */
+  private void verifyFile( @NonNull GenericFilePath path,
+                           @NonNull IGenericFile file,
+                           @NonNull GenericFilePath targetPath,
+                           long copiedSize )
+    throws OperationFailedException {
+    IGenericFile targetFile = targetProvider.getFile( targetPath, new GetFileOptions() );
+
+    // A size of zero is also reported by providers which do not know the size of files.
+    boolean isSourceSizeMismatch = file.getFileSize() > 0 && file.getFileSize() != copiedSize;
+    boolean isTargetSizeMismatch = targetFile.getFileSize() > 0 && targetFile.getFileSize() != copiedSize;
+
+    if ( isSourceSizeMismatch || isTargetSizeMismatch ) {
+      throw new OperationFailedException( String.format(
+        "Copy of '%s' to '%s' could not be verified: copied %d bytes, source has %d bytes, copy has %d bytes.",
+        path, targetPath, copiedSize, file.getFileSize(), targetFile.getFileSize() ) );
+    }
+  }
+
+  private void checkCancelled() throws OperationCancelledException {
+    if ( handle != null ) {
+      handle.checkCancelled();
+    }
+  }
+
+  @NonNull
+  private static GenericFilePath getTargetPath( @NonNull GenericFilePath path,
+                                                @NonNull GenericFilePath destinationFolder )
+    throws InvalidPathException {
+    return destinationFolder.child( path.getLastSegment() );
+  }
+}
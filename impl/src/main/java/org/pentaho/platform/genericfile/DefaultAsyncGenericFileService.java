@@ -0,0 +1,340 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.FindOptions;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.GenericFilePermission;
+import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetFilesResult;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.IAsyncGenericFileService;
+import org.pentaho.platform.api.genericfile.IGenericFileService;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.ListFolderOptions;
+import org.pentaho.platform.api.genericfile.ListFolderResult;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileAcl;
+import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
+import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * An asynchronous facade of a generic file service, which runs each operation of the service in a given executor.
+ * <p>
+ * Operations run in the context of the caller, that is, with its Pentaho session and Spring Security context. By
+ * default, operations run in the executor shared by all services to query providers, which uses virtual threads,
+ * when these are available. Waiting for repository or VFS round-trips then does not hold platform threads.
+ */
+public class DefaultAsyncGenericFileService implements IAsyncGenericFileService {
+  @NonNull
+  private final IGenericFileService service;
+
+  @NonNull
+  private final Executor executor;
+
+  /**
+   * Represents an operation of the generic file service which returns a result.
+   *
+   * @param <T> The type of result.
+   */
+  @FunctionalInterface
+  private interface IServiceCall<T> {
+    T call() throws OperationFailedException;
+  }
+
+  /**
+   * Represents an operation of the generic file service which returns no result.
+   */
+  @FunctionalInterface
+  private interface IServiceAction {
+    void run() throws OperationFailedException;
+  }
+
+  public DefaultAsyncGenericFileService( @NonNull IGenericFileService service ) {
+    this( service, null );
+  }
+
+  /**
+   * Creates an asynchronous facade of a generic file service.
+   *
+   * @param service  The generic file service.
+   * @param executor The executor of operations. When {@code null}, the executor shared by all services to query
+   *                 providers is used.
+   */
+  public DefaultAsyncGenericFileService( @NonNull IGenericFileService service, @Nullable Executor executor ) {
+    this.service = Objects.requireNonNull( service );
+    this.executor = executor != null ? executor : DefaultGenericFileService.DefaultProviderExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * Gets the generic file service whose operations are run asynchronously.
+   *
+   * @return The generic file service.
+   */
+  @NonNull
+  public IGenericFileService getService() {
+    return service;
+  }
+
+  /**
+   * Gets the executor of operations.
+   *
+   * @return The executor.
+   */
+  @NonNull
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<IGenericFileTree> getTree( @NonNull GetTreeOptions options ) {
+    return supplyAsync( () -> service.getTree( options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<IGenericFileTree>> getRootTrees( @NonNull GetTreeOptions options ) {
+    return supplyAsync( () -> service.getRootTrees( options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> walkTree( @NonNull GetTreeOptions options,
+                                              @NonNull IGenericFileVisitor visitor ) {
+    return supplyAsync( () -> service.walkTree( options, visitor ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> doesFolderExist( @NonNull GenericFilePath path ) {
+    return supplyAsync( () -> service.doesFolderExist( path ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> createFolder( @NonNull GenericFilePath path ) {
+    return supplyAsync( () -> service.createFolder( path ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> createFile( @NonNull GenericFilePath path,
+                                             @NonNull InputStream content,
+                                             @NonNull CreateFileOptions createFileOptions ) {
+    return runAsync( () -> service.createFile( path, content, createFileOptions ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> setFileContent( @NonNull GenericFilePath path, @NonNull InputStream content ) {
+    return runAsync( () -> service.setFileContent( path, content ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> hasAccess( @NonNull GenericFilePath path,
+                                               @NonNull EnumSet<GenericFilePermission> permissions ) {
+    return supplyAsync( () -> service.hasAccess( path, permissions ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<IGenericFileContent> getFileContent( @NonNull GenericFilePath path, boolean compressed ) {
+    return supplyAsync( () -> service.getFileContent( path, compressed ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<IGenericFile> getFile( @NonNull GenericFilePath path, @NonNull GetFileOptions options ) {
+    return supplyAsync( () -> service.getFile( path, options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<GetFilesResult> getFiles( @NonNull List<GenericFilePath> paths,
+                                                     @NonNull GetFileOptions options ) {
+    return supplyAsync( () -> service.getFiles( paths, options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<ListFolderResult> listFolder( @NonNull GenericFilePath path,
+                                                        @NonNull ListFolderOptions options ) {
+    return supplyAsync( () -> service.listFolder( path, options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<IGenericFile>> find( @NonNull GenericFilePath basePath,
+                                                     @NonNull FindOptions options ) {
+    return supplyAsync( () -> service.find( basePath, options ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<List<IGenericFile>> getDeletedFiles() {
+    return supplyAsync( service::getDeletedFiles );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent ) {
+    return runAsync( () -> service.deleteFiles( paths, permanent ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> deleteFiles( @NonNull List<GenericFilePath> paths,
+                                              boolean permanent,
+                                              @NonNull BatchOperationHandle handle ) {
+    return runAsync( () -> service.deleteFiles( paths, permanent, handle ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> deleteFilesPermanently( @NonNull List<GenericFilePath> paths ) {
+    return runAsync( () -> service.deleteFilesPermanently( paths ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> restoreFiles( @NonNull List<GenericFilePath> paths ) {
+    return runAsync( () -> service.restoreFiles( paths ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> restoreFiles( @NonNull List<GenericFilePath> paths,
+                                               @NonNull BatchOperationHandle handle ) {
+    return runAsync( () -> service.restoreFiles( paths, handle ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> renameFile( @NonNull GenericFilePath path, @NonNull String newName ) {
+    return supplyAsync( () -> service.renameFile( path, newName ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> copyFiles( @NonNull List<GenericFilePath> paths,
+                                            @NonNull GenericFilePath destinationFolder ) {
+    return runAsync( () -> service.copyFiles( paths, destinationFolder ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> copyFiles( @NonNull List<GenericFilePath> paths,
+                                            @NonNull GenericFilePath destinationFolder,
+                                            @NonNull BatchOperationHandle handle ) {
+    return runAsync( () -> service.copyFiles( paths, destinationFolder, handle ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> moveFiles( @NonNull List<GenericFilePath> paths,
+                                            @NonNull GenericFilePath destinationFolder ) {
+    return runAsync( () -> service.moveFiles( paths, destinationFolder ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> moveFiles( @NonNull List<GenericFilePath> paths,
+                                            @NonNull GenericFilePath destinationFolder,
+                                            @NonNull BatchOperationHandle handle ) {
+    return runAsync( () -> service.moveFiles( paths, destinationFolder, handle ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<IGenericFileMetadata> getFileMetadata( @NonNull GenericFilePath path ) {
+    return supplyAsync( () -> service.getFileMetadata( path ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> setFileMetadata( @NonNull GenericFilePath path,
+                                                  @NonNull IGenericFileMetadata metadata ) {
+    return runAsync( () -> service.setFileMetadata( path, metadata ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<IGenericFileAcl> getFileAcl( @NonNull GenericFilePath path, boolean forceInheriting ) {
+    return supplyAsync( () -> service.getFileAcl( path, forceInheriting ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Void> setFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl ) {
+    return runAsync( () -> service.setFileAcl( path, acl ) );
+  }
+
+  @NonNull
+  @Override
+  public CompletableFuture<Boolean> validateFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl ) {
+    return supplyAsync( () -> service.validateFileAcl( path, acl ) );
+  }
+
+  @NonNull
+  private CompletableFuture<Void> runAsync( @NonNull IServiceAction action ) {
+    return supplyAsync( () -> {
+      action.run();
+      return null;
+    } );
+  }
+
+  /**
+   * Runs an operation of the service in the executor, in the context of the caller.
+   * <p>
+   * The returned future completes exceptionally with the (possibly checked) exception thrown by the operation, as is,
+   * which is why {@link CompletableFuture#supplyAsync(java.util.function.Supplier, Executor)} is not used. If the
+   * executor rejects the operation, the returned future completes exceptionally with the
+   * {@link RejectedExecutionException}.
+   */
+  @NonNull
+  private <T> CompletableFuture<T> supplyAsync( @NonNull IServiceCall<T> call ) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+
+    Runnable task = () -> {
+      try {
+        future.complete( call.call() );
+      } catch ( OperationFailedException | RuntimeException | Error e ) {
+        future.completeExceptionally( e );
+      }
+    };
+
+    try {
+      executor.execute( CallerContext.propagate( task ) );
+    } catch ( RejectedExecutionException e ) {
+      future.completeExceptionally( e );
+    }
+
+    return future;
+  }
+}
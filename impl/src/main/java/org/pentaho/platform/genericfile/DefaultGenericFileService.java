@@ -14,18 +14,33 @@
 package org.pentaho.platform.genericfile;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.FindOptions;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GenericFilePermission;
 import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetFilesResult;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
 import org.pentaho.platform.api.genericfile.IGenericFileDecorator;
 import org.pentaho.platform.api.genericfile.IGenericFileProvider;
 import org.pentaho.platform.api.genericfile.IGenericFileService;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.ListFolderOptions;
+import org.pentaho.platform.api.genericfile.ListFolderResult;
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+import org.pentaho.platform.api.genericfile.ProviderStatus;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+import org.pentaho.platform.api.genericfile.exception.AccessControlException;
 import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.InvalidGenericFileProviderException;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
 import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
 import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.ResourceAccessDeniedException;
 import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
 import org.pentaho.platform.api.genericfile.model.IGenericFile;
 import org.pentaho.platform.api.genericfile.model.IGenericFileAcl;
@@ -33,16 +48,36 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
 import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
 import org.pentaho.platform.genericfile.decorators.NullGenericFileDecorator;
-import org.pentaho.platform.genericfile.model.BaseGenericFile;
+import org.pentaho.platform.genericfile.management.GenericFileOperation;
+import org.pentaho.platform.genericfile.management.OperationMetrics;
+import org.pentaho.platform.genericfile.management.OperationStatisticsMBeanRegistrar;
+import org.pentaho.platform.genericfile.management.TreeCacheStatisticsMBeanRegistrar;
 import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
+import org.pentaho.platform.genericfile.model.MultipleProviderRootFile;
+import org.pentaho.platform.genericfile.model.UnavailableProviderRootFile;
 import org.pentaho.platform.util.logging.Logger;
 
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SuppressWarnings( "unused" )
 public class DefaultGenericFileService implements IGenericFileService {
@@ -50,9 +85,98 @@ public class DefaultGenericFileService implements IGenericFileService {
   static final String MULTIPLE_PROVIDER_ROOT_PROVIDER = "combined";
   @VisibleForTesting
   static final String MULTIPLE_PROVIDER_ROOT_NAME = "root";
+
+  public static final Duration DEFAULT_PROVIDER_TIMEOUT = Duration.ofSeconds( 30 );
+  public static final int DEFAULT_PROVIDER_FAILURE_THRESHOLD = 3;
+  public static final Duration DEFAULT_PROVIDER_RETRY_DELAY = Duration.ofSeconds( 30 );
+  public static final int DEFAULT_PROVIDER_BATCH_PARALLELISM = 8;
+  public static final int DEFAULT_NATIVE_BATCH_SIZE = 100;
+
   private final List<IGenericFileProvider<?>> fileProviders;
   private final IGenericFileDecorator fileDecorator;
 
+  @NonNull
+  private final ProviderRoutingIndex providerRoutingIndex;
+
+  @NonNull
+  private final Executor treeCacheWarmUpExecutor;
+
+  @NonNull
+  private List<GetTreeOptions> treeCacheWarmUpOptions = List.of();
+
+  @NonNull
+  private List<TreeCacheWarmUpContext> treeCacheWarmUpContexts = List.of();
+
+  @NonNull
+  private Executor providerExecutor = DefaultProviderExecutorHolder.INSTANCE;
+
+  @Nullable
+  private Duration providerTimeout = DEFAULT_PROVIDER_TIMEOUT;
+
+  private int providerFailureThreshold = DEFAULT_PROVIDER_FAILURE_THRESHOLD;
+
+  @NonNull
+  private Duration providerRetryDelay = DEFAULT_PROVIDER_RETRY_DELAY;
+
+  private int providerBatchParallelism = DEFAULT_PROVIDER_BATCH_PARALLELISM;
+
+  private int nativeBatchSize = DEFAULT_NATIVE_BATCH_SIZE;
+
+  @NonNull
+  private final OperationMetrics operationMetrics = new OperationMetrics();
+
+  @Nullable
+  private TreeCacheStatisticsMBeanRegistrar treeCacheStatisticsMBeanRegistrar;
+
+  @Nullable
+  private OperationStatisticsMBeanRegistrar operationStatisticsMBeanRegistrar;
+
+  /**
+   * The circuit breaker of each provider. Replaced as a whole when settings change.
+   */
+  @NonNull
+  private volatile Map<IGenericFileProvider<?>, ProviderCircuitBreaker> providerCircuitBreakers;
+
+  /**
+   * Lazily creates the executor shared by all services to warm up tree caches. Warm-ups run one at a time, so that
+   * they do not compete with interactive requests for more than one repository connection.
+   */
+  private static class DefaultTreeCacheWarmUpExecutorHolder {
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    static final Executor INSTANCE = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = new Thread( runnable, "generic-file-tree-warm-up-" + threadNumber.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
+  /**
+   * Lazily creates the executor shared by all services to query providers concurrently. Uses virtual threads, when
+   * these are available, and, otherwise, a cached pool of daemon threads.
+   * <p>
+   * Also the default executor of {@link DefaultAsyncGenericFileService}.
+   */
+  static class DefaultProviderExecutorHolder {
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    static final Executor INSTANCE = createExecutor();
+
+    @NonNull
+    private static Executor createExecutor() {
+      try {
+        // Looked up reflectively, so as to still run on Java versions without virtual threads.
+        return (Executor) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" ).invoke( null );
+      } catch ( ReflectiveOperationException e ) {
+        return Executors.newCachedThreadPool( runnable -> {
+          Thread thread = new Thread( runnable, "generic-file-provider-" + threadNumber.incrementAndGet() );
+          thread.setDaemon( true );
+          return thread;
+        } );
+      }
+    }
+  }
+
   public DefaultGenericFileService( @NonNull List<IGenericFileProvider<?>> fileProviders )
     throws InvalidGenericFileProviderException {
     this( fileProviders, new NullGenericFileDecorator() );
@@ -61,6 +185,23 @@ public class DefaultGenericFileService implements IGenericFileService {
   public DefaultGenericFileService( @NonNull List<IGenericFileProvider<?>> fileProviders,
                                     @NonNull IGenericFileDecorator fileDecorator )
     throws InvalidGenericFileProviderException {
+    this( fileProviders, fileDecorator, null );
+  }
+
+  /**
+   * Creates a service which warms up tree caches using the given executor.
+   *
+   * @param fileProviders           The generic file providers.
+   * @param fileDecorator           The generic file decorator.
+   * @param treeCacheWarmUpExecutor The executor of tree cache warm-ups. When {@code null}, an executor shared by all
+   *                                services is used.
+   * @throws InvalidGenericFileProviderException If the list of providers is empty.
+   * @see #warmUpTreeCache(List)
+   */
+  public DefaultGenericFileService( @NonNull List<IGenericFileProvider<?>> fileProviders,
+                                    @NonNull IGenericFileDecorator fileDecorator,
+                                    @Nullable Executor treeCacheWarmUpExecutor )
+    throws InvalidGenericFileProviderException {
     Objects.requireNonNull( fileProviders );
     Objects.requireNonNull( fileDecorator );
 
@@ -71,6 +212,11 @@ public class DefaultGenericFileService implements IGenericFileService {
     // Create defensive copy to disallow external modification (and be sure there's always >= 1 provider).
     this.fileProviders = new ArrayList<>( fileProviders );
     this.fileDecorator = fileDecorator;
+    this.providerRoutingIndex = new ProviderRoutingIndex( this.fileProviders );
+    this.treeCacheWarmUpExecutor = treeCacheWarmUpExecutor != null
+      ? treeCacheWarmUpExecutor
+      : DefaultTreeCacheWarmUpExecutorHolder.INSTANCE;
+    this.providerCircuitBreakers = createProviderCircuitBreakers( providerFailureThreshold, providerRetryDelay );
   }
 
   @Override
@@ -83,29 +229,652 @@ public class DefaultGenericFileService implements IGenericFileService {
         Logger.error( this.getClass().getName(), "Error clearing tree cache.", e );
       }
     }
+
+    warmUpTreeCache();
+  }
+
+  @Override
+  public void clearTreeCache( @NonNull GenericFilePath path ) throws OperationFailedException {
+    // When no provider owns the path, there is nothing cached for it.
+    Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+    if ( fileProvider.isPresent() ) {
+      fileProvider.get().clearTreeCache( path );
+
+      warmUpTreeCache();
+    }
+  }
+
+  // region Provider Fan-Out
+  /**
+   * Gets the executor used to call providers concurrently, in operations which aggregate the results of all providers,
+   * in batch operations, and in transfers of files between providers.
+   *
+   * @return The executor.
+   * @see #setProviderExecutor(Executor)
+   */
+  @NonNull
+  public Executor getProviderExecutor() {
+    return providerExecutor;
+  }
+
+  /**
+   * Sets the executor used to call providers concurrently.
+   * <p>
+   * It is used by:
+   * <ul>
+   *   <li>operations which aggregate the results of all providers, such as {@link #getRootTrees(GetTreeOptions)},
+   *   {@link #getTree(GetTreeOptions)}, without a base path, and {@link #getDeletedFiles()}, so that their latency is
+   *   that of the slowest provider, instead of the sum of that of all providers. Results are still merged in provider
+   *   order;</li>
+   *   <li>batch operations, such as {@link #deleteFiles(List, boolean)}, to process the paths of each provider
+   *   without {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations}, up to the
+   *   {@link #setProviderBatchParallelism(int) batch parallelism} at a time;</li>
+   *   <li>copies and moves of folders between providers, to transfer their files.</li>
+   * </ul>
+   * <p>
+   * Batch operations and transfers perform part of the work in the calling thread, and never wait for work which is
+   * still queued in the executor, and so a bounded executor, or one shared with other uses, does not cause them to
+   * deadlock. Its size does, however, limit the concurrency of all of the above.
+   * <p>
+   * Defaults to an executor shared by all services, which uses virtual threads when these are available. The same
+   * executor is the default executor of {@link DefaultAsyncGenericFileService}. Setting an executor on this service
+   * does not change the executor of an asynchronous service wrapping it.
+   *
+   * @param providerExecutor The executor. When {@code null}, the default executor is used.
+   */
+  public void setProviderExecutor( @Nullable Executor providerExecutor ) {
+    this.providerExecutor = providerExecutor != null ? providerExecutor : DefaultProviderExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * Gets the time within which each provider must respond, in operations which aggregate the results of all
+   * providers.
+   *
+   * @return The timeout, if any; {@code null}, otherwise.
+   * @see #setProviderTimeout(Duration)
+   */
+  @Nullable
+  public Duration getProviderTimeout() {
+    return providerTimeout;
+  }
+
+  /**
+   * Sets the time within which each provider must respond, in operations which aggregate the results of all
+   * providers.
+   * <p>
+   * Providers which do not respond in time are treated as failed, so that a provider which hangs does not hold back
+   * the results of the others, or the caller. The timeout applies regardless of the number of queried providers, and
+   * so, when set, even a single provider is queried in the {@link #setProviderExecutor(Executor) provider executor}.
+   * <p>
+   * Defaults to {@link #DEFAULT_PROVIDER_TIMEOUT}.
+   *
+   * @param providerTimeout The timeout. When {@code null}, providers are waited for indefinitely. Must be positive.
+   */
+  public void setProviderTimeout( @Nullable Duration providerTimeout ) {
+    if ( providerTimeout != null && ( providerTimeout.isNegative() || providerTimeout.isZero() ) ) {
+      throw new IllegalArgumentException( "Argument 'providerTimeout' must be positive." );
+    }
+
+    this.providerTimeout = providerTimeout;
+  }
+
+  /**
+   * Gets the number of consecutive failures, or timeouts, after which a provider is no longer queried, in operations
+   * which aggregate the results of all providers.
+   *
+   * @return The failure threshold.
+   * @see #setProviderFailureThreshold(int)
+   */
+  public int getProviderFailureThreshold() {
+    return providerFailureThreshold;
+  }
+
+  /**
+   * Sets the number of consecutive failures, or timeouts, after which a provider is no longer queried, in operations
+   * which aggregate the results of all providers.
+   * <p>
+   * Once the {@link #setProviderRetryDelay(Duration) retry delay} elapses, a single operation queries the provider
+   * again. If it succeeds, the provider is queried by all operations again.
+   * <p>
+   * Changing this setting resets the failure history of all providers. Defaults to
+   * {@link #DEFAULT_PROVIDER_FAILURE_THRESHOLD}.
+   *
+   * @param providerFailureThreshold The failure threshold. Must be greater than zero.
+   */
+  public void setProviderFailureThreshold( int providerFailureThreshold ) {
+    this.providerCircuitBreakers = createProviderCircuitBreakers( providerFailureThreshold, providerRetryDelay );
+    this.providerFailureThreshold = providerFailureThreshold;
+  }
+
+  /**
+   * Gets the time after which a provider which is no longer queried, due to repeated failures, is queried again.
+   *
+   * @return The retry delay.
+   * @see #setProviderRetryDelay(Duration)
+   */
+  @NonNull
+  public Duration getProviderRetryDelay() {
+    return providerRetryDelay;
+  }
+
+  /**
+   * Sets the time after which a provider which is no longer queried, due to repeated failures, is queried again.
+   * <p>
+   * Changing this setting resets the failure history of all providers. Defaults to
+   * {@link #DEFAULT_PROVIDER_RETRY_DELAY}.
+   *
+   * @param providerRetryDelay The retry delay. Must be positive.
+   * @see #setProviderFailureThreshold(int)
+   */
+  public void setProviderRetryDelay( @NonNull Duration providerRetryDelay ) {
+    this.providerCircuitBreakers = createProviderCircuitBreakers( providerFailureThreshold, providerRetryDelay );
+    this.providerRetryDelay = providerRetryDelay;
+  }
+
+  @NonNull
+  private Map<IGenericFileProvider<?>, ProviderCircuitBreaker> createProviderCircuitBreakers(
+    int failureThreshold,
+    @NonNull Duration retryDelay ) {
+    Map<IGenericFileProvider<?>, ProviderCircuitBreaker> circuitBreakers = new IdentityHashMap<>();
+    for ( IGenericFileProvider<?> fileProvider : fileProviders ) {
+      circuitBreakers.put( fileProvider, new ProviderCircuitBreaker( failureThreshold, retryDelay, System::nanoTime ) );
+    }
+
+    return circuitBreakers;
+  }
+
+  @VisibleForTesting
+  @NonNull
+  ProviderCircuitBreaker getProviderCircuitBreaker( @NonNull IGenericFileProvider<?> fileProvider ) {
+    return providerCircuitBreakers.get( fileProvider );
+  }
+
+  /**
+   * Represents an operation on a single provider, as part of an operation which aggregates the results of all
+   * providers.
+   *
+   * @param <T> The type of result.
+   */
+  @FunctionalInterface
+  private interface IProviderOperation<T> {
+    T apply( @NonNull IGenericFileProvider<?> fileProvider ) throws OperationFailedException;
+  }
+
+  /**
+   * Represents an operation on a single provider which returns no result.
+   */
+  @FunctionalInterface
+  private interface IProviderAction {
+    void apply( @NonNull IGenericFileProvider<?> fileProvider ) throws OperationFailedException;
+  }
+
+  /**
+   * A call of an operation on a single provider.
+   *
+   * @param <T> The type of result.
+   */
+  private static class ProviderCall<T> {
+    @NonNull
+    final IGenericFileProvider<?> fileProvider;
+
+    /**
+     * The task performing the operation, if the provider is queried; {@code null}, otherwise.
+     */
+    @Nullable
+    final FutureTask<T> task;
+
+    /**
+     * The permit given to the call by the provider's circuit breaker.
+     */
+    @NonNull
+    final ProviderCircuitBreaker.Permit permit;
+
+    /**
+     * The time by which the operation must complete, as given by {@link System#nanoTime()}, if any; {@code null},
+     * otherwise.
+     */
+    @Nullable
+    final Long deadline;
+
+    @Nullable
+    ProviderStatus status;
+
+    ProviderCall( @NonNull IGenericFileProvider<?> fileProvider, @Nullable FutureTask<T> task,
+                  @NonNull ProviderCircuitBreaker.Permit permit, @Nullable Long deadline ) {
+      this.fileProvider = fileProvider;
+      this.task = task;
+      this.permit = permit;
+      this.deadline = deadline;
+    }
+  }
+
+  /**
+   * Starts an operation on each of the given providers, concurrently, in the context of the current caller.
+   * <p>
+   * Operations which cannot be scheduled on the provider executor are performed in the current thread. Providers
+   * which failed repeatedly are skipped.
+   * <p>
+   * The results of the operations should be obtained with {@link #getProviderResult(ProviderCall)}, in provider order,
+   * and, finally, all calls must be passed to {@link #releaseProviderCalls(List)}.
+   *
+   * @param fileProviders     The providers.
+   * @param operation         The operation, under which each call is recorded.
+   * @param providerOperation The operation on a single provider.
+   * @param <T>               The type of result.
+   * @return The calls, in provider order.
+   */
+  @NonNull
+  private <T> List<ProviderCall<T>> applyToProviders( @NonNull List<IGenericFileProvider<?>> fileProviders,
+                                                      @NonNull GenericFileOperation operation,
+                                                      @NonNull IProviderOperation<T> providerOperation ) {
+    Duration timeout = providerTimeout;
+    Long deadline = timeout != null ? System.nanoTime() + timeout.toNanos() : null;
+
+    // Without a deadline to enforce, a single provider has nothing to gain from switching threads.
+    boolean isInCurrentThread = fileProviders.size() == 1 && deadline == null;
+
+    List<ProviderCall<T>> calls = new ArrayList<>( fileProviders.size() );
+
+    for ( IGenericFileProvider<?> fileProvider : fileProviders ) {
+      ProviderCircuitBreaker.Permit permit = getProviderCircuitBreaker( fileProvider ).tryAcquire();
+      if ( permit == ProviderCircuitBreaker.Permit.DENIED ) {
+        calls.add( new ProviderCall<>( fileProvider, null, permit, deadline ) );
+        continue;
+      }
+
+      FutureTask<T> task = new FutureTask<>( () -> callProvider( fileProvider, operation, providerOperation ) );
+      calls.add( new ProviderCall<>( fileProvider, task, permit, deadline ) );
+
+      if ( isInCurrentThread ) {
+        task.run();
+      } else {
+        try {
+          providerExecutor.execute( CallerContext.propagate( task ) );
+        } catch ( RejectedExecutionException e ) {
+          task.run();
+        }
+      }
+    }
+
+    return calls;
+  }
+
+  /**
+   * Gets the result of a provider operation call, waiting for it to complete, if needed, up to its deadline.
+   * <p>
+   * Records the outcome of the call in the provider's circuit breaker, and in the call's
+   * {@link ProviderCall#status status}. Only timeouts and unexpected failures count as failures of the provider.
+   * Failures which depend on the caller, such as a {@link NotFoundException} or an {@link AccessControlException}, show
+   * that the provider is responding, and so count as successes.
+   *
+   * @param call The call.
+   * @param <T>  The type of result.
+   * @return The result.
+   * @throws OperationFailedException If the provider was skipped, if the operation failed with an
+   *                                  {@link OperationFailedException} or did not complete by the deadline, or if the
+   *                                  current thread is interrupted while waiting. Any other exception of the operation
+   *                                  is rethrown as is, as would have happened had it been performed in the current
+   *                                  thread.
+   */
+  private <T> T getProviderResult( @NonNull ProviderCall<T> call ) throws OperationFailedException {
+    FutureTask<T> task = call.task;
+    if ( task == null ) {
+      call.status = ProviderStatus.UNAVAILABLE;
+      throw new OperationFailedException(
+        String.format( "Provider '%s' is unavailable after repeated failures.", call.fileProvider.getType() ) );
+    }
+
+    ProviderCircuitBreaker circuitBreaker = getProviderCircuitBreaker( call.fileProvider );
+    try {
+      T result = call.deadline != null
+        ? task.get( Math.max( 0, call.deadline - System.nanoTime() ), TimeUnit.NANOSECONDS )
+        : task.get();
+
+      call.status = ProviderStatus.AVAILABLE;
+      circuitBreaker.recordSuccess();
+      return result;
+    } catch ( TimeoutException e ) {
+      task.cancel( true );
+
+      call.status = ProviderStatus.TIMED_OUT;
+      circuitBreaker.recordFailure();
+      throw new OperationFailedException(
+        String.format( "Provider '%s' did not respond within %s.", call.fileProvider.getType(), providerTimeout ), e );
+    } catch ( InterruptedException e ) {
+      // The outcome of the call is left unrecorded, for releaseProviderCalls to abandon it.
+      Thread.currentThread().interrupt();
+      throw new OperationFailedException( e );
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+
+      call.status = ProviderStatus.FAILED;
+      if ( isCallerFailure( cause ) ) {
+        circuitBreaker.recordSuccess();
+      } else {
+        circuitBreaker.recordFailure();
+      }
+
+      if ( cause instanceof OperationFailedException operationFailedException ) {
+        throw operationFailedException;
+      }
+
+      if ( cause instanceof RuntimeException runtimeException ) {
+        throw runtimeException;
+      }
+
+      if ( cause instanceof Error error ) {
+        throw error;
+      }
+
+      throw new OperationFailedException( cause );
+    }
+  }
+
+  /**
+   * Determines if a provider operation failed due to the caller's request, rather than due to the provider.
+   *
+   * @param cause The failure of the operation.
+   * @return {@code true}, if the failure depends on the caller; {@code false}, otherwise.
+   */
+  private static boolean isCallerFailure( @Nullable Throwable cause ) {
+    return cause instanceof NotFoundException
+      || cause instanceof AccessControlException
+      || cause instanceof ResourceAccessDeniedException
+      || cause instanceof InvalidPathException;
+  }
+
+  /**
+   * Releases the provider operation calls whose result was not obtained, cancelling their operations.
+   * <p>
+   * A call whose result is not obtained, due to the current thread being interrupted, or due to an unexpected
+   * exception while processing the results of the calls, has no recorded outcome. If it is the probe call of the
+   * provider's circuit breaker, the circuit opens again, instead of being left waiting for the call's outcome.
+   *
+   * @param calls The calls.
+   * @param <T>   The type of result.
+   */
+  private <T> void releaseProviderCalls( @NonNull List<ProviderCall<T>> calls ) {
+    for ( ProviderCall<T> call : calls ) {
+      if ( call.task == null || call.status != null ) {
+        continue;
+      }
+
+      call.task.cancel( true );
+
+      if ( call.permit == ProviderCircuitBreaker.Permit.PROBE ) {
+        getProviderCircuitBreaker( call.fileProvider ).releaseProbe();
+      }
+    }
+  }
+  // endregion
+
+  // region Operation Statistics
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The calls of this service, and those it makes to its providers, are recorded for the operations listed in
+   * {@link GenericFileOperation}. The calls to providers are recorded under their type, and are timed in the thread
+   * which performs them. Calls to providers made by transfers of files between providers are not recorded separately.
+   */
+  @NonNull
+  @Override
+  public List<OperationStatistics> getOperationStatistics() {
+    return operationMetrics.getStatistics();
+  }
+
+  /**
+   * Registers, in the platform MBean server, the MBeans exposing the operation statistics of this service and the tree
+   * cache statistics of its providers.
+   * <p>
+   * This method is meant to be called at startup, e.g. as the initialization method of the service bean, along with
+   * {@link #unregisterMBeans()}, as its destruction method.
+   *
+   * @see OperationStatisticsMBeanRegistrar
+   * @see TreeCacheStatisticsMBeanRegistrar
+   */
+  public synchronized void registerMBeans() {
+    if ( operationStatisticsMBeanRegistrar == null ) {
+      operationStatisticsMBeanRegistrar = new OperationStatisticsMBeanRegistrar( operationMetrics );
+      treeCacheStatisticsMBeanRegistrar = new TreeCacheStatisticsMBeanRegistrar( fileProviders );
+    }
+
+    operationStatisticsMBeanRegistrar.register();
+    treeCacheStatisticsMBeanRegistrar.register();
+  }
+
+  /**
+   * Unregisters the MBeans registered by {@link #registerMBeans()}.
+   */
+  public synchronized void unregisterMBeans() {
+    if ( operationStatisticsMBeanRegistrar != null ) {
+      operationStatisticsMBeanRegistrar.unregister();
+      treeCacheStatisticsMBeanRegistrar.unregister();
+    }
+  }
+
+  /**
+   * Performs an operation of this service, recording the call.
+   */
+  private <T, E extends Exception> T timeCall( @NonNull GenericFileOperation operation,
+                                               @NonNull OperationMetrics.ITimedCall<T, E> call ) throws E {
+    return operationMetrics.timeCall( null, operation, call );
+  }
+
+  /**
+   * Performs an operation of this service which returns no result, recording the call.
+   */
+  private <E extends Exception> void timeRun( @NonNull GenericFileOperation operation,
+                                              @NonNull OperationMetrics.ITimedRun<E> run ) throws E {
+    operationMetrics.timeRun( null, operation, run );
+  }
+
+  /**
+   * Performs an operation on a provider, recording the call under the provider's type.
+   */
+  private <T> T callProvider( @NonNull IGenericFileProvider<?> fileProvider,
+                              @NonNull GenericFileOperation operation,
+                              @NonNull IProviderOperation<T> providerOperation ) throws OperationFailedException {
+    return operationMetrics.timeCall( fileProvider.getType(), operation,
+      () -> providerOperation.apply( fileProvider ) );
   }
 
+  /**
+   * Performs an operation on a provider which returns no result, recording the call under the provider's type.
+   */
+  private void runProvider( @NonNull IGenericFileProvider<?> fileProvider,
+                            @NonNull GenericFileOperation operation,
+                            @NonNull IProviderAction providerAction ) throws OperationFailedException {
+    operationMetrics.timeRun( fileProvider.getType(), operation, () -> providerAction.apply( fileProvider ) );
+  }
+  // endregion
+
+  // region Tree Cache Warm-Up
+  /**
+   * Gets the options of the trees which are preloaded into the tree cache at startup, and after it is cleared.
+   *
+   * @return The options of the trees to preload.
+   * @see #setTreeCacheWarmUpOptions(List)
+   */
+  @NonNull
+  public List<GetTreeOptions> getTreeCacheWarmUpOptions() {
+    return treeCacheWarmUpOptions;
+  }
+
+  /**
+   * Sets the options of the trees which are preloaded into the tree cache at startup, by {@link #warmUpTreeCache()},
+   * and after it is cleared, by {@link #clearTreeCache()} or {@link #clearTreeCache(GenericFilePath)}.
+   * <p>
+   * Trees which are still cached after a partial clear are composed from the cache, and so are cheap to warm up again.
+   * <p>
+   * The trees are loaded in each of the {@link #setTreeCacheWarmUpContexts(List) warm-up contexts}.
+   * <p>
+   * Defaults to an empty list.
+   *
+   * @param optionsTemplates The options of the trees to preload.
+   * @see #warmUpTreeCache(List)
+   */
+  public void setTreeCacheWarmUpOptions( @Nullable List<GetTreeOptions> optionsTemplates ) {
+    this.treeCacheWarmUpOptions = optionsTemplates != null ? copyOptions( optionsTemplates ) : List.of();
+  }
+
+  /**
+   * Gets the contexts in which the trees of tree cache warm-ups are loaded.
+   *
+   * @return The warm-up contexts; an empty list, if trees are loaded in the context of the caller.
+   * @see #setTreeCacheWarmUpContexts(List)
+   */
+  @NonNull
+  public List<TreeCacheWarmUpContext> getTreeCacheWarmUpContexts() {
+    return treeCacheWarmUpContexts;
+  }
+
+  /**
+   * Sets the contexts in which the trees of tree cache warm-ups are loaded, and so the tree cache partitions which are
+   * warmed up.
+   * <p>
+   * Each warm-up, whether at startup or after the cache is cleared, loads the trees once in each of the contexts, one
+   * after the other, whatever the context of the caller.
+   * <p>
+   * Without contexts, the trees are loaded in the context of the caller. At startup there is no user session, and so
+   * the trees land in the {@link org.pentaho.platform.genericfile.cache.TreeCacheKey#SHARED_PARTITION shared
+   * partition}, which only the shared partitioner serves to users, while after a clear they land in the partition of
+   * the clearing user. As such, with the default per-user partitioning, contexts must be configured for warm-ups to
+   * benefit other users.
+   * <p>
+   * Defaults to an empty list.
+   *
+   * @param contexts The warm-up contexts.
+   * @see TreeCacheWarmUpContext
+   */
+  public void setTreeCacheWarmUpContexts( @Nullable List<TreeCacheWarmUpContext> contexts ) {
+    this.treeCacheWarmUpContexts = contexts != null ? List.copyOf( contexts ) : List.of();
+  }
+
+  /**
+   * Preloads the configured trees into the tree cache, in the background, in each of the configured contexts.
+   * <p>
+   * This method is meant to be called at startup, e.g. as the initialization method of the service bean.
+   *
+   * @see #setTreeCacheWarmUpOptions(List)
+   * @see #setTreeCacheWarmUpContexts(List)
+   */
+  public void warmUpTreeCache() {
+    if ( !treeCacheWarmUpOptions.isEmpty() ) {
+      warmUpTreeCache( treeCacheWarmUpOptions );
+    }
+  }
+
+  @Override
+  public void warmUpTreeCache( @NonNull List<GetTreeOptions> optionsTemplates ) {
+    List<GetTreeOptions> optionsList = copyOptions( Objects.requireNonNull( optionsTemplates ) );
+
+    List<TreeCacheWarmUpContext> contexts = treeCacheWarmUpContexts;
+    Runnable loadTrees = () -> {
+      for ( GetTreeOptions options : optionsList ) {
+        warmUpTree( options );
+      }
+    };
+
+    // The context determines the cache partition in which the trees land.
+    Runnable warmUp = contexts.isEmpty()
+      ? CallerContext.propagate( loadTrees )
+      : () -> contexts.forEach( context -> context.run( loadTrees ) );
+
+    try {
+      treeCacheWarmUpExecutor.execute( warmUp );
+    } catch ( RejectedExecutionException e ) {
+      Logger.error( this.getClass().getName(), "Failed to schedule the warm-up of the tree cache.", e );
+    }
+  }
+
+  /**
+   * Loads a tree from the providers which own it, without decorating it.
+   */
+  private void warmUpTree( @NonNull GetTreeOptions options ) {
+    GenericFilePath basePath = options.getBasePath();
+    List<IGenericFileProvider<?>> ownerProviders = basePath == null
+      ? getSelectedTreeProviders( options )
+      : getFirstOwnerFileProvider( basePath )
+        .filter( fileProvider -> isSelectedTreeProvider( fileProvider, options ) )
+        .stream()
+        .toList();
+
+    for ( IGenericFileProvider<?> fileProvider : ownerProviders ) {
+      try {
+        callProvider( fileProvider, GenericFileOperation.GET_TREE, provider -> provider.getTree( options ) );
+      } catch ( OperationFailedException | RuntimeException e ) {
+        // Continue warming up the other trees. But still log each failure.
+        Logger.error( this.getClass().getName(), "Failed to warm up the tree cache for path: " + basePath, e );
+      }
+    }
+  }
+
+  @NonNull
+  private static List<GetTreeOptions> copyOptions( @NonNull List<GetTreeOptions> optionsList ) {
+    return optionsList.stream().map( GetTreeOptions::new ).toList();
+  }
+  // endregion
+
+  @NonNull
+  @Override
+  public Map<String, TreeCacheStatistics> getTreeCacheStatistics() {
+    Map<String, TreeCacheStatistics> statisticsByProviderType = new LinkedHashMap<>();
+
+    for ( IGenericFileProvider<?> fileProvider : fileProviders ) {
+      TreeCacheStatistics statistics = fileProvider.getTreeCacheStatistics();
+      if ( statistics != null ) {
+        statisticsByProviderType.put( fileProvider.getType(), statistics );
+      }
+    }
+
+    return statisticsByProviderType;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * In place of the root trees of a provider which was skipped, after repeated failures, or which did not respond in
+   * time, the list contains a placeholder root tree, whose file is an {@link UnavailableProviderRootFile} holding the
+   * status of the provider. Providers which fail otherwise, such as when the current user cannot access them, are left
+   * out.
+   */
   @NonNull
   @Override
   public List<IGenericFileTree> getRootTrees( @NonNull GetTreeOptions options ) throws OperationFailedException {
+    return timeCall( GenericFileOperation.GET_ROOT_TREES, () -> getRootTreesOfProviders( options ) );
+  }
+
+  @NonNull
+  private List<IGenericFileTree> getRootTreesOfProviders( @NonNull GetTreeOptions options )
+    throws OperationFailedException {
     List<IGenericFileProvider<?>> selectedProviders = getSelectedTreeProviders( options );
+    List<ProviderCall<List<IGenericFileTree>>> calls = applyToProviders( selectedProviders,
+      GenericFileOperation.GET_ROOT_TREES, fileProvider -> fileProvider.getRootTrees( options ) );
     List<IGenericFileTree> rootTrees = new ArrayList<>();
 
     boolean oneProviderSucceeded = false;
     OperationFailedException firstProviderException = null;
 
-    for ( IGenericFileProvider<?> fileProvider : selectedProviders ) {
-      try {
-        rootTrees.addAll( fileProvider.getRootTrees( options ) );
-        oneProviderSucceeded = true;
-      } catch ( OperationFailedException e ) {
-        if ( firstProviderException == null ) {
-          firstProviderException = e;
+    try {
+      for ( ProviderCall<List<IGenericFileTree>> call : calls ) {
+        try {
+          rootTrees.addAll( getProviderResult( call ) );
+          oneProviderSucceeded = true;
+        } catch ( OperationFailedException e ) {
+          if ( firstProviderException == null ) {
+            firstProviderException = e;
+          }
+
+          // Continue, collecting providers that work. But still log failed ones, JIC.
+          Logger.error( this.getClass().getName(), "Error getting root trees.", e );
+
+          if ( call.status == ProviderStatus.TIMED_OUT || call.status == ProviderStatus.UNAVAILABLE ) {
+            rootTrees.add( createUnavailableProviderRootTree( call.fileProvider, call.status ) );
+          }
         }
-
-        // Continue, collecting providers that work. But still log failed ones, JIC.
-        Logger.error( this.getClass().getName(), "Error getting root trees.", e );
       }
+    } finally {
+      releaseProviderCalls( calls );
     }
 
     if ( firstProviderException != null && !oneProviderSucceeded ) {
@@ -114,17 +883,43 @@ public class DefaultGenericFileService implements IGenericFileService {
     }
 
     for ( IGenericFileTree rootTree : rootTrees ) {
-      fileDecorator.decorateTree( rootTree, this, options );
+      if ( !( rootTree.getFile() instanceof UnavailableProviderRootFile ) ) {
+        fileDecorator.decorateTree( rootTree, this, options );
+      }
     }
 
     return rootTrees;
   }
 
+  /**
+   * Creates the placeholder root tree which stands for a provider which was skipped, or which did not respond in time,
+   * in the root trees of multiple providers.
+   * <p>
+   * Like the status of each provider in the {@link MultipleProviderRootFile} of {@link #getTree(GetTreeOptions)}, it
+   * lets clients tell that the trees of the provider are missing, and why.
+   */
+  @NonNull
+  private static IGenericFileTree createUnavailableProviderRootTree( @NonNull IGenericFileProvider<?> fileProvider,
+                                                                     @NonNull ProviderStatus status ) {
+    // Note that the placeholder has a null path.
+    UnavailableProviderRootFile entity = new UnavailableProviderRootFile( status );
+    entity.setName( fileProvider.getName() );
+    entity.setProvider( fileProvider.getType() );
+    entity.setType( IGenericFile.TYPE_FOLDER );
+
+    return new BaseGenericFileTree( entity );
+  }
+
   @NonNull
   @Override
   public IGenericFileTree getTree( @NonNull GetTreeOptions options ) throws OperationFailedException {
     Objects.requireNonNull( options );
 
+    return timeCall( GenericFileOperation.GET_TREE, () -> getTreeOfProviders( options ) );
+  }
+
+  @NonNull
+  private IGenericFileTree getTreeOfProviders( @NonNull GetTreeOptions options ) throws OperationFailedException {
     if ( isSingleProviderMode() ) {
       IGenericFileProvider<?> fileProvider = fileProviders.get( 0 );
 
@@ -138,7 +933,8 @@ public class DefaultGenericFileService implements IGenericFileService {
         throw new NotFoundException( String.format( "Base path not found '%s'.", basePath ), basePath );
       }
 
-      IGenericFileTree tree = fileProvider.getTree( options );
+      IGenericFileTree tree = callProvider( fileProvider, GenericFileOperation.GET_TREE,
+        provider -> provider.getTree( options ) );
       fileDecorator.decorateTree( tree, this, options );
       return tree;
     }
@@ -157,20 +953,31 @@ public class DefaultGenericFileService implements IGenericFileService {
   private IGenericFileTree getTreeFromRoot( @NonNull GetTreeOptions options )
     throws OperationFailedException {
     List<IGenericFileProvider<?>> selectedProviders = getSelectedTreeProviders( options );
-    BaseGenericFileTree rootTree = createMultipleProviderTreeRoot();
+    List<ProviderCall<IGenericFileTree>> calls = applyToProviders( selectedProviders, GenericFileOperation.GET_TREE,
+      fileProvider -> fileProvider.getTree( options ) );
+    MultipleProviderRootFile rootFile = createMultipleProviderRootFile();
+    BaseGenericFileTree rootTree = new BaseGenericFileTree( rootFile );
     OperationFailedException firstProviderException = null;
 
-    for ( IGenericFileProvider<?> fileProvider : selectedProviders ) {
-      try {
-        rootTree.addChild( fileProvider.getTree( options ) );
-      } catch ( OperationFailedException e ) {
-        if ( firstProviderException == null ) {
-          firstProviderException = e;
+    try {
+      for ( ProviderCall<IGenericFileTree> call : calls ) {
+        try {
+          rootTree.addChild( getProviderResult( call ) );
+        } catch ( OperationFailedException e ) {
+          if ( firstProviderException == null ) {
+            firstProviderException = e;
+          }
+
+          // Continue, collecting providers that work. But still log failed ones, JIC.
+          Logger.error( this.getClass().getName(), "Error getting tree from root.", e );
+        } finally {
+          if ( call.status != null ) {
+            rootFile.setProviderStatus( call.fileProvider.getType(), call.status );
+          }
         }
-
-        // Continue, collecting providers that work. But still log failed ones, JIC.
-        Logger.error( this.getClass().getName(), "Error getting tree from root.", e );
       }
+    } finally {
+      releaseProviderCalls( calls );
     }
 
     if ( firstProviderException != null && rootTree.getChildren() == null ) {
@@ -184,25 +991,104 @@ public class DefaultGenericFileService implements IGenericFileService {
   }
 
   @NonNull
-  private static BaseGenericFileTree createMultipleProviderTreeRoot() {
+  private static MultipleProviderRootFile createMultipleProviderRootFile() {
     // Note that the absolute root has a null path.
-    BaseGenericFile entity = new BaseGenericFile();
+    MultipleProviderRootFile entity = new MultipleProviderRootFile();
     entity.setName( MULTIPLE_PROVIDER_ROOT_NAME );
     entity.setProvider( MULTIPLE_PROVIDER_ROOT_PROVIDER );
     entity.setType( IGenericFile.TYPE_FOLDER );
 
-    return new BaseGenericFileTree( entity );
+    return entity;
   }
 
   @NonNull
   private IGenericFileTree getSubTree( @NonNull GenericFilePath basePath, @NonNull GetTreeOptions options )
     throws OperationFailedException {
     // In multi-provider mode, and fetching a subtree based on basePath, the parent path is the parent path of basePath.
-    IGenericFileTree tree = getOwnerTreeFileProvider( basePath, options ).getTree( options );
+    IGenericFileTree tree = callProvider( getOwnerTreeFileProvider( basePath, options ), GenericFileOperation.GET_TREE,
+      fileProvider -> fileProvider.getTree( options ) );
     fileDecorator.decorateTree( tree, this, options );
     return tree;
   }
 
+  /**
+   * Walks a tree of files, visiting each file as the owner provider obtains it.
+   * <p>
+   * Each visited file is decorated, as if by {@link IGenericFileDecorator#decorateTree}, right before being visited.
+   * When walking the root trees, providers whose root trees cannot be obtained are logged and skipped, unless all of
+   * the selected providers fail.
+   */
+  @Override
+  public boolean walkTree( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+    Objects.requireNonNull( options );
+    Objects.requireNonNull( visitor );
+
+    GetFileOptions fileOptions = new GetFileOptions();
+    fileOptions.setIncludeMetadata( options.isIncludeMetadata() );
+
+    IGenericFileVisitor decoratingVisitor = ( file, depth ) -> {
+      fileDecorator.decorateFile( file, this, fileOptions );
+      return visitor.visit( file, depth );
+    };
+
+    return timeCall( GenericFileOperation.WALK_TREE, () -> {
+      GenericFilePath basePath = options.getBasePath();
+      if ( basePath != null ) {
+        return callProvider( getOwnerTreeFileProvider( basePath, options ), GenericFileOperation.WALK_TREE,
+          fileProvider -> fileProvider.walkTree( options, decoratingVisitor ) );
+      }
+
+      return walkRootTrees( options, decoratingVisitor );
+    } );
+  }
+
+  private boolean walkRootTrees( @NonNull GetTreeOptions options, @NonNull IGenericFileVisitor visitor )
+    throws OperationFailedException {
+
+    GetTreeOptions rootOptions = new GetTreeOptions( options );
+    rootOptions.setMaxDepth( 0 );
+    rootOptions.setExpandedPaths( null );
+    rootOptions.setExpandedMaxDepth( null );
+
+    boolean oneProviderSucceeded = false;
+    OperationFailedException firstProviderException = null;
+
+    for ( IGenericFileProvider<?> fileProvider : getSelectedTreeProviders( options ) ) {
+      List<IGenericFileTree> rootTrees;
+      try {
+        rootTrees = callProvider( fileProvider, GenericFileOperation.GET_ROOT_TREES,
+          provider -> provider.getRootTrees( rootOptions ) );
+        oneProviderSucceeded = true;
+      } catch ( OperationFailedException e ) {
+        if ( firstProviderException == null ) {
+          firstProviderException = e;
+        }
+
+        // Continue, walking providers that work. But still log failed ones, JIC.
+        Logger.error( this.getClass().getName(), "Error getting root trees.", e );
+        continue;
+      }
+
+      for ( IGenericFileTree rootTree : rootTrees ) {
+        GetTreeOptions walkOptions = new GetTreeOptions( options );
+        walkOptions.setBasePath( GenericFilePath.parseRequired( rootTree.getFile().getPath() ) );
+
+        if ( !callProvider( fileProvider, GenericFileOperation.WALK_TREE,
+          provider -> provider.walkTree( walkOptions, visitor ) ) ) {
+          return false;
+        }
+      }
+    }
+
+    if ( firstProviderException != null && !oneProviderSucceeded ) {
+      // All providers failed. Opting to throw the error of the first failed one to the caller.
+      throw firstProviderException;
+    }
+
+    return true;
+  }
+
   @NonNull
   private List<IGenericFileProvider<?>> getSelectedTreeProviders( @NonNull GetTreeOptions options ) {
     if ( options.includesAllProviders() ) {
@@ -214,25 +1100,32 @@ public class DefaultGenericFileService implements IGenericFileService {
       .toList();
   }
 
+  private static boolean isSelectedTreeProvider( @NonNull IGenericFileProvider<?> fileProvider,
+                                                 @NonNull GetTreeOptions options ) {
+    return options.includesAllProviders() || options.includesProviderType( fileProvider.getType() );
+  }
+
   @NonNull
   private IGenericFileProvider<?> getOwnerTreeFileProvider( @NonNull GenericFilePath path,
                                                             @NonNull GetTreeOptions options )
     throws NotFoundException {
-    return getSelectedTreeProviders( options ).stream()
-      .filter( fileProvider -> fileProvider.owns( path ) )
-      .findFirst()
+    return providerRoutingIndex.getOwner( path, fileProvider -> isSelectedTreeProvider( fileProvider, options ) )
       .orElseThrow( () -> new NotFoundException( String.format( "Path not found '%s'.", path ) ) );
   }
 
   @Override
   public boolean doesFolderExist( @NonNull GenericFilePath path ) throws OperationFailedException {
-    Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
-    return fileProvider.isPresent() && fileProvider.get().doesFolderExist( path );
+    return timeCall( GenericFileOperation.DOES_FOLDER_EXIST, () -> {
+      Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+      return fileProvider.isPresent() && callProvider( fileProvider.get(), GenericFileOperation.DOES_FOLDER_EXIST,
+        provider -> provider.doesFolderExist( path ) );
+    } );
   }
 
   @Override
   public boolean createFolder( @NonNull GenericFilePath path ) throws OperationFailedException {
-    return getOwnerFileProvider( path ).createFolder( path );
+    return timeCall( GenericFileOperation.CREATE_FOLDER, () -> callProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.CREATE_FOLDER, fileProvider -> fileProvider.createFolder( path ) ) );
   }
 
   @Override
@@ -240,20 +1133,23 @@ public class DefaultGenericFileService implements IGenericFileService {
                           @NonNull InputStream content,
                           @NonNull CreateFileOptions createFileOptions )
     throws OperationFailedException {
-    getOwnerFileProvider( path ).createFile( path, content, createFileOptions );
+    timeRun( GenericFileOperation.CREATE_FILE, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.CREATE_FILE, fileProvider -> fileProvider.createFile( path, content, createFileOptions ) ) );
   }
 
   @Override
   public void setFileContent( @NonNull GenericFilePath path, @NonNull InputStream content )
     throws OperationFailedException {
-    getOwnerFileProvider( path ).setFileContent( path, content );
+    timeRun( GenericFileOperation.SET_FILE_CONTENT, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.SET_FILE_CONTENT, fileProvider -> fileProvider.setFileContent( path, content ) ) );
   }
 
   @NonNull
   @Override
   public IGenericFileContent getFileContent( @NonNull GenericFilePath path, boolean compressed )
     throws OperationFailedException {
-    return getOwnerFileProvider( path ).getFileContent( path, compressed );
+    return timeCall( GenericFileOperation.GET_FILE_CONTENT, () -> callProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.GET_FILE_CONTENT, fileProvider -> fileProvider.getFileContent( path, compressed ) ) );
   }
 
   @NonNull
@@ -266,15 +1162,117 @@ public class DefaultGenericFileService implements IGenericFileService {
   @Override
   public IGenericFile getFile( @NonNull GenericFilePath path, @NonNull GetFileOptions options )
     throws OperationFailedException {
-    IGenericFile file = getOwnerFileProvider( path ).getFile( path, options );
-    fileDecorator.decorateFile( file, this, options );
-    return file;
+    return timeCall( GenericFileOperation.GET_FILE, () -> {
+      IGenericFile file = callProvider( getOwnerFileProvider( path ), GenericFileOperation.GET_FILE,
+        fileProvider -> fileProvider.getFile( path, options ) );
+      fileDecorator.decorateFile( file, this, options );
+      return file;
+    } );
+  }
+
+  /**
+   * Gets several files given their paths.
+   * <p>
+   * The paths are grouped by owner provider, and each provider is given all of its paths in a single
+   * {@link IGenericFileProvider#getFiles(List, GetFileOptions)} call, so that it can resolve them with fewer calls to
+   * its backend. Paths which no provider owns, and all paths of a provider which fails as a whole, are reported as
+   * errors.
+   */
+  @NonNull
+  @Override
+  public GetFilesResult getFiles( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options ) {
+    Objects.requireNonNull( paths );
+    Objects.requireNonNull( options );
+
+    return timeCall( GenericFileOperation.GET_FILES, () -> getFilesOfProviders( paths, options ) );
+  }
+
+  @NonNull
+  private GetFilesResult getFilesOfProviders( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options ) {
+    Map<IGenericFileProvider<?>, List<GenericFilePath>> pathsByProvider = new LinkedHashMap<>();
+    Map<GenericFilePath, OperationFailedException> errors = new HashMap<>();
+
+    Set<GenericFilePath> uniquePaths = new LinkedHashSet<>( paths );
+    for ( GenericFilePath path : uniquePaths ) {
+      Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+      if ( fileProvider.isPresent() ) {
+        pathsByProvider.computeIfAbsent( fileProvider.get(), provider -> new ArrayList<>() ).add( path );
+      } else {
+        errors.put( path, new NotFoundException( String.format( "Path not found '%s'.", path ), path ) );
+      }
+    }
+
+    Map<GenericFilePath, IGenericFile> files = new HashMap<>();
+    for ( Map.Entry<IGenericFileProvider<?>, List<GenericFilePath>> entry : pathsByProvider.entrySet() ) {
+      try {
+        GetFilesResult providerResult = callProvider( entry.getKey(), GenericFileOperation.GET_FILES,
+          fileProvider -> fileProvider.getFiles( entry.getValue(), options ) );
+        files.putAll( providerResult.getFiles() );
+        errors.putAll( providerResult.getErrors() );
+      } catch ( OperationFailedException e ) {
+        entry.getValue().forEach( path -> errors.put( path, e ) );
+      }
+    }
+
+    // Restore the order of the requested paths.
+    GetFilesResult result = new GetFilesResult();
+    for ( GenericFilePath path : uniquePaths ) {
+      IGenericFile file = files.get( path );
+      if ( file == null ) {
+        result.addError( path, errors.getOrDefault( path,
+          new NotFoundException( String.format( "Path not found '%s'.", path ), path ) ) );
+        continue;
+      }
+
+      try {
+        fileDecorator.decorateFile( file, this, options );
+        result.addFile( path, file );
+      } catch ( OperationFailedException e ) {
+        result.addError( path, e );
+      }
+    }
+
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public ListFolderResult listFolder( @NonNull GenericFilePath path, @NonNull ListFolderOptions options )
+    throws OperationFailedException {
+    return timeCall( GenericFileOperation.LIST_FOLDER, () -> {
+      ListFolderResult result = callProvider( getOwnerFileProvider( path ), GenericFileOperation.LIST_FOLDER,
+        fileProvider -> fileProvider.listFolder( path, options ) );
+
+      GetFileOptions fileOptions = new GetFileOptions();
+      fileOptions.setIncludeMetadata( options.isIncludeMetadata() );
+
+      for ( IGenericFile file : result.getFiles() ) {
+        fileDecorator.decorateFile( file, this, fileOptions );
+      }
+
+      return result;
+    } );
+  }
+
+  @NonNull
+  @Override
+  public List<IGenericFile> find( @NonNull GenericFilePath basePath, @NonNull FindOptions options )
+    throws OperationFailedException {
+    return timeCall( GenericFileOperation.FIND, () -> {
+      List<IGenericFile> files = callProvider( getOwnerFileProvider( basePath ), GenericFileOperation.FIND,
+        fileProvider -> fileProvider.find( basePath, options ) );
+
+      GetFileOptions fileOptions = new GetFileOptions();
+      for ( IGenericFile file : files ) {
+        fileDecorator.decorateFile( file, this, fileOptions );
+      }
+
+      return files;
+    } );
   }
 
   private Optional<IGenericFileProvider<?>> getFirstOwnerFileProvider( @NonNull GenericFilePath path ) {
-    return fileProviders.stream()
-      .filter( fileProvider -> fileProvider.owns( path ) )
-      .findFirst();
+    return providerRoutingIndex.getOwner( path );
   }
 
   private IGenericFileProvider<?> getOwnerFileProvider( @NonNull GenericFilePath path ) throws NotFoundException {
@@ -285,30 +1283,44 @@ public class DefaultGenericFileService implements IGenericFileService {
   @Override
   public boolean hasAccess( @NonNull GenericFilePath path, @NonNull EnumSet<GenericFilePermission> permissions )
     throws OperationFailedException {
-    Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
-    return fileProvider.isPresent() && fileProvider.get().hasAccess( path, permissions );
+    return timeCall( GenericFileOperation.HAS_ACCESS, () -> {
+      Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+      return fileProvider.isPresent() && callProvider( fileProvider.get(), GenericFileOperation.HAS_ACCESS,
+        provider -> provider.hasAccess( path, permissions ) );
+    } );
   }
 
   @Override
   @NonNull
   public List<IGenericFile> getDeletedFiles() throws OperationFailedException {
+    return timeCall( GenericFileOperation.GET_DELETED_FILES, this::getDeletedFilesOfProviders );
+  }
+
+  @NonNull
+  private List<IGenericFile> getDeletedFilesOfProviders() throws OperationFailedException {
+    List<ProviderCall<List<IGenericFile>>> calls = applyToProviders( fileProviders,
+      GenericFileOperation.GET_DELETED_FILES, IGenericFileProvider::getDeletedFiles );
     List<IGenericFile> deletedFiles = new ArrayList<>();
 
     boolean oneProviderSucceeded = false;
     OperationFailedException firstProviderException = null;
 
-    for ( IGenericFileProvider<?> fileProvider : fileProviders ) {
-      try {
-        deletedFiles.addAll( fileProvider.getDeletedFiles() );
-        oneProviderSucceeded = true;
-      } catch ( OperationFailedException e ) {
-        if ( firstProviderException == null ) {
-          firstProviderException = e;
+    try {
+      for ( ProviderCall<List<IGenericFile>> call : calls ) {
+        try {
+          deletedFiles.addAll( getProviderResult( call ) );
+          oneProviderSucceeded = true;
+        } catch ( OperationFailedException e ) {
+          if ( firstProviderException == null ) {
+            firstProviderException = e;
+          }
+
+          // Continue, collecting providers that work. But still log failed ones, JIC.
+          Logger.error( this.getClass().getName(), "Error getting deleted files.", e );
         }
-
-        // Continue, collecting providers that work. But still log failed ones, JIC.
-        Logger.error( this.getClass().getName(), "Error getting deleted files.", e );
       }
+    } finally {
+      releaseProviderCalls( calls );
     }
 
     if ( firstProviderException != null && !oneProviderSucceeded ) {
@@ -321,85 +1333,72 @@ public class DefaultGenericFileService implements IGenericFileService {
 
   @Override
   public void deleteFilesPermanently( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
-    BatchOperationFailedException batchException = null;
-
-    for ( GenericFilePath path : paths ) {
-      try {
-        deleteFilePermanently( path );
-      } catch ( OperationFailedException e ) {
-        if ( batchException == null ) {
-          batchException = new BatchOperationFailedException( "Error(s) occurred during permanent deletion." );
-        }
-
-        batchException.addFailedPath( path, e );
-      }
-    }
-
-    if ( batchException != null ) {
-      throw batchException;
-    }
+    timeRun( GenericFileOperation.DELETE_FILES_PERMANENTLY, () ->
+      applyToOwnerProviders( paths, "Error(s) occurred during permanent deletion.",
+        ( fileProvider, providerPaths ) -> runProvider( fileProvider, GenericFileOperation.DELETE_FILES_PERMANENTLY,
+          provider -> provider.deleteFilesPermanently( providerPaths ) ),
+        ( fileProvider, path ) -> runProvider( fileProvider, GenericFileOperation.DELETE_FILE_PERMANENTLY,
+          provider -> provider.deleteFilePermanently( path ) ),
+        new BatchOperationHandle() ) );
   }
 
   @Override
   public void deleteFilePermanently( @NonNull GenericFilePath path ) throws OperationFailedException {
-    getOwnerFileProvider( path ).deleteFilePermanently( path );
+    timeRun( GenericFileOperation.DELETE_FILE_PERMANENTLY, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.DELETE_FILE_PERMANENTLY, fileProvider -> fileProvider.deleteFilePermanently( path ) ) );
   }
 
   @Override
   public void deleteFiles( @NonNull List<GenericFilePath> paths, boolean permanent ) throws OperationFailedException {
-    BatchOperationFailedException batchException = null;
-
-    for ( GenericFilePath path : paths ) {
-      try {
-        deleteFile( path, permanent );
-      } catch ( OperationFailedException e ) {
-        if ( batchException == null ) {
-          batchException = new BatchOperationFailedException( "Error(s) occurred during deletion." );
-        }
-
-        batchException.addFailedPath( path, e );
-      }
-    }
+    deleteFiles( paths, permanent, new BatchOperationHandle() );
+  }
 
-    if ( batchException != null ) {
-      throw batchException;
-    }
+  @Override
+  public void deleteFiles( @NonNull List<GenericFilePath> paths,
+                           boolean permanent,
+                           @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    timeRun( GenericFileOperation.DELETE_FILES, () ->
+      applyToOwnerProviders( paths, "Error(s) occurred during deletion.",
+        ( fileProvider, providerPaths ) -> runProvider( fileProvider, GenericFileOperation.DELETE_FILES,
+          provider -> provider.deleteFiles( providerPaths, permanent ) ),
+        ( fileProvider, path ) -> runProvider( fileProvider, GenericFileOperation.DELETE_FILE,
+          provider -> provider.deleteFile( path, permanent ) ),
+        handle ) );
   }
 
   @Override
   public void deleteFile( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException {
-    getOwnerFileProvider( path ).deleteFile( path, permanent );
+    timeRun( GenericFileOperation.DELETE_FILE, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.DELETE_FILE, fileProvider -> fileProvider.deleteFile( path, permanent ) ) );
   }
 
   @Override
   public void restoreFiles( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
-    BatchOperationFailedException batchException = null;
-
-    for ( GenericFilePath path : paths ) {
-      try {
-        restoreFile( path );
-      } catch ( OperationFailedException e ) {
-        if ( batchException == null ) {
-          batchException = new BatchOperationFailedException( "Error(s) occurred while attempting to restore files." );
-        }
-
-        batchException.addFailedPath( path, e );
-      }
-    }
+    restoreFiles( paths, new BatchOperationHandle() );
+  }
 
-    if ( batchException != null ) {
-      throw batchException;
-    }
+  @Override
+  public void restoreFiles( @NonNull List<GenericFilePath> paths, @NonNull BatchOperationHandle handle )
+    throws OperationFailedException {
+    timeRun( GenericFileOperation.RESTORE_FILES, () ->
+      applyToOwnerProviders( paths, "Error(s) occurred while attempting to restore files.",
+        ( fileProvider, providerPaths ) -> runProvider( fileProvider, GenericFileOperation.RESTORE_FILES,
+          provider -> provider.restoreFiles( providerPaths ) ),
+        ( fileProvider, path ) -> runProvider( fileProvider, GenericFileOperation.RESTORE_FILE,
+          provider -> provider.restoreFile( path ) ),
+        handle ) );
   }
 
   @Override
   public void restoreFile( @NonNull GenericFilePath path ) throws OperationFailedException {
-    getOwnerFileProvider( path ).restoreFile( path );
+    timeRun( GenericFileOperation.RESTORE_FILE, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.RESTORE_FILE, fileProvider -> fileProvider.restoreFile( path ) ) );
   }
 
   @Override
   public boolean renameFile( @NonNull GenericFilePath path, @NonNull String newName ) throws OperationFailedException {
-    return getOwnerFileProvider( path ).renameFile( path, newName );
+    return timeCall( GenericFileOperation.RENAME_FILE, () -> callProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.RENAME_FILE, fileProvider -> fileProvider.renameFile( path, newName ) ) );
   }
 
   protected boolean isDifferentProvider( @NonNull GenericFilePath path1, @NonNull GenericFilePath path2 )
@@ -413,98 +1412,428 @@ public class DefaultGenericFileService implements IGenericFileService {
   @Override
   public void copyFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException {
-    BatchOperationFailedException batchException = null;
+    copyFiles( paths, destinationFolder, new BatchOperationHandle() );
+  }
 
-    for ( GenericFilePath path : paths ) {
-      try {
-        copyFile( path, destinationFolder );
-      } catch ( OperationFailedException e ) {
-        if ( batchException == null ) {
-          batchException = new BatchOperationFailedException( "Error(s) occurred while attempting to copy files." );
-        }
+  @Override
+  public void copyFiles( @NonNull List<GenericFilePath> paths,
+                         @NonNull GenericFilePath destinationFolder,
+                         @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    timeRun( GenericFileOperation.COPY_FILES, () ->
+      applyToDestinationProvider( paths, destinationFolder, "Error(s) occurred while attempting to copy files.",
+        ( fileProvider, providerPaths ) -> runProvider( fileProvider, GenericFileOperation.COPY_FILES,
+          provider -> provider.copyFiles( providerPaths, destinationFolder ) ),
+        ( fileProvider, path ) -> runProvider( fileProvider, GenericFileOperation.COPY_FILE,
+          provider -> provider.copyFile( path, destinationFolder ) ),
+        ( transfer, path ) -> transfer.copy( path, destinationFolder ),
+        handle ) );
+  }
 
-        batchException.addFailedPath( path, e );
+  /**
+   * Copies a file or folder to a destination folder.
+   * <p>
+   * When the destination folder belongs to a different provider than the file or folder, the content of each file is
+   * streamed from one provider to the other.
+   *
+   * @see CrossProviderFileTransfer#copy(GenericFilePath, GenericFilePath)
+   */
+  @Override
+  public void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    timeRun( GenericFileOperation.COPY_FILE, () -> {
+      IGenericFileProvider<?> fileProvider = getOwnerFileProvider( path );
+      IGenericFileProvider<?> destinationProvider = getOwnerFileProvider( destinationFolder );
+
+      if ( fileProvider.equals( destinationProvider ) ) {
+        runProvider( fileProvider, GenericFileOperation.COPY_FILE,
+          provider -> provider.copyFile( path, destinationFolder ) );
+      } else {
+        createFileTransfer( fileProvider, destinationProvider ).copy( path, destinationFolder );
       }
-    }
-
-    if ( batchException != null ) {
-      throw batchException;
-    }
+    } );
   }
 
   @Override
-  public void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+  public void moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException {
-    if ( isDifferentProvider( path, destinationFolder ) ) {
-      throw new UnsupportedOperationException( "Cannot copy files to different providers." );
-    }
+    moveFiles( paths, destinationFolder, new BatchOperationHandle() );
+  }
 
-    getOwnerFileProvider( path ).copyFile( path, destinationFolder );
+  @Override
+  public void moveFiles( @NonNull List<GenericFilePath> paths,
+                         @NonNull GenericFilePath destinationFolder,
+                         @NonNull BatchOperationHandle handle ) throws OperationFailedException {
+    timeRun( GenericFileOperation.MOVE_FILES, () ->
+      applyToDestinationProvider( paths, destinationFolder, "Error(s) occurred while attempting to move files.",
+        ( fileProvider, providerPaths ) -> runProvider( fileProvider, GenericFileOperation.MOVE_FILES,
+          provider -> provider.moveFiles( providerPaths, destinationFolder ) ),
+        ( fileProvider, path ) -> runProvider( fileProvider, GenericFileOperation.MOVE_FILE,
+          provider -> provider.moveFile( path, destinationFolder ) ),
+        ( transfer, path ) -> transfer.move( path, destinationFolder ),
+        handle ) );
   }
 
+  /**
+   * Moves a file or folder to a destination folder.
+   * <p>
+   * When the destination folder belongs to a different provider than the file or folder, the content of each file is
+   * streamed from one provider to the other, and the source is only deleted once all copies are verified.
+   *
+   * @see CrossProviderFileTransfer#move(GenericFilePath, GenericFilePath)
+   */
   @Override
-  public void moveFiles( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+  public void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException {
-    BatchOperationFailedException batchException = null;
+    timeRun( GenericFileOperation.MOVE_FILE, () -> {
+      IGenericFileProvider<?> fileProvider = getOwnerFileProvider( path );
+      IGenericFileProvider<?> destinationProvider = getOwnerFileProvider( destinationFolder );
+
+      if ( fileProvider.equals( destinationProvider ) ) {
+        runProvider( fileProvider, GenericFileOperation.MOVE_FILE,
+          provider -> provider.moveFile( path, destinationFolder ) );
+      } else {
+        createFileTransfer( fileProvider, destinationProvider ).move( path, destinationFolder );
+      }
+    } );
+  }
+
+  @NonNull
+  private CrossProviderFileTransfer createFileTransfer( @NonNull IGenericFileProvider<?> sourceProvider,
+                                                        @NonNull IGenericFileProvider<?> targetProvider ) {
+    return createFileTransfer( sourceProvider, targetProvider, null );
+  }
+
+  @NonNull
+  private CrossProviderFileTransfer createFileTransfer( @NonNull IGenericFileProvider<?> sourceProvider,
+                                                        @NonNull IGenericFileProvider<?> targetProvider,
+                                                        @Nullable BatchOperationHandle handle ) {
+    return new CrossProviderFileTransfer( sourceProvider, targetProvider, providerBatchParallelism,
+      providerExecutor, handle );
+  }
+
+  // region Batch Operations
+  /**
+   * Gets the maximum number of paths of a batch operation which are processed concurrently, for each provider without
+   * {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations}.
+   *
+   * @return The batch parallelism.
+   * @see #setProviderBatchParallelism(int)
+   */
+  public int getProviderBatchParallelism() {
+    return providerBatchParallelism;
+  }
+
+  /**
+   * Sets the maximum number of paths of a batch operation which are processed concurrently, for each provider without
+   * {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations}.
+   * <p>
+   * Batch operations, such as {@link #deleteFiles(List, boolean)}, perform the single path operations of these
+   * providers concurrently, using the {@link #setProviderExecutor(Executor) provider executor}. Providers with native
+   * batch operations receive their paths in calls of up to the {@link #setNativeBatchSize(int) native batch size}
+   * instead.
+   * <p>
+   * Defaults to {@link #DEFAULT_PROVIDER_BATCH_PARALLELISM}. A value of {@code 1} processes paths one at a time, in the
+   * current thread.
+   *
+   * @param providerBatchParallelism The batch parallelism. Must be greater than zero.
+   */
+  public void setProviderBatchParallelism( int providerBatchParallelism ) {
+    if ( providerBatchParallelism <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'providerBatchParallelism' must be greater than zero." );
+    }
+
+    this.providerBatchParallelism = providerBatchParallelism;
+  }
+
+  /**
+   * Gets the maximum number of paths of a batch operation which are passed in a single call to a provider with
+   * {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations}.
+   *
+   * @return The native batch size.
+   * @see #setNativeBatchSize(int)
+   */
+  public int getNativeBatchSize() {
+    return nativeBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of paths of a batch operation which are passed in a single call to a provider with
+   * {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations}.
+   * <p>
+   * The paths of these providers are split into consecutive calls of up to this size, between which progress is
+   * recorded to the {@link BatchOperationHandle batch operation handle}, and its cancellation checked.
+   * <p>
+   * Defaults to {@link #DEFAULT_NATIVE_BATCH_SIZE}.
+   *
+   * @param nativeBatchSize The native batch size. Must be greater than zero.
+   */
+  public void setNativeBatchSize( int nativeBatchSize ) {
+    if ( nativeBatchSize <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'nativeBatchSize' must be greater than zero." );
+    }
+
+    this.nativeBatchSize = nativeBatchSize;
+  }
+
+  /**
+   * Represents an operation on the paths of a batch owned by a single provider.
+   */
+  @FunctionalInterface
+  private interface IProviderBatchOperation {
+    void apply( @NonNull IGenericFileProvider<?> fileProvider, @NonNull List<GenericFilePath> paths )
+      throws OperationFailedException;
+  }
+
+  /**
+   * Represents an operation on a single path of a batch, owned by a given provider.
+   */
+  @FunctionalInterface
+  private interface IProviderPathOperation {
+    void apply( @NonNull IGenericFileProvider<?> fileProvider, @NonNull GenericFilePath path )
+      throws OperationFailedException;
+  }
+
+  /**
+   * Represents an operation on a single path of a batch, owned by a provider other than that of the destination.
+   */
+  @FunctionalInterface
+  private interface IFileTransferOperation {
+    void apply( @NonNull CrossProviderFileTransfer transfer, @NonNull GenericFilePath path )
+      throws OperationFailedException;
+  }
+
+  /**
+   * Performs a batch operation by grouping the given paths by owner provider, and then performing the operation for
+   * each provider, with its paths, in provider order.
+   * <p>
+   * Paths which are not owned by any provider fail with a {@link NotFoundException}. When the operation fails for a
+   * provider as a whole, all of its paths fail with the thrown exception.
+   *
+   * @param paths         The paths.
+   * @param errorMessage  The message of the batch exception.
+   * @param operation     The batch operation, used for providers with native batch operations.
+   * @param pathOperation The single path operation, used for other providers.
+   * @param handle        The batch operation handle.
+   * @throws BatchOperationFailedException If the operation fails, or is cancelled, for some of the paths.
+   * @see #applyToProvider(IGenericFileProvider, List, IProviderBatchOperation, IProviderPathOperation,
+   * BatchOperationHandle, BatchOperationFailedException)
+   */
+  private void applyToOwnerProviders( @NonNull List<GenericFilePath> paths,
+                                      @NonNull String errorMessage,
+                                      @NonNull IProviderBatchOperation operation,
+                                      @NonNull IProviderPathOperation pathOperation,
+                                      @NonNull BatchOperationHandle handle )
+    throws BatchOperationFailedException {
+    handle.start( paths.size() );
+    try {
+      applyToOwnerProviders( paths, operation, pathOperation, handle,
+        new BatchOperationFailedException( errorMessage ) );
+    } finally {
+      handle.complete();
+    }
+  }
+
+  private void applyToOwnerProviders( @NonNull List<GenericFilePath> paths,
+                                      @NonNull IProviderBatchOperation operation,
+                                      @NonNull IProviderPathOperation pathOperation,
+                                      @NonNull BatchOperationHandle handle,
+                                      @NonNull BatchOperationFailedException batchException )
+    throws BatchOperationFailedException {
+    Map<IGenericFileProvider<?>, List<GenericFilePath>> pathsByProvider = new LinkedHashMap<>();
 
     for ( GenericFilePath path : paths ) {
+      Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+      if ( fileProvider.isPresent() ) {
+        pathsByProvider.computeIfAbsent( fileProvider.get(), key -> new ArrayList<>() ).add( path );
+      } else {
+        batchException.addFailedPath( path, new NotFoundException( String.format( "Path not found '%s'.", path ) ) );
+        handle.recordCompleted( true );
+      }
+    }
+
+    for ( Map.Entry<IGenericFileProvider<?>, List<GenericFilePath>> entry : pathsByProvider.entrySet() ) {
+      applyToProvider( entry.getKey(), entry.getValue(), operation, pathOperation, handle, batchException );
+    }
+
+    if ( !batchException.getFailedFiles().isEmpty() ) {
+      throw batchException;
+    }
+  }
+
+  /**
+   * Performs a batch operation, such as a copy or a move, on paths which are moved into a destination folder.
+   * <p>
+   * The paths owned by the provider of the destination folder are handled by that provider. Each of the other paths is
+   * then transferred from its provider, one after the other.
+   * <p>
+   * Paths which are not owned by any provider, or all paths, if the destination folder is not owned by any provider,
+   * fail with a {@link NotFoundException}.
+   *
+   * @param paths             The paths.
+   * @param destinationFolder The destination folder.
+   * @param errorMessage      The message of the batch exception.
+   * @param operation         The batch operation, used for providers with native batch operations.
+   * @param pathOperation     The single path operation, used for other providers.
+   * @param transferOperation The operation used for paths of providers other than the destination one.
+   * @param handle            The batch operation handle.
+   * @throws BatchOperationFailedException If the operation fails, or is cancelled, for some of the paths.
+   */
+  private void applyToDestinationProvider( @NonNull List<GenericFilePath> paths,
+                                           @NonNull GenericFilePath destinationFolder,
+                                           @NonNull String errorMessage,
+                                           @NonNull IProviderBatchOperation operation,
+                                           @NonNull IProviderPathOperation pathOperation,
+                                           @NonNull IFileTransferOperation transferOperation,
+                                           @NonNull BatchOperationHandle handle )
+    throws BatchOperationFailedException {
+    Objects.requireNonNull( destinationFolder );
+
+    handle.start( paths.size() );
+    try {
+      applyToDestinationProvider( paths, destinationFolder, operation, pathOperation, transferOperation, handle,
+        new BatchOperationFailedException( errorMessage ) );
+    } finally {
+      handle.complete();
+    }
+  }
+
+  private void applyToDestinationProvider( @NonNull List<GenericFilePath> paths,
+                                           @NonNull GenericFilePath destinationFolder,
+                                           @NonNull IProviderBatchOperation operation,
+                                           @NonNull IProviderPathOperation pathOperation,
+                                           @NonNull IFileTransferOperation transferOperation,
+                                           @NonNull BatchOperationHandle handle,
+                                           @NonNull BatchOperationFailedException batchException )
+    throws BatchOperationFailedException {
+    Optional<IGenericFileProvider<?>> destinationProvider = getFirstOwnerFileProvider( destinationFolder );
+    List<GenericFilePath> providerPaths = new ArrayList<>();
+    Map<GenericFilePath, IGenericFileProvider<?>> otherProviderPaths = new LinkedHashMap<>();
+
+    for ( GenericFilePath path : paths ) {
+      Optional<IGenericFileProvider<?>> fileProvider = getFirstOwnerFileProvider( path );
+      if ( fileProvider.isEmpty() || destinationProvider.isEmpty() ) {
+        GenericFilePath notFoundPath = fileProvider.isEmpty() ? path : destinationFolder;
+        batchException.addFailedPath( path,
+          new NotFoundException( String.format( "Path not found '%s'.", notFoundPath ) ) );
+        handle.recordCompleted( true );
+      } else if ( fileProvider.get().equals( destinationProvider.get() ) ) {
+        providerPaths.add( path );
+      } else {
+        otherProviderPaths.put( path, fileProvider.get() );
+      }
+    }
+
+    if ( !providerPaths.isEmpty() ) {
+      applyToProvider( destinationProvider.get(), providerPaths, operation, pathOperation, handle, batchException );
+    }
+
+    for ( Map.Entry<GenericFilePath, IGenericFileProvider<?>> entry : otherProviderPaths.entrySet() ) {
       try {
-        moveFile( path, destinationFolder );
+        handle.checkCancelled();
+        transferOperation.apply( createFileTransfer( entry.getValue(), destinationProvider.get(), handle ),
+          entry.getKey() );
+        handle.recordCompleted( false );
       } catch ( OperationFailedException e ) {
-        if ( batchException == null ) {
-          batchException = new BatchOperationFailedException( "Error(s) occurred while attempting to move files." );
-        }
-
-        batchException.addFailedPath( path, e );
+        batchException.addFailedPath( entry.getKey(), e );
+        handle.recordCompleted( true );
       }
     }
 
-    if ( batchException != null ) {
+    if ( !batchException.getFailedFiles().isEmpty() ) {
       throw batchException;
     }
   }
 
-  @Override
-  public void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
-    throws OperationFailedException {
-    if ( isDifferentProvider( path, destinationFolder ) ) {
-      throw new UnsupportedOperationException( "Cannot move files to different providers." );
+  /**
+   * Performs a batch operation on paths owned by a given provider, adding the failed paths to a batch exception.
+   * <p>
+   * A provider with {@link IGenericFileProvider#hasNativeBatchOperations() native batch operations} receives the paths
+   * in consecutive calls of up to the {@link #getNativeBatchSize() native batch size} paths. Otherwise, the single path
+   * operation is performed for each path, with up to the {@link #getProviderBatchParallelism() batch parallelism}
+   * paths processed concurrently.
+   * <p>
+   * The cancellation of the handle is checked between calls, or between paths, and the paths which are not processed
+   * fail with an {@link OperationCancelledException}.
+   *
+   * @param fileProvider   The provider.
+   * @param paths          The paths.
+   * @param operation      The batch operation.
+   * @param pathOperation  The single path operation.
+   * @param handle         The batch operation handle to which progress is recorded.
+   * @param batchException The batch exception to which failed paths are added.
+   */
+  private void applyToProvider( @NonNull IGenericFileProvider<?> fileProvider,
+                                @NonNull List<GenericFilePath> paths,
+                                @NonNull IProviderBatchOperation operation,
+                                @NonNull IProviderPathOperation pathOperation,
+                                @NonNull BatchOperationHandle handle,
+                                @NonNull BatchOperationFailedException batchException ) {
+    if ( !fileProvider.hasNativeBatchOperations() ) {
+      PathBatchRunner.run( paths, providerBatchParallelism, providerExecutor,
+        path -> pathOperation.apply( fileProvider, path ), handle, batchException );
+      return;
     }
 
-    getOwnerFileProvider( path ).moveFile( path, destinationFolder );
+    for ( List<GenericFilePath> chunkPaths : Lists.partition( paths, nativeBatchSize ) ) {
+      int failedCount = 0;
+
+      try {
+        handle.checkCancelled();
+        operation.apply( fileProvider, chunkPaths );
+      } catch ( BatchOperationFailedException e ) {
+        e.getFailedFiles().forEach( batchException::addFailedPath );
+        failedCount = Math.min( e.getFailedFiles().size(), chunkPaths.size() );
+      } catch ( OperationFailedException e ) {
+        for ( GenericFilePath path : chunkPaths ) {
+          batchException.addFailedPath( path, e );
+        }
+
+        failedCount = chunkPaths.size();
+      }
+
+      handle.recordCompleted( chunkPaths.size(), failedCount );
+    }
   }
+  // endregion
 
   @NonNull
   @Override
   public IGenericFileMetadata getFileMetadata( @NonNull GenericFilePath path ) throws OperationFailedException {
-    IGenericFileMetadata metadata = getOwnerFileProvider( path ).getFileMetadata( path );
-    fileDecorator.decorateFileMetadata( metadata, path, this );
-    return metadata;
+    return timeCall( GenericFileOperation.GET_FILE_METADATA, () -> {
+      IGenericFileMetadata metadata = callProvider( getOwnerFileProvider( path ),
+        GenericFileOperation.GET_FILE_METADATA, fileProvider -> fileProvider.getFileMetadata( path ) );
+      fileDecorator.decorateFileMetadata( metadata, path, this );
+      return metadata;
+    } );
   }
 
   @Override
   public void setFileMetadata( @NonNull GenericFilePath path, @NonNull IGenericFileMetadata metadata )
     throws OperationFailedException {
-    getOwnerFileProvider( path ).setFileMetadata( path, metadata );
+    timeRun( GenericFileOperation.SET_FILE_METADATA, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.SET_FILE_METADATA, fileProvider -> fileProvider.setFileMetadata( path, metadata ) ) );
   }
 
   @NonNull
   @Override
   public IGenericFileAcl getFileAcl( @NonNull GenericFilePath path, boolean forceInheriting )
     throws OperationFailedException {
-    return getOwnerFileProvider( path ).getFileAcl( path, forceInheriting );
+    return timeCall( GenericFileOperation.GET_FILE_ACL, () -> callProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.GET_FILE_ACL, fileProvider -> fileProvider.getFileAcl( path, forceInheriting ) ) );
   }
 
   @Override
   public void setFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl )
     throws OperationFailedException {
-    getOwnerFileProvider( path ).setFileAcl( path, acl );
+    timeRun( GenericFileOperation.SET_FILE_ACL, () -> runProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.SET_FILE_ACL, fileProvider -> fileProvider.setFileAcl( path, acl ) ) );
   }
 
   @Override
   public boolean validateFileAcl( @NonNull GenericFilePath path, @NonNull IGenericFileAcl acl )
     throws OperationFailedException {
-    return getOwnerFileProvider( path ).validateFileAcl( acl );
+    return timeCall( GenericFileOperation.VALIDATE_FILE_ACL, () -> callProvider( getOwnerFileProvider( path ),
+      GenericFileOperation.VALIDATE_FILE_ACL, fileProvider -> fileProvider.validateFileAcl( acl ) ) );
   }
 
 }
@@ -0,0 +1,265 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Performs an operation on each path of a batch, with up to a given number of paths being processed concurrently.
+ * <p>
+ * The paths are claimed in order by a number of workers, one of which runs in the current thread, and the others in
+ * the given executor, in the context of the current caller. Once all paths are claimed, workers which have not yet
+ * started are cancelled, and the current thread waits for the started ones to complete. Runners never wait for workers
+ * which are queued in the executor, and so can be nested, or share a bounded executor, without deadlocking.
+ * <p>
+ * Failed paths are collected into a {@link BatchOperationFailedException}, in path order. An unchecked exception or
+ * error thrown by the operation stops the workers from claiming further paths, and is rethrown once the claimed ones
+ * complete, as would have happened had the paths been processed one at a time.
+ * <p>
+ * When given a {@link BatchOperationHandle}, the completion of each path is recorded to it, and its cancellation is
+ * checked before each path is processed. Paths claimed after the cancellation fail with an
+ * {@link OperationCancelledException}.
+ */
+final class PathBatchRunner {
+  /**
+   * Represents an operation on a single path of a batch.
+   */
+  @FunctionalInterface
+  interface IPathOperation {
+    void apply( @NonNull GenericFilePath path ) throws OperationFailedException;
+  }
+
+  @NonNull
+  private final List<GenericFilePath> paths;
+
+  @NonNull
+  private final IPathOperation operation;
+
+  @Nullable
+  private final BatchOperationHandle handle;
+
+  private final AtomicInteger nextIndex = new AtomicInteger();
+
+  /**
+   * The exception each path failed with, if any, by path index.
+   */
+  @NonNull
+  private final OperationFailedException[] failures;
+
+  /**
+   * The first unchecked exception or error thrown by the operation, if any.
+   */
+  private final AtomicReference<Throwable> uncheckedException = new AtomicReference<>();
+
+  private PathBatchRunner( @NonNull List<GenericFilePath> paths,
+                           @NonNull IPathOperation operation,
+                           @Nullable BatchOperationHandle handle ) {
+    this.paths = paths;
+    this.operation = operation;
+    this.handle = handle;
+    this.failures = new OperationFailedException[ paths.size() ];
+  }
+
+  /**
+   * Performs an operation on each of the given paths, with up to a given number of paths being processed
+   * concurrently, and adds the failed paths to a batch exception.
+   *
+   * @param paths          The paths.
+   * @param parallelism    The maximum number of paths processed concurrently. Must be greater than zero.
+   * @param executor       The executor of the workers other than the one running in the current thread.
+   * @param operation      The operation.
+   * @param batchException The batch exception to which failed paths are added.
+   */
+  static void run( @NonNull List<GenericFilePath> paths,
+                   int parallelism,
+                   @NonNull Executor executor,
+                   @NonNull IPathOperation operation,
+                   @NonNull BatchOperationFailedException batchException ) {
+    run( paths, parallelism, executor, operation, null, batchException );
+  }
+
+  /**
+   * Performs an operation on each of the given paths, with up to a given number of paths being processed
+   * concurrently, recording progress to a batch operation handle, and adds the failed paths to a batch exception.
+   *
+   * @param paths          The paths.
+   * @param parallelism    The maximum number of paths processed concurrently. Must be greater than zero.
+   * @param executor       The executor of the workers other than the one running in the current thread.
+   * @param operation      The operation.
+   * @param handle         The batch operation handle to which progress is recorded, and whose cancellation is
+   *                       checked, if any.
+   * @param batchException The batch exception to which failed paths are added.
+   */
+  static void run( @NonNull List<GenericFilePath> paths,
+                   int parallelism,
+                   @NonNull Executor executor,
+                   @NonNull IPathOperation operation,
+                   @Nullable BatchOperationHandle handle,
+                   @NonNull BatchOperationFailedException batchException ) {
+    Objects.requireNonNull( paths );
+    Objects.requireNonNull( executor );
+    Objects.requireNonNull( operation );
+    Objects.requireNonNull( batchException );
+
+    if ( parallelism <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'parallelism' must be greater than zero." );
+    }
+
+    new PathBatchRunner( paths, operation, handle ).run( parallelism, executor, batchException );
+  }
+
+  private void run( int parallelism,
+                    @NonNull Executor executor,
+                    @NonNull BatchOperationFailedException batchException ) {
+    int workerCount = Math.min( parallelism, paths.size() );
+
+    List<Worker> workers = new ArrayList<>( Math.max( 0, workerCount - 1 ) );
+    for ( int i = 1; i < workerCount; i++ ) {
+      Worker worker = new Worker();
+      workers.add( worker );
+
+      try {
+        executor.execute( CallerContext.propagate( worker.task ) );
+      } catch ( RejectedExecutionException e ) {
+        // The worker in the current thread claims its paths.
+        worker.cancelIfNotStarted();
+      }
+    }
+
+    // Returns once all paths are claimed, so that the other workers only need to complete the claimed ones.
+    work();
+
+    boolean interrupted = false;
+    for ( Worker worker : workers ) {
+      if ( worker.cancelIfNotStarted() ) {
+        // Still queued in the executor. There are no paths left for it to claim.
+        continue;
+      }
+
+      boolean isDone = false;
+      while ( !isDone ) {
+        try {
+          worker.task.get();
+          isDone = true;
+        } catch ( InterruptedException e ) {
+          // Still wait for the claimed paths, so that their outcome is known.
+          interrupted = true;
+        } catch ( ExecutionException | CancellationException e ) {
+          // The worker catches all exceptions.
+          isDone = true;
+        }
+      }
+    }
+
+    if ( interrupted ) {
+      Thread.currentThread().interrupt();
+    }
+
+    Throwable exception = uncheckedException.get();
+    if ( exception instanceof RuntimeException runtimeException ) {
+      throw runtimeException;
+    }
+
+    if ( exception instanceof Error error ) {
+      throw error;
+    }
+
+    for ( int i = 0; i < paths.size(); i++ ) {
+      OperationFailedException failure = failures[ i ];
+      if ( failure != null ) {
+        batchException.addFailedPath( paths.get( i ), failure );
+      }
+    }
+  }
+
+  private void work() {
+    while ( uncheckedException.get() == null ) {
+      int index = nextIndex.getAndIncrement();
+      if ( index >= paths.size() ) {
+        return;
+      }
+
+      try {
+        if ( handle != null ) {
+          handle.checkCancelled();
+        }
+
+        operation.apply( paths.get( index ) );
+        recordCompleted( false );
+      } catch ( OperationFailedException e ) {
+        failures[ index ] = e;
+        recordCompleted( true );
+      } catch ( RuntimeException | Error e ) {
+        uncheckedException.compareAndSet( null, e );
+      }
+    }
+  }
+
+  /**
+   * A worker which runs in the executor, unless cancelled before it starts.
+   * <p>
+   * A {@link FutureTask} which is running can still be cancelled, after which it can no longer be waited for, and so
+   * whether the worker started is tracked separately.
+   */
+  private final class Worker {
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    @NonNull
+    final FutureTask<Void> task = new FutureTask<>( this::runIfNotCancelled, null );
+
+    private void runIfNotCancelled() {
+      if ( started.compareAndSet( false, true ) ) {
+        work();
+      }
+    }
+
+    /**
+     * Cancels the worker, if it has not yet started.
+     *
+     * @return {@code true}, if the worker was cancelled, and will not run; {@code false}, if it already started.
+     */
+    boolean cancelIfNotStarted() {
+      if ( !started.compareAndSet( false, true ) ) {
+        return false;
+      }
+
+      // Allows the executor to discard it.
+      task.cancel( false );
+      return true;
+    }
+  }
+
+  private void recordCompleted( boolean failed ) {
+    if ( handle != null ) {
+      handle.recordCompleted( failed );
+    }
+  }
+}
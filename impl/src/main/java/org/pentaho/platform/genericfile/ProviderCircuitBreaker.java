@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * A circuit breaker which stops calls to a generic file provider after it fails repeatedly.
+ * <p>
+ * The circuit opens after a number of consecutive failures. While open, calls are not allowed. Once the retry delay
+ * elapses, a single probe call is allowed. If it succeeds, the circuit closes, and calls are allowed again. Otherwise,
+ * the circuit opens again, for another retry delay. If the probe call is abandoned, without an outcome, the circuit
+ * opens again as well, so that another probe call is allowed after the retry delay.
+ */
+final class ProviderCircuitBreaker {
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  /**
+   * The kind of permission given to a call by {@link #tryAcquire()}.
+   */
+  enum Permit {
+    /**
+     * The call is not allowed.
+     */
+    DENIED,
+
+    /**
+     * The call is allowed, as the circuit is closed.
+     */
+    CALL,
+
+    /**
+     * The call is allowed, as the probe call of an open circuit.
+     */
+    PROBE
+  }
+
+  private final int failureThreshold;
+
+  @NonNull
+  private final Duration retryDelay;
+
+  @NonNull
+  private final LongSupplier clock;
+
+  // Guarded by this.
+  @NonNull
+  private State state = State.CLOSED;
+
+  private int failureCount;
+
+  private long openedAt;
+
+  /**
+   * Creates a circuit breaker.
+   *
+   * @param failureThreshold The number of consecutive failures after which the circuit opens. Must be greater than
+   *                         zero.
+   * @param retryDelay       The time after which an open circuit allows a probe call. Must be positive.
+   * @param clock            The source of the current time, in nanoseconds.
+   */
+  ProviderCircuitBreaker( int failureThreshold, @NonNull Duration retryDelay, @NonNull LongSupplier clock ) {
+    Objects.requireNonNull( retryDelay );
+
+    if ( failureThreshold <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'failureThreshold' must be greater than zero." );
+    }
+
+    if ( retryDelay.isNegative() || retryDelay.isZero() ) {
+      throw new IllegalArgumentException( "Argument 'retryDelay' must be positive." );
+    }
+
+    this.failureThreshold = failureThreshold;
+    this.retryDelay = retryDelay;
+    this.clock = Objects.requireNonNull( clock );
+  }
+
+  /**
+   * Checks if a call is allowed, and, if so, records that it is in progress.
+   * <p>
+   * When the retry delay of an open circuit has elapsed, the call is allowed as the probe call, and the circuit
+   * becomes half-open until the outcome of the call is recorded, or until the call is
+   * {@link #releaseProbe() abandoned}.
+   *
+   * @return The permit of the call.
+   */
+  @NonNull
+  synchronized Permit tryAcquire() {
+    switch ( state ) {
+      case CLOSED:
+        return Permit.CALL;
+
+      case OPEN:
+        if ( clock.getAsLong() - openedAt >= retryDelay.toNanos() ) {
+          state = State.HALF_OPEN;
+          return Permit.PROBE;
+        }
+
+        return Permit.DENIED;
+
+      default:
+        // A probe call is already in progress.
+        return Permit.DENIED;
+    }
+  }
+
+  /**
+   * Records that a call succeeded, closing the circuit.
+   */
+  synchronized void recordSuccess() {
+    state = State.CLOSED;
+    failureCount = 0;
+  }
+
+  /**
+   * Records that a call failed, opening the circuit if it was the probe call, or if the failure threshold is reached.
+   */
+  synchronized void recordFailure() {
+    failureCount++;
+
+    if ( state == State.HALF_OPEN || failureCount >= failureThreshold ) {
+      state = State.OPEN;
+      openedAt = clock.getAsLong();
+    }
+  }
+
+  /**
+   * Records that the probe call was abandoned, without an outcome, opening the circuit again, for another retry delay.
+   * <p>
+   * Has no effect if the outcome of the probe call was already recorded.
+   */
+  synchronized void releaseProbe() {
+    if ( state == State.HALF_OPEN ) {
+      state = State.OPEN;
+      openedAt = clock.getAsLong();
+    }
+  }
+
+  @NonNull
+  synchronized State getState() {
+    return state;
+  }
+}
@@ -0,0 +1,158 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Routes paths to the first of a list of providers which owns them, without calling
+ * {@link IGenericFileProvider#owns(GenericFilePath)} on providers which
+ * {@link IGenericFileProvider#getOwnedPathPrefixes() declare their owned path prefixes}.
+ * <p>
+ * Declared prefixes are indexed by their segments, so that finding the owner of a path takes a lookup for each of the
+ * distinct prefix lengths, regardless of the number of providers. Providers which do not declare their prefixes are
+ * still asked, in order, but only those which come before the declared owner, if any.
+ * <p>
+ * Prefixes are read once, when the index is created.
+ */
+final class ProviderRoutingIndex {
+  @NonNull
+  private final List<IGenericFileProvider<?>> fileProviders;
+
+  /**
+   * The indexes of the providers which declare each prefix, in ascending order, by prefix segments.
+   */
+  @NonNull
+  private final Map<List<String>, List<Integer>> providerIndexesByPrefix = new HashMap<>();
+
+  private final int maxPrefixLength;
+
+  /**
+   * The indexes of the providers which do not declare their prefixes, in ascending order.
+   */
+  @NonNull
+  private final List<Integer> undeclaredProviderIndexes = new ArrayList<>();
+
+  ProviderRoutingIndex( @NonNull List<IGenericFileProvider<?>> fileProviders ) {
+    this.fileProviders = List.copyOf( Objects.requireNonNull( fileProviders ) );
+
+    int maxLength = 0;
+    for ( int index = 0; index < this.fileProviders.size(); index++ ) {
+      IGenericFileProvider<?> fileProvider = this.fileProviders.get( index );
+      if ( fileProvider.getOwnedPathPrefixes().isEmpty() ) {
+        undeclaredProviderIndexes.add( index );
+        continue;
+      }
+
+      for ( GenericFilePath prefix : fileProvider.getOwnedPathPrefixes() ) {
+        List<Integer> providerIndexes =
+          providerIndexesByPrefix.computeIfAbsent( prefix.getSegments(), key -> new ArrayList<>() );
+        if ( !providerIndexes.contains( index ) ) {
+          providerIndexes.add( index );
+        }
+        maxLength = Math.max( maxLength, prefix.getSegments().size() );
+      }
+    }
+
+    this.maxPrefixLength = maxLength;
+  }
+
+  /**
+   * Gets the first provider which owns a given path.
+   *
+   * @param path The path.
+   * @return An optional with the owner provider, if any; an empty optional, otherwise.
+   */
+  @NonNull
+  Optional<IGenericFileProvider<?>> getOwner( @NonNull GenericFilePath path ) {
+    return getOwner( path, fileProvider -> true );
+  }
+
+  /**
+   * Gets the first provider, among those matching a given filter, which owns a given path.
+   * <p>
+   * Providers not matching the filter are ignored, as if they were not part of the index. Undeclared providers are
+   * only asked if they match the filter.
+   *
+   * @param path   The path.
+   * @param filter The filter of the candidate providers.
+   * @return An optional with the owner provider, if any; an empty optional, otherwise.
+   */
+  @NonNull
+  Optional<IGenericFileProvider<?>> getOwner( @NonNull GenericFilePath path,
+                                              @NonNull Predicate<IGenericFileProvider<?>> filter ) {
+    Objects.requireNonNull( filter );
+
+    int ownerIndex = getDeclaredOwnerIndex( path, filter );
+
+    for ( int index : undeclaredProviderIndexes ) {
+      if ( index > ownerIndex ) {
+        break;
+      }
+
+      IGenericFileProvider<?> fileProvider = fileProviders.get( index );
+      if ( filter.test( fileProvider ) && fileProvider.owns( path ) ) {
+        ownerIndex = index;
+        break;
+      }
+    }
+
+    return ownerIndex < fileProviders.size()
+      ? Optional.of( fileProviders.get( ownerIndex ) )
+      : Optional.empty();
+  }
+
+  /**
+   * Gets the index of the first provider, among those matching a given filter, which declares a prefix of a given
+   * path.
+   *
+   * @param path   The path.
+   * @param filter The filter of the candidate providers.
+   * @return The index of the provider, if any; {@link Integer#MAX_VALUE}, otherwise.
+   */
+  private int getDeclaredOwnerIndex( @NonNull GenericFilePath path,
+                                     @NonNull Predicate<IGenericFileProvider<?>> filter ) {
+    List<String> segments = path.getSegments();
+    int ownerIndex = Integer.MAX_VALUE;
+
+    for ( int length = Math.min( maxPrefixLength, segments.size() ); length > 0; length-- ) {
+      List<Integer> providerIndexes = providerIndexesByPrefix.get( segments.subList( 0, length ) );
+      if ( providerIndexes == null ) {
+        continue;
+      }
+
+      for ( int index : providerIndexes ) {
+        if ( index >= ownerIndex ) {
+          break;
+        }
+
+        if ( filter.test( fileProviders.get( index ) ) ) {
+          ownerIndex = index;
+          break;
+        }
+      }
+    }
+
+    return ownerIndex;
+  }
+}
@@ -0,0 +1,71 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.genericfile.cache.RoleSetTreeCachePartitioner;
+import org.pentaho.platform.genericfile.cache.UserTreeCachePartitioner;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.Objects;
+
+/**
+ * The context in which the trees of a tree cache warm-up are loaded, given by a Pentaho session and a Spring Security
+ * context, and which so determines the tree cache partition that is warmed up.
+ * <p>
+ * Under the default {@link UserTreeCachePartitioner}, the warmed up partition is that of the user of the session.
+ * Under the {@link RoleSetTreeCachePartitioner}, it is that of the roles of the authentication of the security context,
+ * and so a context with the roles shared by most users, e.g. {@code Authenticated}, warms up the cache for all of them.
+ * The session and the authentication must also be allowed to read the preloaded trees.
+ *
+ * @see DefaultGenericFileService#setTreeCacheWarmUpContexts(java.util.List)
+ */
+public class TreeCacheWarmUpContext {
+  @Nullable
+  private final IPentahoSession session;
+
+  @NonNull
+  private final SecurityContext securityContext;
+
+  /**
+   * Creates a tree cache warm-up context.
+   *
+   * @param session         The Pentaho session, if any.
+   * @param securityContext The Spring Security context.
+   */
+  public TreeCacheWarmUpContext( @Nullable IPentahoSession session, @NonNull SecurityContext securityContext ) {
+    this.session = session;
+    this.securityContext = Objects.requireNonNull( securityContext );
+  }
+
+  @Nullable
+  public IPentahoSession getSession() {
+    return session;
+  }
+
+  @NonNull
+  public SecurityContext getSecurityContext() {
+    return securityContext;
+  }
+
+  /**
+   * Runs a task in the current thread, in this context.
+   *
+   * @param task The task.
+   */
+  void run( @NonNull Runnable task ) {
+    CallerContext.run( session, securityContext, task );
+  }
+}
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
+
+/**
+ * The {@code ITreeCache} interface represents the cache of file trees used by
+ * {@link org.pentaho.platform.genericfile.BaseGenericFileProvider BaseGenericFileProvider}.
+ * <p>
+ * Entries are keyed by {@link TreeCacheKey}, and so belong to a partition. The provider stores the listing of each
+ * folder as a separate tree of depth 1, and composes trees of any depth from them.
+ * <p>
+ * Implementations determine the eviction policy and the budget of the cache. Implementations must be thread-safe.
+ *
+ * @see LruTreeCache
+ */
+public interface ITreeCache {
+  /**
+   * Gets the tree cached for the given key, if any.
+   *
+   * @param key The cache key.
+   * @return The cached tree, if any; {@code null}, otherwise.
+   */
+  @Nullable
+  BaseGenericFileTree get( @NonNull TreeCacheKey key );
+
+  /**
+   * Gets a value that indicates whether the entry for the given key is stale.
+   * <p>
+   * A stale entry is still returned by {@link #get(TreeCacheKey)}, but should be refreshed, e.g. in the background,
+   * by storing a freshly loaded tree for the same key.
+   * <p>
+   * The default implementation returns {@code false}, for caches whose entries never expire.
+   *
+   * @param key The cache key.
+   * @return {@code true}, if there is a stale entry for the key; {@code false}, otherwise.
+   */
+  default boolean isStale( @NonNull TreeCacheKey key ) {
+    return false;
+  }
+
+  /**
+   * Stores a tree in the cache, for the given key.
+   * <p>
+   * Implementations may evict other entries to stay within their budget, or the budget of the key's partition, or may
+   * even decline to store the given tree, if it alone exceeds either budget.
+   *
+   * @param key  The cache key.
+   * @param tree The tree.
+   */
+  void put( @NonNull TreeCacheKey key, @NonNull BaseGenericFileTree tree );
+
+  /**
+   * Removes the entries affected by a change to a given path, such as its creation, deletion or renaming.
+   * <p>
+   * An entry is affected if its tree includes the children of the parent folder of the changed path, or if its tree
+   * is rooted at the changed path or inside of it. Entries of unrelated subtrees are kept.
+   * <p>
+   * Entries of all partitions are affected.
+   *
+   * @param path The changed path.
+   */
+  void invalidate( @NonNull GenericFilePath path );
+
+  /**
+   * Removes all entries from the cache.
+   */
+  void clear();
+
+  /**
+   * Gets the number of entries currently in the cache.
+   */
+  int size();
+
+  /**
+   * Gets the estimated number of tree nodes currently held by the cache.
+   */
+  long getNodeCount();
+
+  /**
+   * Gets the number of entries removed so far to stay within the budget, or because they expired.
+   * <p>
+   * The default implementation returns {@code 0}.
+   */
+  default long getEvictionCount() {
+    return 0;
+  }
+
+  /**
+   * Gets the number of entries removed so far by {@link #invalidate(GenericFilePath)} and {@link #clear()}.
+   * <p>
+   * The default implementation returns {@code 0}.
+   */
+  default long getInvalidationCount() {
+    return 0;
+  }
+}
@@ -0,0 +1,36 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The {@code ITreeCachePartitioner} interface determines the tree cache partition of the current caller.
+ * <p>
+ * Callers in the same partition share cached trees. An implementation must only place two callers in the same
+ * partition if they are guaranteed to get the same tree for the same options.
+ *
+ * @see TreeCacheKey
+ * @see UserTreeCachePartitioner
+ * @see RoleSetTreeCachePartitioner
+ */
+@FunctionalInterface
+public interface ITreeCachePartitioner {
+  /**
+   * Gets the tree cache partition of the current caller.
+   *
+   * @return The partition.
+   */
+  @NonNull
+  String getPartition();
+}
@@ -0,0 +1,617 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * A tree cache which is bounded both by a maximum number of entries and by a maximum number of tree nodes, and which
+ * evicts the least recently used entries, on insert, to stay within those budgets.
+ * <p>
+ * Each partition is additionally bounded by its own, smaller, budget, so that a single partition, e.g. a single user,
+ * cannot take over the whole cache. When a partition exceeds its budget, its own least recently used entries are
+ * evicted first.
+ * <p>
+ * The number of nodes of a tree is estimated when it is stored and is assumed not to change while in the cache.
+ * A tree which alone exceeds the node budget of a partition is not stored.
+ * <p>
+ * Optionally, entries expire with time. Entries older than the <i>soft TTL</i> are still returned, but are
+ * {@link #isStale(TreeCacheKey) stale}, and should be refreshed by the caller. Entries older than the
+ * <i>hard TTL</i> are no longer returned, and are removed.
+ */
+public class LruTreeCache implements ITreeCache {
+  // Entries are mostly single folder listings, so the node budgets are the ones which bound memory usage.
+  public static final int DEFAULT_MAX_ENTRIES = 20_000;
+  public static final long DEFAULT_MAX_NODES = 200_000L;
+  public static final int DEFAULT_MAX_PARTITION_ENTRIES = 5_000;
+  public static final long DEFAULT_MAX_PARTITION_NODES = 50_000L;
+
+  private final int maxEntries;
+  private final long maxNodes;
+  private final int maxPartitionEntries;
+  private final long maxPartitionNodes;
+
+  @Nullable
+  private final Duration softTtl;
+
+  @Nullable
+  private final Duration hardTtl;
+
+  @NonNull
+  private final LongSupplier clock;
+
+  /**
+   * The entries, in access order, from least to most recently used. Guarded by {@code this}.
+   */
+  @NonNull
+  private final LinkedHashMap<TreeCacheKey, Entry> entries;
+
+  /**
+   * The usage of each partition with entries. Guarded by {@code this}.
+   */
+  @NonNull
+  private final Map<String, PartitionUsage> partitionUsages;
+
+  /**
+   * The index of entries by the path of the root of their tree, used to find the entries affected by a change without
+   * visiting all entries. Guarded by {@code this}.
+   */
+  @NonNull
+  private final PathIndexNode pathIndex = new PathIndexNode();
+
+  /**
+   * The entries whose tree root has no valid path, and which are affected by any change. Guarded by {@code this}.
+   */
+  @NonNull
+  private final Map<TreeCacheKey, Entry> unindexedEntries = new HashMap<>();
+
+  /**
+   * Guarded by {@code this}.
+   */
+  private long nodeCount;
+
+  /**
+   * Guarded by {@code this}.
+   */
+  private long evictionCount;
+
+  /**
+   * Guarded by {@code this}.
+   */
+  private long invalidationCount;
+
+  private static class Entry {
+    @NonNull
+    final BaseGenericFileTree tree;
+
+    @Nullable
+    final GenericFilePath rootPath;
+
+    final long nodeCount;
+    final long storedAt;
+
+    Entry( @NonNull BaseGenericFileTree tree, @Nullable GenericFilePath rootPath, long nodeCount, long storedAt ) {
+      this.tree = tree;
+      this.rootPath = rootPath;
+      this.nodeCount = nodeCount;
+      this.storedAt = storedAt;
+    }
+  }
+
+  /**
+   * A node of the path index, for a path segment, with the entries whose tree is rooted at the path of the node.
+   */
+  private static class PathIndexNode {
+    final Map<String, PathIndexNode> children = new HashMap<>();
+    final Map<TreeCacheKey, Entry> entries = new HashMap<>();
+
+    boolean isEmpty() {
+      return children.isEmpty() && entries.isEmpty();
+    }
+  }
+
+  private static class PartitionUsage {
+    int entryCount;
+    long nodeCount;
+  }
+
+  public LruTreeCache() {
+    this( DEFAULT_MAX_ENTRIES, DEFAULT_MAX_NODES );
+  }
+
+  /**
+   * Creates a tree cache with the given budget, and with the default partition budget, limited to the given budget.
+   *
+   * @param maxEntries The maximum number of entries. Must be greater than zero.
+   * @param maxNodes   The maximum estimated number of tree nodes, summed across all entries. Must be greater than zero.
+   */
+  public LruTreeCache( int maxEntries, long maxNodes ) {
+    this(
+      maxEntries,
+      maxNodes,
+      Math.min( maxEntries, DEFAULT_MAX_PARTITION_ENTRIES ),
+      Math.min( maxNodes, DEFAULT_MAX_PARTITION_NODES ) );
+  }
+
+  /**
+   * Creates a tree cache with the given budget and partition budget.
+   *
+   * @param maxEntries          The maximum number of entries. Must be greater than zero.
+   * @param maxNodes            The maximum estimated number of tree nodes, summed across all entries. Must be greater
+   *                            than zero.
+   * @param maxPartitionEntries The maximum number of entries of each partition. Must be greater than zero.
+   * @param maxPartitionNodes   The maximum estimated number of tree nodes, summed across all entries of each
+   *                            partition. Must be greater than zero.
+   */
+  public LruTreeCache( int maxEntries, long maxNodes, int maxPartitionEntries, long maxPartitionNodes ) {
+    this( maxEntries, maxNodes, maxPartitionEntries, maxPartitionNodes, null, null );
+  }
+
+  /**
+   * Creates a tree cache with the given budget, partition budget and expiry.
+   *
+   * @param maxEntries          The maximum number of entries. Must be greater than zero.
+   * @param maxNodes            The maximum estimated number of tree nodes, summed across all entries. Must be greater
+   *                            than zero.
+   * @param maxPartitionEntries The maximum number of entries of each partition. Must be greater than zero.
+   * @param maxPartitionNodes   The maximum estimated number of tree nodes, summed across all entries of each
+   *                            partition. Must be greater than zero.
+   * @param softTtl             The age after which entries are stale, if any. Must be positive and, if the hard TTL
+   *                            is specified, less than it.
+   * @param hardTtl             The age after which entries are removed, if any. Must be positive.
+   */
+  public LruTreeCache( int maxEntries, long maxNodes, int maxPartitionEntries, long maxPartitionNodes,
+                       @Nullable Duration softTtl, @Nullable Duration hardTtl ) {
+    this( maxEntries, maxNodes, maxPartitionEntries, maxPartitionNodes, softTtl, hardTtl, System::nanoTime );
+  }
+
+  LruTreeCache( int maxEntries, long maxNodes, int maxPartitionEntries, long maxPartitionNodes,
+                @Nullable Duration softTtl, @Nullable Duration hardTtl, @NonNull LongSupplier clock ) {
+    if ( maxEntries <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'maxEntries' must be greater than zero." );
+    }
+
+    if ( maxNodes <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'maxNodes' must be greater than zero." );
+    }
+
+    if ( maxPartitionEntries <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'maxPartitionEntries' must be greater than zero." );
+    }
+
+    if ( maxPartitionNodes <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'maxPartitionNodes' must be greater than zero." );
+    }
+
+    if ( softTtl != null && ( softTtl.isNegative() || softTtl.isZero() ) ) {
+      throw new IllegalArgumentException( "Argument 'softTtl' must be positive." );
+    }
+
+    if ( hardTtl != null && ( hardTtl.isNegative() || hardTtl.isZero() ) ) {
+      throw new IllegalArgumentException( "Argument 'hardTtl' must be positive." );
+    }
+
+    if ( softTtl != null && hardTtl != null && softTtl.compareTo( hardTtl ) >= 0 ) {
+      throw new IllegalArgumentException( "Argument 'softTtl' must be less than argument 'hardTtl'." );
+    }
+
+    this.maxEntries = maxEntries;
+    this.maxNodes = maxNodes;
+    this.maxPartitionEntries = maxPartitionEntries;
+    this.maxPartitionNodes = maxPartitionNodes;
+    this.softTtl = softTtl;
+    this.hardTtl = hardTtl;
+    this.clock = Objects.requireNonNull( clock );
+    this.entries = new LinkedHashMap<>( 16, 0.75f, true );
+    this.partitionUsages = new HashMap<>();
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+
+  public int getMaxPartitionEntries() {
+    return maxPartitionEntries;
+  }
+
+  public long getMaxPartitionNodes() {
+    return maxPartitionNodes;
+  }
+
+  /**
+   * Gets the age after which entries are stale, if any.
+   */
+  @Nullable
+  public Duration getSoftTtl() {
+    return softTtl;
+  }
+
+  /**
+   * Gets the age after which entries are removed, if any.
+   */
+  @Nullable
+  public Duration getHardTtl() {
+    return hardTtl;
+  }
+
+  @Nullable
+  @Override
+  public synchronized BaseGenericFileTree get( @NonNull TreeCacheKey key ) {
+    Objects.requireNonNull( key );
+
+    Entry entry = entries.get( key );
+    if ( entry == null ) {
+      return null;
+    }
+
+    if ( isOlderThan( entry, hardTtl ) ) {
+      entries.remove( key );
+      onEntryRemoved( key, entry );
+      evictionCount++;
+      return null;
+    }
+
+    return entry.tree;
+  }
+
+  @Override
+  public synchronized boolean isStale( @NonNull TreeCacheKey key ) {
+    Objects.requireNonNull( key );
+
+    Entry entry = entries.get( key );
+    return entry != null && isOlderThan( entry, softTtl );
+  }
+
+  private boolean isOlderThan( @NonNull Entry entry, @Nullable Duration ttl ) {
+    return ttl != null && clock.getAsLong() - entry.storedAt >= ttl.toNanos();
+  }
+
+  @Override
+  public void put( @NonNull TreeCacheKey key, @NonNull BaseGenericFileTree tree ) {
+    Objects.requireNonNull( key );
+    Objects.requireNonNull( tree );
+
+    // Count outside the lock. Trees can be large.
+    long treeNodeCount = estimateNodeCount( tree );
+    GenericFilePath rootPath = getPath( tree );
+
+    synchronized ( this ) {
+      Entry previousEntry = entries.remove( key );
+      if ( previousEntry != null ) {
+        onEntryRemoved( key, previousEntry );
+      }
+
+      if ( treeNodeCount > maxNodes || treeNodeCount > maxPartitionNodes ) {
+        // Would evict everything else and still not fit.
+        return;
+      }
+
+      Entry entry = new Entry( tree, rootPath, treeNodeCount, clock.getAsLong() );
+      entries.put( key, entry );
+      onEntryAdded( key, entry );
+
+      evictPartitionToBudget( key.getPartition() );
+      evictToBudget();
+    }
+  }
+
+  private void onEntryAdded( @NonNull TreeCacheKey key, @NonNull Entry entry ) {
+    nodeCount += entry.nodeCount;
+
+    PartitionUsage usage = partitionUsages.computeIfAbsent( key.getPartition(), partition -> new PartitionUsage() );
+    usage.entryCount++;
+    usage.nodeCount += entry.nodeCount;
+
+    if ( entry.rootPath == null ) {
+      unindexedEntries.put( key, entry );
+      return;
+    }
+
+    PathIndexNode node = pathIndex;
+    for ( String segment : entry.rootPath.getSegments() ) {
+      node = node.children.computeIfAbsent( segment, name -> new PathIndexNode() );
+    }
+
+    node.entries.put( key, entry );
+  }
+
+  private void onEntryRemoved( @NonNull TreeCacheKey key, @NonNull Entry entry ) {
+    nodeCount -= entry.nodeCount;
+
+    PartitionUsage usage = partitionUsages.get( key.getPartition() );
+    usage.entryCount--;
+    usage.nodeCount -= entry.nodeCount;
+
+    if ( usage.entryCount == 0 ) {
+      partitionUsages.remove( key.getPartition() );
+    }
+
+    if ( entry.rootPath == null ) {
+      unindexedEntries.remove( key );
+      return;
+    }
+
+    List<String> segments = entry.rootPath.getSegments();
+    List<PathIndexNode> nodes = new ArrayList<>( segments.size() + 1 );
+    PathIndexNode node = pathIndex;
+    nodes.add( node );
+    for ( String segment : segments ) {
+      node = node.children.get( segment );
+      nodes.add( node );
+    }
+
+    node.entries.remove( key );
+
+    // Prune the nodes left empty, from the bottom up.
+    for ( int i = segments.size(); i > 0 && nodes.get( i ).isEmpty(); i-- ) {
+      nodes.get( i - 1 ).children.remove( segments.get( i - 1 ) );
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries of a partition until the partition budget is met.
+   */
+  private void evictPartitionToBudget( @NonNull String partition ) {
+    PartitionUsage usage = partitionUsages.get( partition );
+    if ( usage == null ) {
+      return;
+    }
+
+    Iterator<Map.Entry<TreeCacheKey, Entry>> iterator = entries.entrySet().iterator();
+
+    while ( ( usage.entryCount > maxPartitionEntries || usage.nodeCount > maxPartitionNodes ) && iterator.hasNext() ) {
+      Map.Entry<TreeCacheKey, Entry> eldestEntry = iterator.next();
+      if ( partition.equals( eldestEntry.getKey().getPartition() ) ) {
+        iterator.remove();
+        onEntryRemoved( eldestEntry.getKey(), eldestEntry.getValue() );
+        evictionCount++;
+      }
+    }
+  }
+
+  /**
+   * Evicts the least recently used entries until both the entries and the nodes budgets are met.
+   */
+  private void evictToBudget() {
+    Iterator<Map.Entry<TreeCacheKey, Entry>> iterator = entries.entrySet().iterator();
+
+    while ( ( entries.size() > maxEntries || nodeCount > maxNodes ) && iterator.hasNext() ) {
+      Map.Entry<TreeCacheKey, Entry> eldestEntry = iterator.next();
+      iterator.remove();
+      onEntryRemoved( eldestEntry.getKey(), eldestEntry.getValue() );
+      evictionCount++;
+    }
+  }
+
+  @Override
+  public void invalidate( @NonNull GenericFilePath path ) {
+    Objects.requireNonNull( path );
+
+    synchronized ( this ) {
+      Map<TreeCacheKey, Entry> affectedEntries = new HashMap<>( unindexedEntries );
+
+      // Entries rooted at an ancestor of the changed path are affected depending on the branch they include.
+      PathIndexNode node = pathIndex;
+      for ( String segment : path.getSegments() ) {
+        node.entries.forEach( ( key, entry ) -> {
+          if ( isAffectedBy( entry.tree, Objects.requireNonNull( entry.rootPath ), path ) ) {
+            affectedEntries.put( key, entry );
+          }
+        } );
+
+        node = node.children.get( segment );
+        if ( node == null ) {
+          break;
+        }
+      }
+
+      // Entries rooted at the changed path, or inside of it, are all affected.
+      if ( node != null ) {
+        Deque<PathIndexNode> pending = new ArrayDeque<>();
+        pending.push( node );
+        while ( !pending.isEmpty() ) {
+          PathIndexNode current = pending.pop();
+          affectedEntries.putAll( current.entries );
+          current.children.values().forEach( pending::push );
+        }
+      }
+
+      affectedEntries.forEach( ( key, entry ) -> {
+        entries.remove( key );
+        onEntryRemoved( key, entry );
+        invalidationCount++;
+      } );
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    invalidationCount += entries.size();
+    entries.clear();
+    partitionUsages.clear();
+    pathIndex.children.clear();
+    pathIndex.entries.clear();
+    unindexedEntries.clear();
+    nodeCount = 0;
+  }
+
+  @Override
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  @Override
+  public synchronized long getNodeCount() {
+    return nodeCount;
+  }
+
+  @Override
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  @Override
+  public synchronized long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  /**
+   * Gets the number of entries of a partition currently in the cache.
+   *
+   * @param partition The partition.
+   */
+  public synchronized int size( @NonNull String partition ) {
+    PartitionUsage usage = partitionUsages.get( partition );
+    return usage != null ? usage.entryCount : 0;
+  }
+
+  /**
+   * Determines if a tree is affected by a change to a given path.
+   * <p>
+   * A tree is affected if it is rooted at the changed path or inside of it, or if it includes the children of the
+   * parent folder of the changed path. Additionally, a tree is also affected if it includes the children of an
+   * ancestor folder of the changed path, but these do not include the next ancestor folder, which may have just been
+   * created along with the changed path.
+   * <p>
+   * Only the branch of the tree leading to the changed path is visited.
+   * <p>
+   * The cache itself only evaluates this for the entries rooted at ancestors of the changed path, found via its path
+   * index. Entries rooted at the changed path, or inside of it, are affected without further evaluation.
+   *
+   * @param tree        The tree.
+   * @param changedPath The changed path.
+   * @return {@code true}, if the tree is affected; {@code false}, otherwise.
+   */
+  static boolean isAffectedBy( @NonNull IGenericFileTree tree, @NonNull GenericFilePath changedPath ) {
+    GenericFilePath rootPath = getPath( tree );
+    if ( rootPath == null ) {
+      // Cannot tell. Assume the worst.
+      return true;
+    }
+
+    return isAffectedBy( tree, rootPath, changedPath );
+  }
+
+  private static boolean isAffectedBy( @NonNull IGenericFileTree tree,
+                                       @NonNull GenericFilePath rootPath,
+                                       @NonNull GenericFilePath changedPath ) {
+    if ( changedPath.contains( rootPath ) ) {
+      return true;
+    }
+
+    GenericFilePath parentPath = changedPath.getParent();
+    List<String> segments = parentPath != null ? parentPath.relativeSegments( rootPath ) : null;
+    if ( segments == null ) {
+      // The changed path is not inside the tree.
+      return false;
+    }
+
+    IGenericFileTree current = tree;
+    for ( String segment : segments ) {
+      List<IGenericFileTree> children = current.getChildren();
+      if ( children == null ) {
+        // Children not included, so neither is the changed path.
+        return false;
+      }
+
+      current = findChildByName( children, segment );
+      if ( current == null ) {
+        return true;
+      }
+    }
+
+    // The tree is affected if it includes the children of the parent folder.
+    return current.getChildren() != null;
+  }
+
+  @Nullable
+  private static IGenericFileTree findChildByName( @NonNull List<IGenericFileTree> children, @NonNull String name ) {
+    for ( IGenericFileTree child : children ) {
+      GenericFilePath childPath = getPath( child );
+      if ( childPath != null && name.equals( childPath.getLastSegment() ) ) {
+        return child;
+      }
+    }
+
+    return null;
+  }
+
+  @Nullable
+  private static GenericFilePath getPath( @NonNull IGenericFileTree tree ) {
+    IGenericFile file = tree.getFile();
+    if ( file == null ) {
+      return null;
+    }
+
+    try {
+      return GenericFilePath.parse( file.getPath() );
+    } catch ( InvalidPathException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Estimates the number of nodes of a tree, including its root.
+   *
+   * @param tree The tree.
+   * @return The number of nodes.
+   */
+  static long estimateNodeCount( @NonNull IGenericFileTree tree ) {
+    // Iterative, to not be limited by the depth of the tree.
+    // Nodes are tracked by identity, so that shared or cyclic subtrees are counted (and visited) only once.
+    Set<IGenericFileTree> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+    Deque<IGenericFileTree> pending = new ArrayDeque<>();
+    pending.push( tree );
+
+    while ( !pending.isEmpty() ) {
+      IGenericFileTree current = pending.pop();
+      if ( !visited.add( current ) ) {
+        continue;
+      }
+
+      List<IGenericFileTree> children = current.getChildren();
+      if ( children != null ) {
+        for ( IGenericFileTree child : children ) {
+          pending.push( child );
+        }
+      }
+    }
+
+    return visited.size();
+  }
+}
@@ -0,0 +1,343 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * A short-lived cache of paths which were found not to exist, so that repeated existence probes of missing files, such
+ * as when polling for a file which is yet to be created, do not reach the repository.
+ * <p>
+ * Whether a file exists may depend on the permissions of the caller, so entries are partitioned, like those of the
+ * tree cache. Entries expire after a TTL, which bounds how long changes made outside the provider go unnoticed. The
+ * cache is bounded by a maximum number of entries, and evicts the least recently recorded ones.
+ * <p>
+ * Entries are also indexed by path segment, so that invalidating a path visits only the entries of its ancestors and
+ * descendants, and not all entries.
+ * <p>
+ * The provider must {@link #invalidate(GenericFilePath) invalidate} a path whenever a file may have been created at
+ * it.
+ */
+public class MissingPathCache {
+  public static final Duration DEFAULT_TTL = Duration.ofSeconds( 5 );
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  @NonNull
+  private final Duration ttl;
+
+  private final int maxEntries;
+
+  @NonNull
+  private final LongSupplier clock;
+
+  /**
+   * The time at which each missing path was recorded, in insertion order. Guarded by {@code this}.
+   */
+  @NonNull
+  private final LinkedHashMap<Key, Long> entries = new LinkedHashMap<>();
+
+  /**
+   * The root node of the path segment index of the entries. Guarded by {@code this}.
+   */
+  @NonNull
+  private PathNode rootNode = new PathNode();
+
+  /**
+   * A node of the path segment index, standing for a path, whose child nodes stand for its child paths.
+   */
+  private static class PathNode {
+    @NonNull
+    final Map<String, PathNode> childNodes = new HashMap<>();
+
+    /**
+     * The partitions in which the path of the node is missing.
+     */
+    @NonNull
+    final Set<String> partitions = new HashSet<>();
+
+    /**
+     * The path of the node, when it has partitions.
+     */
+    @Nullable
+    GenericFilePath path;
+
+    boolean isEmpty() {
+      return childNodes.isEmpty() && partitions.isEmpty();
+    }
+  }
+
+  private static class Key {
+    @NonNull
+    final String partition;
+    @NonNull
+    final GenericFilePath path;
+
+    Key( @NonNull String partition, @NonNull GenericFilePath path ) {
+      this.partition = Objects.requireNonNull( partition );
+      this.path = Objects.requireNonNull( path );
+    }
+
+    @Override
+    public boolean equals( Object other ) {
+      if ( this == other ) {
+        return true;
+      }
+
+      if ( other == null || getClass() != other.getClass() ) {
+        return false;
+      }
+
+      Key that = (Key) other;
+
+      return partition.equals( that.partition ) && path.equals( that.path );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( partition, path );
+    }
+  }
+
+  public MissingPathCache() {
+    this( DEFAULT_TTL, DEFAULT_MAX_ENTRIES );
+  }
+
+  /**
+   * Creates a missing path cache with the given TTL and budget.
+   *
+   * @param ttl        The age after which entries are removed. Must be positive.
+   * @param maxEntries The maximum number of entries. Must be greater than zero.
+   */
+  public MissingPathCache( @NonNull Duration ttl, int maxEntries ) {
+    this( ttl, maxEntries, System::nanoTime );
+  }
+
+  MissingPathCache( @NonNull Duration ttl, int maxEntries, @NonNull LongSupplier clock ) {
+    Objects.requireNonNull( ttl );
+
+    if ( ttl.isNegative() || ttl.isZero() ) {
+      throw new IllegalArgumentException( "Argument 'ttl' must be positive." );
+    }
+
+    if ( maxEntries <= 0 ) {
+      throw new IllegalArgumentException( "Argument 'maxEntries' must be greater than zero." );
+    }
+
+    this.ttl = ttl;
+    this.maxEntries = maxEntries;
+    this.clock = Objects.requireNonNull( clock );
+  }
+
+  @NonNull
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Checks if a path was recently found not to exist, for a given partition.
+   *
+   * @param partition The partition of the caller.
+   * @param path      The path.
+   * @return {@code true}, if the path is known not to exist; {@code false}, if it is not known.
+   */
+  public synchronized boolean isMissing( @NonNull String partition, @NonNull GenericFilePath path ) {
+    Key key = new Key( partition, path );
+
+    Long recordedAt = entries.get( key );
+    if ( recordedAt == null ) {
+      return false;
+    }
+
+    if ( clock.getAsLong() - recordedAt >= ttl.toNanos() ) {
+      entries.remove( key );
+      removeFromIndex( key );
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Records that a path was found not to exist, for a given partition.
+   *
+   * @param partition The partition of the caller.
+   * @param path      The path.
+   */
+  public synchronized void putMissing( @NonNull String partition, @NonNull GenericFilePath path ) {
+    Key key = new Key( partition, path );
+
+    // Re-insert, so that the entry moves to the end of the insertion order.
+    if ( entries.remove( key ) == null ) {
+      addToIndex( key );
+    }
+
+    entries.put( key, clock.getAsLong() );
+
+    Iterator<Key> iterator = entries.keySet().iterator();
+    while ( entries.size() > maxEntries && iterator.hasNext() ) {
+      Key evictedKey = iterator.next();
+      iterator.remove();
+      removeFromIndex( evictedKey );
+    }
+  }
+
+  /**
+   * Removes the paths which may exist after a file is created, copied, moved or restored to a given path, in all
+   * partitions.
+   * <p>
+   * These are the given path itself, its ancestors, which may have been created along with it, and its descendants,
+   * which may have been brought along with it.
+   *
+   * @param path The changed path.
+   */
+  public synchronized void invalidate( @NonNull GenericFilePath path ) {
+    Objects.requireNonNull( path );
+
+    List<String> segments = path.getSegments();
+
+    // The nodes of the ancestors of the path which are in the index, starting with the root node.
+    List<PathNode> ancestorNodes = new ArrayList<>( segments.size() );
+    PathNode node = rootNode;
+
+    for ( String segment : segments ) {
+      if ( !ancestorNodes.isEmpty() ) {
+        removeEntries( node );
+      }
+
+      ancestorNodes.add( node );
+
+      node = node.childNodes.get( segment );
+      if ( node == null ) {
+        break;
+      }
+    }
+
+    if ( node != null ) {
+      // The node of the path itself. Remove the entries of its whole subtree.
+      removeSubtreeEntries( node );
+      ancestorNodes.get( ancestorNodes.size() - 1 ).childNodes.remove( segments.get( segments.size() - 1 ) );
+    }
+
+    pruneEmptyNodes( ancestorNodes, segments );
+  }
+
+  /**
+   * Removes all paths, in all partitions.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    rootNode = new PathNode();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void addToIndex( @NonNull Key key ) {
+    PathNode node = rootNode;
+    for ( String segment : key.path.getSegments() ) {
+      node = node.childNodes.computeIfAbsent( segment, s -> new PathNode() );
+    }
+
+    node.path = key.path;
+    node.partitions.add( key.partition );
+  }
+
+  private void removeFromIndex( @NonNull Key key ) {
+    List<String> segments = key.path.getSegments();
+
+    List<PathNode> ancestorNodes = new ArrayList<>( segments.size() );
+    PathNode node = rootNode;
+
+    for ( String segment : segments ) {
+      ancestorNodes.add( node );
+
+      node = node.childNodes.get( segment );
+      if ( node == null ) {
+        return;
+      }
+    }
+
+    node.partitions.remove( key.partition );
+
+    if ( node.isEmpty() ) {
+      ancestorNodes.get( ancestorNodes.size() - 1 ).childNodes.remove( segments.get( segments.size() - 1 ) );
+    }
+
+    pruneEmptyNodes( ancestorNodes, segments );
+  }
+
+  /**
+   * Removes the entries of the path of a node, in all partitions.
+   */
+  private void removeEntries( @NonNull PathNode node ) {
+    if ( node.path != null ) {
+      for ( String partition : node.partitions ) {
+        entries.remove( new Key( partition, node.path ) );
+      }
+    }
+
+    node.partitions.clear();
+  }
+
+  /**
+   * Removes the entries of the paths of a node and of all of its descendant nodes, in all partitions.
+   */
+  private void removeSubtreeEntries( @NonNull PathNode subtreeNode ) {
+    Deque<PathNode> pendingNodes = new ArrayDeque<>();
+    pendingNodes.push( subtreeNode );
+
+    while ( !pendingNodes.isEmpty() ) {
+      PathNode node = pendingNodes.pop();
+      removeEntries( node );
+      node.childNodes.values().forEach( pendingNodes::push );
+    }
+  }
+
+  /**
+   * Removes the nodes which were left empty along a path, deepest first.
+   *
+   * @param ancestorNodes The nodes along the path, starting with the root node, where the node at index {@code i}
+   *                      is the parent of the node of segment {@code i}.
+   * @param segments      The segments of the path.
+   */
+  private static void pruneEmptyNodes( @NonNull List<PathNode> ancestorNodes, @NonNull List<String> segments ) {
+    for ( int i = ancestorNodes.size() - 1; i > 0; i-- ) {
+      if ( !ancestorNodes.get( i ).isEmpty() ) {
+        return;
+      }
+
+      ancestorNodes.get( i - 1 ).childNodes.remove( segments.get( i - 1 ) );
+    }
+  }
+}
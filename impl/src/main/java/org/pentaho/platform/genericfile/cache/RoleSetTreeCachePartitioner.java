@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A tree cache partitioner which places users with the same effective set of roles in the same partition.
+ * <p>
+ * The roles are the granted authorities of the current Spring Security authentication. The partition is a
+ * fingerprint of the sorted, distinct, role names, so that the order in which roles are granted does not matter.
+ * <p>
+ * This is only safe when permissions on files are granted exclusively through roles. When permissions are also
+ * granted to individual users, e.g. on home folders, use {@link UserTreeCachePartitioner} instead.
+ * <p>
+ * Callers without an authentication are partitioned by the fallback partitioner.
+ */
+public class RoleSetTreeCachePartitioner implements ITreeCachePartitioner {
+  static final String PARTITION_PREFIX = "roles:";
+
+  @NonNull
+  private final ITreeCachePartitioner fallbackPartitioner;
+
+  public RoleSetTreeCachePartitioner() {
+    this( new UserTreeCachePartitioner() );
+  }
+
+  public RoleSetTreeCachePartitioner( @NonNull ITreeCachePartitioner fallbackPartitioner ) {
+    this.fallbackPartitioner = Objects.requireNonNull( fallbackPartitioner );
+  }
+
+  @NonNull
+  @Override
+  public String getPartition() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    Collection<? extends GrantedAuthority> authorities =
+      authentication != null ? authentication.getAuthorities() : null;
+
+    if ( authorities == null ) {
+      return fallbackPartitioner.getPartition();
+    }
+
+    SortedSet<String> roles = new TreeSet<>();
+    for ( GrantedAuthority authority : authorities ) {
+      if ( authority != null && authority.getAuthority() != null ) {
+        roles.add( authority.getAuthority() );
+      }
+    }
+
+    return getFingerprint( roles );
+  }
+
+  /**
+   * Gets the fingerprint of a set of roles.
+   * <p>
+   * Each role is prefixed by its length, so that distinct sets never get the same fingerprint, whatever characters
+   * the role names contain.
+   *
+   * @param roles The sorted set of role names.
+   * @return The fingerprint.
+   */
+  @NonNull
+  static String getFingerprint( @NonNull SortedSet<String> roles ) {
+    StringBuilder fingerprint = new StringBuilder( PARTITION_PREFIX );
+
+    for ( String role : roles ) {
+      fingerprint.append( role.length() ).append( ':' ).append( role );
+    }
+
+    return fingerprint.toString();
+  }
+}
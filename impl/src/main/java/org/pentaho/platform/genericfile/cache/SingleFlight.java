@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent loads of equal keys into a single load.
+ * <p>
+ * The first caller for a key, the <i>leader</i>, performs the load. Callers for an equal key which arrive while that
+ * load is in flight, the <i>followers</i>, wait for it to complete and then share its result or its exception.
+ * Once a load completes, the next caller for the key starts a new load.
+ * <p>
+ * A thread which is already loading a key and, while doing so, asks for the same key again, performs a nested load
+ * instead of waiting for itself.
+ *
+ * @param <K> The type of key.
+ * @param <V> The type of loaded value.
+ */
+public class SingleFlight<K, V> {
+
+  /**
+   * Loads a value.
+   *
+   * @param <V> The type of loaded value.
+   */
+  @FunctionalInterface
+  public interface ILoader<V> {
+    @NonNull
+    V load() throws OperationFailedException;
+  }
+
+  @NonNull
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+
+  /**
+   * The keys being loaded by the current thread.
+   */
+  @NonNull
+  private final ThreadLocal<Set<K>> leadingKeys = ThreadLocal.withInitial( HashSet::new );
+
+  /**
+   * Loads the value of a key, or waits for an in-flight load of an equal key.
+   *
+   * @param key           The key.
+   * @param loader        The loader, called only if there is no in-flight load of an equal key.
+   * @param followerValue A function which obtains the value to return to a follower, given the value loaded by the
+   *                      leader. Use it to give each follower its own copy of a mutable value.
+   * @return The loaded value.
+   * @throws OperationFailedException If the load fails, either in this or in the leader's thread.
+   */
+  @NonNull
+  public V load( @NonNull K key, @NonNull ILoader<V> loader, @NonNull UnaryOperator<V> followerValue )
+    throws OperationFailedException {
+    Objects.requireNonNull( key );
+    Objects.requireNonNull( loader );
+    Objects.requireNonNull( followerValue );
+
+    Set<K> currentLeadingKeys = leadingKeys.get();
+    if ( currentLeadingKeys.contains( key ) ) {
+      return loader.load();
+    }
+
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = inFlightLoads.putIfAbsent( key, flight );
+    if ( inFlight != null ) {
+      return followerValue.apply( await( inFlight ) );
+    }
+
+    currentLeadingKeys.add( key );
+    try {
+      V value = loader.load();
+      flight.complete( value );
+      return value;
+    } catch ( OperationFailedException | RuntimeException | Error e ) {
+      flight.completeExceptionally( e );
+      throw e;
+    } finally {
+      currentLeadingKeys.remove( key );
+      inFlightLoads.remove( key, flight );
+    }
+  }
+
+  /**
+   * Gets the number of loads currently in flight.
+   */
+  public int getInFlightCount() {
+    return inFlightLoads.size();
+  }
+
+  @NonNull
+  private V await( @NonNull CompletableFuture<V> flight ) throws OperationFailedException {
+    try {
+      return flight.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new OperationFailedException( "Interrupted while waiting for an in-flight load.", e );
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof OperationFailedException operationFailedException ) {
+        throw operationFailedException;
+      }
+
+      if ( cause instanceof RuntimeException runtimeException ) {
+        throw runtimeException;
+      }
+
+      if ( cause instanceof Error error ) {
+        throw error;
+      }
+
+      throw new OperationFailedException( cause );
+    }
+  }
+}
@@ -0,0 +1,76 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+
+import java.util.Objects;
+
+/**
+ * The key of a tree cache entry, composed of a partition and of the options of the cached tree.
+ * <p>
+ * Trees of different partitions are never shared. A partition groups the callers which are guaranteed to get the same
+ * tree for the same options, such as a single user, or all users with the same set of roles.
+ * <p>
+ * The options must not be modified after the key is created.
+ *
+ * @see ITreeCachePartitioner
+ */
+public class TreeCacheKey {
+  /**
+   * The partition shared by all callers, used by providers whose trees do not depend on the caller.
+   */
+  public static final String SHARED_PARTITION = "";
+
+  @NonNull
+  private final String partition;
+
+  @NonNull
+  private final GetTreeOptions options;
+
+  public TreeCacheKey( @NonNull String partition, @NonNull GetTreeOptions options ) {
+    this.partition = Objects.requireNonNull( partition );
+    this.options = Objects.requireNonNull( options );
+  }
+
+  @NonNull
+  public String getPartition() {
+    return partition;
+  }
+
+  @NonNull
+  public GetTreeOptions getOptions() {
+    return options;
+  }
+
+  @Override
+  public boolean equals( Object other ) {
+    if ( this == other ) {
+      return true;
+    }
+
+    if ( other == null || getClass() != other.getClass() ) {
+      return false;
+    }
+
+    TreeCacheKey that = (TreeCacheKey) other;
+
+    return partition.equals( that.partition ) && options.equals( that.options );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash( partition, options );
+  }
+}
@@ -0,0 +1,36 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+
+/**
+ * A tree cache partitioner which gives each user, as identified by the current Pentaho session, its own partition.
+ * <p>
+ * This is always safe, regardless of how permissions are granted, but users never share cached trees.
+ * Callers without a session, or with an anonymous one, share the {@link TreeCacheKey#SHARED_PARTITION}.
+ */
+public class UserTreeCachePartitioner implements ITreeCachePartitioner {
+  static final String PARTITION_PREFIX = "user:";
+
+  @NonNull
+  @Override
+  public String getPartition() {
+    IPentahoSession session = PentahoSessionHolder.getSession();
+    String userName = session != null ? session.getName() : null;
+
+    return userName != null ? PARTITION_PREFIX + userName : TreeCacheKey.SHARED_PARTITION;
+  }
+}
@@ -0,0 +1,72 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * The operations of the generic file service and of the generic file providers whose calls are recorded by
+ * {@link OperationMetrics}.
+ * <p>
+ * Only operations which access files are listed. Each is named after the method which performs it.
+ */
+public enum GenericFileOperation {
+  GET_ROOT_TREES( "getRootTrees" ),
+  GET_TREE( "getTree" ),
+  WALK_TREE( "walkTree" ),
+  DOES_FOLDER_EXIST( "doesFolderExist" ),
+  CREATE_FOLDER( "createFolder" ),
+  CREATE_FILE( "createFile" ),
+  SET_FILE_CONTENT( "setFileContent" ),
+  GET_FILE_CONTENT( "getFileContent" ),
+  GET_FILE( "getFile" ),
+  GET_FILES( "getFiles" ),
+  LIST_FOLDER( "listFolder" ),
+  FIND( "find" ),
+  HAS_ACCESS( "hasAccess" ),
+  GET_DELETED_FILES( "getDeletedFiles" ),
+  DELETE_FILES_PERMANENTLY( "deleteFilesPermanently" ),
+  DELETE_FILE_PERMANENTLY( "deleteFilePermanently" ),
+  DELETE_FILES( "deleteFiles" ),
+  DELETE_FILE( "deleteFile" ),
+  RESTORE_FILES( "restoreFiles" ),
+  RESTORE_FILE( "restoreFile" ),
+  RENAME_FILE( "renameFile" ),
+  COPY_FILES( "copyFiles" ),
+  COPY_FILE( "copyFile" ),
+  MOVE_FILES( "moveFiles" ),
+  MOVE_FILE( "moveFile" ),
+  GET_FILE_METADATA( "getFileMetadata" ),
+  SET_FILE_METADATA( "setFileMetadata" ),
+  GET_FILE_ACL( "getFileAcl" ),
+  SET_FILE_ACL( "setFileAcl" ),
+  VALIDATE_FILE_ACL( "validateFileAcl" );
+
+  @NonNull
+  private final String name;
+
+  GenericFileOperation( @NonNull String name ) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the name of the operation, as reported in the operation statistics.
+   *
+   * @return The operation name.
+   */
+  @NonNull
+  public String getName() {
+    return name;
+  }
+}
@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+
+import java.util.List;
+
+/**
+ * The management interface of the operation statistics of a generic file service and of its generic file providers.
+ * <p>
+ * Each attribute is read from a fresh snapshot of the statistics.
+ *
+ * @see OperationMetrics
+ * @see OperationStatisticsMBeanRegistrar
+ */
+public interface IOperationStatisticsMXBean {
+  /**
+   * @see OperationMetrics#getStatistics()
+   */
+  List<OperationStatistics> getOperations();
+
+  /**
+   * @see OperationMetrics#reset()
+   */
+  void reset();
+}
@@ -0,0 +1,80 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+
+/**
+ * The management interface of the tree cache statistics of a generic file provider.
+ * <p>
+ * Each attribute is read from a fresh snapshot of the provider's statistics.
+ *
+ * @see TreeCacheStatistics
+ * @see TreeCacheStatisticsMBeanRegistrar
+ */
+public interface ITreeCacheStatisticsMXBean {
+  /**
+   * Gets the type of the generic file provider.
+   */
+  String getProviderType();
+
+  /**
+   * @see TreeCacheStatistics#getHitCount()
+   */
+  long getHitCount();
+
+  /**
+   * @see TreeCacheStatistics#getMissCount()
+   */
+  long getMissCount();
+
+  /**
+   * @see TreeCacheStatistics#getHitRatio()
+   */
+  double getHitRatio();
+
+  /**
+   * @see TreeCacheStatistics#getLoadCount()
+   */
+  long getLoadCount();
+
+  /**
+   * @see TreeCacheStatistics#getTotalLoadTimeNanos()
+   */
+  long getTotalLoadTimeNanos();
+
+  /**
+   * @see TreeCacheStatistics#getAverageLoadTimeNanos()
+   */
+  long getAverageLoadTimeNanos();
+
+  /**
+   * @see TreeCacheStatistics#getEvictionCount()
+   */
+  long getEvictionCount();
+
+  /**
+   * @see TreeCacheStatistics#getInvalidationCount()
+   */
+  long getInvalidationCount();
+
+  /**
+   * @see TreeCacheStatistics#getEntryCount()
+   */
+  long getEntryCount();
+
+  /**
+   * @see TreeCacheStatistics#getNodeCount()
+   */
+  long getNodeCount();
+}
@@ -0,0 +1,103 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe histogram of non-negative values, such as latencies in nanoseconds, from which percentiles are
+ * estimated.
+ * <p>
+ * Each power of two range of values is split into {@link #SUB_BUCKET_COUNT} equal buckets, and so the estimated
+ * percentiles, which are the highest value of their bucket, are at most 12.5% above the actual value. Values below
+ * {@link #SUB_BUCKET_COUNT} are counted exactly. Recording a value takes constant time and no locks, and the histogram
+ * has a fixed size, whatever the range of values.
+ */
+final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  // Values up to Long.MAX_VALUE, whose highest bit is 62, fall in the last bucket.
+  private static final int BUCKET_COUNT = getBucketIndex( Long.MAX_VALUE ) + 1;
+
+  private final AtomicLongArray counts = new AtomicLongArray( BUCKET_COUNT );
+
+  /**
+   * Records a value. Negative values are recorded as {@code 0}.
+   *
+   * @param value The value.
+   */
+  void record( long value ) {
+    counts.incrementAndGet( getBucketIndex( Math.max( value, 0 ) ) );
+  }
+
+  /**
+   * Estimates the value below or at which the given percentage of the recorded values are.
+   *
+   * @param percentile The percentile, between {@code 0} and {@code 100}.
+   * @return The estimated value; {@code 0}, if no values were recorded.
+   */
+  long getPercentile( double percentile ) {
+    long[] snapshot = new long[ BUCKET_COUNT ];
+    long totalCount = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      snapshot[ i ] = counts.get( i );
+      totalCount += snapshot[ i ];
+    }
+
+    if ( totalCount == 0 ) {
+      return 0;
+    }
+
+    long rank = Math.max( 1, (long) Math.ceil( totalCount * percentile / 100 ) );
+    long count = 0;
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      count += snapshot[ i ];
+      if ( count >= rank ) {
+        return getBucketHighestValue( i );
+      }
+    }
+
+    return getBucketHighestValue( BUCKET_COUNT - 1 );
+  }
+
+  /**
+   * Removes all recorded values.
+   */
+  void reset() {
+    for ( int i = 0; i < BUCKET_COUNT; i++ ) {
+      counts.set( i, 0 );
+    }
+  }
+
+  static int getBucketIndex( long value ) {
+    if ( value < SUB_BUCKET_COUNT ) {
+      return (int) value;
+    }
+
+    int highestBit = 63 - Long.numberOfLeadingZeros( value );
+    int shift = highestBit - SUB_BUCKET_BITS;
+    int subBucket = (int) ( value >>> shift ) & ( SUB_BUCKET_COUNT - 1 );
+    return ( shift + 1 ) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long getBucketHighestValue( int index ) {
+    if ( index < SUB_BUCKET_COUNT ) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    long lowestValue = (long) ( SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT ) << shift;
+    return lowestValue + ( ( 1L << shift ) - 1 );
+  }
+}
@@ -0,0 +1,243 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.IGenericFileService;
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Records the call count, error count and latency of the operations of a generic file service and of its generic file
+ * providers.
+ * <p>
+ * Calls are timed by the service, with {@link #timeCall(String, GenericFileOperation, ITimedCall)} or
+ * {@link #timeRun(String, GenericFileOperation, ITimedRun)}, both for its own operations and for the operations it
+ * calls on providers. Only the operations listed in {@link GenericFileOperation} are recorded. The statistics are
+ * obtained with {@link #getStatistics()}, or with {@link IGenericFileService#getOperationStatistics()} of the service,
+ * and are exposed via JMX by {@link OperationStatisticsMBeanRegistrar}.
+ */
+public class OperationMetrics {
+  private static final Comparator<OperationStatistics> STATISTICS_ORDER = Comparator
+    .comparing( OperationStatistics::getProviderType, Comparator.nullsFirst( Comparator.naturalOrder() ) )
+    .thenComparing( OperationStatistics::getOperation );
+
+  /**
+   * Identifies an operation of the service, with a {@code null} provider type, or of a provider.
+   */
+  private static final class OperationKey {
+    @Nullable
+    final String providerType;
+
+    @NonNull
+    final GenericFileOperation operation;
+
+    OperationKey( @Nullable String providerType, @NonNull GenericFileOperation operation ) {
+      this.providerType = providerType;
+      this.operation = Objects.requireNonNull( operation );
+    }
+
+    @Override
+    public boolean equals( Object other ) {
+      if ( this == other ) {
+        return true;
+      }
+
+      if ( other == null || getClass() != other.getClass() ) {
+        return false;
+      }
+
+      OperationKey that = (OperationKey) other;
+
+      return Objects.equals( providerType, that.providerType ) && operation == that.operation;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( providerType, operation );
+    }
+  }
+
+  /**
+   * The statistics of an operation, as they are recorded.
+   */
+  private static class OperationRecorder {
+    final LongAdder callCount = new LongAdder();
+    final LongAdder errorCount = new LongAdder();
+    final LongAdder totalTimeNanos = new LongAdder();
+    final LongAccumulator maxTimeNanos = new LongAccumulator( Math::max, 0 );
+    final LatencyHistogram histogram = new LatencyHistogram();
+
+    void record( long timeNanos, boolean failed ) {
+      histogram.record( timeNanos );
+      totalTimeNanos.add( timeNanos );
+      maxTimeNanos.accumulate( timeNanos );
+      if ( failed ) {
+        errorCount.increment();
+      }
+
+      callCount.increment();
+    }
+
+    @NonNull
+    OperationStatistics getStatistics( @NonNull OperationKey key ) {
+      OperationStatistics statistics = new OperationStatistics();
+      statistics.setProviderType( key.providerType );
+      statistics.setOperation( key.operation.getName() );
+      statistics.setCallCount( callCount.sum() );
+      statistics.setErrorCount( errorCount.sum() );
+      statistics.setTotalTimeNanos( totalTimeNanos.sum() );
+      statistics.setMaxTimeNanos( maxTimeNanos.get() );
+      statistics.setP50TimeNanos( histogram.getPercentile( 50 ) );
+      statistics.setP95TimeNanos( histogram.getPercentile( 95 ) );
+      statistics.setP99TimeNanos( histogram.getPercentile( 99 ) );
+      return statistics;
+    }
+  }
+
+  /**
+   * Represents a timed call which returns a result.
+   *
+   * @param <T> The type of result.
+   * @param <E> The type of checked exception thrown by the call.
+   */
+  @FunctionalInterface
+  public interface ITimedCall<T, E extends Exception> {
+    T call() throws E;
+  }
+
+  /**
+   * Represents a timed call which returns no result.
+   *
+   * @param <E> The type of checked exception thrown by the call.
+   */
+  @FunctionalInterface
+  public interface ITimedRun<E extends Exception> {
+    void run() throws E;
+  }
+
+  @NonNull
+  private final LongSupplier clock;
+
+  @NonNull
+  private final Map<OperationKey, OperationRecorder> recorders = new ConcurrentHashMap<>();
+
+  public OperationMetrics() {
+    this( System::nanoTime );
+  }
+
+  /**
+   * Creates an operation metrics instance with a given clock.
+   *
+   * @param clock The source of the current time, in nanoseconds.
+   */
+  OperationMetrics( @NonNull LongSupplier clock ) {
+    this.clock = Objects.requireNonNull( clock );
+  }
+
+  /**
+   * Records a call to an operation.
+   *
+   * @param providerType The type of the provider of the operation; {@code null}, for an operation of the service.
+   * @param operation    The operation.
+   * @param timeNanos    The time spent in the call, in nanoseconds.
+   * @param failed       Indicates whether the call failed.
+   */
+  public void record( @Nullable String providerType,
+                      @NonNull GenericFileOperation operation,
+                      long timeNanos,
+                      boolean failed ) {
+    recorders
+      .computeIfAbsent( new OperationKey( providerType, operation ), key -> new OperationRecorder() )
+      .record( timeNanos, failed );
+  }
+
+  /**
+   * Gets a snapshot of the statistics of the operations which were called.
+   *
+   * @return The list of operation statistics, ordered by provider type, with the operations of the service first, and
+   * then by operation.
+   */
+  @NonNull
+  public List<OperationStatistics> getStatistics() {
+    List<OperationStatistics> statistics = new ArrayList<>();
+    recorders.forEach( ( key, recorder ) -> statistics.add( recorder.getStatistics( key ) ) );
+    statistics.sort( STATISTICS_ORDER );
+    return statistics;
+  }
+
+  /**
+   * Removes the statistics of all operations.
+   * <p>
+   * Calls which are in progress are recorded when they complete.
+   */
+  public void reset() {
+    recorders.clear();
+  }
+
+  // region Timing
+  /**
+   * Performs a call to an operation, recording its time, and whether it failed, by throwing any exception.
+   *
+   * @param providerType The type of the provider of the operation; {@code null}, for an operation of the service.
+   * @param operation    The operation.
+   * @param call         The call.
+   * @param <T>          The type of result.
+   * @param <E>          The type of checked exception thrown by the call.
+   * @return The result of the call.
+   * @throws E If the call throws it.
+   */
+  public <T, E extends Exception> T timeCall( @Nullable String providerType,
+                                              @NonNull GenericFileOperation operation,
+                                              @NonNull ITimedCall<T, E> call ) throws E {
+    boolean failed = true;
+    long startNanos = clock.getAsLong();
+    try {
+      T result = call.call();
+      failed = false;
+      return result;
+    } finally {
+      record( providerType, operation, clock.getAsLong() - startNanos, failed );
+    }
+  }
+
+  /**
+   * Performs a call to an operation which returns no result, recording its time, and whether it failed.
+   *
+   * @param providerType The type of the provider of the operation; {@code null}, for an operation of the service.
+   * @param operation    The operation.
+   * @param run          The call.
+   * @param <E>          The type of checked exception thrown by the call.
+   * @throws E If the call throws it.
+   * @see #timeCall(String, GenericFileOperation, ITimedCall)
+   */
+  public <E extends Exception> void timeRun( @Nullable String providerType,
+                                             @NonNull GenericFileOperation operation,
+                                             @NonNull ITimedRun<E> run ) throws E {
+    timeCall( providerType, operation, () -> {
+      run.run();
+      return null;
+    } );
+  }
+  // endregion
+}
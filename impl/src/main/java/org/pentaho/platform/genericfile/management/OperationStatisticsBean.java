@@ -0,0 +1,42 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Exposes the operation statistics of a generic file service and of its generic file providers as an MXBean.
+ */
+public class OperationStatisticsBean implements IOperationStatisticsMXBean {
+  @NonNull
+  private final OperationMetrics operationMetrics;
+
+  public OperationStatisticsBean( @NonNull OperationMetrics operationMetrics ) {
+    this.operationMetrics = Objects.requireNonNull( operationMetrics );
+  }
+
+  @Override
+  public List<OperationStatistics> getOperations() {
+    return operationMetrics.getStatistics();
+  }
+
+  @Override
+  public void reset() {
+    operationMetrics.reset();
+  }
+}
@@ -0,0 +1,112 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+
+/**
+ * Registers, in an MBean server, an {@link IOperationStatisticsMXBean} for the operation statistics of a generic file
+ * service and of its generic file providers.
+ * <p>
+ * The MBean is named {@code org.pentaho.platform.genericfile:type=OperationStatistics}.
+ * <p>
+ * Created by {@link org.pentaho.platform.genericfile.DefaultGenericFileService}, which calls {@link #register()} and
+ * {@link #unregister()} from its own {@code registerMBeans} and {@code unregisterMBeans} methods.
+ */
+public class OperationStatisticsMBeanRegistrar {
+  static final String TYPE = "OperationStatistics";
+
+  @NonNull
+  private final OperationMetrics operationMetrics;
+
+  @NonNull
+  private final MBeanServer mbeanServer;
+
+  private boolean isRegistered;
+
+  /**
+   * Creates a registrar for the platform MBean server.
+   *
+   * @param operationMetrics The operation metrics.
+   */
+  public OperationStatisticsMBeanRegistrar( @NonNull OperationMetrics operationMetrics ) {
+    this( operationMetrics, ManagementFactory.getPlatformMBeanServer() );
+  }
+
+  public OperationStatisticsMBeanRegistrar( @NonNull OperationMetrics operationMetrics,
+                                            @NonNull MBeanServer mbeanServer ) {
+    this.operationMetrics = Objects.requireNonNull( operationMetrics );
+    this.mbeanServer = Objects.requireNonNull( mbeanServer );
+  }
+
+  /**
+   * Gets the name of the MBean.
+   *
+   * @return The MBean name.
+   * @throws JMException If the name is invalid.
+   */
+  @NonNull
+  public static ObjectName getObjectName() throws JMException {
+    return new ObjectName( TreeCacheStatisticsMBeanRegistrar.DOMAIN + ":type=" + TYPE );
+  }
+
+  /**
+   * Registers the MBean.
+   * <p>
+   * An MBean which is already registered with the same name, e.g. by a previous instance of the service, is replaced.
+   * Failures are logged.
+   */
+  public synchronized void register() {
+    try {
+      ObjectName name = getObjectName();
+
+      if ( mbeanServer.isRegistered( name ) ) {
+        mbeanServer.unregisterMBean( name );
+      }
+
+      mbeanServer.registerMBean( new OperationStatisticsBean( operationMetrics ), name );
+      isRegistered = true;
+    } catch ( JMException e ) {
+      Logger.error( this.getClass().getName(), "Failed to register the operation statistics MBean.", e );
+    }
+  }
+
+  /**
+   * Unregisters the MBean registered by {@link #register()}.
+   */
+  public synchronized void unregister() {
+    if ( !isRegistered ) {
+      return;
+    }
+
+    try {
+      ObjectName name = getObjectName();
+
+      if ( mbeanServer.isRegistered( name ) ) {
+        mbeanServer.unregisterMBean( name );
+      }
+    } catch ( JMException e ) {
+      Logger.error( this.getClass().getName(), "Failed to unregister the operation statistics MBean.", e );
+    }
+
+    isRegistered = false;
+  }
+}
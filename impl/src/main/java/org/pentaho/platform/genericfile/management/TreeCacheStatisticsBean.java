@@ -0,0 +1,94 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+
+import java.util.Objects;
+
+/**
+ * Exposes the tree cache statistics of a generic file provider as an MXBean.
+ */
+public class TreeCacheStatisticsBean implements ITreeCacheStatisticsMXBean {
+  @NonNull
+  private final IGenericFileProvider<?> fileProvider;
+
+  public TreeCacheStatisticsBean( @NonNull IGenericFileProvider<?> fileProvider ) {
+    this.fileProvider = Objects.requireNonNull( fileProvider );
+  }
+
+  @NonNull
+  private TreeCacheStatistics getStatistics() {
+    TreeCacheStatistics statistics = fileProvider.getTreeCacheStatistics();
+
+    // Report zeros for a provider which stopped caching trees.
+    return statistics != null ? statistics : new TreeCacheStatistics();
+  }
+
+  @Override
+  public String getProviderType() {
+    return fileProvider.getType();
+  }
+
+  @Override
+  public long getHitCount() {
+    return getStatistics().getHitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return getStatistics().getMissCount();
+  }
+
+  @Override
+  public double getHitRatio() {
+    return getStatistics().getHitRatio();
+  }
+
+  @Override
+  public long getLoadCount() {
+    return getStatistics().getLoadCount();
+  }
+
+  @Override
+  public long getTotalLoadTimeNanos() {
+    return getStatistics().getTotalLoadTimeNanos();
+  }
+
+  @Override
+  public long getAverageLoadTimeNanos() {
+    return getStatistics().getAverageLoadTimeNanos();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return getStatistics().getEvictionCount();
+  }
+
+  @Override
+  public long getInvalidationCount() {
+    return getStatistics().getInvalidationCount();
+  }
+
+  @Override
+  public long getEntryCount() {
+    return getStatistics().getEntryCount();
+  }
+
+  @Override
+  public long getNodeCount() {
+    return getStatistics().getNodeCount();
+  }
+}
@@ -0,0 +1,120 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Registers, in an MBean server, one {@link ITreeCacheStatisticsMXBean} per generic file provider which caches trees.
+ * <p>
+ * MBeans are named {@code org.pentaho.platform.genericfile:type=TreeCacheStatistics,provider=<provider type>}.
+ * <p>
+ * Created by {@link org.pentaho.platform.genericfile.DefaultGenericFileService}, for its providers, which calls
+ * {@link #register()} and {@link #unregister()} from its own {@code registerMBeans} and {@code unregisterMBeans}
+ * methods.
+ */
+public class TreeCacheStatisticsMBeanRegistrar {
+  static final String DOMAIN = "org.pentaho.platform.genericfile";
+  static final String TYPE = "TreeCacheStatistics";
+
+  @NonNull
+  private final List<IGenericFileProvider<?>> fileProviders;
+
+  @NonNull
+  private final MBeanServer mbeanServer;
+
+  @NonNull
+  private final List<ObjectName> registeredNames = new ArrayList<>();
+
+  /**
+   * Creates a registrar for the platform MBean server.
+   *
+   * @param fileProviders The generic file providers.
+   */
+  public TreeCacheStatisticsMBeanRegistrar( @NonNull List<IGenericFileProvider<?>> fileProviders ) {
+    this( fileProviders, ManagementFactory.getPlatformMBeanServer() );
+  }
+
+  public TreeCacheStatisticsMBeanRegistrar( @NonNull List<IGenericFileProvider<?>> fileProviders,
+                                            @NonNull MBeanServer mbeanServer ) {
+    this.fileProviders = new ArrayList<>( Objects.requireNonNull( fileProviders ) );
+    this.mbeanServer = Objects.requireNonNull( mbeanServer );
+  }
+
+  /**
+   * Gets the name of the MBean of the given provider type.
+   *
+   * @param providerType The provider type.
+   * @return The MBean name.
+   * @throws JMException If the name is invalid.
+   */
+  @NonNull
+  public static ObjectName getObjectName( @NonNull String providerType ) throws JMException {
+    return new ObjectName( DOMAIN + ":type=" + TYPE + ",provider=" + ObjectName.quote( providerType ) );
+  }
+
+  /**
+   * Registers the MBeans of the providers which cache trees.
+   * <p>
+   * An MBean which is already registered with the same name, e.g. by a previous instance of a provider, is replaced.
+   * Failures are logged, and do not prevent registering the MBeans of other providers.
+   */
+  public synchronized void register() {
+    for ( IGenericFileProvider<?> fileProvider : fileProviders ) {
+      if ( fileProvider.getTreeCacheStatistics() == null ) {
+        continue;
+      }
+
+      try {
+        ObjectName name = getObjectName( fileProvider.getType() );
+
+        if ( mbeanServer.isRegistered( name ) ) {
+          mbeanServer.unregisterMBean( name );
+        }
+
+        mbeanServer.registerMBean( new TreeCacheStatisticsBean( fileProvider ), name );
+        registeredNames.add( name );
+      } catch ( JMException e ) {
+        Logger.error( this.getClass().getName(),
+          "Failed to register the tree cache statistics MBean of provider: " + fileProvider.getType(), e );
+      }
+    }
+  }
+
+  /**
+   * Unregisters the MBeans registered by {@link #register()}.
+   */
+  public synchronized void unregister() {
+    for ( ObjectName name : registeredNames ) {
+      try {
+        if ( mbeanServer.isRegistered( name ) ) {
+          mbeanServer.unregisterMBean( name );
+        }
+      } catch ( JMException e ) {
+        Logger.error( this.getClass().getName(), "Failed to unregister the MBean: " + name, e );
+      }
+    }
+
+    registeredNames.clear();
+  }
+}
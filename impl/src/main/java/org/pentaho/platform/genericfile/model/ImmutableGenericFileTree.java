@@ -0,0 +1,40 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.model;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.util.List;
+
+/**
+ * A read-only file tree, whose nodes can be safely shared, such as by the tree cache and by all the trees composed
+ * from it.
+ * <p>
+ * The children list can neither be modified nor replaced. To change a read-only tree, create a new tree with the same
+ * file and the changed children list, sharing the unchanged child trees.
+ */
+public class ImmutableGenericFileTree extends BaseGenericFileTree {
+  public ImmutableGenericFileTree( @NonNull BaseGenericFile file,
+                                  @Nullable List<? extends IGenericFileTree> children ) {
+    super( file );
+
+    this.children = children != null ? List.copyOf( children ) : null;
+  }
+
+  @Override
+  public void setChildren( @Nullable List<IGenericFileTree> children ) {
+    throw new UnsupportedOperationException( "The tree is read-only." );
+  }
+}
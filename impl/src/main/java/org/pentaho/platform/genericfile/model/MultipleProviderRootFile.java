@@ -0,0 +1,45 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.model;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.ProviderStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The file of the root of the tree which combines the trees of multiple providers.
+ * <p>
+ * Besides the usual file properties, it holds the status of each of the queried providers, so that clients can tell
+ * which providers' trees are missing, and why.
+ */
+public class MultipleProviderRootFile extends BaseGenericFile {
+  @NonNull
+  private final Map<String, ProviderStatus> providerStatuses = new LinkedHashMap<>();
+
+  /**
+   * Gets the status of each of the queried providers, by provider type, in provider order.
+   *
+   * @return The provider statuses.
+   */
+  @NonNull
+  public Map<String, ProviderStatus> getProviderStatuses() {
+    return providerStatuses;
+  }
+
+  public void setProviderStatus( @NonNull String providerType, @NonNull ProviderStatus status ) {
+    providerStatuses.put( providerType, Objects.requireNonNull( status ) );
+  }
+}
@@ -0,0 +1,44 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.model;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.pentaho.platform.api.genericfile.ProviderStatus;
+
+import java.util.Objects;
+
+/**
+ * The file of the placeholder root tree which stands for a provider whose root trees are missing from the root trees of
+ * multiple providers.
+ * <p>
+ * Besides the usual file properties, it holds the status of the provider, so that clients can tell which providers'
+ * trees are missing, and why. The file has no path, and cannot be addressed for any file operations.
+ */
+public class UnavailableProviderRootFile extends BaseGenericFile {
+  @NonNull
+  private final ProviderStatus providerStatus;
+
+  public UnavailableProviderRootFile( @NonNull ProviderStatus providerStatus ) {
+    this.providerStatus = Objects.requireNonNull( providerStatus );
+  }
+
+  /**
+   * Gets the status of the provider.
+   *
+   * @return The provider status.
+   */
+  @NonNull
+  public ProviderStatus getProviderStatus() {
+    return providerStatus;
+  }
+}
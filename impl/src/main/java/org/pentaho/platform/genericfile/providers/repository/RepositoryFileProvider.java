@@ -18,13 +18,20 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
+import org.pentaho.platform.api.genericfile.FindOptions;
+import org.pentaho.platform.api.genericfile.GenericFileFinder;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GenericFilePermission;
 import org.pentaho.platform.api.genericfile.GenericFilePrincipalType;
 import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetFilesResult;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.ListFolderOptions;
+import org.pentaho.platform.api.genericfile.ListFolderPaging;
+import org.pentaho.platform.api.genericfile.ListFolderResult;
 import org.pentaho.platform.api.genericfile.TreeProviderTypes;
 import org.pentaho.platform.api.genericfile.exception.AccessControlException;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.ConflictException;
 import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
@@ -54,6 +61,11 @@ import org.pentaho.platform.api.repository2.unified.webservices.StringKeyStringV
 import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.engine.core.system.PentahoSystem;
 import org.pentaho.platform.genericfile.BaseGenericFileProvider;
+import org.pentaho.platform.genericfile.cache.ITreeCache;
+import org.pentaho.platform.genericfile.cache.ITreeCachePartitioner;
+import org.pentaho.platform.genericfile.cache.LruTreeCache;
+import org.pentaho.platform.genericfile.cache.MissingPathCache;
+import org.pentaho.platform.genericfile.cache.UserTreeCachePartitioner;
 import org.pentaho.platform.genericfile.messages.Messages;
 import org.pentaho.platform.genericfile.model.BaseGenericFile;
 import org.pentaho.platform.genericfile.model.BaseGenericFileAce;
@@ -85,13 +97,22 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLConnection;
 import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -109,6 +130,32 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   public static final String FILE_UPDATE_MSG = "Updating existing file";
   public static final String FILE_CREATE_MSG = "Create file";
 
+  /**
+   * The separator of file identifiers in the batch operations of {@link FileService}.
+   */
+  private static final String FILE_ID_SEPARATOR = ",";
+
+  /**
+   * The minimum number of paths of a {@link #getFiles(List, GetFileOptions)} call, or of a batch operation, which must
+   * share a parent folder for them to be resolved from a listing of the folder, rather than one at a time. Below it,
+   * the listing, which also includes the files which were not requested, is not worth it.
+   */
+  private static final int MIN_PATHS_PER_FOLDER_LISTING = 3;
+
+  /**
+   * The maximum number of files restored by a {@link #restoreFiles(List)} call whose restored paths are looked up, one
+   * at a time, to clear only their entries of the tree cache. Above it, the lookups cost more than reloading the
+   * trees, and the whole tree cache is cleared instead.
+   */
+  private static final int MAX_RESTORED_PATH_LOOKUPS = 10;
+
+  /**
+   * Matches the glob name patterns which can be passed in a repository filter. The repository only supports the
+   * {@code *} wildcard and uses {@code |} to separate alternative patterns. It also ignores leading and trailing
+   * whitespace, which is checked separately.
+   */
+  private static final Pattern NATIVE_NAME_PATTERN = Pattern.compile( "[^?|\\[\\]]+" );
+
   private static GenericFilePath ROOT_GENERIC_PATH;
 
   static {
@@ -133,6 +180,19 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   @NonNull
   private final DateAdapter repositoryWsDateAdapter;
 
+  /**
+   * Trees depend on the permissions of the current user, so cached trees must not be shared across users which may
+   * have different permissions.
+   */
+  @NonNull
+  private final ITreeCachePartitioner treeCachePartitioner;
+
+  /**
+   * Paths recently found not to exist, partitioned like cached trees.
+   */
+  @NonNull
+  private final MissingPathCache missingPaths;
+
   // TODO: Actually fix the base FileService class to do this and eliminate this class when available on the platform.
 
   /**
@@ -176,9 +236,54 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   }
 
   public RepositoryFileProvider( @NonNull IUnifiedRepository unifiedRepository, @NonNull FileService fileService ) {
+    this( unifiedRepository, fileService, new LruTreeCache() );
+  }
+
+  public RepositoryFileProvider( @NonNull IUnifiedRepository unifiedRepository,
+                                 @NonNull FileService fileService,
+                                 @NonNull ITreeCache treeCache ) {
+    this( unifiedRepository, fileService, treeCache, new UserTreeCachePartitioner() );
+  }
+
+  /**
+   * Creates a repository file provider.
+   *
+   * @param unifiedRepository    The unified repository.
+   * @param fileService          The file service.
+   * @param treeCache            The tree cache.
+   * @param treeCachePartitioner The tree cache partitioner. Defaults to a {@link UserTreeCachePartitioner}. A
+   *                             {@link org.pentaho.platform.genericfile.cache.RoleSetTreeCachePartitioner} can only be
+   *                             used if permissions are granted exclusively through roles.
+   */
+  public RepositoryFileProvider( @NonNull IUnifiedRepository unifiedRepository,
+                                 @NonNull FileService fileService,
+                                 @NonNull ITreeCache treeCache,
+                                 @NonNull ITreeCachePartitioner treeCachePartitioner ) {
+    this( unifiedRepository, fileService, treeCache, treeCachePartitioner, new MissingPathCache() );
+  }
+
+  /**
+   * Creates a repository file provider.
+   *
+   * @param unifiedRepository    The unified repository.
+   * @param fileService          The file service.
+   * @param treeCache            The tree cache.
+   * @param treeCachePartitioner The tree cache partitioner, which also partitions the missing path cache.
+   * @param missingPaths         The cache of paths recently found not to exist, which serves existence probes of
+   *                             missing files without reaching the repository.
+   */
+  public RepositoryFileProvider( @NonNull IUnifiedRepository unifiedRepository,
+                                 @NonNull FileService fileService,
+                                 @NonNull ITreeCache treeCache,
+                                 @NonNull ITreeCachePartitioner treeCachePartitioner,
+                                 @NonNull MissingPathCache missingPaths ) {
+    super( treeCache );
+
     this.unifiedRepository = Objects.requireNonNull( unifiedRepository );
     this.fileService = Objects.requireNonNull( fileService );
     this.repositoryWsDateAdapter = new DateAdapter();
+    this.treeCachePartitioner = Objects.requireNonNull( treeCachePartitioner );
+    this.missingPaths = Objects.requireNonNull( missingPaths );
   }
 
   @NonNull
@@ -199,6 +304,31 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     return TYPE;
   }
 
+  @NonNull
+  @Override
+  protected String getTreeCachePartition() {
+    return treeCachePartitioner.getPartition();
+  }
+
+  @Override
+  public void clearTreeCache() {
+    super.clearTreeCache();
+    missingPaths.clear();
+  }
+
+  /**
+   * Clears the cached trees affected by a change to a given path, as well as the cached missing paths which the change
+   * may have brought into existence.
+   *
+   * @param path The changed path.
+   * @see MissingPathCache#invalidate(GenericFilePath)
+   */
+  @Override
+  public void clearTreeCache( @NonNull GenericFilePath path ) {
+    super.clearTreeCache( path );
+    missingPaths.invalidate( path );
+  }
+
   @Override
   protected boolean createFolderCore( @NonNull GenericFilePath path ) throws OperationFailedException {
     // When the parent path is not found, its creation is attempted.
@@ -514,13 +644,342 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     return file;
   }
 
+  /**
+   * Gets several files given their paths.
+   * <p>
+   * Paths which share a parent folder with enough other paths are resolved from a single listing of the folder, which
+   * includes the owner of each file. This replaces a call to get each file and another to get its owner. The other
+   * paths, and those of folders which cannot be listed, are resolved one at a time, as by
+   * {@link #getFile(GenericFilePath, GetFileOptions)}. Paths known to be missing are reported without calling the
+   * repository. When requested, metadata is still obtained for each file.
+   */
+  @NonNull
+  @Override
+  public GetFilesResult getFiles( @NonNull List<GenericFilePath> paths, @NonNull GetFileOptions options ) {
+    Map<GenericFilePath, RepositoryObject> files = new HashMap<>();
+    Map<GenericFilePath, OperationFailedException> errors = new HashMap<>();
+
+    Map<GenericFilePath, List<GenericFilePath>> pathsByParent = new LinkedHashMap<>();
+    List<GenericFilePath> singlePaths = new ArrayList<>();
+    for ( GenericFilePath path : paths ) {
+      GenericFilePath parentPath = path.getParent();
+      if ( parentPath != null && owns( path ) && !isKnownMissing( path ) ) {
+        pathsByParent.computeIfAbsent( parentPath, key -> new ArrayList<>() ).add( path );
+      } else {
+        singlePaths.add( path );
+      }
+    }
+
+    for ( Map.Entry<GenericFilePath, List<GenericFilePath>> entry : pathsByParent.entrySet() ) {
+      if ( entry.getValue().size() < MIN_PATHS_PER_FOLDER_LISTING
+        || !getFilesFromFolderListing( entry.getKey(), entry.getValue(), files, errors ) ) {
+        singlePaths.addAll( entry.getValue() );
+      }
+    }
+
+    for ( GenericFilePath path : singlePaths ) {
+      try {
+        files.put( path, convertFromNativeFile( getNativeFile( path ), getParentPath( path ) ) );
+      } catch ( OperationFailedException e ) {
+        errors.put( path, e );
+      }
+    }
+
+    GetFilesResult result = new GetFilesResult();
+    for ( GenericFilePath path : paths ) {
+      RepositoryObject file = files.get( path );
+      if ( file == null ) {
+        result.addError( path, errors.get( path ) );
+        continue;
+      }
+
+      try {
+        if ( options.isIncludeMetadata() ) {
+          file.setMetadata( getFileMetadata( path ) );
+        }
+
+        result.addFile( path, file );
+      } catch ( OperationFailedException e ) {
+        result.addError( path, e );
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Resolves paths of the same parent folder from a single listing of the folder.
+   * <p>
+   * If the folder cannot be listed, for example, because the current user cannot read it, none of the paths are
+   * resolved, and these should be resolved one at a time instead, so that each gets its own outcome.
+   *
+   * @return {@code true}, if the folder was listed, and the paths resolved; {@code false}, otherwise.
+   */
+  private boolean getFilesFromFolderListing( @NonNull GenericFilePath folderPath,
+                                             @NonNull List<GenericFilePath> paths,
+                                             @NonNull Map<GenericFilePath, RepositoryObject> files,
+                                             @NonNull Map<GenericFilePath, OperationFailedException> errors ) {
+    // Include ACLs, which hold the owner of each file.
+    Map<String, RepositoryFileDto> nativeChildrenByName = getNativeChildrenByName( folderPath, true );
+    if ( nativeChildrenByName == null ) {
+      return false;
+    }
+
+    for ( GenericFilePath path : paths ) {
+      RepositoryFileDto nativeFile = nativeChildrenByName.get( path.getLastSegment() );
+      if ( nativeFile != null ) {
+        files.put( path, convertFromNativeFileDto( nativeFile, folderPath.toString() ) );
+      } else {
+        missingPaths.putMissing( getTreeCachePartition(), path );
+        errors.put( path, new NotFoundException( String.format( "Path not found '%s'.", path ), path ) );
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Lists the files of a folder, including hidden ones, with a single repository call.
+   *
+   * @param folderPath  The folder path.
+   * @param includeAcls Whether to include the ACL of each file.
+   * @return The files of the folder, by name, if it could be listed; {@code null}, otherwise.
+   */
+  @Nullable
+  private Map<String, RepositoryFileDto> getNativeChildrenByName( @NonNull GenericFilePath folderPath,
+                                                                  boolean includeAcls ) {
+    List<RepositoryFileDto> nativeChildren;
+    try {
+      nativeChildren = fileService.doGetChildren(
+        pathToString( folderPath ),
+        getRepositoryFilter( GetTreeOptions.TreeFilter.ALL ),
+        true,
+        includeAcls );
+    } catch ( RuntimeException e ) {
+      return null;
+    }
+
+    Map<String, RepositoryFileDto> nativeChildrenByName = new HashMap<>();
+    if ( nativeChildren != null ) {
+      nativeChildren.forEach( nativeChild -> nativeChildrenByName.put( nativeChild.getName(), nativeChild ) );
+    }
+
+    return nativeChildrenByName;
+  }
+
+  /**
+   * Lists a page of the files of a folder.
+   * <p>
+   * The repository cannot page the children of a folder, and so all of them are obtained, but as native files, which
+   * are cheap to get and hold, compared to the tree of the folder. The page is selected among the native files, and
+   * only these are then converted, which includes getting the owner of each. The tree cache is not used.
+   */
+  @NonNull
+  @Override
+  public ListFolderResult listFolder( @NonNull GenericFilePath path, @NonNull ListFolderOptions options )
+    throws OperationFailedException {
+    Objects.requireNonNull( options );
+
+    org.pentaho.platform.api.repository2.unified.RepositoryFile nativeFolder = getNativeFile( path );
+    if ( !nativeFolder.isFolder() ) {
+      throw new NotFoundException( String.format( "Folder not found '%s'.", path ), path );
+    }
+
+    List<org.pentaho.platform.api.repository2.unified.RepositoryFile> nativeChildren;
+    try {
+      nativeChildren = unifiedRepository.getChildren(
+        nativeFolder.getId(),
+        getRepositoryFilter( options.getFilter() ),
+        options.isIncludeHidden() );
+    } catch ( UnifiedRepositoryAccessDeniedException e ) {
+      throw new AccessControlException( e );
+    } catch ( UnifiedRepositoryException e ) {
+      throw new OperationFailedException( e );
+    }
+
+    ListFolderPaging.Page<org.pentaho.platform.api.repository2.unified.RepositoryFile> page = ListFolderPaging.getPage(
+      nativeChildren != null ? nativeChildren : List.of(),
+      options,
+      org.pentaho.platform.api.repository2.unified.RepositoryFile::getName,
+      RepositoryFileProvider::getModifiedDateFromNativeFile );
+
+    List<IGenericFile> files = new ArrayList<>();
+    for ( org.pentaho.platform.api.repository2.unified.RepositoryFile nativeChild : page.getFiles() ) {
+      RepositoryObject file = convertFromNativeFile( nativeChild, path.toString() );
+
+      if ( options.isIncludeMetadata() ) {
+        file.setMetadata( getFileMetadata( GenericFilePath.parseRequired( file.getPath() ) ) );
+      }
+
+      files.add( file );
+    }
+
+    return new ListFolderResult( files, page.getNextCursor() );
+  }
+
+  /**
+   * Finds the files under a folder which match the given criteria.
+   * <p>
+   * The tree of the folder is walked depth-first, one folder listing at a time, as by {@link #walkTree}, and so the
+   * walk stops, without listing any more folders, as soon as the maximum number of results is reached. Each folder is
+   * listed with a single native request. The folders at the maximum depth, whose subfolders are not walked, are listed
+   * with the find criteria pushed to the repository filter, as by {@link #getRepositoryFindFilter(FindOptions)}, so
+   * that other files are not obtained at all. The criteria are evaluated on the native files of each listing as it is
+   * obtained, and only matching files are converted. The owner of a file is only obtained, if not known, after the
+   * other criteria are met. The tree cache is not used.
+   */
+  @NonNull
+  @Override
+  public List<IGenericFile> find( @NonNull GenericFilePath basePath, @NonNull FindOptions options )
+    throws OperationFailedException {
+    GenericFileFinder finder = new GenericFileFinder( options );
+
+    if ( !getNativeFile( basePath ).isFolder() ) {
+      throw new NotFoundException( String.format( "Folder not found '%s'.", basePath ), basePath );
+    }
+
+    Integer maxDepth = options.getMaxDepth();
+    List<IGenericFile> results = new ArrayList<>();
+    if ( maxDepth != null && maxDepth < 1 ) {
+      return results;
+    }
+
+    // The listings yet to walk of each folder in the path being walked. The depth of the files of the listing at the
+    // top of the stack is the size of the stack.
+    Deque<NativeFolderListing> pendingListings = new ArrayDeque<>();
+    pendingListings.push( new NativeFolderListing(
+      basePath.toString(),
+      listNativeChildren( basePath.toString(), getRepositoryFindListingFilter( options, 1 ), options ) ) );
+
+    while ( !pendingListings.isEmpty() ) {
+      NativeFolderListing listing = pendingListings.peek();
+      if ( !listing.nativeChildren.hasNext() ) {
+        pendingListings.pop();
+        continue;
+      }
+
+      RepositoryFileDto nativeChild = listing.nativeChildren.next();
+      int depth = pendingListings.size();
+
+      if ( matchesNativeFile( nativeChild, listing.path, finder, results ) && finder.isComplete( results.size() ) ) {
+        break;
+      }
+
+      if ( nativeChild.isFolder() && ( maxDepth == null || depth < maxDepth ) ) {
+        List<RepositoryFileDto> nativeGrandChildren;
+        try {
+          nativeGrandChildren =
+            listNativeChildren( nativeChild.getPath(), getRepositoryFindListingFilter( options, depth + 1 ), options );
+        } catch ( OperationFailedException e ) {
+          // Like folders which cannot be read are left out of a tree, their descendants are not searched.
+          continue;
+        }
+
+        if ( !nativeGrandChildren.isEmpty() ) {
+          pendingListings.push( new NativeFolderListing( nativeChild.getPath(), nativeGrandChildren ) );
+        }
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * The native files of a folder listing, yet to walk, when finding files.
+   */
+  private static class NativeFolderListing {
+    @NonNull
+    final String path;
+
+    @NonNull
+    final Iterator<RepositoryFileDto> nativeChildren;
+
+    NativeFolderListing( @NonNull String path, @NonNull List<RepositoryFileDto> nativeChildren ) {
+      this.path = path;
+      this.nativeChildren = nativeChildren.iterator();
+    }
+  }
+
+  /**
+   * Checks if a native file matches the find criteria, adding it to the results, converted, if so.
+   *
+   * @return {@code true}, if the file matches; {@code false}, otherwise.
+   */
+  private boolean matchesNativeFile( @NonNull RepositoryFileDto nativeFile,
+                                     @NonNull String parentPath,
+                                     @NonNull GenericFileFinder finder,
+                                     @NonNull List<IGenericFile> results ) {
+    // The owner is not always in the native file, in which case it is obtained, at most once, from its ACL.
+    AtomicReference<String> owner = new AtomicReference<>( nativeFile.getOwner() );
+    Supplier<String> ownerSupplier = () -> owner.updateAndGet(
+      knownOwner -> knownOwner != null ? knownOwner : getOwnerByFileId( nativeFile.getId() ) );
+
+    boolean isMatch = finder.matches(
+      nativeFile.getName(),
+      nativeFile.isFolder(),
+      nativeFile.getFileSize(),
+      () -> getModifiedDateFromNativeFileDto( nativeFile ),
+      () -> parseDate( nativeFile.getCreatedDate() ),
+      ownerSupplier );
+
+    if ( isMatch ) {
+      RepositoryObject file = convertFromNativeFileDto( nativeFile, parentPath, false );
+      file.setOwner( ownerSupplier.get() );
+      results.add( file );
+    }
+
+    return isMatch;
+  }
+
+  /**
+   * Gets the repository filter of the listing of a folder whose files are at a given depth, when finding files.
+   * <p>
+   * Folders must be listed, regardless of their name, for their descendants to be searched, and so only listings of
+   * folders at the maximum depth can push the find criteria to the repository.
+   */
+  @NonNull
+  private String getRepositoryFindListingFilter( @NonNull FindOptions options, int depth ) {
+    Integer maxDepth = options.getMaxDepth();
+    if ( maxDepth != null && depth >= maxDepth ) {
+      return getRepositoryFindFilter( options );
+    }
+
+    return options.getFilter() == GetTreeOptions.TreeFilter.FOLDERS
+      ? getRepositoryFilter( GetTreeOptions.TreeFilter.FOLDERS )
+      : getRepositoryFilter( GetTreeOptions.TreeFilter.ALL );
+  }
+
+  /**
+   * Lists the native files of a folder with a single repository call, when finding files.
+   */
+  @NonNull
+  private List<RepositoryFileDto> listNativeChildren( @NonNull String folderPath,
+                                                      @NonNull String repositoryFilter,
+                                                      @NonNull FindOptions options )
+    throws OperationFailedException {
+    List<RepositoryFileDto> nativeChildren;
+    try {
+      nativeChildren = fileService.doGetChildren(
+        encodeRepositoryPath( folderPath ),
+        repositoryFilter,
+        options.isIncludeHidden(),
+        false );
+    } catch ( UnifiedRepositoryAccessDeniedException e ) {
+      throw new AccessControlException( e );
+    } catch ( RuntimeException e ) {
+      throw new OperationFailedException( e );
+    }
+
+    return nativeChildren != null ? nativeChildren : List.of();
+  }
+
   protected org.pentaho.platform.api.repository2.unified.RepositoryFile getNativeFile( @NonNull GenericFilePath path )
     throws OperationFailedException {
     Objects.requireNonNull( path );
 
     org.pentaho.platform.api.repository2.unified.RepositoryFile repositoryFile = null;
 
-    if ( owns( path ) ) {
+    if ( owns( path ) && !isKnownMissing( path ) ) {
       try {
         repositoryFile = unifiedRepository.getFile( path.toString() );
       } catch ( UnifiedRepositoryAccessDeniedException e ) {
@@ -528,6 +987,10 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
       } catch ( UnifiedRepositoryException e ) {
         throw new OperationFailedException( e );
       }
+
+      if ( repositoryFile == null ) {
+        missingPaths.putMissing( getTreeCachePartition(), path );
+      }
     }
 
     if ( repositoryFile == null ) {
@@ -537,6 +1000,26 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     return repositoryFile;
   }
 
+  private boolean isKnownMissing( @NonNull GenericFilePath path ) {
+    return missingPaths.isMissing( getTreeCachePartition(), path );
+  }
+
+  /**
+   * Checks if a file exists, answering from the missing path cache when possible, and recording it there otherwise.
+   */
+  private boolean doesExist( @NonNull GenericFilePath path ) {
+    if ( isKnownMissing( path ) ) {
+      return false;
+    }
+
+    boolean exists = fileService.doesExist( pathToString( path ) );
+    if ( !exists ) {
+      missingPaths.putMissing( getTreeCachePartition(), path );
+    }
+
+    return exists;
+  }
+
   /**
    * Get the tree filter's corresponding repository filter
    */
@@ -548,6 +1031,34 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     };
   }
 
+  /**
+   * Get the repository filter which applies as many of the given find criteria as possible
+   */
+  protected String getRepositoryFindFilter( @NonNull FindOptions options ) {
+    if ( options.getFilter() != GetTreeOptions.TreeFilter.FILES ) {
+      // The name of folders must not be filtered, or their descendants would not be searched.
+      return getRepositoryFilter( options.getFilter() );
+    }
+
+    String namePattern = options.getNamePattern();
+    if ( isNativeNamePattern( namePattern ) ) {
+      return namePattern + "|FILES";
+    }
+
+    String extension = options.getExtension();
+    if ( isNativeNamePattern( extension ) && !extension.contains( "*" ) ) {
+      return "*." + extension + "|FILES";
+    }
+
+    return getRepositoryFilter( GetTreeOptions.TreeFilter.FILES );
+  }
+
+  private static boolean isNativeNamePattern( @Nullable String namePattern ) {
+    return namePattern != null
+      && namePattern.equals( namePattern.trim() )
+      && NATIVE_NAME_PATTERN.matcher( namePattern ).matches();
+  }
+
   @Override
   public boolean doesFolderExist( @NonNull GenericFilePath path ) throws OperationFailedException {
     try {
@@ -603,13 +1114,25 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   @NonNull
   private RepositoryObject convertFromNativeFileDto( @NonNull RepositoryFileDto nativeFile,
                                                      @Nullable String parentPath ) {
+    return convertFromNativeFileDto( nativeFile, parentPath, true );
+  }
+
+  /**
+   * Converts a native file.
+   *
+   * @param resolveOwner Indicates whether the owner is obtained from the ACL of the file, when not in the native file.
+   */
+  @NonNull
+  private RepositoryObject convertFromNativeFileDto( @NonNull RepositoryFileDto nativeFile,
+                                                     @Nullable String parentPath,
+                                                     boolean resolveOwner ) {
     RepositoryObject repositoryObject = createRepositoryObject(
       nativeFile.getName(), nativeFile.getPath(), nativeFile.getTitle(), nativeFile.isFolder(), parentPath );
 
     repositoryObject.setModifiedDate( getModifiedDateFromNativeFileDto( nativeFile ) );
     repositoryObject.setObjectId( nativeFile.getId() );
     repositoryObject.setDescription( nativeFile.getDescription() );
-    repositoryObject.setOwner( getOwnerFromNativeFileDto( nativeFile ) );
+    repositoryObject.setOwner( resolveOwner ? getOwnerFromNativeFileDto( nativeFile ) : nativeFile.getOwner() );
     repositoryObject.setCreatedDate( parseDate( nativeFile.getCreatedDate() ) );
     repositoryObject.setCreatorId( nativeFile.getCreatorId() );
     repositoryObject.setFileSize( nativeFile.getFileSize() );
@@ -698,8 +1221,7 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     RepositoryObject repositoryObject = createRepositoryObject(
       nativeFile.getName(), nativeFile.getPath(), nativeFile.getTitle(), nativeFile.isFolder(), parentPath );
 
-    repositoryObject.setModifiedDate(
-      nativeFile.getLastModifiedDate() != null ? nativeFile.getLastModifiedDate() : nativeFile.getCreatedDate() );
+    repositoryObject.setModifiedDate( getModifiedDateFromNativeFile( nativeFile ) );
 
     if ( nativeFile.getId() != null ) {
       String id = nativeFile.getId().toString();
@@ -716,6 +1238,12 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     return repositoryObject;
   }
 
+  @Nullable
+  private static Date getModifiedDateFromNativeFile(
+    @NonNull org.pentaho.platform.api.repository2.unified.RepositoryFile nativeFile ) {
+    return nativeFile.getLastModifiedDate() != null ? nativeFile.getLastModifiedDate() : nativeFile.getCreatedDate();
+  }
+
   @NonNull
   protected IGenericFileMetadata convertFromNativeFileMetadata( List<StringKeyStringValueDto> nativeMetadata ) {
     BaseGenericFileMetadata metadata = new BaseGenericFileMetadata();
@@ -753,6 +1281,12 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     return path.getFirstSegment().equals( ROOT_PATH );
   }
 
+  @NonNull
+  @Override
+  public Set<GenericFilePath> getOwnedPathPrefixes() {
+    return Set.of( ROOT_GENERIC_PATH );
+  }
+
   @Override
   public boolean hasAccess( @NonNull GenericFilePath path, @NonNull EnumSet<GenericFilePermission> permissions ) {
     return unifiedRepository.hasAccess( path.toString(), getRepositoryPermissions( permissions ) );
@@ -811,7 +1345,30 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   }
 
   @Override
-  public void deleteFile( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException {
+  public boolean hasNativeBatchOperations() {
+    return true;
+  }
+
+  @Override
+  public void deleteFilesPermanently( @NonNull List<GenericFilePath> paths ) throws OperationFailedException {
+    FileIdBatch batch = new FileIdBatch( "Error(s) occurred during permanent deletion." );
+    for ( GenericFilePath path : paths ) {
+      batch.add( path, this::getTrashFileId );
+    }
+
+    if ( !batch.isEmpty() ) {
+      try {
+        fileService.doDeleteFilesPermanent( batch.getJoinedFileIds() );
+      } catch ( Exception e ) {
+        batch.failAll( new OperationFailedException( e ) );
+      }
+    }
+
+    batch.throwIfFailed();
+  }
+
+  @Override
+  protected void deleteFileCore( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException {
     String fileId = getFileId( path );
 
     try {
@@ -828,7 +1385,34 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   }
 
   @Override
-  public void restoreFile( @NonNull GenericFilePath path ) throws OperationFailedException {
+  protected void deleteFilesCore( @NonNull List<GenericFilePath> paths, boolean permanent )
+    throws OperationFailedException {
+    FileIdBatch batch = new FileIdBatch( "Error(s) occurred during deletion." );
+    IFileIdResolver fileIdResolver = createFileIdResolver( paths );
+    for ( GenericFilePath path : paths ) {
+      batch.add( path, fileIdResolver );
+    }
+
+    if ( !batch.isEmpty() ) {
+      try {
+        if ( permanent ) {
+          fileService.doDeleteFilesPermanent( batch.getJoinedFileIds() );
+        } else {
+          fileService.doDeleteFiles( batch.getJoinedFileIds() );
+        }
+      } catch ( UnifiedRepositoryAccessDeniedException e ) {
+        batch.failAll( new AccessControlException( e ) );
+      } catch ( Exception e ) {
+        batch.failAll( new OperationFailedException( e ) );
+      }
+    }
+
+    batch.throwIfFailed();
+  }
+
+  @Nullable
+  @Override
+  protected GenericFilePath restoreFileCore( @NonNull GenericFilePath path ) throws OperationFailedException {
     String fileId = getTrashFileId( path );
 
     try {
@@ -838,10 +1422,62 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     } catch ( InternalError e ) {
       throw new OperationFailedException( e );
     }
+
+    return getRestoredPath( fileId );
   }
 
+  @NonNull
   @Override
-  public boolean renameFile( @NonNull GenericFilePath path, @NonNull String newName )
+  protected List<GenericFilePath> restoreFilesCore( @NonNull List<GenericFilePath> paths )
+    throws OperationFailedException {
+    FileIdBatch batch = new FileIdBatch( "Error(s) occurred while attempting to restore files." );
+    for ( GenericFilePath path : paths ) {
+      batch.add( path, this::getTrashFileId );
+    }
+
+    if ( !batch.isEmpty() ) {
+      try {
+        fileService.doRestoreFiles( batch.getJoinedFileIds() );
+      } catch ( UnifiedRepositoryAccessDeniedException e ) {
+        batch.failAll( new AccessControlException( e ) );
+      } catch ( InternalError e ) {
+        batch.failAll( new OperationFailedException( e ) );
+      }
+    }
+
+    batch.throwIfFailed();
+
+    List<String> fileIds = batch.getFileIds();
+    if ( fileIds.size() > MAX_RESTORED_PATH_LOOKUPS ) {
+      // Unknown restored paths cause the whole tree cache to be cleared.
+      return Collections.nCopies( fileIds.size(), null );
+    }
+
+    return fileIds.stream()
+      .map( this::getRestoredPath )
+      .toList();
+  }
+
+  /**
+   * Gets the path of a just restored file, given its identifier.
+   *
+   * @param fileId The file identifier.
+   * @return The path of the restored file, if it can be determined; {@code null}, otherwise.
+   */
+  @Nullable
+  private GenericFilePath getRestoredPath( @NonNull String fileId ) {
+    try {
+      org.pentaho.platform.api.repository2.unified.RepositoryFile nativeFile = unifiedRepository.getFileById( fileId );
+
+      return nativeFile != null ? GenericFilePath.parse( nativeFile.getPath() ) : null;
+    } catch ( UnifiedRepositoryException | InvalidPathException e ) {
+      // Caller falls back to clearing the whole tree cache.
+      return null;
+    }
+  }
+
+  @Override
+  protected boolean renameFileCore( @NonNull GenericFilePath path, @NonNull String newName )
     throws OperationFailedException {
     if ( !Boolean.parseBoolean( fileService.doGetCanCreate() ) ) {
       throw new AccessControlException();
@@ -869,7 +1505,13 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     }
 
     try {
-      return fileService.doRename( pathString, newName );
+      boolean fileRenamed = fileService.doRename( pathString, newName );
+
+      if ( fileRenamed ) {
+        missingPaths.invalidate( newPath );
+      }
+
+      return fileRenamed;
     } catch ( UnifiedRepositoryAccessDeniedException e ) {
       throw new AccessControlException( e );
     } catch ( Exception e ) {
@@ -878,7 +1520,7 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   }
 
   @Override
-  public void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+  protected void copyFileCore( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException {
     if ( !Boolean.parseBoolean( fileService.doGetCanCreate() ) ) {
       throw new AccessControlException();
@@ -910,7 +1552,48 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
   }
 
   @Override
-  public void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
+  protected void copyFilesCore( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    if ( !Boolean.parseBoolean( fileService.doGetCanCreate() ) ) {
+      throw new AccessControlException();
+    }
+
+    String destinationFolderString = pathToString( destinationFolder );
+
+    if ( !fileService.doesExist( destinationFolderString ) ) {
+      throw new NotFoundException( String.format( "Destination folder not found '%s'.", destinationFolder ),
+        destinationFolder );
+    }
+
+    FileIdBatch batch = new FileIdBatch( "Error(s) occurred while attempting to copy files." );
+    IFileIdResolver fileIdResolver = createFileIdResolver( paths );
+    Predicate<GenericFilePath> destinationExists = createDestinationExistsCheck( destinationFolder, paths.size() );
+    for ( GenericFilePath path : paths ) {
+      batch.add( path, filePath -> {
+        if ( destinationExists.test( getNewPath( destinationFolder, filePath.getLastSegment() ) ) ) {
+          throw new ConflictException(
+            String.format( "File to be copied already exists on the destination folder: '%s'.", filePath ) );
+        }
+
+        return fileIdResolver.resolve( filePath );
+      } );
+    }
+
+    if ( !batch.isEmpty() ) {
+      try {
+        fileService.doCopyFiles( destinationFolderString, FileService.MODE_RENAME, batch.getJoinedFileIds() );
+      } catch ( UnifiedRepositoryAccessDeniedException e ) {
+        batch.failAll( new AccessControlException( e ) );
+      } catch ( IllegalArgumentException e ) {
+        batch.failAll( new OperationFailedException( e ) );
+      }
+    }
+
+    batch.throwIfFailed();
+  }
+
+  @Override
+  protected void moveFileCore( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
     throws OperationFailedException {
     if ( !Boolean.parseBoolean( fileService.doGetCanCreate() ) ) {
       throw new AccessControlException();
@@ -937,6 +1620,177 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     }
   }
 
+  @Override
+  protected void moveFilesCore( @NonNull List<GenericFilePath> paths, @NonNull GenericFilePath destinationFolder )
+    throws OperationFailedException {
+    if ( !Boolean.parseBoolean( fileService.doGetCanCreate() ) ) {
+      throw new AccessControlException();
+    }
+
+    FileIdBatch batch = new FileIdBatch( "Error(s) occurred while attempting to move files." );
+    IFileIdResolver fileIdResolver = createFileIdResolver( paths );
+    Predicate<GenericFilePath> destinationExists = createDestinationExistsCheck( destinationFolder, paths.size() );
+    for ( GenericFilePath path : paths ) {
+      batch.add( path, filePath -> {
+        if ( destinationExists.test( getNewPath( destinationFolder, filePath.getLastSegment() ) ) ) {
+          throw new ConflictException(
+            String.format( "File to be moved already exists on the destination folder: '%s'.", filePath ) );
+        }
+
+        return fileIdResolver.resolve( filePath );
+      } );
+    }
+
+    if ( !batch.isEmpty() ) {
+      try {
+        fileService.doMoveFiles( pathToString( destinationFolder ), batch.getJoinedFileIds() );
+      } catch ( FileNotFoundException e ) {
+        batch.failAll( new NotFoundException(
+          String.format( "Destination folder not found '%s'.", destinationFolder ), destinationFolder, e ) );
+      } catch ( UnifiedRepositoryAccessDeniedException e ) {
+        batch.failAll( new AccessControlException( e ) );
+      } catch ( InternalError e ) {
+        batch.failAll( new OperationFailedException( e ) );
+      }
+    }
+
+    batch.throwIfFailed();
+  }
+
+  /**
+   * Resolves the identifier of a file, given its path.
+   */
+  @FunctionalInterface
+  private interface IFileIdResolver {
+    @NonNull
+    String resolve( @NonNull GenericFilePath path ) throws OperationFailedException;
+  }
+
+  /**
+   * Creates the resolver of the identifiers of the files of a batch operation.
+   * <p>
+   * Paths which share a parent folder with enough other paths are resolved from a single listing of the folder, as by
+   * {@link #getFiles(List, GetFileOptions)}. The other paths, and those of folders which cannot be listed, are resolved
+   * one at a time, as by {@link #getFileId(GenericFilePath)}.
+   *
+   * @param paths The paths of the batch operation.
+   * @return The resolver.
+   */
+  @NonNull
+  private IFileIdResolver createFileIdResolver( @NonNull List<GenericFilePath> paths ) {
+    Map<GenericFilePath, Integer> pathCountsByParent = new HashMap<>();
+    for ( GenericFilePath path : paths ) {
+      GenericFilePath parentPath = path.getParent();
+      if ( parentPath != null && !isKnownMissing( path ) ) {
+        pathCountsByParent.merge( parentPath, 1, Integer::sum );
+      }
+    }
+
+    Map<GenericFilePath, Map<String, RepositoryFileDto>> nativeChildrenByParent = new HashMap<>();
+    for ( Map.Entry<GenericFilePath, Integer> entry : pathCountsByParent.entrySet() ) {
+      if ( entry.getValue() >= MIN_PATHS_PER_FOLDER_LISTING ) {
+        Map<String, RepositoryFileDto> nativeChildrenByName = getNativeChildrenByName( entry.getKey(), false );
+        if ( nativeChildrenByName != null ) {
+          nativeChildrenByParent.put( entry.getKey(), nativeChildrenByName );
+        }
+      }
+    }
+
+    return path -> {
+      GenericFilePath parentPath = path.getParent();
+      Map<String, RepositoryFileDto> nativeChildrenByName =
+        parentPath != null ? nativeChildrenByParent.get( parentPath ) : null;
+      if ( nativeChildrenByName == null ) {
+        return getFileId( path );
+      }
+
+      RepositoryFileDto nativeFile = nativeChildrenByName.get( path.getLastSegment() );
+      if ( nativeFile == null ) {
+        missingPaths.putMissing( getTreeCachePartition(), path );
+        throw new NotFoundException( String.format( "Path not found '%s'.", path ), path );
+      }
+
+      return nativeFile.getId();
+    };
+  }
+
+  /**
+   * Creates the check of whether the destination path of each file of a batch copy or move already exists.
+   * <p>
+   * When there are enough files, the destination folder is listed once, with a single repository call. Otherwise, or
+   * if the folder cannot be listed, each destination path is checked with a call of its own.
+   *
+   * @param destinationFolder The destination folder.
+   * @param pathCount         The number of files of the batch operation.
+   * @return The check.
+   */
+  @NonNull
+  private Predicate<GenericFilePath> createDestinationExistsCheck( @NonNull GenericFilePath destinationFolder,
+                                                                   int pathCount ) {
+    Map<String, RepositoryFileDto> nativeChildrenByName = pathCount >= MIN_PATHS_PER_FOLDER_LISTING
+      ? getNativeChildrenByName( destinationFolder, false )
+      : null;
+
+    if ( nativeChildrenByName == null ) {
+      return newPath -> fileService.doesExist( pathToString( newPath ) );
+    }
+
+    return newPath -> nativeChildrenByName.containsKey( newPath.getLastSegment() );
+  }
+
+  /**
+   * Collects the identifiers of the files of a batch operation, so that these can be sent to the repository in a
+   * single call, as a comma-separated list, as well as the paths for which the operation fails.
+   * <p>
+   * The repository processes the identifiers of a call one after the other, and stops at the first failure, without
+   * reporting which of them were processed. So, when a call fails, all of its paths are reported as failed.
+   */
+  private static class FileIdBatch {
+    @NonNull
+    private final Map<GenericFilePath, String> fileIdsByPath = new LinkedHashMap<>();
+
+    @NonNull
+    private final BatchOperationFailedException batchException;
+
+    FileIdBatch( @NonNull String errorMessage ) {
+      this.batchException = new BatchOperationFailedException( errorMessage );
+    }
+
+    void add( @NonNull GenericFilePath path, @NonNull IFileIdResolver fileIdResolver ) {
+      try {
+        fileIdsByPath.put( path, fileIdResolver.resolve( path ) );
+      } catch ( OperationFailedException e ) {
+        batchException.addFailedPath( path, e );
+      }
+    }
+
+    boolean isEmpty() {
+      return fileIdsByPath.isEmpty();
+    }
+
+    @NonNull
+    List<String> getFileIds() {
+      return List.copyOf( fileIdsByPath.values() );
+    }
+
+    @NonNull
+    String getJoinedFileIds() {
+      return String.join( FILE_ID_SEPARATOR, fileIdsByPath.values() );
+    }
+
+    void failAll( @NonNull OperationFailedException exception ) {
+      for ( GenericFilePath path : fileIdsByPath.keySet() ) {
+        batchException.addFailedPath( path, exception );
+      }
+    }
+
+    void throwIfFailed() throws BatchOperationFailedException {
+      if ( !batchException.getFailedFiles().isEmpty() ) {
+        throw batchException;
+      }
+    }
+  }
+
   @NonNull
   @Override
   public IGenericFileMetadata getFileMetadata( @NonNull GenericFilePath path ) throws OperationFailedException {
@@ -968,7 +1822,7 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
     String pathString = pathToString( path );
 
     // Check existence before trying to get ACL to ensure correct exception is thrown.
-    if ( !fileService.doesExist( pathString ) ) {
+    if ( !doesExist( path ) ) {
       throw new NotFoundException( String.format( "Path not found '%s'.", path ), path );
     }
 
@@ -1046,6 +1900,8 @@ public class RepositoryFileProvider extends BaseGenericFileProvider<RepositoryFi
       folder = getNativeFile( path );
     } catch ( NotFoundException e ) {
       if ( createFolderCore( path ) ) {
+        // The folder was just found missing.
+        missingPaths.invalidate( path );
         folder = getNativeFile( path );
       } else {
         throw new NotFoundException( String.format( "Unable to create folder '%s'.", path ), path );
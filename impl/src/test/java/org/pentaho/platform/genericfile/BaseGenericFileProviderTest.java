@@ -15,10 +15,14 @@ package org.pentaho.platform.genericfile;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.pentaho.platform.api.engine.IPentahoSession;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GenericFilePermission;
 import org.pentaho.platform.api.genericfile.GetFileOptions;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.NotFoundException;
 import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
 import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
@@ -27,22 +31,40 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileAcl;
 import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
 import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+import org.pentaho.platform.genericfile.cache.ITreeCache;
+import org.pentaho.platform.genericfile.cache.LruTreeCache;
+import org.pentaho.platform.genericfile.cache.TreeCacheKey;
 import org.pentaho.platform.genericfile.model.BaseGenericFile;
 import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -51,6 +73,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.pentaho.platform.api.genericfile.model.IGenericFile.TYPE_FILE;
 import static org.pentaho.platform.api.genericfile.model.IGenericFile.TYPE_FOLDER;
 
 /**
@@ -59,6 +82,13 @@ import static org.pentaho.platform.api.genericfile.model.IGenericFile.TYPE_FOLDE
 @SuppressWarnings( { "DataFlowIssue", "RedundantThrows" } )
 class BaseGenericFileProviderTest {
   static class GenericFileProviderForTesting<T extends IGenericFile> extends BaseGenericFileProvider<T> {
+    GenericFileProviderForTesting() {
+    }
+
+    GenericFileProviderForTesting( @NonNull ITreeCache treeCache, @NonNull Executor treeRefreshExecutor ) {
+      super( treeCache, treeRefreshExecutor );
+    }
+
     @Override
     protected boolean createFolderCore( @NonNull GenericFilePath path ) throws OperationFailedException {
       throw new UnsupportedOperationException();
@@ -118,34 +148,6 @@ class BaseGenericFileProviderTest {
       throw new UnsupportedOperationException();
     }
 
-    @Override
-    public void deleteFile( @NonNull GenericFilePath path, boolean permanent ) throws OperationFailedException {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void restoreFile( @NonNull GenericFilePath path ) throws OperationFailedException {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public boolean renameFile( @NonNull GenericFilePath path, @NonNull String newName )
-      throws OperationFailedException {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void copyFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
-      throws OperationFailedException {
-      throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public void moveFile( @NonNull GenericFilePath path, @NonNull GenericFilePath destinationFolder )
-      throws OperationFailedException {
-      throw new UnsupportedOperationException();
-    }
-
     @NonNull
     @Override
     public IGenericFileMetadata getFileMetadata( @NonNull GenericFilePath path ) throws OperationFailedException {
@@ -285,10 +287,14 @@ class BaseGenericFileProviderTest {
   }
 
   BaseGenericFileTree createSampleFileTree( String path, String name ) {
+    return createSampleFileTree( path, name, TYPE_FOLDER );
+  }
+
+  BaseGenericFileTree createSampleFileTree( String path, String name, String type ) {
     BaseGenericFile file = new BaseGenericFile();
     file.setName( name );
     file.setPath( path );
-    file.setType( TYPE_FOLDER );
+    file.setType( type );
     return new BaseGenericFileTree( file );
   }
 
@@ -594,6 +600,441 @@ class BaseGenericFileProviderTest {
     assertSame( tree2, result2 );
     verify( provider, times( 2 ) ).getTreeCore( any( GetTreeOptions.class ) );
   }
+
+  @Test
+  void testGetTreeConcurrentCallsWithEqualOptionsShareSingleLoad() throws Exception {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    CountDownLatch loadStarted = new CountDownLatch( 1 );
+    CountDownLatch releaseLoad = new CountDownLatch( 1 );
+
+    doAnswer( invocation -> {
+      loadStarted.countDown();
+      assertTrue( releaseLoad.await( 10, TimeUnit.SECONDS ) );
+      return getSampleRepositoryTreeOfDepth1();
+    } ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( "/" );
+    options.setMaxDepth( 1 );
+
+    ExecutorService executor = Executors.newFixedThreadPool( 2 );
+    try {
+      Future<IGenericFileTree> result1 = executor.submit( () -> provider.getTree( options ) );
+      assertTrue( loadStarted.await( 10, TimeUnit.SECONDS ) );
+
+      AtomicReference<Thread> thread2 = new AtomicReference<>();
+      Future<IGenericFileTree> result2 = executor.submit( () -> {
+        thread2.set( Thread.currentThread() );
+        return provider.getTree( options );
+      } );
+
+      // Wait for the second call to join the in-flight load.
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+      while ( thread2.get() == null || thread2.get().getState() != Thread.State.WAITING ) {
+        assertTrue( System.nanoTime() < deadline );
+        Thread.sleep( 5 );
+      }
+
+      releaseLoad.countDown();
+
+      IGenericFileTree tree1 = result1.get( 10, TimeUnit.SECONDS );
+      IGenericFileTree tree2 = result2.get( 10, TimeUnit.SECONDS );
+
+      assertRepositoryDepth1Structure( tree1 );
+      assertRepositoryDepth1Structure( tree2 );
+      assertNotSame( tree1, tree2 );
+      verify( provider, times( 1 ) ).getTreeCore( any( GetTreeOptions.class ) );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testGetTreeDoesNotUseCacheOfOtherPartition() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+
+    doReturn( getSampleRepositoryTreeOfDepth1() ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+    doReturn( "user:alice", "user:bob", "user:alice" ).when( provider ).getTreeCachePartition();
+
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( "/" );
+    options.setMaxDepth( 1 );
+
+    // Call #1, by alice, loads.
+    provider.getTree( options );
+    verify( provider, times( 1 ) ).getTreeCore( any( GetTreeOptions.class ) );
+
+    // Call #2, by bob, loads again.
+    provider.getTree( options );
+    verify( provider, times( 2 ) ).getTreeCore( any( GetTreeOptions.class ) );
+
+    // Call #3, by alice, uses alice's cached tree.
+    IGenericFileTree result = provider.getTree( options );
+    verify( provider, times( 2 ) ).getTreeCore( any( GetTreeOptions.class ) );
+    assertRepositoryDepth1Structure( result );
+  }
+  // endregion
+
+  // region Folder Listing Composition
+  /**
+   * Stubs getTreeCore to return fresh copies of the given sample trees, by base path and max depth, and to record the
+   * options of each call.
+   */
+  void stubGetTreeCoreBySample( GenericFileProviderForTesting<IGenericFile> provider,
+                                List<GetTreeOptions> calls ) throws OperationFailedException {
+    doAnswer( invocation -> {
+      GetTreeOptions options = invocation.getArgument( 0 );
+      calls.add( options );
+
+      String key = options.getBasePath() + "@" + options.getMaxDepth();
+      return switch ( key ) {
+        case "/home/admin@1" -> getSampleRepositoryAdminTreeOfDepth1();
+        case "/home/admin@2" -> getSampleRepositoryAdminTreeOfDepth2();
+        case "/home/admin/folder1@1" -> getSampleRepositoryAdminFolder1TreeOfDepth1();
+        case "/home/admin/folder2@1" -> getSampleRepositoryAdminFolder2TreeOfDepth1();
+        default -> throw new NotFoundException( "No sample for " + key );
+      };
+    } ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+  }
+
+  GetTreeOptions createGetTreeOptions( String basePath, Integer maxDepth ) throws OperationFailedException {
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( basePath );
+    options.setMaxDepth( maxDepth );
+    return options;
+  }
+
+  @Test
+  void testGetTreeComposesShallowerTreesFromCachedDeeperTree() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+
+    IGenericFileTree adminTree = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    IGenericFileTree folder1Tree = provider.getTree( createGetTreeOptions( "/home/admin/folder1", 1 ) );
+
+    assertEquals( 1, calls.size() );
+
+    assertNotNull( adminTree.getChildren() );
+    assertEquals( 2, adminTree.getChildren().size() );
+    // Depth 1 does not include the children of the children.
+    assertNull( adminTree.getChildren().get( 0 ).getChildren() );
+
+    assertEquals( "/home/admin/folder1", folder1Tree.getFile().getPath() );
+    assertNotNull( folder1Tree.getChildren() );
+    assertEquals( "/home/admin/folder1/subfolder1", folder1Tree.getChildren().get( 0 ).getFile().getPath() );
+  }
+
+  @Test
+  void testGetTreeComposesDeeperTreeLoadingOnlyMissingFolders() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    provider.getTree( createGetTreeOptions( "/home/admin/folder1", 1 ) );
+    assertEquals( 2, calls.size() );
+
+    IGenericFileTree adminTree = provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+
+    // Only folder2 was missing.
+    assertEquals( 3, calls.size() );
+    assertEquals( "/home/admin/folder2", String.valueOf( calls.get( 2 ).getBasePath() ) );
+    assertEquals( 1, calls.get( 2 ).getMaxDepth() );
+
+    assertNotNull( adminTree.getChildren() );
+    for ( IGenericFileTree folderTree : adminTree.getChildren() ) {
+      assertNotNull( folderTree.getChildren() );
+      assertEquals( 1, folderTree.getChildren().size() );
+    }
+
+    // Now fully cached.
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+    assertEquals( 3, calls.size() );
+  }
+
+  @Test
+  void testGetTreeLoadsWholeTreeWhenTooManyFoldersAreMissing() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+
+    BaseGenericFileTree rootTree = createSampleFileTree( "/", "" );
+    for ( int i = 0; i <= BaseGenericFileProvider.MAX_MISSING_FOLDER_LOADS; i++ ) {
+      rootTree.addChild( createSampleFileTree( "/folder" + i, "folder" + i ) );
+    }
+
+    doReturn( rootTree ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+    provider.getTree( createGetTreeOptions( "/", 1 ) );
+    provider.getTree( createGetTreeOptions( "/", 2 ) );
+
+    ArgumentCaptor<GetTreeOptions> optionsCaptor = ArgumentCaptor.forClass( GetTreeOptions.class );
+    verify( provider, times( 2 ) ).getTreeCore( optionsCaptor.capture() );
+    assertEquals( "/", String.valueOf( optionsCaptor.getValue().getBasePath() ) );
+    assertEquals( 2, optionsCaptor.getValue().getMaxDepth() );
+  }
+
+  @Test
+  void testGetTreeDoesNotComposeFromListingsOfNarrowerFilterOrOtherHiddenFlag() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    GetTreeOptions foldersOptions = createGetTreeOptions( "/home/admin", 1 );
+    foldersOptions.setFilter( GetTreeOptions.TreeFilter.FOLDERS );
+    provider.getTree( foldersOptions );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    assertEquals( 2, calls.size() );
+
+    GetTreeOptions hiddenOptions = createGetTreeOptions( "/home/admin", 1 );
+    hiddenOptions.setIncludeHidden( true );
+    provider.getTree( hiddenOptions );
+    assertEquals( 3, calls.size() );
+  }
+
+  @Test
+  void testGetTreeComposesFilteredTreeFromCachedTreeOfAllFilter() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+
+    BaseGenericFileTree adminTree = createSampleFileTree( "/home/admin", "admin" );
+    BaseGenericFileTree folder1Tree = createSampleFileTree( "/home/admin/folder1", "folder1" );
+    folder1Tree.addChild( createSampleFileTree( "/home/admin/folder1/subfolder1", "subfolder1" ) );
+    folder1Tree.addChild( createSampleFileTree( "/home/admin/folder1/file2.txt", "file2.txt", TYPE_FILE ) );
+    adminTree.addChild( folder1Tree );
+    adminTree.addChild( createSampleFileTree( "/home/admin/file1.txt", "file1.txt", TYPE_FILE ) );
+
+    doReturn( adminTree ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 3 ) );
+
+    // Narrower, shallower and filtered.
+    GetTreeOptions foldersOptions = createGetTreeOptions( "/home/admin/folder1", 1 );
+    foldersOptions.setFilter( GetTreeOptions.TreeFilter.FOLDERS );
+    IGenericFileTree foldersTree = provider.getTree( foldersOptions );
+
+    GetTreeOptions filesOptions = createGetTreeOptions( "/home/admin", 2 );
+    filesOptions.setFilter( GetTreeOptions.TreeFilter.FILES );
+    IGenericFileTree filesTree = provider.getTree( filesOptions );
+
+    verify( provider, times( 1 ) ).getTreeCore( any( GetTreeOptions.class ) );
+
+    assertEquals( "/home/admin/folder1", foldersTree.getFile().getPath() );
+    assertNotNull( foldersTree.getChildren() );
+    assertEquals( 1, foldersTree.getChildren().size() );
+    assertEquals( "/home/admin/folder1/subfolder1", foldersTree.getChildren().get( 0 ).getFile().getPath() );
+
+    assertNotNull( filesTree.getChildren() );
+    assertEquals( 1, filesTree.getChildren().size() );
+    assertEquals( "/home/admin/file1.txt", filesTree.getChildren().get( 0 ).getFile().getPath() );
+
+    // The cached listing of the ALL filter is unchanged.
+    IGenericFileTree allTree = provider.getTree( createGetTreeOptions( "/home/admin/folder1", 1 ) );
+    assertNotNull( allTree.getChildren() );
+    assertEquals( 2, allTree.getChildren().size() );
+  }
+
+  @Test
+  void testGetTreeReturnsMutableCopiesOfCachedListings() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    stubGetTreeCoreBySample( provider, new ArrayList<>() );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+
+    IGenericFileTree tree1 = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    IGenericFileTree tree2 = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+    assertNotSame( tree1, tree2 );
+    assertSame( tree1.getFile(), tree2.getFile() );
+
+    // Changing a returned tree does not change the cached listing.
+    assertNotNull( tree1.getChildren() );
+    tree1.getChildren().clear();
+    tree1.setChildren( null );
+
+    IGenericFileTree tree3 = provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+    assertNotNull( tree3.getChildren() );
+    assertEquals( 2, tree3.getChildren().size() );
+
+    // Also the subtrees of deeper trees, composed from the listings of their subfolders.
+    IGenericFileTree folder1Tree = tree3.getChildren().get( 0 );
+    assertNotNull( folder1Tree.getChildren() );
+    folder1Tree.setChildren( new ArrayList<>() );
+
+    IGenericFileTree folder1Tree2 = provider.getTree( createGetTreeOptions( "/home/admin/folder1", 1 ) );
+    assertNotNull( folder1Tree2.getChildren() );
+    assertFalse( folder1Tree2.getChildren().isEmpty() );
+  }
+
+  @Test
+  void testGetTreeExpandingPathOfComposedTreeDoesNotChangeCachedListings() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    doReturn( true ).when( provider ).owns( any( GenericFilePath.class ) );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+    GetTreeOptions expandedOptions = createGetTreeOptions( "/home/admin", 1 );
+    expandedOptions.setExpandedPath( "/home/admin/folder1" );
+    IGenericFileTree expandedTree = provider.getTree( expandedOptions );
+
+    // Only folder1 was loaded.
+    assertEquals( 2, calls.size() );
+
+    assertNotNull( expandedTree.getChildren() );
+    assertNotNull( expandedTree.getChildren().get( 0 ).getChildren() );
+
+    IGenericFileTree adminTree = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    assertNotNull( adminTree.getChildren() );
+    assertNull( adminTree.getChildren().get( 0 ).getChildren() );
+  }
+  // endregion
+
+  // region Tree Cache Statistics
+  @Test
+  void testGetTreeCacheStatisticsCountsHitsMissesAndLoads() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    stubGetTreeCoreBySample( provider, new ArrayList<>() );
+
+    // Miss, loading /home/admin.
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    // Hit.
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    // A single miss, loading the two missing folders.
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+    // A single hit, composed from three listings.
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+
+    GetTreeOptions bypassOptions = createGetTreeOptions( "/home/admin", 1 );
+    bypassOptions.setBypassCache( true );
+    // Miss.
+    provider.getTree( bypassOptions );
+
+    TreeCacheStatistics statistics = provider.getTreeCacheStatistics();
+
+    assertEquals( 2, statistics.getHitCount() );
+    assertEquals( 3, statistics.getMissCount() );
+    assertEquals( 4, statistics.getLoadCount() );
+    assertTrue( statistics.getTotalLoadTimeNanos() >= 0 );
+    assertEquals( 3, statistics.getEntryCount() );
+    assertEquals( 7, statistics.getNodeCount() );
+  }
+
+  @Test
+  void testGetTreeCacheStatisticsCountsFailedLoads() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    doThrow( new NotFoundException( "Not found." ) ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+    assertThrows( NotFoundException.class, () -> provider.getTree( createGetTreeOptions( "/home/admin", 1 ) ) );
+
+    TreeCacheStatistics statistics = provider.getTreeCacheStatistics();
+    assertEquals( 1, statistics.getMissCount() );
+    assertEquals( 1, statistics.getLoadCount() );
+  }
+
+  @Test
+  void testGetTreeCacheStatisticsIncludesInvalidations() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    stubGetTreeCoreBySample( provider, new ArrayList<>() );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+    provider.clearTreeCache();
+
+    TreeCacheStatistics statistics = provider.getTreeCacheStatistics();
+    assertEquals( 3, statistics.getInvalidationCount() );
+    assertEquals( 0, statistics.getEntryCount() );
+  }
+  // endregion
+
+  // region Stale Tree Refresh
+  @Test
+  void testGetTreeServesStaleListingAndRefreshesItInBackground() throws OperationFailedException {
+    LruTreeCache treeCache = spy( new LruTreeCache() );
+    List<Runnable> refreshTasks = new ArrayList<>();
+    GenericFileProviderForTesting<IGenericFile> provider =
+      spy( new GenericFileProviderForTesting<>( treeCache, refreshTasks::add ) );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+    doReturn( true ).when( treeCache ).isStale( any( TreeCacheKey.class ) );
+
+    // Served from the cache, with a single refresh scheduled, even if requested again meanwhile.
+    IGenericFileTree adminTree = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+    assertNotNull( adminTree.getChildren() );
+    assertEquals( 2, adminTree.getChildren().size() );
+    assertEquals( 1, calls.size() );
+    assertEquals( 1, refreshTasks.size() );
+
+    refreshTasks.get( 0 ).run();
+
+    assertEquals( 2, calls.size() );
+    assertEquals( "/home/admin", String.valueOf( calls.get( 1 ).getBasePath() ) );
+    assertEquals( 1, calls.get( 1 ).getMaxDepth() );
+    verify( treeCache, times( 2 ) ).put( any( TreeCacheKey.class ), any( BaseGenericFileTree.class ) );
+
+    // Once refreshed, a later stale entry can be refreshed again.
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    assertEquals( 2, refreshTasks.size() );
+  }
+
+  @Test
+  void testGetTreeKeepsStaleListingWhenRefreshFails() throws OperationFailedException {
+    LruTreeCache treeCache = spy( new LruTreeCache() );
+    List<Runnable> refreshTasks = new ArrayList<>();
+    GenericFileProviderForTesting<IGenericFile> provider =
+      spy( new GenericFileProviderForTesting<>( treeCache, refreshTasks::add ) );
+
+    doReturn( getSampleRepositoryAdminTreeOfDepth1() ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+    doReturn( true ).when( treeCache ).isStale( any( TreeCacheKey.class ) );
+    doThrow( new OperationFailedException() ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    refreshTasks.get( 0 ).run();
+
+    IGenericFileTree adminTree = provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+    assertEquals( "/home/admin", adminTree.getFile().getPath() );
+    assertEquals( 2, refreshTasks.size() );
+  }
+
+  @Test
+  void testGetTreeRefreshesStaleListingInCallerContext() throws Exception {
+    LruTreeCache treeCache = spy( new LruTreeCache() );
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    GenericFileProviderForTesting<IGenericFile> provider =
+      spy( new GenericFileProviderForTesting<>( treeCache, executor ) );
+    AtomicReference<IPentahoSession> refreshSession = new AtomicReference<>();
+
+    IPentahoSession session = mock( IPentahoSession.class );
+    PentahoSessionHolder.setSession( session );
+    try {
+      doReturn( getSampleRepositoryAdminTreeOfDepth1() ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+      provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+      doReturn( true ).when( treeCache ).isStale( any( TreeCacheKey.class ) );
+      doAnswer( invocation -> {
+        refreshSession.set( PentahoSessionHolder.getSession() );
+        return getSampleRepositoryAdminTreeOfDepth1();
+      } ).when( provider ).getTreeCore( any( GetTreeOptions.class ) );
+
+      provider.getTree( createGetTreeOptions( "/home/admin", 1 ) );
+
+      executor.shutdown();
+      assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+      assertSame( session, refreshSession.get() );
+    } finally {
+      executor.shutdownNow();
+      PentahoSessionHolder.removeSession();
+    }
+  }
   // endregion
 
   // region Expanded Path
@@ -979,6 +1420,74 @@ class BaseGenericFileProviderTest {
     IGenericFileTree homeAdminTree = assertRepositoryHomeDepth1Structure( rootHomeTree );
     assertRepositoryAdminDepth1Structure( homeAdminTree );
   }
+
+  @Test
+  void testGetTreeExpandsPathsOfSameDepthWithSingleBatchPerLevel() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    doReturn( true ).when( provider ).owns( any( GenericFilePath.class ) );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    GetTreeOptions options = createGetTreeOptions( "/home/admin", 1 );
+    options.setExpandedPaths( GenericFilePath.parseManyRequired( List.of(
+      "/home/admin/folder1/subfolder1",
+      "/home/admin/folder2/subfolder1",
+      "/home/admin/folder1" ) ) );
+    options.setExpandedMaxDepth( 0 );
+
+    IGenericFileTree tree = provider.getTree( options );
+
+    // Both folders are fetched in the same batch, and folder1 only once.
+    verify( provider, times( 1 ) )
+      .getChildTreesOfFolders( anyList(), any( GetTreeOptions.class ), anyInt() );
+    verify( provider ).getChildTreesOfFolders(
+      GenericFilePath.parseManyRequired( List.of( "/home/admin/folder1", "/home/admin/folder2" ) ),
+      options,
+      1 );
+
+    // One load for /home/admin, and one per folder.
+    assertEquals( 3, calls.size() );
+
+    assertNotNull( tree.getChildren() );
+    for ( IGenericFileTree folderTree : tree.getChildren() ) {
+      assertNotNull( folderTree.getChildren() );
+      assertEquals( 1, folderTree.getChildren().size() );
+      // Expanded max depth of 0.
+      assertNull( folderTree.getChildren().get( 0 ).getChildren() );
+    }
+  }
+
+  @Test
+  void testGetTreeExpandsPathsUsingChildTreesOfFoldersOverride() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    doReturn( true ).when( provider ).owns( any( GenericFilePath.class ) );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    // A provider able to get several folders at once.
+    doReturn( Map.of(
+      GenericFilePath.parseRequired( "/home/admin/folder1" ),
+      getSampleRepositoryAdminFolder1TreeOfDepth1().getChildren(),
+      GenericFilePath.parseRequired( "/home/admin/folder2" ),
+      getSampleRepositoryAdminFolder2TreeOfDepth1().getChildren() ) )
+      .when( provider ).getChildTreesOfFolders( anyList(), any( GetTreeOptions.class ), anyInt() );
+
+    GetTreeOptions options = createGetTreeOptions( "/home/admin", 1 );
+    options.setExpandedPaths( GenericFilePath.parseManyRequired( List.of(
+      "/home/admin/folder1",
+      "/home/admin/folder2" ) ) );
+
+    IGenericFileTree tree = provider.getTree( options );
+
+    // Only /home/admin was loaded individually.
+    assertEquals( 1, calls.size() );
+
+    assertNotNull( tree.getChildren() );
+    assertEquals( "/home/admin/folder1/subfolder1",
+      tree.getChildren().get( 0 ).getChildren().get( 0 ).getFile().getPath() );
+    assertEquals( "/home/admin/folder2/subfolder1",
+      tree.getChildren().get( 1 ).getChildren().get( 0 ).getFile().getPath() );
+  }
   // endregion
 
   // endregion
@@ -1272,7 +1781,15 @@ class BaseGenericFileProviderTest {
       .when( provider )
       .getRootTreesCore( any( GetTreeOptions.class ) );
 
-    doReturn( homeTree, demo1Tree, fooTree )
+    // Paths are expanded one level at a time, so the children of different paths are requested interleaved.
+    Map<String, BaseGenericFileTree> treesByPath = Map.of(
+      "/home", homeTree,
+      "pvfs://demo1", demo1Tree,
+      "pvfs://demo1/foo", fooTree );
+    doAnswer( invocation -> {
+      GetTreeOptions treeOptions = invocation.getArgument( 0 );
+      return treesByPath.get( String.valueOf( treeOptions.getBasePath() ) );
+    } )
       .when( provider )
       .getTreeCore( any( GetTreeOptions.class ) );
 
@@ -1374,11 +1891,12 @@ class BaseGenericFileProviderTest {
   }
   // endregion
 
-  // region equalsName tests
+  // region Expanded path segment matching tests
 
   /**
-   * Test that equalsName correctly matches when the file name equals the segment name.
-   * This is tested indirectly through the expanded path functionality which uses findChildTreeByName.
+   * Test that an expanded path segment correctly matches the child whose file name equals the segment name.
+   * This is tested through the expanded path functionality, which matches segments to the last segment of the path of
+   * child files.
    */
   @Test
   void testEqualsNameMatchesCorrectChild() throws OperationFailedException {
@@ -1418,7 +1936,7 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test that equalsName returns false when the segment name doesn't match any child.
+   * Test that an expanded path segment which doesn't match any child is not expanded.
    * The expansion should stop when it can't find the matching child.
    */
   @Test
@@ -1464,7 +1982,7 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test that equalsName correctly handles files with complex names.
+   * Test that expanded path segment matching correctly handles files with complex names.
    * This tests name matching with special characters and various formats.
    */
   @Test
@@ -1515,8 +2033,8 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test that equalsName handles invalid paths gracefully.
-   * When a file has an invalid path, equalsName should return false and log an error.
+   * Test that expanded path segment matching handles invalid paths gracefully.
+   * When a file has an invalid path, it should not match, and an error should be logged.
    */
   @Test
   void testEqualsNameHandlesInvalidPathGracefully() throws OperationFailedException {
@@ -1564,7 +2082,7 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test that equalsName correctly handles case-sensitive matching.
+   * Test that expanded path segment matching is case-sensitive.
    * File names should match exactly, including case.
    */
   @Test
@@ -1615,7 +2133,7 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test equalsName with paths containing multiple segments.
+   * Test expanded path segment matching with paths containing multiple segments.
    * The method should only compare the last segment.
    */
   @Test
@@ -1667,7 +2185,7 @@ class BaseGenericFileProviderTest {
   }
 
   /**
-   * Test equalsName with empty string name.
+   * Test expanded path segment matching with empty string name.
    * This should not match any valid file.
    */
   @Test
@@ -1705,6 +2223,430 @@ class BaseGenericFileProviderTest {
   }
   // endregion
 
+  // region Unsupported Operations
+  @Test
+  void testWriteOperationsWhichAreNotImplementedThrowOperationFailedException() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    doReturn( "test" ).when( provider ).getType();
+    GenericFilePath path = GenericFilePath.parseRequired( "/public/file" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/home" );
+
+    OperationFailedException exception =
+      assertThrows( OperationFailedException.class, () -> provider.deleteFile( path, false ) );
+    assertEquals( "Operation 'deleteFile' is not supported by provider 'test'.", exception.getMessage() );
+
+    assertThrows( OperationFailedException.class, () -> provider.restoreFile( path ) );
+    assertThrows( OperationFailedException.class, () -> provider.renameFile( path, "other" ) );
+    assertThrows( OperationFailedException.class, () -> provider.copyFile( path, destinationFolder ) );
+    assertThrows( OperationFailedException.class, () -> provider.moveFile( path, destinationFolder ) );
+  }
+  // endregion
+
+  // region Tree Cache Invalidation
+  GetTreeOptions createDepth1Options( String basePath ) throws OperationFailedException {
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( basePath );
+    options.setMaxDepth( 1 );
+    return options;
+  }
+
+  GenericFileProviderForTesting<IGenericFile> createProviderWithCachedHomeAndPublicTrees()
+    throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+
+    BaseGenericFileTree publicTree = createSampleFileTree( "/public", "public" );
+    publicTree.addChild( createSampleFileTree( "/public/samples", "samples" ) );
+
+    doReturn( getSampleRepositoryHomeTreeOfDepth1() )
+      .when( provider )
+      .getTreeCore( createDepth1Options( "/home" ) );
+    doReturn( publicTree )
+      .when( provider )
+      .getTreeCore( createDepth1Options( "/public" ) );
+
+    provider.getTree( createDepth1Options( "/home" ) );
+    provider.getTree( createDepth1Options( "/public" ) );
+
+    return provider;
+  }
+
+  void assertTreeCoreCalls( GenericFileProviderForTesting<IGenericFile> provider,
+                            int expectedHomeCalls,
+                            int expectedPublicCalls ) throws OperationFailedException {
+    provider.getTree( createDepth1Options( "/home" ) );
+    provider.getTree( createDepth1Options( "/public" ) );
+
+    verify( provider, times( expectedHomeCalls ) ).getTreeCore( createDepth1Options( "/home" ) );
+    verify( provider, times( expectedPublicCalls ) ).getTreeCore( createDepth1Options( "/public" ) );
+  }
+
+  @Test
+  void testCreateFolderClearsOnlyAffectedCachedTrees() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/newFolder" );
+
+    doReturn( true ).when( provider ).createFolderCore( path );
+
+    provider.createFolder( path );
+
+    verify( provider, never() ).clearTreeCache();
+    assertTreeCoreCalls( provider, 2, 1 );
+  }
+
+  @Test
+  void testCreateFolderDoesNotClearTreeCacheWhenFolderNotCreated() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin" );
+
+    doReturn( false ).when( provider ).createFolderCore( path );
+
+    provider.createFolder( path );
+
+    assertTreeCoreCalls( provider, 1, 1 );
+  }
+
+  @Test
+  void testCreateFileClearsOnlyAffectedCachedTrees() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/public/report.prpt" );
+    InputStream content = mock( InputStream.class );
+    CreateFileOptions createFileOptions = new CreateFileOptions();
+
+    doNothing().when( provider ).createFileCore( path, content, createFileOptions );
+
+    provider.createFile( path, content, createFileOptions );
+
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testCreateFileInDeeperFolderKeepsCachedTreesWhichDoNotIncludeIt() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/report.prpt" );
+    InputStream content = mock( InputStream.class );
+    CreateFileOptions createFileOptions = new CreateFileOptions();
+
+    doNothing().when( provider ).createFileCore( path, content, createFileOptions );
+
+    provider.createFile( path, content, createFileOptions );
+
+    // The /home tree of depth 1 does not include the children of /home/admin.
+    assertTreeCoreCalls( provider, 1, 1 );
+  }
+
+  @Test
+  void testDeleteFileClearsOnlyAffectedCachedTrees() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/suzy" );
+
+    doNothing().when( provider ).deleteFileCore( path, false );
+
+    provider.deleteFile( path, false );
+
+    verify( provider ).deleteFileCore( path, false );
+    assertTreeCoreCalls( provider, 2, 1 );
+  }
+
+  @Test
+  void testDeleteFileClearsCachedTreesRootedAtIt() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/public" );
+
+    doNothing().when( provider ).deleteFileCore( path, true );
+
+    provider.deleteFile( path, true );
+
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testRenameFileClearsOnlyAffectedCachedTrees() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/public/samples" );
+
+    doReturn( true ).when( provider ).renameFileCore( path, "examples" );
+
+    assertTrue( provider.renameFile( path, "examples" ) );
+
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testRenameFileDoesNotClearTreeCacheWhenNotRenamed() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/public/samples" );
+
+    doReturn( false ).when( provider ).renameFileCore( path, "examples" );
+
+    provider.renameFile( path, "examples" );
+
+    verify( provider, never() ).clearTreeCache( any( GenericFilePath.class ) );
+    assertTreeCoreCalls( provider, 1, 1 );
+  }
+
+  @Test
+  void testCopyFileClearsCachedTreesAffectedByDestination() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/folder1" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/public" );
+
+    doNothing().when( provider ).copyFileCore( path, destinationFolder );
+
+    provider.copyFile( path, destinationFolder );
+
+    verify( provider ).clearTreeCache( GenericFilePath.parseRequired( "/public/folder1" ) );
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testMoveFileClearsCachedTreesAffectedBySourceAndDestination() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/suzy" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/public" );
+
+    doNothing().when( provider ).moveFileCore( path, destinationFolder );
+
+    provider.moveFile( path, destinationFolder );
+
+    verify( provider ).clearTreeCache( path );
+    verify( provider ).clearTreeCache( GenericFilePath.parseRequired( "/public/suzy" ) );
+    assertTreeCoreCalls( provider, 2, 2 );
+  }
+
+  @Test
+  void testRestoreFileClearsCachedTreesAffectedByRestoredPath() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/.trash/pho:1234/report.prpt" );
+
+    doReturn( GenericFilePath.parseRequired( "/public/report.prpt" ) ).when( provider ).restoreFileCore( path );
+
+    provider.restoreFile( path );
+
+    verify( provider, never() ).clearTreeCache();
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testRestoreFileClearsWholeTreeCacheWhenRestoredPathIsUnknown() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/.trash/pho:1234/report.prpt" );
+
+    doReturn( null ).when( provider ).restoreFileCore( path );
+
+    provider.restoreFile( path );
+
+    verify( provider ).clearTreeCache();
+    assertTreeCoreCalls( provider, 2, 2 );
+  }
+
+  @Test
+  void testWriteOperationDoesNotClearTreeCacheWhenCoreFails() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/suzy" );
+
+    doThrow( new OperationFailedException( "Delete failed." ) ).when( provider ).deleteFileCore( path, false );
+
+    assertThrows( OperationFailedException.class, () -> provider.deleteFile( path, false ) );
+
+    assertTreeCoreCalls( provider, 1, 1 );
+  }
+
+  @Test
+  void testDeleteFilesContinuesAfterFailedPathsAndClearsAffectedCachedTrees() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath failedPath = GenericFilePath.parseRequired( "/home/suzy" );
+    GenericFilePath path = GenericFilePath.parseRequired( "/public/samples" );
+
+    OperationFailedException failedPathException = new OperationFailedException( "Delete failed." );
+    doThrow( failedPathException ).when( provider ).deleteFileCore( failedPath, false );
+    doNothing().when( provider ).deleteFileCore( path, false );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> provider.deleteFiles( List.of( failedPath, path ), false ) );
+
+    assertEquals( Map.of( failedPath, failedPathException ), exception.getFailedFiles() );
+    verify( provider ).deleteFileCore( path, false );
+    // A failed path may have been deleted in part.
+    assertTreeCoreCalls( provider, 2, 2 );
+  }
+
+  @Test
+  void testMoveFilesClearsCachedTreesAffectedBySourcesAndDestination() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/home/suzy" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/home/admin" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/public" );
+
+    doNothing().when( provider ).moveFilesCore( List.of( path1, path2 ), destinationFolder );
+
+    provider.moveFiles( List.of( path1, path2 ), destinationFolder );
+
+    verify( provider ).clearTreeCache( path1 );
+    verify( provider ).clearTreeCache( path2 );
+    verify( provider ).clearTreeCache( GenericFilePath.parseRequired( "/public/suzy" ) );
+    verify( provider ).clearTreeCache( GenericFilePath.parseRequired( "/public/admin" ) );
+    assertTreeCoreCalls( provider, 2, 2 );
+  }
+
+  @Test
+  void testRestoreFilesClearsOnlyCachedTreesAffectedByRestoredPaths() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/home/admin/.trash/pho:1234/report.prpt" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/home/admin/.trash/pho:5678/other.prpt" );
+
+    doReturn( GenericFilePath.parseRequired( "/public/report.prpt" ) ).when( provider ).restoreFileCore( path1 );
+    doReturn( GenericFilePath.parseRequired( "/public/other.prpt" ) ).when( provider ).restoreFileCore( path2 );
+
+    provider.restoreFiles( List.of( path1, path2 ) );
+
+    verify( provider, never() ).clearTreeCache();
+    assertTreeCoreCalls( provider, 1, 2 );
+  }
+
+  @Test
+  void testRestoreFilesClearsWholeTreeCacheWhenSomePathsFail() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = createProviderWithCachedHomeAndPublicTrees();
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/home/admin/.trash/pho:1234/report.prpt" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/home/admin/.trash/pho:5678/other.prpt" );
+
+    doReturn( GenericFilePath.parseRequired( "/public/report.prpt" ) ).when( provider ).restoreFileCore( path1 );
+    doThrow( new OperationFailedException( "Restore failed." ) ).when( provider ).restoreFileCore( path2 );
+
+    assertThrows( BatchOperationFailedException.class, () -> provider.restoreFiles( List.of( path1, path2 ) ) );
+
+    verify( provider ).clearTreeCache();
+    assertTreeCoreCalls( provider, 2, 2 );
+  }
+  // endregion
+
+  // region walkTree
+  /**
+   * Creates a visitor which records each visited file as "path@depth", and which skips the children of, or terminates
+   * the walk at, the given paths.
+   */
+  IGenericFileVisitor createRecordingVisitor( List<String> visits, String skipChildrenPath, String terminatePath ) {
+    return ( file, depth ) -> {
+      visits.add( file.getPath() + "@" + depth );
+
+      if ( file.getPath().equals( terminatePath ) ) {
+        return IGenericFileVisitor.VisitResult.TERMINATE;
+      }
+
+      return file.getPath().equals( skipChildrenPath )
+        ? IGenericFileVisitor.VisitResult.SKIP_CHILDREN
+        : IGenericFileVisitor.VisitResult.CONTINUE;
+    };
+  }
+
+  @Test
+  void testWalkTreeVisitsDepthFirstGettingEachFolderListingOnce() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    List<String> visits = new ArrayList<>();
+    boolean completed =
+      provider.walkTree( createGetTreeOptions( "/home/admin", 2 ), createRecordingVisitor( visits, null, null ) );
+
+    assertTrue( completed );
+    assertEquals(
+      List.of(
+        "/home/admin@0",
+        "/home/admin/folder1@1",
+        "/home/admin/folder1/subfolder1@2",
+        "/home/admin/folder2@1",
+        "/home/admin/folder2/subfolder1@2" ),
+      visits );
+
+    // One listing per folder, and none for the folders at the maximum depth.
+    assertEquals(
+      List.of( "/home/admin@1", "/home/admin/folder1@1", "/home/admin/folder2@1" ),
+      calls.stream().map( options -> options.getBasePath() + "@" + options.getMaxDepth() ).toList() );
+  }
+
+  @Test
+  void testWalkTreeDoesNotGetChildrenOfSkippedFolders() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    List<String> visits = new ArrayList<>();
+    boolean completed = provider.walkTree(
+      createGetTreeOptions( "/home/admin", 2 ),
+      createRecordingVisitor( visits, "/home/admin/folder1", null ) );
+
+    assertTrue( completed );
+    assertEquals(
+      List.of( "/home/admin@0", "/home/admin/folder1@1", "/home/admin/folder2@1", "/home/admin/folder2/subfolder1@2" ),
+      visits );
+    assertEquals( 2, calls.size() );
+  }
+
+  @Test
+  void testWalkTreeStopsWhenVisitorTerminates() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    List<String> visits = new ArrayList<>();
+    boolean completed = provider.walkTree(
+      createGetTreeOptions( "/home/admin", 2 ),
+      createRecordingVisitor( visits, null, "/home/admin/folder1/subfolder1" ) );
+
+    assertFalse( completed );
+    assertEquals(
+      List.of( "/home/admin@0", "/home/admin/folder1@1", "/home/admin/folder1/subfolder1@2" ),
+      visits );
+    assertEquals( 2, calls.size() );
+  }
+
+  @Test
+  void testWalkTreeRespectsMaxDepth() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    List<String> visits = new ArrayList<>();
+    boolean completed =
+      provider.walkTree( createGetTreeOptions( "/home/admin", 1 ), createRecordingVisitor( visits, null, null ) );
+
+    assertTrue( completed );
+    assertEquals( List.of( "/home/admin@0", "/home/admin/folder1@1", "/home/admin/folder2@1" ), visits );
+    assertEquals( 1, calls.size() );
+  }
+
+  @Test
+  void testWalkTreeGetsFolderListingsFromCachedTree() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    provider.getTree( createGetTreeOptions( "/home/admin", 2 ) );
+
+    List<String> visits = new ArrayList<>();
+    provider.walkTree( createGetTreeOptions( "/home/admin", 2 ), createRecordingVisitor( visits, null, null ) );
+
+    assertEquals( 5, visits.size() );
+    assertEquals( 1, calls.size() );
+  }
+
+  @Test
+  void testWalkTreeThrowsVisitorException() throws OperationFailedException {
+    GenericFileProviderForTesting<IGenericFile> provider = spy( new GenericFileProviderForTesting<>() );
+    List<GetTreeOptions> calls = new ArrayList<>();
+    stubGetTreeCoreBySample( provider, calls );
+
+    OperationFailedException visitorException = new OperationFailedException();
+
+    OperationFailedException exception = assertThrows( OperationFailedException.class, () ->
+      provider.walkTree( createGetTreeOptions( "/home/admin", 2 ), ( file, depth ) -> {
+        throw visitorException;
+      } ) );
+
+    assertSame( visitorException, exception );
+  }
+  // endregion
+
   // region setFileContent
   @Test
   void testSetFileContentCallsSetFileContentCore() throws OperationFailedException {
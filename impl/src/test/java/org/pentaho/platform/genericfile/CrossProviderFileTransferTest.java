@@ -0,0 +1,217 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.ConflictException;
+import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CrossProviderFileTransferTest {
+  final IGenericFileProvider<?> sourceProviderMock = mock( IGenericFileProvider.class );
+  final IGenericFileProvider<?> targetProviderMock = mock( IGenericFileProvider.class );
+
+  /**
+   * The content received by the target provider, by path.
+   */
+  final Map<GenericFilePath, byte[]> createdFiles = new ConcurrentHashMap<>();
+
+  final CrossProviderFileTransfer transfer =
+    new CrossProviderFileTransfer( sourceProviderMock, targetProviderMock, 2, Runnable::run );
+
+  CrossProviderFileTransferTest() throws OperationFailedException {
+    doReturn( true ).when( targetProviderMock ).doesFolderExist( GenericFilePath.parseRequired( "/archive" ) );
+    doReturn( true ).when( targetProviderMock ).createFolder( any() );
+    doAnswer( invocation -> {
+      createdFiles.put( invocation.getArgument( 0 ), invocation.<InputStream>getArgument( 1 ).readAllBytes() );
+      return null;
+    } ).when( targetProviderMock ).createFile( any(), any( InputStream.class ), any( CreateFileOptions.class ) );
+    doAnswer( invocation -> createFileMock( invocation.getArgument( 0 ), false,
+      createdFiles.getOrDefault( invocation.<GenericFilePath>getArgument( 0 ), new byte[ 0 ] ).length ) )
+      .when( targetProviderMock ).getFile( any(), any() );
+  }
+
+  static IGenericFile createFileMock( GenericFilePath path, boolean isFolder, long fileSize ) {
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doReturn( path.toString() ).when( fileMock ).getPath();
+    doReturn( isFolder ? IGenericFile.TYPE_FOLDER : IGenericFile.TYPE_FILE ).when( fileMock ).getType();
+    doReturn( fileSize ).when( fileMock ).getFileSize();
+    doCallRealMethod().when( fileMock ).isFolder();
+    return fileMock;
+  }
+
+  IGenericFile mockSourceFile( String path, byte[] content ) throws OperationFailedException {
+    GenericFilePath filePath = GenericFilePath.parseRequired( path );
+    IGenericFile fileMock = createFileMock( filePath, false, content.length );
+    doReturn( fileMock ).when( sourceProviderMock ).getFile( eq( filePath ), any() );
+
+    IGenericFileContent contentMock = mock( IGenericFileContent.class );
+    doReturn( new ByteArrayInputStream( content ) ).when( contentMock ).getInputStream();
+    doReturn( contentMock ).when( sourceProviderMock ).getFileContent( filePath, false );
+
+    return fileMock;
+  }
+
+  IGenericFile mockSourceFolder( String path, IGenericFile... children ) throws OperationFailedException {
+    GenericFilePath folderPath = GenericFilePath.parseRequired( path );
+    IGenericFile folderMock = createFileMock( folderPath, true, 0 );
+    doReturn( folderMock ).when( sourceProviderMock ).getFile( eq( folderPath ), any() );
+
+    List<IGenericFileTree> childTrees = new ArrayList<>();
+    for ( IGenericFile child : children ) {
+      IGenericFileTree childTreeMock = mock( IGenericFileTree.class );
+      doReturn( child ).when( childTreeMock ).getFile();
+      childTrees.add( childTreeMock );
+    }
+
+    IGenericFileTree treeMock = mock( IGenericFileTree.class );
+    doReturn( childTrees ).when( treeMock ).getChildren();
+    doAnswer( invocation -> {
+      GetTreeOptions options = invocation.getArgument( 0 );
+      return folderPath.equals( options.getBasePath() ) ? treeMock : null;
+    } ).when( sourceProviderMock ).getTree( any() );
+
+    return folderMock;
+  }
+
+  @Test
+  void testCopyFileStreamsContentIntoTargetWithoutOverwriting() throws Exception {
+    mockSourceFile( "scheme://folder/report.prpt", new byte[] { 1, 2, 3 } );
+
+    transfer.copy( GenericFilePath.parseRequired( "scheme://folder/report.prpt" ),
+      GenericFilePath.parseRequired( "/archive" ) );
+
+    ArgumentCaptor<CreateFileOptions> optionsCaptor = ArgumentCaptor.forClass( CreateFileOptions.class );
+    verify( targetProviderMock ).createFile( eq( GenericFilePath.parseRequired( "/archive/report.prpt" ) ),
+      any( InputStream.class ), optionsCaptor.capture() );
+    assertFalse( optionsCaptor.getValue().isOverwrite() );
+    assertArrayEquals( new byte[] { 1, 2, 3 },
+      createdFiles.get( GenericFilePath.parseRequired( "/archive/report.prpt" ) ) );
+    // Copies are not verified.
+    verify( targetProviderMock, never() ).getFile( any(), any() );
+  }
+
+  @Test
+  void testCopyThrowsNotFoundWhenDestinationFolderDoesNotExist() throws Exception {
+    mockSourceFile( "scheme://folder/report.prpt", new byte[] { 1 } );
+
+    assertThrows( NotFoundException.class, () -> transfer.copy(
+      GenericFilePath.parseRequired( "scheme://folder/report.prpt" ), GenericFilePath.parseRequired( "/missing" ) ) );
+
+    verify( targetProviderMock, never() ).createFile( any(), any( InputStream.class ), any() );
+  }
+
+  @Test
+  void testCopyFolderCreatesTargetFolderAndCopiesItsFiles() throws Exception {
+    IGenericFile file1 = mockSourceFile( "scheme://folder/data/a.csv", new byte[] { 1 } );
+    IGenericFile file2 = mockSourceFile( "scheme://folder/data/b.csv", new byte[] { 2, 2 } );
+    mockSourceFolder( "scheme://folder/data", file1, file2 );
+
+    transfer.copy( GenericFilePath.parseRequired( "scheme://folder/data" ),
+      GenericFilePath.parseRequired( "/archive" ) );
+
+    verify( targetProviderMock ).createFolder( GenericFilePath.parseRequired( "/archive/data" ) );
+    assertEquals( 2, createdFiles.size() );
+    assertArrayEquals( new byte[] { 2, 2 },
+      createdFiles.get( GenericFilePath.parseRequired( "/archive/data/b.csv" ) ) );
+  }
+
+  @Test
+  void testCopyFolderThrowsConflictWhenTargetFolderExists() throws Exception {
+    mockSourceFolder( "scheme://folder/data" );
+    doReturn( false ).when( targetProviderMock ).createFolder( GenericFilePath.parseRequired( "/archive/data" ) );
+
+    assertThrows( ConflictException.class, () -> transfer.copy( GenericFilePath.parseRequired( "scheme://folder/data" ),
+      GenericFilePath.parseRequired( "/archive" ) ) );
+
+    assertTrue( createdFiles.isEmpty() );
+  }
+
+  @Test
+  void testMoveDeletesSourceOnlyAfterVerifiedCopy() throws Exception {
+    mockSourceFile( "scheme://folder/report.prpt", new byte[] { 1, 2, 3 } );
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://folder/report.prpt" );
+
+    transfer.move( path, GenericFilePath.parseRequired( "/archive" ) );
+
+    verify( targetProviderMock ).getFile( eq( GenericFilePath.parseRequired( "/archive/report.prpt" ) ), any() );
+    verify( sourceProviderMock ).deleteFile( path, false );
+  }
+
+  @Test
+  void testMoveDoesNotDeleteSourceWhenCopyIsIncomplete() throws Exception {
+    mockSourceFile( "scheme://folder/report.prpt", new byte[] { 1, 2, 3 } );
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://folder/report.prpt" );
+    GenericFilePath targetPath = GenericFilePath.parseRequired( "/archive/report.prpt" );
+
+    // The target reports a truncated copy.
+    doReturn( createFileMock( targetPath, false, 2 ) ).when( targetProviderMock ).getFile( eq( targetPath ), any() );
+
+    OperationFailedException exception = assertThrows( OperationFailedException.class,
+      () -> transfer.move( path, GenericFilePath.parseRequired( "/archive" ) ) );
+
+    assertTrue( exception.getMessage().contains( "could not be verified" ) );
+    verify( sourceProviderMock, never() ).deleteFile( any(), anyBoolean() );
+  }
+
+  @Test
+  void testMoveFolderDoesNotDeleteSourceWhenSomeFileFails() throws Exception {
+    IGenericFile file1 = mockSourceFile( "scheme://folder/data/a.csv", new byte[] { 1 } );
+    IGenericFile file2 = mockSourceFile( "scheme://folder/data/b.csv", new byte[] { 2 } );
+    mockSourceFolder( "scheme://folder/data", file1, file2 );
+    GenericFilePath failedTargetPath = GenericFilePath.parseRequired( "/archive/data/b.csv" );
+    doThrow( new ConflictException( "Exists." ) ).when( targetProviderMock )
+      .createFile( eq( failedTargetPath ), any( InputStream.class ), any( CreateFileOptions.class ) );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> transfer.move( GenericFilePath.parseRequired( "scheme://folder/data" ),
+        GenericFilePath.parseRequired( "/archive" ) ) );
+
+    assertTrue(
+      exception.getFailedFiles().containsKey( GenericFilePath.parseRequired( "scheme://folder/data/b.csv" ) ) );
+    assertTrue( createdFiles.containsKey( GenericFilePath.parseRequired( "/archive/data/a.csv" ) ) );
+    verify( sourceProviderMock, never() ).deleteFile( any(), anyBoolean() );
+  }
+}
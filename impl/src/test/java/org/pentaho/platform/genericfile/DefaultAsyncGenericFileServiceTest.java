@@ -0,0 +1,165 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.IGenericFileService;
+import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+import org.pentaho.platform.api.genericfile.model.IGenericFile;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class DefaultAsyncGenericFileServiceTest {
+  final IGenericFileService serviceMock = mock( IGenericFileService.class );
+  final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testDefaultExecutorIsTheSharedProviderExecutor() {
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock );
+
+    assertSame( serviceMock, asyncService.getService() );
+    assertSame( DefaultGenericFileService.DefaultProviderExecutorHolder.INSTANCE, asyncService.getExecutor() );
+  }
+
+  @Test
+  void testOperationCompletesWithResultOfService() throws Exception {
+    GetTreeOptions options = new GetTreeOptions();
+    IGenericFileTree treeMock = mock( IGenericFileTree.class );
+    doReturn( treeMock ).when( serviceMock ).getTree( options );
+
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, executor );
+
+    assertSame( treeMock, asyncService.getTree( options ).get( 5, TimeUnit.SECONDS ) );
+  }
+
+  @Test
+  void testOperationDoesNotBlockCallingThread() throws Exception {
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/report.prpt" );
+    GetFileOptions options = new GetFileOptions();
+    IGenericFile fileMock = mock( IGenericFile.class );
+    CountDownLatch serviceCalled = new CountDownLatch( 1 );
+    CountDownLatch canReturn = new CountDownLatch( 1 );
+    AtomicReference<Thread> serviceThread = new AtomicReference<>();
+    doAnswer( invocation -> {
+      serviceThread.set( Thread.currentThread() );
+      serviceCalled.countDown();
+      assertTrue( canReturn.await( 5, TimeUnit.SECONDS ) );
+      return fileMock;
+    } ).when( serviceMock ).getFile( path, options );
+
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, executor );
+
+    CompletableFuture<IGenericFile> future = asyncService.getFile( path, options );
+
+    assertTrue( serviceCalled.await( 5, TimeUnit.SECONDS ) );
+    assertFalse( future.isDone() );
+    assertNotSame( Thread.currentThread(), serviceThread.get() );
+
+    canReturn.countDown();
+    assertSame( fileMock, future.get( 5, TimeUnit.SECONDS ) );
+  }
+
+  @Test
+  void testOperationCompletesExceptionallyWithExceptionOfService() throws Exception {
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/missing" );
+    NotFoundException exception = new NotFoundException( "Not found." );
+    doThrow( exception ).when( serviceMock ).deleteFiles( List.of( path ), true );
+
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, executor );
+
+    CompletableFuture<Void> future = asyncService.deleteFiles( List.of( path ), true );
+
+    ExecutionException thrown = assertThrows( ExecutionException.class, () -> future.get( 5, TimeUnit.SECONDS ) );
+    assertSame( exception, thrown.getCause() );
+    // The exception is not wrapped, for handlers of the future itself.
+    assertSame( exception, future.handle( ( result, e ) -> e ).get() );
+  }
+
+  @Test
+  void testVoidOperationCompletesWithNull() throws Exception {
+    GenericFilePath path = GenericFilePath.parseRequired( "/home/admin/report.prpt" );
+
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, executor );
+
+    assertNull( asyncService.restoreFiles( List.of( path ) ).get( 5, TimeUnit.SECONDS ) );
+    verify( serviceMock ).restoreFiles( List.of( path ) );
+  }
+
+  @Test
+  void testOperationRunsInContextOfCaller() throws Exception {
+    Authentication authentication = mock( Authentication.class );
+    SecurityContextHolder.getContext().setAuthentication( authentication );
+    AtomicReference<Authentication> serviceAuthentication = new AtomicReference<>();
+    doAnswer( invocation -> {
+      serviceAuthentication.set( SecurityContextHolder.getContext().getAuthentication() );
+      return List.of();
+    } ).when( serviceMock ).getDeletedFiles();
+
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, executor );
+
+    asyncService.getDeletedFiles().get( 5, TimeUnit.SECONDS );
+
+    assertSame( authentication, serviceAuthentication.get() );
+  }
+
+  @Test
+  void testOperationCompletesExceptionallyWhenExecutorRejectsIt() throws OperationFailedException {
+    DefaultAsyncGenericFileService asyncService = new DefaultAsyncGenericFileService( serviceMock, runnable -> {
+      throw new RejectedExecutionException();
+    } );
+
+    CompletableFuture<Boolean> future =
+      asyncService.doesFolderExist( GenericFilePath.parseRequired( "/home/admin" ) );
+
+    assertTrue( future.isCompletedExceptionally() );
+    ExecutionException thrown = assertThrows( ExecutionException.class, future::get );
+    assertInstanceOf( RejectedExecutionException.class, thrown.getCause() );
+    verify( serviceMock, never() ).doesFolderExist( GenericFilePath.parseRequired( "/home/admin" ) );
+  }
+}
@@ -15,16 +15,29 @@ package org.pentaho.platform.genericfile;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InOrder;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.FindOptions;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetFilesResult;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
 import org.pentaho.platform.api.genericfile.IGenericFileDecorator;
 import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.IGenericFileVisitor;
+import org.pentaho.platform.api.genericfile.ListFolderOptions;
+import org.pentaho.platform.api.genericfile.ListFolderResult;
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+import org.pentaho.platform.api.genericfile.ProviderStatus;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+import org.pentaho.platform.api.genericfile.exception.AccessControlException;
 import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.ConflictException;
 import org.pentaho.platform.api.genericfile.exception.InvalidGenericFileProviderException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
 import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
 import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
 import org.pentaho.platform.api.genericfile.model.CreateFileOptions;
 import org.pentaho.platform.api.genericfile.model.IGenericFile;
@@ -32,31 +45,55 @@ import org.pentaho.platform.api.genericfile.model.IGenericFileAcl;
 import org.pentaho.platform.api.genericfile.model.IGenericFileContent;
 import org.pentaho.platform.api.genericfile.model.IGenericFileMetadata;
 import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
 import org.pentaho.platform.genericfile.decorators.CompositeGenericFileDecorator;
 import org.pentaho.platform.genericfile.decorators.NullGenericFileDecorator;
-
+import org.pentaho.platform.genericfile.management.OperationStatisticsMBeanRegistrar;
+import org.pentaho.platform.genericfile.model.MultipleProviderRootFile;
+import org.pentaho.platform.genericfile.model.UnavailableProviderRootFile;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -154,7 +191,293 @@ class DefaultGenericFileServiceTest {
 
       service = new DefaultGenericFileService( Arrays.asList( provider1Mock, provider2Mock ) );
     }
+
+    public MultipleProviderUseCase( String provider1Prefix, String provider2Prefix )
+      throws InvalidGenericFileProviderException, InvalidPathException {
+      provider1Mock = mock( IGenericFileProvider.class );
+      doReturn( Set.of( GenericFilePath.parseRequired( provider1Prefix ) ) )
+        .when( provider1Mock ).getOwnedPathPrefixes();
+
+      provider2Mock = mock( IGenericFileProvider.class );
+      doReturn( Set.of( GenericFilePath.parseRequired( provider2Prefix ) ) )
+        .when( provider2Mock ).getOwnedPathPrefixes();
+
+      service = new DefaultGenericFileService( Arrays.asList( provider1Mock, provider2Mock ) );
+    }
+  }
+
+  // region clearTreeCache
+  @Test
+  void testClearTreeCacheOfPathIsDelegatedOnlyToOwnerProvider() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    GenericFilePath path = mock( GenericFilePath.class );
+
+    doReturn( false ).when( useCase.provider1Mock ).owns( path );
+    doReturn( true ).when( useCase.provider2Mock ).owns( path );
+
+    useCase.service.clearTreeCache( path );
+
+    verify( useCase.provider2Mock ).clearTreeCache( path );
+    verify( useCase.provider1Mock, never() ).clearTreeCache( any( GenericFilePath.class ) );
+    verify( useCase.provider1Mock, never() ).clearTreeCache();
+    verify( useCase.provider2Mock, never() ).clearTreeCache();
+  }
+
+  @Test
+  void testClearTreeCacheOfPathNotOwnedByAnyProviderDoesNothing() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    GenericFilePath path = mock( GenericFilePath.class );
+
+    useCase.service.clearTreeCache( path );
+
+    verify( useCase.provider1Mock, never() ).clearTreeCache( any( GenericFilePath.class ) );
+    verify( useCase.provider2Mock, never() ).clearTreeCache( any( GenericFilePath.class ) );
+  }
+  // endregion
+
+  // region warmUpTreeCache
+  private static class WarmUpMultipleProviderUseCase {
+    public final IGenericFileProvider<?> provider1Mock;
+    public final IGenericFileProvider<?> provider2Mock;
+    public final List<Runnable> warmUps = new ArrayList<>();
+    public final DefaultGenericFileService service;
+    public final GetTreeOptions rootOptions;
+    public final GetTreeOptions publicOptions;
+
+    public WarmUpMultipleProviderUseCase() throws OperationFailedException, InvalidGenericFileProviderException {
+      provider1Mock = mock( IGenericFileProvider.class );
+      provider2Mock = mock( IGenericFileProvider.class );
+
+      rootOptions = new GetTreeOptions();
+      rootOptions.setMaxDepth( 1 );
+
+      publicOptions = new GetTreeOptions();
+      publicOptions.setBasePath( "/public" );
+      publicOptions.setMaxDepth( 2 );
+
+      doReturn( true ).when( provider1Mock ).owns( publicOptions.getBasePath() );
+
+      service = new DefaultGenericFileService( Arrays.asList( provider1Mock, provider2Mock ),
+        new NullGenericFileDecorator(), warmUps::add );
+    }
+
+    public void runWarmUps() {
+      List<Runnable> pendingWarmUps = new ArrayList<>( warmUps );
+      warmUps.clear();
+      pendingWarmUps.forEach( Runnable::run );
+    }
+  }
+
+  @Test
+  void testWarmUpTreeCacheLoadsTreesFromOwnerProvidersInTheBackground() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+
+    useCase.service.warmUpTreeCache( List.of( useCase.rootOptions, useCase.publicOptions ) );
+
+    verify( useCase.provider1Mock, never() ).getTree( any( GetTreeOptions.class ) );
+
+    useCase.runWarmUps();
+
+    verify( useCase.provider1Mock ).getTree( useCase.rootOptions );
+    verify( useCase.provider1Mock ).getTree( useCase.publicOptions );
+    verify( useCase.provider2Mock ).getTree( useCase.rootOptions );
+    verify( useCase.provider2Mock, never() ).getTree( useCase.publicOptions );
+  }
+
+  @Test
+  void testWarmUpTreeCacheContinuesAfterFailure() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+    doThrow( new NotFoundException( "Not found." ) ).when( useCase.provider1Mock ).getTree( useCase.rootOptions );
+
+    useCase.service.warmUpTreeCache( List.of( useCase.rootOptions, useCase.publicOptions ) );
+    useCase.runWarmUps();
+
+    verify( useCase.provider2Mock ).getTree( useCase.rootOptions );
+    verify( useCase.provider1Mock ).getTree( useCase.publicOptions );
+  }
+
+  @Test
+  void testWarmUpTreeCacheWithoutConfiguredOptionsDoesNothing() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+
+    useCase.service.warmUpTreeCache();
+    useCase.service.clearTreeCache();
+
+    assertTrue( useCase.warmUps.isEmpty() );
+  }
+
+  @Test
+  void testClearTreeCacheWarmsUpConfiguredOptionsAgain() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+    useCase.service.setTreeCacheWarmUpOptions( List.of( useCase.publicOptions ) );
+
+    useCase.service.warmUpTreeCache();
+    useCase.runWarmUps();
+    verify( useCase.provider1Mock, times( 1 ) ).getTree( useCase.publicOptions );
+
+    useCase.service.clearTreeCache();
+    useCase.runWarmUps();
+    verify( useCase.provider1Mock, times( 2 ) ).getTree( useCase.publicOptions );
+
+    useCase.service.clearTreeCache( useCase.publicOptions.getBasePath() );
+    useCase.runWarmUps();
+    verify( useCase.provider1Mock, times( 3 ) ).getTree( useCase.publicOptions );
+  }
+
+  @Test
+  void testWarmUpTreeCacheLoadsTreesInEachConfiguredContext() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+    IPentahoSession session1Mock = mock( IPentahoSession.class );
+    IPentahoSession session2Mock = mock( IPentahoSession.class );
+    SecurityContext securityContext1Mock = mock( SecurityContext.class );
+    SecurityContext securityContext2Mock = mock( SecurityContext.class );
+    useCase.service.setTreeCacheWarmUpOptions( List.of( useCase.publicOptions ) );
+    useCase.service.setTreeCacheWarmUpContexts( List.of(
+      new TreeCacheWarmUpContext( session1Mock, securityContext1Mock ),
+      new TreeCacheWarmUpContext( session2Mock, securityContext2Mock ) ) );
+
+    List<IPentahoSession> sessions = new ArrayList<>();
+    List<SecurityContext> securityContexts = new ArrayList<>();
+    doAnswer( invocation -> {
+      sessions.add( PentahoSessionHolder.getSession() );
+      securityContexts.add( SecurityContextHolder.getContext() );
+      return null;
+    } ).when( useCase.provider1Mock ).getTree( useCase.publicOptions );
+
+    // Cleared by a user whose own partition is not the one to warm up.
+    useCase.service.clearTreeCache();
+    useCase.runWarmUps();
+
+    // ---
+
+    assertEquals( List.of( session1Mock, session2Mock ), sessions );
+    assertEquals( List.of( securityContext1Mock, securityContext2Mock ), securityContexts );
+  }
+
+  @Test
+  void testSetTreeCacheWarmUpOptionsCopiesOptions() throws Exception {
+    WarmUpMultipleProviderUseCase useCase = new WarmUpMultipleProviderUseCase();
+    useCase.service.setTreeCacheWarmUpOptions( List.of( useCase.publicOptions ) );
+
+    useCase.publicOptions.setMaxDepth( 5 );
+
+    assertEquals( 2, useCase.service.getTreeCacheWarmUpOptions().get( 0 ).getMaxDepth() );
+  }
+  // endregion
+
+  // region getTreeCacheStatistics
+  @Test
+  void testGetTreeCacheStatisticsIsKeyedByProviderTypeAndSkipsNonCachingProviders() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    TreeCacheStatistics statistics = new TreeCacheStatistics();
+
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doReturn( "provider2" ).when( useCase.provider2Mock ).getType();
+    doReturn( statistics ).when( useCase.provider1Mock ).getTreeCacheStatistics();
+    doReturn( null ).when( useCase.provider2Mock ).getTreeCacheStatistics();
+
+    Map<String, TreeCacheStatistics> result = useCase.service.getTreeCacheStatistics();
+
+    assertEquals( Map.of( "provider1", statistics ), result );
+  }
+  // endregion
+
+  // region getOperationStatistics
+  private static MultipleProviderUseCase createOperationStatisticsUseCase() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doReturn( "provider2" ).when( useCase.provider2Mock ).getType();
+    return useCase;
+  }
+
+  @Test
+  void testGetOperationStatisticsRecordsCallsOfServiceAndOfOwnerProvider() throws Exception {
+    MultipleProviderUseCase useCase = createOperationStatisticsUseCase();
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://bucket/file" );
+    doReturn( mock( IGenericFile.class ) ).when( useCase.provider2Mock ).getFile( eq( path ), any() );
+    doThrow( new NotFoundException( "Not found." ) ).when( useCase.provider2Mock ).getFileContent( path, false );
+
+    useCase.service.getFile( path );
+    assertThrows( NotFoundException.class, () -> useCase.service.getFileContent( path, false ) );
+
+    List<OperationStatistics> statistics = useCase.service.getOperationStatistics();
+
+    assertEquals( 4, statistics.size() );
+    // The operations of the service come first.
+    assertOperationStatistics( statistics.get( 0 ), null, "getFile", 1, 0 );
+    assertOperationStatistics( statistics.get( 1 ), null, "getFileContent", 1, 1 );
+    assertOperationStatistics( statistics.get( 2 ), "provider2", "getFile", 1, 0 );
+    assertOperationStatistics( statistics.get( 3 ), "provider2", "getFileContent", 1, 1 );
+  }
+
+  @Test
+  void testGetOperationStatisticsRecordsEachProviderOfAggregatingOperation() throws Exception {
+    MultipleProviderUseCase useCase = createOperationStatisticsUseCase();
+    useCase.service.setProviderTimeout( null );
+    doThrow( new OperationFailedException() ).when( useCase.provider2Mock ).getDeletedFiles();
+
+    useCase.service.getDeletedFiles();
+
+    List<OperationStatistics> statistics = useCase.service.getOperationStatistics();
+
+    assertEquals( 3, statistics.size() );
+    assertOperationStatistics( statistics.get( 0 ), null, "getDeletedFiles", 1, 0 );
+    assertOperationStatistics( statistics.get( 1 ), "provider1", "getDeletedFiles", 1, 0 );
+    assertOperationStatistics( statistics.get( 2 ), "provider2", "getDeletedFiles", 1, 1 );
+  }
+
+  @Test
+  void testGetOperationStatisticsRecordsBatchCallsOfProvidersOnce() throws Exception {
+    MultipleProviderUseCase useCase = createOperationStatisticsUseCase();
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://folder/file2" );
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+
+    useCase.service.deleteFiles( List.of( path1, path2 ), false );
+
+    List<OperationStatistics> statistics = useCase.service.getOperationStatistics();
+
+    assertEquals( 3, statistics.size() );
+    assertOperationStatistics( statistics.get( 0 ), null, "deleteFiles", 1, 0 );
+    assertOperationStatistics( statistics.get( 1 ), "provider1", "deleteFiles", 1, 0 );
+    // Without native batch operations, each path is deleted on its own.
+    assertOperationStatistics( statistics.get( 2 ), "provider2", "deleteFile", 1, 0 );
+  }
+
+  @Test
+  void testGetOperationStatisticsDoesNotRecordOperationsWhichDoNotAccessFiles() throws Exception {
+    MultipleProviderUseCase useCase = createOperationStatisticsUseCase();
+
+    useCase.service.clearTreeCache();
+    useCase.service.getTreeCacheStatistics();
+
+    assertTrue( useCase.service.getOperationStatistics().isEmpty() );
+  }
+
+  @Test
+  void testRegisterMBeansExposesOperationStatistics() throws Exception {
+    MultipleProviderUseCase useCase = createOperationStatisticsUseCase();
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = OperationStatisticsMBeanRegistrar.getObjectName();
+
+    useCase.service.registerMBeans();
+    try {
+      assertTrue( mbeanServer.isRegistered( name ) );
+    } finally {
+      useCase.service.unregisterMBeans();
+    }
+
+    assertFalse( mbeanServer.isRegistered( name ) );
+  }
+
+  private static void assertOperationStatistics( OperationStatistics statistics, String providerType, String operation,
+                                                 long callCount, long errorCount ) {
+    assertEquals( providerType, statistics.getProviderType() );
+    assertEquals( operation, statistics.getOperation() );
+    assertEquals( callCount, statistics.getCallCount() );
+    assertEquals( errorCount, statistics.getErrorCount() );
   }
+  // endregion
 
   // region getTree()
   private static class GetTreeMultipleProviderUseCase extends MultipleProviderUseCase {
@@ -351,6 +674,27 @@ class DefaultGenericFileServiceTest {
     verify( useCase.provider1Mock, never() ).getTree( useCase.optionsMock );
   }
 
+  @Test
+  void testGetTreeWithMultipleProvidersAndBasePathRoutesToFirstSelectedOwner()
+    throws OperationFailedException, InvalidGenericFileProviderException {
+    GetTreeMultipleProviderUseCase useCase = new GetTreeMultipleProviderUseCase();
+
+    // Both providers own the base path, but only the second one is selected.
+    doReturn( true ).when( useCase.provider1Mock ).owns( any( GenericFilePath.class ) );
+    doReturn( true ).when( useCase.provider2Mock ).owns( any( GenericFilePath.class ) );
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doReturn( "provider2" ).when( useCase.provider2Mock ).getType();
+
+    doReturn( mock( GenericFilePath.class ) ).when( useCase.optionsMock ).getBasePath();
+    doReturn( false ).when( useCase.optionsMock ).includesAllProviders();
+    doReturn( true ).when( useCase.optionsMock ).includesProviderType( "provider2" );
+
+    IGenericFileTree resultTree = useCase.service.getTree( useCase.optionsMock );
+
+    assertSame( useCase.tree2Mock, resultTree );
+    verify( useCase.provider1Mock, never() ).getTree( useCase.optionsMock );
+  }
+
   @Test
   void testGetTreeCallsDecorateTree() throws Exception {
     IGenericFileProvider<?> providerMock = mock( IGenericFileProvider.class );
@@ -594,6 +938,252 @@ class DefaultGenericFileServiceTest {
   }
   // endregion
 
+  // region getFiles
+  @Test
+  void testGetFilesGivesEachProviderAllOfItsPathsInPathOrder() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/public/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://bucket/b" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "/public/c" );
+    GenericFilePath path4 = GenericFilePath.parseRequired( "other://d" );
+    GetFileOptions options = new GetFileOptions();
+
+    GetFilesResult provider1Result = new GetFilesResult();
+    provider1Result.addFile( path1, mock( IGenericFile.class ) );
+    provider1Result.addError( path3, new NotFoundException( "Not found." ) );
+    doReturn( provider1Result ).when( useCase.provider1Mock ).getFiles( List.of( path1, path3 ), options );
+
+    GetFilesResult provider2Result = new GetFilesResult();
+    provider2Result.addFile( path2, mock( IGenericFile.class ) );
+    doReturn( provider2Result ).when( useCase.provider2Mock ).getFiles( List.of( path2 ), options );
+
+    GetFilesResult result = useCase.service.getFiles( List.of( path1, path2, path3, path4, path1 ), options );
+
+    assertEquals( List.of( path1, path2 ), new ArrayList<>( result.getFiles().keySet() ) );
+    assertEquals( List.of( path3, path4 ), new ArrayList<>( result.getErrors().keySet() ) );
+    assertSame( provider1Result.getErrors().get( path3 ), result.getErrors().get( path3 ) );
+    assertInstanceOf( NotFoundException.class, result.getErrors().get( path4 ) );
+    verify( useCase.provider1Mock, times( 1 ) ).getFiles( any(), any() );
+    verify( useCase.provider2Mock, times( 1 ) ).getFiles( any(), any() );
+    verify( useCase.provider1Mock, never() ).getFile( any(), any() );
+  }
+
+  @Test
+  void testGetFilesReportsAllPathsOfFailedProvider() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/public/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://bucket/b" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "scheme://bucket/c" );
+    GetFileOptions options = new GetFileOptions();
+
+    GetFilesResult provider1Result = new GetFilesResult();
+    provider1Result.addFile( path1, mock( IGenericFile.class ) );
+    doReturn( provider1Result ).when( useCase.provider1Mock ).getFiles( List.of( path1 ), options );
+
+    AccessControlException exception = new AccessControlException( "Denied." );
+    doThrow( exception ).when( useCase.provider2Mock ).getFiles( List.of( path2, path3 ), options );
+
+    GetFilesResult result = useCase.service.getFiles( List.of( path1, path2, path3 ), options );
+
+    assertEquals( Set.of( path1 ), result.getFiles().keySet() );
+    assertSame( exception, result.getErrors().get( path2 ) );
+    assertSame( exception, result.getErrors().get( path3 ) );
+  }
+
+  @Test
+  void testGetFilesCallsDecorateFileForEachFile() throws Exception {
+    IGenericFileProvider<?> providerMock = mock( IGenericFileProvider.class );
+    doReturn( Set.of( GenericFilePath.parseRequired( "/" ) ) ).when( providerMock ).getOwnedPathPrefixes();
+    IGenericFileDecorator decoratorMock = mock( IGenericFileDecorator.class );
+    GetFileOptions options = new GetFileOptions();
+
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/public/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/public/b" );
+    IGenericFile file1Mock = mock( IGenericFile.class );
+    IGenericFile file2Mock = mock( IGenericFile.class );
+    GetFilesResult providerResult = new GetFilesResult();
+    providerResult.addFile( path1, file1Mock );
+    providerResult.addFile( path2, file2Mock );
+    doReturn( providerResult ).when( providerMock ).getFiles( List.of( path1, path2 ), options );
+
+    OperationFailedException exception = new OperationFailedException( "Decoration failed." );
+    doThrow( exception ).when( decoratorMock ).decorateFile( eq( file2Mock ), any(), any() );
+
+    DefaultGenericFileService service =
+      new DefaultGenericFileService( Collections.singletonList( providerMock ), decoratorMock );
+
+    GetFilesResult result = service.getFiles( List.of( path1, path2 ), options );
+
+    verify( decoratorMock ).decorateFile( file1Mock, service, options );
+    assertEquals( Set.of( path1 ), result.getFiles().keySet() );
+    assertSame( exception, result.getErrors().get( path2 ) );
+  }
+  // endregion
+
+  // region listFolder
+  @Test
+  void testListFolderDelegatesToOwnerProviderAndDecoratesEachFile() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    IGenericFileDecorator decoratorMock = mock( IGenericFileDecorator.class );
+    DefaultGenericFileService service =
+      new DefaultGenericFileService( Arrays.asList( useCase.provider1Mock, useCase.provider2Mock ), decoratorMock );
+
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://bucket" );
+    ListFolderOptions options = new ListFolderOptions();
+    IGenericFile file1Mock = mock( IGenericFile.class );
+    IGenericFile file2Mock = mock( IGenericFile.class );
+    ListFolderResult providerResult = new ListFolderResult( List.of( file1Mock, file2Mock ), "next" );
+    doReturn( providerResult ).when( useCase.provider2Mock ).listFolder( path, options );
+
+    ListFolderResult result = service.listFolder( path, options );
+
+    assertSame( providerResult, result );
+    verify( decoratorMock ).decorateFile( eq( file1Mock ), eq( service ), any( GetFileOptions.class ) );
+    verify( decoratorMock ).decorateFile( eq( file2Mock ), eq( service ), any( GetFileOptions.class ) );
+    verify( useCase.provider1Mock, never() ).listFolder( any(), any() );
+  }
+
+  @Test
+  void testListFolderOfUnownedPathThrowsNotFound() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path = GenericFilePath.parseRequired( "other://bucket" );
+    ListFolderOptions options = new ListFolderOptions();
+
+    assertThrows( NotFoundException.class, () -> useCase.service.listFolder( path, options ) );
+  }
+  // endregion
+
+  // region find
+  @Test
+  void testFindDelegatesToOwnerProviderAndDecoratesEachFile() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    IGenericFileDecorator decoratorMock = mock( IGenericFileDecorator.class );
+    DefaultGenericFileService service =
+      new DefaultGenericFileService( Arrays.asList( useCase.provider1Mock, useCase.provider2Mock ), decoratorMock );
+
+    GenericFilePath basePath = GenericFilePath.parseRequired( "scheme://bucket" );
+    FindOptions options = new FindOptions();
+    options.setNamePattern( "*.csv" );
+    IGenericFile file1Mock = mock( IGenericFile.class );
+    IGenericFile file2Mock = mock( IGenericFile.class );
+    doReturn( List.of( file1Mock, file2Mock ) ).when( useCase.provider2Mock ).find( basePath, options );
+
+    List<IGenericFile> files = service.find( basePath, options );
+
+    assertEquals( List.of( file1Mock, file2Mock ), files );
+    verify( decoratorMock ).decorateFile( eq( file1Mock ), eq( service ), any( GetFileOptions.class ) );
+    verify( decoratorMock ).decorateFile( eq( file2Mock ), eq( service ), any( GetFileOptions.class ) );
+    verify( useCase.provider1Mock, never() ).find( any(), any() );
+  }
+
+  @Test
+  void testFindOfUnownedPathThrowsNotFound() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath basePath = GenericFilePath.parseRequired( "other://bucket" );
+    FindOptions options = new FindOptions();
+
+    assertThrows( NotFoundException.class, () -> useCase.service.find( basePath, options ) );
+  }
+  // endregion
+
+  // region walkTree
+  private static IGenericFileTree createRootTreeMock( String path ) {
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doReturn( path ).when( fileMock ).getPath();
+
+    IGenericFileTree treeMock = mock( IGenericFileTree.class );
+    doReturn( fileMock ).when( treeMock ).getFile();
+    return treeMock;
+  }
+
+  @Test
+  void testWalkTreeWithBasePathDecoratesEachFileBeforeVisitingIt() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    IGenericFileDecorator decoratorMock = mock( IGenericFileDecorator.class );
+    DefaultGenericFileService service =
+      new DefaultGenericFileService( Arrays.asList( useCase.provider1Mock, useCase.provider2Mock ), decoratorMock );
+
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doAnswer( invocation -> {
+      IGenericFileVisitor visitor = invocation.getArgument( 1 );
+      return visitor.visit( fileMock, 0 ) != IGenericFileVisitor.VisitResult.TERMINATE;
+    } ).when( useCase.provider2Mock ).walkTree( any(), any() );
+
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( "scheme://bucket" );
+    options.setIncludeMetadata( true );
+
+    IGenericFileVisitor visitorMock = mock( IGenericFileVisitor.class );
+    doReturn( IGenericFileVisitor.VisitResult.CONTINUE ).when( visitorMock ).visit( fileMock, 0 );
+
+    assertTrue( service.walkTree( options, visitorMock ) );
+
+    InOrder inOrder = inOrder( decoratorMock, visitorMock );
+    inOrder.verify( decoratorMock ).decorateFile(
+      eq( fileMock ),
+      eq( service ),
+      argThat( GetFileOptions::isIncludeMetadata ) );
+    inOrder.verify( visitorMock ).visit( fileMock, 0 );
+    verify( useCase.provider1Mock, never() ).walkTree( any(), any() );
+  }
+
+  @Test
+  void testWalkTreeWithNullBasePathWalksEachRootTreeUntilTerminated() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    IGenericFileTree root1Mock = createRootTreeMock( "/" );
+    IGenericFileTree root2Mock = createRootTreeMock( "scheme://bucket1" );
+    IGenericFileTree root3Mock = createRootTreeMock( "scheme://bucket2" );
+    doReturn( List.of( root1Mock ) ).when( useCase.provider1Mock ).getRootTrees( any() );
+    doReturn( List.of( root2Mock, root3Mock ) ).when( useCase.provider2Mock ).getRootTrees( any() );
+
+    List<GenericFilePath> walkedBasePaths = new ArrayList<>();
+    doAnswer( invocation -> {
+      GetTreeOptions options = invocation.getArgument( 0 );
+      walkedBasePaths.add( options.getBasePath() );
+      // The second root tree terminates the walk.
+      return walkedBasePaths.size() < 2;
+    } ).when( useCase.provider1Mock ).walkTree( any(), any() );
+    doAnswer( invocation -> {
+      GetTreeOptions options = invocation.getArgument( 0 );
+      walkedBasePaths.add( options.getBasePath() );
+      return walkedBasePaths.size() < 2;
+    } ).when( useCase.provider2Mock ).walkTree( any(), any() );
+
+    assertFalse( useCase.service.walkTree( new GetTreeOptions(), mock( IGenericFileVisitor.class ) ) );
+
+    assertEquals(
+      List.of( GenericFilePath.parseRequired( "/" ), GenericFilePath.parseRequired( "scheme://bucket1" ) ),
+      walkedBasePaths );
+  }
+
+  @Test
+  void testWalkTreeWithNullBasePathSkipsProvidersWhoseRootTreesFail() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    doThrow( new OperationFailedException( "Failed." ) ).when( useCase.provider1Mock ).getRootTrees( any() );
+    doReturn( List.of( createRootTreeMock( "scheme://bucket1" ) ) ).when( useCase.provider2Mock ).getRootTrees( any() );
+    doReturn( true ).when( useCase.provider2Mock ).walkTree( any(), any() );
+
+    assertTrue( useCase.service.walkTree( new GetTreeOptions(), mock( IGenericFileVisitor.class ) ) );
+
+    verify( useCase.provider1Mock, never() ).walkTree( any(), any() );
+    verify( useCase.provider2Mock, times( 1 ) ).walkTree( any(), any() );
+  }
+
+  @Test
+  void testWalkTreeWithNullBasePathThrowsWhenAllProvidersFail() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    OperationFailedException exception = new OperationFailedException( "Failed." );
+    doThrow( exception ).when( useCase.provider1Mock ).getRootTrees( any() );
+    doThrow( new OperationFailedException( "Failed." ) ).when( useCase.provider2Mock ).getRootTrees( any() );
+
+    IGenericFileVisitor visitorMock = mock( IGenericFileVisitor.class );
+    GetTreeOptions options = new GetTreeOptions();
+
+    assertSame( exception, assertThrows( OperationFailedException.class,
+      () -> useCase.service.walkTree( options, visitorMock ) ) );
+  }
+  // endregion
+
   // region getDeletedFiles()
   private static class GetDeletedFilesMultipleProviderUseCase extends MultipleProviderUseCase {
     public final IGenericFile file1Mock;
@@ -650,6 +1240,833 @@ class DefaultGenericFileServiceTest {
   }
   // endregion
 
+  // region Owner Routing
+  @Test
+  void testGetFileRoutesToProviderDeclaringPathPrefixWithoutCallingOwns() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://folder/file" );
+
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doReturn( fileMock ).when( useCase.provider2Mock ).getFile( eq( path ), any( GetFileOptions.class ) );
+
+    IGenericFile file = useCase.service.getFile( path );
+
+    // ---
+
+    assertSame( fileMock, file );
+    verify( useCase.provider1Mock, never() ).owns( any( GenericFilePath.class ) );
+    verify( useCase.provider2Mock, never() ).owns( any( GenericFilePath.class ) );
+  }
+
+  @Test
+  void testGetFileWithPathOfNoProviderThrowsNotFoundException() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path = GenericFilePath.parseRequired( "other://folder/file" );
+
+    assertThrows( NotFoundException.class, () -> useCase.service.getFile( path ) );
+  }
+  // endregion
+
+  // region Batch Operations
+  @Test
+  void testDeleteFilesCallsEachNativeBatchProviderOnceWithItsPaths() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://folder/file2" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "/folder/file3" );
+
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+    doReturn( true ).when( useCase.provider2Mock ).hasNativeBatchOperations();
+
+    useCase.service.deleteFiles( List.of( path1, path2, path3 ), false );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).deleteFiles( List.of( path1, path3 ), false );
+    verify( useCase.provider2Mock, times( 1 ) ).deleteFiles( List.of( path2 ), false );
+  }
+
+  @Test
+  void testDeleteFilesMergesProviderBatchFailuresAndMissingOwners() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://folder/file2" );
+    GenericFilePath unownedPath = GenericFilePath.parseRequired( "other://folder/file3" );
+
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+    doReturn( true ).when( useCase.provider2Mock ).hasNativeBatchOperations();
+
+    BatchOperationFailedException providerException = new BatchOperationFailedException( "Provider failure." );
+    NotFoundException path1Exception = new NotFoundException( "Not found." );
+    providerException.addFailedPath( path1, path1Exception );
+    doThrow( providerException ).when( useCase.provider1Mock ).deleteFiles( anyList(), anyBoolean() );
+
+    OperationFailedException path2Exception = new OperationFailedException( "Provider down." );
+    doThrow( path2Exception ).when( useCase.provider2Mock ).deleteFiles( anyList(), anyBoolean() );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> useCase.service.deleteFiles( List.of( path1, path2, unownedPath ), true ) );
+
+    // ---
+
+    assertEquals( "Error(s) occurred during deletion.", exception.getMessage() );
+    Map<GenericFilePath, Exception> failedFiles = exception.getFailedFiles();
+    assertEquals( 3, failedFiles.size() );
+    assertSame( path1Exception, failedFiles.get( path1 ) );
+    assertSame( path2Exception, failedFiles.get( path2 ) );
+    assertInstanceOf( NotFoundException.class, failedFiles.get( unownedPath ) );
+  }
+
+  @Test
+  void testMoveFilesCallsNativeBatchDestinationProviderOnceWithAllPaths() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/folder/file2" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/archive" );
+
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+
+    useCase.service.moveFiles( List.of( path1, path2 ), destinationFolder );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).moveFiles( List.of( path1, path2 ), destinationFolder );
+    verify( useCase.provider2Mock, never() ).moveFiles( anyList(), any() );
+  }
+
+  @Test
+  void testCopyFilesHandsDestinationProviderItsPathsAndTransfersPathsOfOtherProviders() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://folder/file2" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/archive" );
+
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( destinationFolder );
+    mockSourceFile( useCase.provider2Mock, path2 );
+
+    useCase.service.copyFiles( List.of( path1, path2 ), destinationFolder );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).copyFiles( List.of( path1 ), destinationFolder );
+    verify( useCase.provider1Mock ).createFile( eq( GenericFilePath.parseRequired( "/archive/file2" ) ),
+      any( InputStream.class ), any( CreateFileOptions.class ) );
+    verify( useCase.provider2Mock, never() ).copyFiles( anyList(), any() );
+    verify( useCase.provider2Mock, never() ).deleteFile( any(), anyBoolean() );
+  }
+
+  @Test
+  void testMoveFileToDifferentProviderStreamsContentAndDeletesSourceAfterVerifiedCopy() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://folder/file" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/archive" );
+    GenericFilePath targetPath = GenericFilePath.parseRequired( "/archive/file" );
+
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( destinationFolder );
+    mockSourceFile( useCase.provider2Mock, path );
+    doReturn( mock( IGenericFile.class ) ).when( useCase.provider1Mock ).getFile( eq( targetPath ), any() );
+
+    useCase.service.moveFile( path, destinationFolder );
+
+    // ---
+
+    InOrder inOrder = inOrder( useCase.provider1Mock, useCase.provider2Mock );
+    inOrder.verify( useCase.provider1Mock ).createFile( eq( targetPath ), any( InputStream.class ),
+      any( CreateFileOptions.class ) );
+    inOrder.verify( useCase.provider1Mock ).getFile( eq( targetPath ), any() );
+    inOrder.verify( useCase.provider2Mock ).deleteFile( path, false );
+    verify( useCase.provider2Mock, never() ).moveFile( any(), any() );
+  }
+
+  @Test
+  void testMoveFileToDifferentProviderDoesNotDeleteSourceWhenCopyFails() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path = GenericFilePath.parseRequired( "scheme://folder/file" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/archive" );
+
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( destinationFolder );
+    mockSourceFile( useCase.provider2Mock, path );
+    doThrow( new ConflictException( "Exists." ) ).when( useCase.provider1Mock )
+      .createFile( any(), any( InputStream.class ), any( CreateFileOptions.class ) );
+
+    assertThrows( ConflictException.class, () -> useCase.service.moveFile( path, destinationFolder ) );
+
+    // ---
+
+    verify( useCase.provider2Mock, never() ).deleteFile( any(), anyBoolean() );
+  }
+
+  /**
+   * Stubs a provider so that a path refers to a file, with some content.
+   */
+  static void mockSourceFile( IGenericFileProvider<?> providerMock, GenericFilePath path )
+    throws OperationFailedException {
+    IGenericFile fileMock = mock( IGenericFile.class );
+    doReturn( IGenericFile.TYPE_FILE ).when( fileMock ).getType();
+    doReturn( fileMock ).when( providerMock ).getFile( eq( path ), any() );
+
+    IGenericFileContent contentMock = mock( IGenericFileContent.class );
+    doReturn( new ByteArrayInputStream( new byte[] { 1, 2, 3 } ) ).when( contentMock ).getInputStream();
+    doReturn( contentMock ).when( providerMock ).getFileContent( path, false );
+  }
+
+  @Test
+  void testDeleteFilesProcessesPathsOfProviderWithoutNativeBatchConcurrentlyUpToParallelism() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    useCase.service.setProviderBatchParallelism( 2 );
+
+    List<GenericFilePath> paths = new ArrayList<>();
+    for ( int i = 0; i < 6; i++ ) {
+      paths.add( GenericFilePath.parseRequired( "/folder/file" + i ) );
+    }
+
+    AtomicInteger activeCount = new AtomicInteger();
+    AtomicInteger maxActiveCount = new AtomicInteger();
+    CountDownLatch firstTwoStarted = new CountDownLatch( 2 );
+    doAnswer( invocation -> {
+      maxActiveCount.accumulateAndGet( activeCount.incrementAndGet(), Math::max );
+      firstTwoStarted.countDown();
+      // Only completes if two paths are processed at the same time.
+      assertTrue( firstTwoStarted.await( 5, TimeUnit.SECONDS ) );
+      activeCount.decrementAndGet();
+      return null;
+    } ).when( useCase.provider1Mock ).deleteFile( any( GenericFilePath.class ), eq( false ) );
+
+    useCase.service.deleteFiles( paths, false );
+
+    // ---
+
+    for ( GenericFilePath path : paths ) {
+      verify( useCase.provider1Mock ).deleteFile( path, false );
+    }
+
+    verify( useCase.provider1Mock, never() ).deleteFiles( anyList(), anyBoolean() );
+    assertEquals( 2, maxActiveCount.get() );
+  }
+
+  @Test
+  void testRestoreFilesOfProviderWithoutNativeBatchCollectsFailuresByPath() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/folder/file2" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "/folder/file3" );
+
+    NotFoundException path1Exception = new NotFoundException( "Not found." );
+    OperationFailedException path3Exception = new OperationFailedException( "Failed." );
+    doThrow( path1Exception ).when( useCase.provider1Mock ).restoreFile( path1 );
+    doThrow( path3Exception ).when( useCase.provider1Mock ).restoreFile( path3 );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> useCase.service.restoreFiles( List.of( path1, path2, path3 ) ) );
+
+    // ---
+
+    assertEquals( "Error(s) occurred while attempting to restore files.", exception.getMessage() );
+    assertEquals( Set.of( path1, path3 ), exception.getFailedFiles().keySet() );
+    assertSame( path1Exception, exception.getFailedFiles().get( path1 ) );
+    assertSame( path3Exception, exception.getFailedFiles().get( path3 ) );
+    verify( useCase.provider1Mock ).restoreFile( path2 );
+  }
+
+  @Test
+  void testDeleteFilesWithBatchParallelismOfOneProcessesPathsInCurrentThread() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    useCase.service.setProviderBatchParallelism( 1 );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/folder/file2" );
+
+    Thread callerThread = Thread.currentThread();
+    List<Thread> threads = Collections.synchronizedList( new ArrayList<>() );
+    doAnswer( invocation -> {
+      threads.add( Thread.currentThread() );
+      return null;
+    } ).when( useCase.provider1Mock ).deleteFilePermanently( any( GenericFilePath.class ) );
+
+    useCase.service.deleteFilesPermanently( List.of( path1, path2 ) );
+
+    // ---
+
+    assertEquals( List.of( callerThread, callerThread ), threads );
+  }
+
+  @Test
+  void testGetProviderBatchParallelismDefault() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertEquals( DefaultGenericFileService.DEFAULT_PROVIDER_BATCH_PARALLELISM,
+      useCase.service.getProviderBatchParallelism() );
+  }
+
+  @ParameterizedTest
+  @ValueSource( ints = { 0, -1 } )
+  void testSetProviderBatchParallelismRejectsNonPositiveValues( int parallelism ) throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertThrows( IllegalArgumentException.class, () -> useCase.service.setProviderBatchParallelism( parallelism ) );
+  }
+
+  @Test
+  void testRestoreFilesSplitsNativeBatchIntoCallsOfNativeBatchSizeAndRecordsProgress() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    useCase.service.setNativeBatchSize( 2 );
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+
+    List<GenericFilePath> paths = new ArrayList<>();
+    for ( int i = 0; i < 5; i++ ) {
+      paths.add( GenericFilePath.parseRequired( "/folder/file" + i ) );
+    }
+
+    List<Integer> completedCounts = Collections.synchronizedList( new ArrayList<>() );
+    BatchOperationHandle handle =
+      new BatchOperationHandle( progressHandle -> completedCounts.add( progressHandle.getCompletedCount() ) );
+
+    useCase.service.restoreFiles( paths, handle );
+
+    // ---
+
+    InOrder inOrder = inOrder( useCase.provider1Mock );
+    inOrder.verify( useCase.provider1Mock ).restoreFiles( paths.subList( 0, 2 ) );
+    inOrder.verify( useCase.provider1Mock ).restoreFiles( paths.subList( 2, 4 ) );
+    inOrder.verify( useCase.provider1Mock ).restoreFiles( paths.subList( 4, 5 ) );
+
+    assertEquals( 5, handle.getTotalCount() );
+    assertEquals( 5, handle.getCompletedCount() );
+    assertEquals( 0, handle.getFailedCount() );
+    assertTrue( handle.isDone() );
+    // Progress after each call, and then at completion.
+    assertEquals( List.of( 2, 4, 5, 5 ), completedCounts );
+  }
+
+  @Test
+  void testRestoreFilesStopsNativeBatchCallsWhenCancelled() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    useCase.service.setNativeBatchSize( 2 );
+    doReturn( true ).when( useCase.provider1Mock ).hasNativeBatchOperations();
+
+    List<GenericFilePath> paths = new ArrayList<>();
+    for ( int i = 0; i < 5; i++ ) {
+      paths.add( GenericFilePath.parseRequired( "/folder/file" + i ) );
+    }
+
+    BatchOperationHandle handle = new BatchOperationHandle();
+    doAnswer( invocation -> {
+      handle.cancel();
+      return null;
+    } ).when( useCase.provider1Mock ).restoreFiles( anyList() );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> useCase.service.restoreFiles( paths, handle ) );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).restoreFiles( anyList() );
+    assertEquals( Set.copyOf( paths.subList( 2, 5 ) ), exception.getFailedFiles().keySet() );
+    assertInstanceOf( OperationCancelledException.class, exception.getFailedFiles().get( paths.get( 4 ) ) );
+    assertEquals( 5, handle.getCompletedCount() );
+    assertEquals( 3, handle.getFailedCount() );
+    assertTrue( handle.isDone() );
+  }
+
+  @Test
+  void testCopyFilesRecordsTransferredBytesOfPathsOfOtherProviders() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/folder/file1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "scheme://folder/file2" );
+    GenericFilePath destinationFolder = GenericFilePath.parseRequired( "/archive" );
+
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( destinationFolder );
+    mockSourceFile( useCase.provider2Mock, path2 );
+    doAnswer( invocation -> {
+      invocation.getArgument( 1, InputStream.class ).readAllBytes();
+      return null;
+    } ).when( useCase.provider1Mock ).createFile( any(), any( InputStream.class ), any( CreateFileOptions.class ) );
+
+    BatchOperationHandle handle = new BatchOperationHandle();
+    useCase.service.copyFiles( List.of( path1, path2 ), destinationFolder, handle );
+
+    // ---
+
+    assertEquals( 2, handle.getCompletedCount() );
+    assertEquals( 0, handle.getFailedCount() );
+    assertEquals( 3, handle.getTransferredBytes() );
+  }
+
+  @Test
+  void testBatchOperationHandleCannotBeReused() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase( "/", "scheme://" );
+    List<GenericFilePath> paths = List.of( GenericFilePath.parseRequired( "/folder/file1" ) );
+
+    BatchOperationHandle handle = new BatchOperationHandle();
+    useCase.service.deleteFiles( paths, false, handle );
+
+    assertThrows( IllegalStateException.class, () -> useCase.service.deleteFiles( paths, false, handle ) );
+  }
+
+  @Test
+  void testGetNativeBatchSizeDefault() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertEquals( DefaultGenericFileService.DEFAULT_NATIVE_BATCH_SIZE, useCase.service.getNativeBatchSize() );
+  }
+
+  @ParameterizedTest
+  @ValueSource( ints = { 0, -1 } )
+  void testSetNativeBatchSizeRejectsNonPositiveValues( int nativeBatchSize ) throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertThrows( IllegalArgumentException.class, () -> useCase.service.setNativeBatchSize( nativeBatchSize ) );
+  }
+  // endregion
+
+  // region Provider Fan-Out
+  @Test
+  void testGetRootTreesQueriesProvidersConcurrently() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    CountDownLatch bothStarted = new CountDownLatch( 2 );
+
+    doAnswer( invocation -> {
+      bothStarted.countDown();
+      assertTrue( bothStarted.await( 10, TimeUnit.SECONDS ) );
+      return List.of( useCase.tree1Mock, useCase.tree2Mock );
+    } ).when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    doAnswer( invocation -> {
+      bothStarted.countDown();
+      assertTrue( bothStarted.await( 10, TimeUnit.SECONDS ) );
+      return List.of( useCase.tree3Mock, useCase.tree4Mock );
+    } ).when( useCase.provider2Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    List<IGenericFileTree> rootTrees = useCase.service.getRootTrees( useCase.optionsMock );
+
+    // ---
+
+    assertEquals( List.of( useCase.tree1Mock, useCase.tree2Mock, useCase.tree3Mock, useCase.tree4Mock ), rootTrees );
+  }
+
+  @Test
+  void testGetDeletedFilesMergesResultsInProviderOrderWhenLaterProviderCompletesFirst() throws Exception {
+    GetDeletedFilesMultipleProviderUseCase useCase = new GetDeletedFilesMultipleProviderUseCase();
+    CountDownLatch provider2Completed = new CountDownLatch( 1 );
+
+    doAnswer( invocation -> {
+      assertTrue( provider2Completed.await( 10, TimeUnit.SECONDS ) );
+      return List.of( useCase.file1Mock, useCase.file2Mock );
+    } ).when( useCase.provider1Mock ).getDeletedFiles();
+
+    doAnswer( invocation -> {
+      provider2Completed.countDown();
+      return List.of( useCase.file3Mock, useCase.file4Mock );
+    } ).when( useCase.provider2Mock ).getDeletedFiles();
+
+    List<IGenericFile> deletedFiles = useCase.service.getDeletedFiles();
+
+    // ---
+
+    assertEquals( List.of( useCase.file1Mock, useCase.file2Mock, useCase.file3Mock, useCase.file4Mock ),
+      deletedFiles );
+  }
+
+  @Test
+  void testGetTreeFromRootMergesProviderTreesInProviderOrderUsingProviderExecutor() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    AtomicInteger executedCount = new AtomicInteger();
+    useCase.service.setProviderExecutor( runnable -> {
+      executedCount.incrementAndGet();
+      runnable.run();
+    } );
+
+    IGenericFileTree tree1Mock = mock( IGenericFileTree.class );
+    IGenericFileTree tree2Mock = mock( IGenericFileTree.class );
+    doReturn( tree1Mock ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+    doReturn( tree2Mock ).when( useCase.provider2Mock ).getTree( any( GetTreeOptions.class ) );
+
+    GetTreeOptions optionsMock = mock( GetTreeOptions.class );
+    doReturn( true ).when( optionsMock ).includesAllProviders();
+
+    IGenericFileTree rootTree = useCase.service.getTree( optionsMock );
+
+    // ---
+
+    assertEquals( 2, executedCount.get() );
+    assertEquals( List.of( tree1Mock, tree2Mock ), rootTree.getChildren() );
+  }
+
+  @Test
+  void testGetTreeFromRootThrowsFirstProviderExceptionWhenAllProvidersFail() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    CountDownLatch provider2Failed = new CountDownLatch( 1 );
+
+    OperationFailedException exception1 = new OperationFailedException( "1" );
+    OperationFailedException exception2 = new OperationFailedException( "2" );
+
+    doAnswer( invocation -> {
+      assertTrue( provider2Failed.await( 10, TimeUnit.SECONDS ) );
+      throw exception1;
+    } ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+
+    doAnswer( invocation -> {
+      provider2Failed.countDown();
+      throw exception2;
+    } ).when( useCase.provider2Mock ).getTree( any( GetTreeOptions.class ) );
+
+    GetTreeOptions optionsMock = mock( GetTreeOptions.class );
+    doReturn( true ).when( optionsMock ).includesAllProviders();
+
+    OperationFailedException thrown =
+      assertThrows( OperationFailedException.class, () -> useCase.service.getTree( optionsMock ) );
+
+    // ---
+
+    assertSame( exception1, thrown );
+  }
+
+  @Test
+  void testGetRootTreesQueriesProvidersInCurrentThreadWhenProviderExecutorRejects() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderExecutor( runnable -> {
+      throw new RejectedExecutionException();
+    } );
+
+    List<IGenericFileTree> rootTrees = useCase.service.getRootTrees( useCase.optionsMock );
+
+    // ---
+
+    assertEquals( List.of( useCase.tree1Mock, useCase.tree2Mock, useCase.tree3Mock, useCase.tree4Mock ), rootTrees );
+  }
+
+  @Test
+  void testGetRootTreesRethrowsRuntimeExceptionOfProvider() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    IllegalStateException exception = new IllegalStateException();
+
+    doThrow( exception ).when( useCase.provider2Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    IllegalStateException thrown =
+      assertThrows( IllegalStateException.class, () -> useCase.service.getRootTrees( useCase.optionsMock ) );
+
+    // ---
+
+    assertSame( exception, thrown );
+  }
+
+  @Test
+  void testSetProviderExecutorNullRestoresDefaultExecutor() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+    Executor defaultExecutor = useCase.service.getProviderExecutor();
+    Executor executor = Runnable::run;
+
+    useCase.service.setProviderExecutor( executor );
+    assertSame( executor, useCase.service.getProviderExecutor() );
+
+    useCase.service.setProviderExecutor( null );
+    assertSame( defaultExecutor, useCase.service.getProviderExecutor() );
+  }
+
+  private static class ProviderHealthMultipleProviderUseCase extends MultipleProviderUseCase {
+    public final IGenericFileTree tree1Mock;
+    public final IGenericFileTree tree2Mock;
+    public final GetTreeOptions optionsMock;
+
+    public ProviderHealthMultipleProviderUseCase()
+      throws OperationFailedException, InvalidGenericFileProviderException {
+      doReturn( "provider1" ).when( provider1Mock ).getType();
+      doReturn( "provider2" ).when( provider2Mock ).getType();
+
+      tree1Mock = mock( IGenericFileTree.class );
+      tree2Mock = mock( IGenericFileTree.class );
+      doReturn( tree1Mock ).when( provider1Mock ).getTree( any( GetTreeOptions.class ) );
+      doReturn( tree2Mock ).when( provider2Mock ).getTree( any( GetTreeOptions.class ) );
+
+      optionsMock = mock( GetTreeOptions.class );
+      doReturn( true ).when( optionsMock ).includesAllProviders();
+    }
+
+    public Map<String, ProviderStatus> getProviderStatuses( IGenericFileTree rootTree ) {
+      return ( (MultipleProviderRootFile) rootTree.getFile() ).getProviderStatuses();
+    }
+  }
+
+  @Test
+  void testGetTreeFromRootMarksStatusOfEachProvider() throws Exception {
+    ProviderHealthMultipleProviderUseCase useCase = new ProviderHealthMultipleProviderUseCase();
+
+    doThrow( new OperationFailedException() ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+
+    IGenericFileTree rootTree = useCase.service.getTree( useCase.optionsMock );
+
+    // ---
+
+    assertEquals( List.of( useCase.tree2Mock ), rootTree.getChildren() );
+    assertEquals( Map.of( "provider1", ProviderStatus.FAILED, "provider2", ProviderStatus.AVAILABLE ),
+      useCase.getProviderStatuses( rootTree ) );
+  }
+
+  @Test
+  void testGetTreeFromRootReturnsTreesOfHealthyProvidersWhenProviderTimesOut() throws Exception {
+    ProviderHealthMultipleProviderUseCase useCase = new ProviderHealthMultipleProviderUseCase();
+    useCase.service.setProviderTimeout( Duration.ofMillis( 100 ) );
+
+    CountDownLatch provider1Released = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      provider1Released.await( 10, TimeUnit.SECONDS );
+      return useCase.tree1Mock;
+    } ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+
+    try {
+      IGenericFileTree rootTree = useCase.service.getTree( useCase.optionsMock );
+
+      // ---
+
+      assertEquals( List.of( useCase.tree2Mock ), rootTree.getChildren() );
+      assertEquals( Map.of( "provider1", ProviderStatus.TIMED_OUT, "provider2", ProviderStatus.AVAILABLE ),
+        useCase.getProviderStatuses( rootTree ) );
+    } finally {
+      provider1Released.countDown();
+    }
+  }
+
+  @Test
+  void testGetRootTreesMarksProviderWhichTimesOut() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderTimeout( Duration.ofMillis( 100 ) );
+
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doReturn( "Provider 1" ).when( useCase.provider1Mock ).getName();
+
+    CountDownLatch provider1Released = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      provider1Released.await( 10, TimeUnit.SECONDS );
+      return List.of( useCase.tree1Mock, useCase.tree2Mock );
+    } ).when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    try {
+      List<IGenericFileTree> rootTrees = useCase.service.getRootTrees( useCase.optionsMock );
+
+      // ---
+
+      assertEquals( 3, rootTrees.size() );
+      UnavailableProviderRootFile markerFile =
+        assertInstanceOf( UnavailableProviderRootFile.class, rootTrees.get( 0 ).getFile() );
+      assertEquals( ProviderStatus.TIMED_OUT, markerFile.getProviderStatus() );
+      assertEquals( "provider1", markerFile.getProvider() );
+      assertEquals( "Provider 1", markerFile.getName() );
+      assertNull( markerFile.getPath() );
+      assertSame( useCase.tree3Mock, rootTrees.get( 1 ) );
+      assertSame( useCase.tree4Mock, rootTrees.get( 2 ) );
+    } finally {
+      provider1Released.countDown();
+    }
+  }
+
+  @Test
+  void testGetRootTreesMarksProviderSkippedAfterRepeatedFailures() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 1 );
+
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doThrow( new OperationFailedException() )
+      .when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    // A provider which fails is left out.
+    assertEquals( List.of( useCase.tree3Mock, useCase.tree4Mock ),
+      useCase.service.getRootTrees( useCase.optionsMock ) );
+
+    List<IGenericFileTree> rootTrees = useCase.service.getRootTrees( useCase.optionsMock );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).getRootTrees( any( GetTreeOptions.class ) );
+    assertEquals( 3, rootTrees.size() );
+    UnavailableProviderRootFile markerFile =
+      assertInstanceOf( UnavailableProviderRootFile.class, rootTrees.get( 0 ).getFile() );
+    assertEquals( ProviderStatus.UNAVAILABLE, markerFile.getProviderStatus() );
+    assertEquals( "provider1", markerFile.getProvider() );
+    assertSame( useCase.tree3Mock, rootTrees.get( 1 ) );
+    assertSame( useCase.tree4Mock, rootTrees.get( 2 ) );
+  }
+
+  @Test
+  void testGetTreeFromRootSkipsProviderAfterRepeatedFailures() throws Exception {
+    ProviderHealthMultipleProviderUseCase useCase = new ProviderHealthMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 2 );
+
+    doThrow( new OperationFailedException() ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+
+    useCase.service.getTree( useCase.optionsMock );
+    useCase.service.getTree( useCase.optionsMock );
+    IGenericFileTree rootTree = useCase.service.getTree( useCase.optionsMock );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 2 ) ).getTree( any( GetTreeOptions.class ) );
+    assertEquals( List.of( useCase.tree2Mock ), rootTree.getChildren() );
+    assertEquals( Map.of( "provider1", ProviderStatus.UNAVAILABLE, "provider2", ProviderStatus.AVAILABLE ),
+      useCase.getProviderStatuses( rootTree ) );
+  }
+
+  @Test
+  void testGetTreeFromRootThrowsWhenAllProvidersAreSkipped() throws Exception {
+    ProviderHealthMultipleProviderUseCase useCase = new ProviderHealthMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 1 );
+
+    doThrow( new OperationFailedException() ).when( useCase.provider1Mock ).getTree( any( GetTreeOptions.class ) );
+    doThrow( new OperationFailedException() ).when( useCase.provider2Mock ).getTree( any( GetTreeOptions.class ) );
+
+    assertThrows( OperationFailedException.class, () -> useCase.service.getTree( useCase.optionsMock ) );
+    assertThrows( OperationFailedException.class, () -> useCase.service.getTree( useCase.optionsMock ) );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 1 ) ).getTree( any( GetTreeOptions.class ) );
+    verify( useCase.provider2Mock, times( 1 ) ).getTree( any( GetTreeOptions.class ) );
+  }
+
+  @Test
+  void testGetDeletedFilesSkipsProviderAfterTimeouts() throws Exception {
+    GetDeletedFilesMultipleProviderUseCase useCase = new GetDeletedFilesMultipleProviderUseCase();
+    useCase.service.setProviderTimeout( Duration.ofMillis( 100 ) );
+    useCase.service.setProviderFailureThreshold( 1 );
+
+    CountDownLatch provider1Released = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      provider1Released.await( 10, TimeUnit.SECONDS );
+      return List.of( useCase.file1Mock, useCase.file2Mock );
+    } ).when( useCase.provider1Mock ).getDeletedFiles();
+
+    try {
+      assertEquals( List.of( useCase.file3Mock, useCase.file4Mock ), useCase.service.getDeletedFiles() );
+      assertEquals( List.of( useCase.file3Mock, useCase.file4Mock ), useCase.service.getDeletedFiles() );
+
+      // ---
+
+      verify( useCase.provider1Mock, times( 1 ) ).getDeletedFiles();
+    } finally {
+      provider1Released.countDown();
+    }
+  }
+
+  @Test
+  void testGetRootTreesQueriesSkippedProviderAgainAfterRetryDelay() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 1 );
+    useCase.service.setProviderRetryDelay( Duration.ofMillis( 50 ) );
+
+    doThrow( new OperationFailedException() )
+      .doReturn( List.of( useCase.tree1Mock, useCase.tree2Mock ) )
+      .when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    useCase.service.getRootTrees( useCase.optionsMock );
+    assertEquals( ProviderCircuitBreaker.State.OPEN,
+      useCase.service.getProviderCircuitBreaker( useCase.provider1Mock ).getState() );
+
+    Thread.sleep( 100 );
+    List<IGenericFileTree> rootTrees = useCase.service.getRootTrees( useCase.optionsMock );
+
+    // ---
+
+    assertEquals( List.of( useCase.tree1Mock, useCase.tree2Mock, useCase.tree3Mock, useCase.tree4Mock ), rootTrees );
+    assertEquals( ProviderCircuitBreaker.State.CLOSED,
+      useCase.service.getProviderCircuitBreaker( useCase.provider1Mock ).getState() );
+  }
+
+  @Test
+  void testGetRootTreesAppliesTimeoutToSingleSelectedProvider() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderTimeout( Duration.ofMillis( 100 ) );
+
+    doReturn( "provider1" ).when( useCase.provider1Mock ).getType();
+    doReturn( "provider2" ).when( useCase.provider2Mock ).getType();
+    doReturn( false ).when( useCase.optionsMock ).includesAllProviders();
+    doReturn( true ).when( useCase.optionsMock ).includesProviderType( "provider1" );
+
+    CountDownLatch provider1Released = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      provider1Released.await( 10, TimeUnit.SECONDS );
+      return List.of( useCase.tree1Mock );
+    } ).when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    try {
+      OperationFailedException exception =
+        assertThrows( OperationFailedException.class, () -> useCase.service.getRootTrees( useCase.optionsMock ) );
+
+      // ---
+
+      assertInstanceOf( TimeoutException.class, exception.getCause() );
+    } finally {
+      provider1Released.countDown();
+    }
+  }
+
+  @Test
+  void testGetRootTreesDoesNotCountCallerFailuresAgainstProvider() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 1 );
+
+    doThrow( new AccessControlException() )
+      .when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    useCase.service.getRootTrees( useCase.optionsMock );
+    useCase.service.getRootTrees( useCase.optionsMock );
+
+    // ---
+
+    verify( useCase.provider1Mock, times( 2 ) ).getRootTrees( any( GetTreeOptions.class ) );
+    assertEquals( ProviderCircuitBreaker.State.CLOSED,
+      useCase.service.getProviderCircuitBreaker( useCase.provider1Mock ).getState() );
+  }
+
+  @Test
+  void testGetRootTreesReopensCircuitWhenProbeCallIsAbandoned() throws Exception {
+    GetRootTreesMultipleProviderUseCase useCase = new GetRootTreesMultipleProviderUseCase();
+    useCase.service.setProviderFailureThreshold( 1 );
+    useCase.service.setProviderRetryDelay( Duration.ofMillis( 50 ) );
+
+    CountDownLatch provider1Released = new CountDownLatch( 1 );
+    doThrow( new OperationFailedException() )
+      .doAnswer( invocation -> {
+        provider1Released.await( 10, TimeUnit.SECONDS );
+        return List.of( useCase.tree1Mock );
+      } )
+      .when( useCase.provider1Mock ).getRootTrees( any( GetTreeOptions.class ) );
+
+    useCase.service.getRootTrees( useCase.optionsMock );
+    Thread.sleep( 100 );
+
+    // The probe call is abandoned, as the caller is interrupted while waiting for it.
+    Thread.currentThread().interrupt();
+    try {
+      useCase.service.getRootTrees( useCase.optionsMock );
+    } catch ( OperationFailedException e ) {
+      // Expected, if all providers are abandoned.
+    } finally {
+      Thread.interrupted();
+      provider1Released.countDown();
+    }
+
+    // ---
+
+    assertEquals( ProviderCircuitBreaker.State.OPEN,
+      useCase.service.getProviderCircuitBreaker( useCase.provider1Mock ).getState() );
+  }
+
+  @Test
+  void testSetProviderTimeoutThrowsIfNotPositive() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertThrows( IllegalArgumentException.class, () -> useCase.service.setProviderTimeout( Duration.ZERO ) );
+  }
+
+  @Test
+  void testSetProviderFailureThresholdThrowsIfNotPositive() throws Exception {
+    MultipleProviderUseCase useCase = new MultipleProviderUseCase();
+
+    assertThrows( IllegalArgumentException.class, () -> useCase.service.setProviderFailureThreshold( 0 ) );
+    assertEquals( DefaultGenericFileService.DEFAULT_PROVIDER_FAILURE_THRESHOLD,
+      useCase.service.getProviderFailureThreshold() );
+  }
+  // endregion
+
   // region deleteFilePermanently
   private static class DeleteFilesPermanentlyMultipleProviderUseCase extends MultipleProviderUseCase {
     public final GenericFilePath path1;
@@ -1145,16 +2562,22 @@ class DefaultGenericFileServiceTest {
   }
 
   @Test
-  void testCopyFilesUnsupportedOperationException() throws Exception {
+  void testCopyFilesOfDifferentProviderAreTransferredToDestinationProvider() throws Exception {
     CopyFilesMultipleProviderUseCase useCase = new CopyFilesMultipleProviderUseCase();
+    GenericFilePath targetPath = mock( GenericFilePath.class );
 
     doNothing().when( useCase.provider1Mock ).copyFile( any(), any() );
-    doNothing().when( useCase.provider2Mock ).copyFile( any(), any() );
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( useCase.destPath );
+    doReturn( "file21" ).when( useCase.path21 ).getLastSegment();
+    doReturn( targetPath ).when( useCase.destPath ).child( "file21" );
+    mockSourceFile( useCase.provider2Mock, useCase.path21 );
 
     List<GenericFilePath> files = Arrays.asList( useCase.path11, useCase.path21 );
-    assertThrows( UnsupportedOperationException.class, () -> useCase.service.copyFiles( files, useCase.destPath ) );
+    useCase.service.copyFiles( files, useCase.destPath );
 
-    verify( useCase.provider1Mock ).copyFile( any(), any() );
+    verify( useCase.provider1Mock ).copyFile( useCase.path11, useCase.destPath );
+    verify( useCase.provider1Mock ).createFile( eq( targetPath ), any( InputStream.class ),
+      any( CreateFileOptions.class ) );
     verify( useCase.provider2Mock, never() ).copyFile( any(), any() );
   }
   // endregion
@@ -1241,16 +2664,24 @@ class DefaultGenericFileServiceTest {
   }
 
   @Test
-  void testMoveFilesUnsupportedOperationException() throws Exception {
+  void testMoveFilesOfDifferentProviderAreTransferredToDestinationProvider() throws Exception {
     MoveFilesMultipleProviderUseCase useCase = new MoveFilesMultipleProviderUseCase();
+    GenericFilePath targetPath = mock( GenericFilePath.class );
 
     doNothing().when( useCase.provider1Mock ).moveFile( any(), any() );
-    doNothing().when( useCase.provider2Mock ).moveFile( any(), any() );
+    doReturn( true ).when( useCase.provider1Mock ).doesFolderExist( useCase.destPath );
+    doReturn( "file21" ).when( useCase.path21 ).getLastSegment();
+    doReturn( targetPath ).when( useCase.destPath ).child( "file21" );
+    doReturn( mock( IGenericFile.class ) ).when( useCase.provider1Mock ).getFile( eq( targetPath ), any() );
+    mockSourceFile( useCase.provider2Mock, useCase.path21 );
 
     List<GenericFilePath> files = Arrays.asList( useCase.path11, useCase.path21 );
-    assertThrows( UnsupportedOperationException.class, () -> useCase.service.moveFiles( files, useCase.destPath ) );
+    useCase.service.moveFiles( files, useCase.destPath );
 
-    verify( useCase.provider1Mock ).moveFile( any(), any() );
+    verify( useCase.provider1Mock ).moveFile( useCase.path11, useCase.destPath );
+    verify( useCase.provider1Mock ).createFile( eq( targetPath ), any( InputStream.class ),
+      any( CreateFileOptions.class ) );
+    verify( useCase.provider2Mock ).deleteFile( useCase.path21, false );
     verify( useCase.provider2Mock, never() ).moveFile( any(), any() );
   }
   // endregion
@@ -0,0 +1,222 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.BatchOperationHandle;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
+import org.pentaho.platform.api.genericfile.exception.OperationCancelledException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathBatchRunnerTest {
+  final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  static List<GenericFilePath> createPaths( int count ) throws OperationFailedException {
+    List<GenericFilePath> paths = new ArrayList<>();
+    for ( int i = 0; i < count; i++ ) {
+      paths.add( GenericFilePath.parseRequired( "/folder/file" + i ) );
+    }
+
+    return paths;
+  }
+
+  @Test
+  void testRunThrowsIfParallelismIsNotPositive() throws OperationFailedException {
+    List<GenericFilePath> paths = createPaths( 1 );
+    BatchOperationFailedException batchException = new BatchOperationFailedException( "Failed." );
+
+    assertThrows( IllegalArgumentException.class,
+      () -> PathBatchRunner.run( paths, 0, executor, path -> { }, batchException ) );
+  }
+
+  @Test
+  void testRunProcessesEachPathOnceWithAtMostParallelismConcurrentPaths() throws Exception {
+    List<GenericFilePath> paths = createPaths( 20 );
+    List<GenericFilePath> processedPaths = Collections.synchronizedList( new ArrayList<>() );
+    AtomicInteger activeCount = new AtomicInteger();
+    AtomicInteger maxActiveCount = new AtomicInteger();
+    CountDownLatch firstThreeStarted = new CountDownLatch( 3 );
+
+    PathBatchRunner.run( paths, 3, executor, path -> {
+      maxActiveCount.accumulateAndGet( activeCount.incrementAndGet(), Math::max );
+      firstThreeStarted.countDown();
+      try {
+        assertTrue( firstThreeStarted.await( 5, TimeUnit.SECONDS ) );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+
+      processedPaths.add( path );
+      activeCount.decrementAndGet();
+    }, new BatchOperationFailedException( "Failed." ) );
+
+    assertEquals( 3, maxActiveCount.get() );
+    assertEquals( 20, processedPaths.size() );
+    assertTrue( processedPaths.containsAll( paths ) );
+  }
+
+  @Test
+  void testRunAddsFailedPathsToBatchException() throws Exception {
+    List<GenericFilePath> paths = createPaths( 4 );
+    OperationFailedException exception1 = new OperationFailedException( "Failed 1." );
+    OperationFailedException exception3 = new OperationFailedException( "Failed 3." );
+    BatchOperationFailedException batchException = new BatchOperationFailedException( "Failed." );
+
+    PathBatchRunner.run( paths, 4, executor, path -> {
+      if ( path.equals( paths.get( 1 ) ) ) {
+        throw exception1;
+      }
+
+      if ( path.equals( paths.get( 3 ) ) ) {
+        throw exception3;
+      }
+    }, batchException );
+
+    assertEquals( 2, batchException.getFailedFiles().size() );
+    assertSame( exception1, batchException.getFailedFiles().get( paths.get( 1 ) ) );
+    assertSame( exception3, batchException.getFailedFiles().get( paths.get( 3 ) ) );
+    // Suppressed exceptions are added in path order, regardless of completion order.
+    assertEquals( Arrays.asList( exception1, exception3 ), Arrays.asList( batchException.getSuppressed() ) );
+  }
+
+  @Test
+  void testRunRethrowsUncheckedExceptionAndStopsClaimingPaths() throws Exception {
+    List<GenericFilePath> paths = createPaths( 10 );
+    List<GenericFilePath> processedPaths = Collections.synchronizedList( new ArrayList<>() );
+    IllegalStateException exception = new IllegalStateException( "Unexpected." );
+
+    IllegalStateException thrown = assertThrows( IllegalStateException.class,
+      () -> PathBatchRunner.run( paths, 1, executor, path -> {
+        processedPaths.add( path );
+        if ( path.equals( paths.get( 2 ) ) ) {
+          throw exception;
+        }
+      }, new BatchOperationFailedException( "Failed." ) ) );
+
+    assertSame( exception, thrown );
+    assertEquals( paths.subList( 0, 3 ), processedPaths );
+  }
+
+  @Test
+  void testRunDoesNotWaitForWorkersWhichNeverStart() throws Exception {
+    List<GenericFilePath> paths = createPaths( 5 );
+    List<GenericFilePath> processedPaths = Collections.synchronizedList( new ArrayList<>() );
+    List<Runnable> queuedWorkers = new ArrayList<>();
+
+    // An executor whose threads are all busy, and so only queues the workers.
+    PathBatchRunner.run( paths, 3, queuedWorkers::add, processedPaths::add,
+      new BatchOperationFailedException( "Failed." ) );
+
+    assertEquals( paths, processedPaths );
+    assertEquals( 2, queuedWorkers.size() );
+
+    // Workers which run after the runner returns do nothing.
+    queuedWorkers.forEach( Runnable::run );
+    assertEquals( paths, processedPaths );
+  }
+
+  @Test
+  void testRunDoesNotDeadlockWhenNestedOnSingleThreadExecutor() throws Exception {
+    ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
+    try {
+      List<GenericFilePath> paths = createPaths( 4 );
+      AtomicInteger processedCount = new AtomicInteger();
+
+      // The nested runners queue workers behind the outer worker, which occupies the only thread.
+      PathBatchRunner.run( paths, 2, singleThreadExecutor,
+        path -> PathBatchRunner.run( paths, 2, singleThreadExecutor, nestedPath -> processedCount.incrementAndGet(),
+          new BatchOperationFailedException( "Failed." ) ),
+        new BatchOperationFailedException( "Failed." ) );
+
+      assertEquals( 16, processedCount.get() );
+    } finally {
+      singleThreadExecutor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testRunProcessesAllPathsInCurrentThreadWhenExecutorRejectsWorkers() throws Exception {
+    List<GenericFilePath> paths = createPaths( 5 );
+    List<Thread> threads = Collections.synchronizedList( new ArrayList<>() );
+    Executor rejectingExecutor = runnable -> {
+      throw new RejectedExecutionException();
+    };
+
+    PathBatchRunner.run( paths, 4, rejectingExecutor, path -> threads.add( Thread.currentThread() ),
+      new BatchOperationFailedException( "Failed." ) );
+
+    assertEquals( Collections.nCopies( 5, Thread.currentThread() ), threads );
+  }
+
+  @Test
+  void testRunRecordsProgressToHandle() throws Exception {
+    List<GenericFilePath> paths = createPaths( 5 );
+    BatchOperationHandle handle = new BatchOperationHandle();
+
+    PathBatchRunner.run( paths, 2, executor, path -> {
+      if ( path.equals( paths.get( 4 ) ) ) {
+        throw new OperationFailedException( "Failed." );
+      }
+    }, handle, new BatchOperationFailedException( "Failed." ) );
+
+    assertEquals( 5, handle.getCompletedCount() );
+    assertEquals( 1, handle.getFailedCount() );
+  }
+
+  @Test
+  void testRunFailsPathsClaimedAfterCancellation() throws Exception {
+    List<GenericFilePath> paths = createPaths( 5 );
+    List<GenericFilePath> processedPaths = Collections.synchronizedList( new ArrayList<>() );
+    BatchOperationHandle handle = new BatchOperationHandle();
+    BatchOperationFailedException batchException = new BatchOperationFailedException( "Failed." );
+
+    PathBatchRunner.run( paths, 1, executor, path -> {
+      processedPaths.add( path );
+      if ( path.equals( paths.get( 1 ) ) ) {
+        handle.cancel();
+      }
+    }, handle, batchException );
+
+    assertEquals( paths.subList( 0, 2 ), processedPaths );
+    assertEquals( Set.copyOf( paths.subList( 2, 5 ) ), batchException.getFailedFiles().keySet() );
+    assertInstanceOf( OperationCancelledException.class, batchException.getFailedFiles().get( paths.get( 2 ) ) );
+    assertEquals( 5, handle.getCompletedCount() );
+    assertEquals( 3, handle.getFailedCount() );
+  }
+}
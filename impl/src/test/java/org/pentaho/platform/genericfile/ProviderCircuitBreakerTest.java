@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProviderCircuitBreakerTest {
+  static final Duration RETRY_DELAY = Duration.ofSeconds( 30 );
+
+  final AtomicLong clock = new AtomicLong();
+
+  ProviderCircuitBreaker createCircuitBreaker( int failureThreshold ) {
+    return new ProviderCircuitBreaker( failureThreshold, RETRY_DELAY, clock::get );
+  }
+
+  @Test
+  void testConstructorThrowsIfFailureThresholdIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> createCircuitBreaker( 0 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfRetryDelayIsNotPositive() {
+    assertThrows( IllegalArgumentException.class,
+      () -> new ProviderCircuitBreaker( 1, Duration.ZERO, clock::get ) );
+  }
+
+  @Test
+  void testAllowsCallsUntilFailureThresholdIsReached() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 3 );
+
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    assertEquals( ProviderCircuitBreaker.Permit.CALL, circuitBreaker.tryAcquire() );
+    assertEquals( ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState() );
+
+    circuitBreaker.recordFailure();
+    assertEquals( ProviderCircuitBreaker.Permit.DENIED, circuitBreaker.tryAcquire() );
+    assertEquals( ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState() );
+  }
+
+  @Test
+  void testSuccessResetsConsecutiveFailures() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 2 );
+
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordSuccess();
+    circuitBreaker.recordFailure();
+
+    assertEquals( ProviderCircuitBreaker.Permit.CALL, circuitBreaker.tryAcquire() );
+  }
+
+  @Test
+  void testAllowsSingleProbeCallAfterRetryDelay() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 1 );
+    circuitBreaker.recordFailure();
+
+    clock.set( TimeUnit.SECONDS.toNanos( 29 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.DENIED, circuitBreaker.tryAcquire() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+    assertEquals( ProviderCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState() );
+
+    // The probe call is still in progress.
+    assertEquals( ProviderCircuitBreaker.Permit.DENIED, circuitBreaker.tryAcquire() );
+  }
+
+  @Test
+  void testSuccessfulProbeCallClosesCircuit() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 1 );
+    circuitBreaker.recordFailure();
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+    circuitBreaker.recordSuccess();
+
+    assertEquals( ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState() );
+    assertEquals( ProviderCircuitBreaker.Permit.CALL, circuitBreaker.tryAcquire() );
+    assertEquals( ProviderCircuitBreaker.Permit.CALL, circuitBreaker.tryAcquire() );
+  }
+
+  @Test
+  void testFailedProbeCallReopensCircuitForAnotherRetryDelay() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 3 );
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+    circuitBreaker.recordFailure();
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+    circuitBreaker.recordFailure();
+
+    assertEquals( ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 59 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.DENIED, circuitBreaker.tryAcquire() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 60 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+  }
+
+  @Test
+  void testAbandonedProbeCallReopensCircuitForAnotherRetryDelay() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 1 );
+    circuitBreaker.recordFailure();
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+    circuitBreaker.releaseProbe();
+
+    assertEquals( ProviderCircuitBreaker.State.OPEN, circuitBreaker.getState() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 59 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.DENIED, circuitBreaker.tryAcquire() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 60 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+  }
+
+  @Test
+  void testReleaseProbeHasNoEffectAfterOutcomeIsRecorded() {
+    ProviderCircuitBreaker circuitBreaker = createCircuitBreaker( 1 );
+    circuitBreaker.recordFailure();
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertEquals( ProviderCircuitBreaker.Permit.PROBE, circuitBreaker.tryAcquire() );
+    circuitBreaker.recordSuccess();
+    circuitBreaker.releaseProbe();
+
+    assertEquals( ProviderCircuitBreaker.State.CLOSED, circuitBreaker.getState() );
+  }
+}
@@ -0,0 +1,131 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ProviderRoutingIndexTest {
+  static GenericFilePath path( String path ) throws InvalidPathException {
+    return GenericFilePath.parseRequired( path );
+  }
+
+  static IGenericFileProvider<?> createProvider( String... prefixes ) throws InvalidPathException {
+    IGenericFileProvider<?> fileProvider = mock( IGenericFileProvider.class );
+    doReturn( Set.copyOf( GenericFilePath.parseManyRequired( List.of( prefixes ) ) ) )
+      .when( fileProvider ).getOwnedPathPrefixes();
+    return fileProvider;
+  }
+
+  @Test
+  void testGetOwnerReturnsProviderDeclaringFirstSegment() throws InvalidPathException {
+    IGenericFileProvider<?> repositoryProvider = createProvider( "/" );
+    IGenericFileProvider<?> schemeProvider = createProvider( "scheme://" );
+    ProviderRoutingIndex index = new ProviderRoutingIndex( List.of( repositoryProvider, schemeProvider ) );
+
+    assertEquals( Optional.of( repositoryProvider ), index.getOwner( path( "/public/a" ) ) );
+    assertEquals( Optional.of( schemeProvider ), index.getOwner( path( "scheme://folder/a" ) ) );
+    assertEquals( Optional.of( schemeProvider ), index.getOwner( path( "scheme://" ) ) );
+    assertTrue( index.getOwner( path( "other://folder/a" ) ).isEmpty() );
+  }
+
+  @Test
+  void testGetOwnerReturnsProviderDeclaringConnectionPrefix() throws InvalidPathException {
+    IGenericFileProvider<?> connection1Provider = createProvider( "scheme://connection1" );
+    IGenericFileProvider<?> connection2Provider = createProvider( "scheme://connection2" );
+    ProviderRoutingIndex index = new ProviderRoutingIndex( List.of( connection1Provider, connection2Provider ) );
+
+    assertEquals( Optional.of( connection1Provider ), index.getOwner( path( "scheme://connection1/a" ) ) );
+    assertEquals( Optional.of( connection2Provider ), index.getOwner( path( "scheme://connection2" ) ) );
+    assertTrue( index.getOwner( path( "scheme://connection3/a" ) ).isEmpty() );
+    assertTrue( index.getOwner( path( "scheme://" ) ).isEmpty() );
+  }
+
+  @Test
+  void testGetOwnerReturnsFirstProviderWhenPrefixesOverlap() throws InvalidPathException {
+    IGenericFileProvider<?> connectionProvider = createProvider( "scheme://connection" );
+    IGenericFileProvider<?> schemeProvider = createProvider( "scheme://" );
+    ProviderRoutingIndex index = new ProviderRoutingIndex( List.of( connectionProvider, schemeProvider ) );
+
+    assertEquals( Optional.of( connectionProvider ), index.getOwner( path( "scheme://connection/a" ) ) );
+    assertEquals( Optional.of( schemeProvider ), index.getOwner( path( "scheme://other/a" ) ) );
+  }
+
+  @Test
+  void testGetOwnerAsksUndeclaredProvidersOnlyBeforeDeclaredOwner() throws InvalidPathException {
+    IGenericFileProvider<?> undeclared1Provider = createProvider();
+    IGenericFileProvider<?> repositoryProvider = createProvider( "/" );
+    IGenericFileProvider<?> undeclared2Provider = createProvider();
+    ProviderRoutingIndex index =
+      new ProviderRoutingIndex( List.of( undeclared1Provider, repositoryProvider, undeclared2Provider ) );
+
+    assertEquals( Optional.of( repositoryProvider ), index.getOwner( path( "/public/a" ) ) );
+
+    verify( undeclared1Provider ).owns( path( "/public/a" ) );
+    verify( undeclared2Provider, never() ).owns( any( GenericFilePath.class ) );
+  }
+
+  @Test
+  void testGetOwnerReturnsUndeclaredProviderWhichOwnsPath() throws InvalidPathException {
+    IGenericFileProvider<?> repositoryProvider = createProvider( "/" );
+    IGenericFileProvider<?> undeclaredProvider = createProvider();
+    doReturn( true ).when( undeclaredProvider ).owns( path( "scheme://folder/a" ) );
+    ProviderRoutingIndex index = new ProviderRoutingIndex( List.of( repositoryProvider, undeclaredProvider ) );
+
+    assertEquals( Optional.of( undeclaredProvider ), index.getOwner( path( "scheme://folder/a" ) ) );
+    assertTrue( index.getOwner( path( "other://folder/a" ) ).isEmpty() );
+  }
+
+  @Test
+  void testGetOwnerWithFilterReturnsFirstMatchingProviderWhenPrefixesOverlap() throws InvalidPathException {
+    IGenericFileProvider<?> connectionProvider = createProvider( "scheme://connection" );
+    IGenericFileProvider<?> scheme1Provider = createProvider( "scheme://" );
+    IGenericFileProvider<?> scheme2Provider = createProvider( "scheme://" );
+    ProviderRoutingIndex index =
+      new ProviderRoutingIndex( List.of( connectionProvider, scheme1Provider, scheme2Provider ) );
+
+    assertEquals( Optional.of( scheme1Provider ),
+      index.getOwner( path( "scheme://connection/a" ), fileProvider -> fileProvider != connectionProvider ) );
+    assertEquals( Optional.of( scheme2Provider ),
+      index.getOwner( path( "scheme://connection/a" ), fileProvider -> fileProvider == scheme2Provider ) );
+    assertTrue( index.getOwner( path( "scheme://connection/a" ), fileProvider -> false ).isEmpty() );
+  }
+
+  @Test
+  void testGetOwnerWithFilterAsksOnlyMatchingUndeclaredProviders() throws InvalidPathException {
+    IGenericFileProvider<?> undeclared1Provider = createProvider();
+    IGenericFileProvider<?> undeclared2Provider = createProvider();
+    doReturn( true ).when( undeclared1Provider ).owns( path( "scheme://folder/a" ) );
+    doReturn( true ).when( undeclared2Provider ).owns( path( "scheme://folder/a" ) );
+    ProviderRoutingIndex index = new ProviderRoutingIndex( List.of( undeclared1Provider, undeclared2Provider ) );
+
+    assertEquals( Optional.of( undeclared2Provider ),
+      index.getOwner( path( "scheme://folder/a" ), fileProvider -> fileProvider == undeclared2Provider ) );
+
+    verify( undeclared1Provider, never() ).owns( any( GenericFilePath.class ) );
+  }
+}
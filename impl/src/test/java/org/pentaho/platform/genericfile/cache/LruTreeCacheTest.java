@@ -0,0 +1,473 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+import org.pentaho.platform.genericfile.model.BaseGenericFile;
+import org.pentaho.platform.genericfile.model.BaseGenericFileTree;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.pentaho.platform.api.genericfile.model.IGenericFile.TYPE_FOLDER;
+
+/**
+ * Tests for the {@link LruTreeCache} class.
+ */
+class LruTreeCacheTest {
+
+  static TreeCacheKey createKey( String basePath ) throws InvalidPathException {
+    return createKey( TreeCacheKey.SHARED_PARTITION, basePath );
+  }
+
+  static TreeCacheKey createKey( String partition, String basePath ) throws InvalidPathException {
+    GetTreeOptions options = new GetTreeOptions();
+    options.setBasePath( basePath );
+    return new TreeCacheKey( partition, options );
+  }
+
+  /**
+   * Creates a sample tree with a root and the given number of children.
+   */
+  static BaseGenericFileTree createSampleTree( String path, int childCount ) {
+    BaseGenericFileTree tree = createSampleFileTree( path );
+
+    for ( int i = 0; i < childCount; i++ ) {
+      tree.addChild( createSampleFileTree( path + "/child" + i ) );
+    }
+
+    return tree;
+  }
+
+  static BaseGenericFileTree createSampleFileTree( String path ) {
+    BaseGenericFile file = new BaseGenericFile();
+    file.setPath( path );
+    file.setType( TYPE_FOLDER );
+    return new BaseGenericFileTree( file );
+  }
+
+  @Test
+  void testConstructorThrowsIfMaxEntriesIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new LruTreeCache( 0, 10 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfMaxNodesIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new LruTreeCache( 10, 0 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfMaxPartitionEntriesIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new LruTreeCache( 10, 10, 0, 10 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfMaxPartitionNodesIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new LruTreeCache( 10, 10, 10, 0 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfSoftTtlIsNotPositive() {
+    assertThrows( IllegalArgumentException.class,
+      () -> new LruTreeCache( 10, 10, 10, 10, Duration.ZERO, null ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfHardTtlIsNotPositive() {
+    assertThrows( IllegalArgumentException.class,
+      () -> new LruTreeCache( 10, 10, 10, 10, null, Duration.ofSeconds( -1 ) ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfSoftTtlIsNotLessThanHardTtl() {
+    assertThrows( IllegalArgumentException.class,
+      () -> new LruTreeCache( 10, 10, 10, 10, Duration.ofMinutes( 1 ), Duration.ofMinutes( 1 ) ) );
+  }
+
+  @Test
+  void testConstructorLimitsDefaultPartitionBudgetToBudget() {
+    LruTreeCache cache = new LruTreeCache( 10, 20 );
+
+    assertEquals( 10, cache.getMaxPartitionEntries() );
+    assertEquals( 20, cache.getMaxPartitionNodes() );
+  }
+
+  @Test
+  void testGetReturnsStoredTree() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+
+    cache.put( createKey( "/a" ), tree );
+
+    assertSame( tree, cache.get( createKey( "/a" ) ) );
+    assertNull( cache.get( createKey( "/b" ) ) );
+    assertEquals( 1, cache.size() );
+    assertEquals( 3, cache.getNodeCount() );
+  }
+
+  @Test
+  void testPutReplacesExistingEntryAndItsNodeCount() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    BaseGenericFileTree tree2 = createSampleTree( "/a", 1 );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 4 ) );
+    cache.put( createKey( "/a" ), tree2 );
+
+    assertSame( tree2, cache.get( createKey( "/a" ) ) );
+    assertEquals( 1, cache.size() );
+    assertEquals( 2, cache.getNodeCount() );
+  }
+
+  @Test
+  void testPutEvictsLeastRecentlyUsedEntryWhenOverEntryBudget() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 2, 100 );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 0 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 0 ) );
+
+    // Access /a, so that /b becomes the least recently used.
+    cache.get( createKey( "/a" ) );
+
+    cache.put( createKey( "/c" ), createSampleTree( "/c", 0 ) );
+
+    assertEquals( 2, cache.size() );
+    assertNull( cache.get( createKey( "/b" ) ) );
+    assertEquals( "/a", cache.get( createKey( "/a" ) ).getFile().getPath() );
+    assertEquals( "/c", cache.get( createKey( "/c" ) ).getFile().getPath() );
+  }
+
+  @Test
+  void testPutEvictsLeastRecentlyUsedEntriesWhenOverNodeBudget() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 10, 10 );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 3 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 3 ) );
+    assertEquals( 8, cache.getNodeCount() );
+
+    cache.put( createKey( "/c" ), createSampleTree( "/c", 4 ) );
+
+    assertNull( cache.get( createKey( "/a" ) ) );
+    assertEquals( 2, cache.size() );
+    assertEquals( 9, cache.getNodeCount() );
+  }
+
+  @Test
+  void testPutDoesNotStoreTreeLargerThanNodeBudget() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 10, 5 );
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 5 ) );
+
+    assertNull( cache.get( createKey( "/b" ) ) );
+    // Other entries are kept.
+    assertEquals( 1, cache.size() );
+    assertEquals( 2, cache.getNodeCount() );
+  }
+
+  @Test
+  void testClearRemovesAllEntries() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 1 ) );
+
+    cache.clear();
+
+    assertEquals( 0, cache.size() );
+    assertEquals( 0, cache.getNodeCount() );
+    assertNull( cache.get( createKey( "/a" ) ) );
+  }
+
+  @Test
+  void testEstimateNodeCountCountsAllLevels() {
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+    tree.getChildren().get( 0 ).addChild( createSampleTree( "/a/child0/x", 2 ) );
+
+    assertEquals( 6, LruTreeCache.estimateNodeCount( tree ) );
+  }
+
+  @Test
+  void testEstimateNodeCountCountsSharedSubtreesOnce() {
+    BaseGenericFileTree tree = createSampleTree( "/a", 1 );
+    BaseGenericFileTree shared = createSampleTree( "/a/child0/x", 1 );
+    tree.getChildren().get( 0 ).addChild( shared );
+    tree.addChild( shared );
+
+    assertEquals( 4, LruTreeCache.estimateNodeCount( tree ) );
+  }
+
+  @Test
+  void testInvalidateRemovesOnlyAffectedEntries() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 2 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 2 ) );
+
+    cache.invalidate( GenericFilePath.parseRequired( "/a/new" ) );
+
+    assertNull( cache.get( createKey( "/a" ) ) );
+    assertEquals( "/b", cache.get( createKey( "/b" ) ).getFile().getPath() );
+    assertEquals( 1, cache.size() );
+    assertEquals( 3, cache.getNodeCount() );
+  }
+
+  @Test
+  void testIsAffectedByPathOutsideTreeIsFalse() throws InvalidPathException {
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+
+    assertFalse( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/b/child0" ) ) );
+    assertFalse( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/b" ) ) );
+  }
+
+  @Test
+  void testIsAffectedByRootOrAncestorOfRootIsTrue() throws InvalidPathException {
+    BaseGenericFileTree tree = createSampleTree( "/a/b", 2 );
+
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/b" ) ) );
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a" ) ) );
+  }
+
+  @Test
+  void testIsAffectedByPathWhoseParentChildrenAreIncludedIsTrue() throws InvalidPathException {
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+    tree.getChildren().get( 0 ).addChild( createSampleFileTree( "/a/child0/x" ) );
+
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/child1" ) ) );
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/new" ) ) );
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/child0/y" ) ) );
+  }
+
+  @Test
+  void testIsAffectedByPathWhoseParentChildrenAreNotIncludedIsFalse() throws InvalidPathException {
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+
+    assertFalse( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/child0/x" ) ) );
+    assertFalse( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/child0/x/y" ) ) );
+  }
+
+  @Test
+  void testIsAffectedByPathWithMissingAncestorInIncludedChildrenIsTrue() throws InvalidPathException {
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+
+    // /a/new may have been created along with /a/new/x.
+    assertTrue( LruTreeCache.isAffectedBy( tree, GenericFilePath.parseRequired( "/a/new/x" ) ) );
+  }
+
+  @Test
+  void testGetDoesNotReturnTreeOfOtherPartition() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    BaseGenericFileTree tree = createSampleTree( "/a", 2 );
+
+    cache.put( createKey( "user:alice", "/a" ), tree );
+
+    assertSame( tree, cache.get( createKey( "user:alice", "/a" ) ) );
+    assertNull( cache.get( createKey( "user:bob", "/a" ) ) );
+    assertNull( cache.get( createKey( "/a" ) ) );
+  }
+
+  @Test
+  void testPutEvictsLeastRecentlyUsedEntryOfSamePartitionWhenOverPartitionEntryBudget()
+    throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 10, 100, 2, 100 );
+
+    // The least recently used entry overall, but of another partition.
+    cache.put( createKey( "user:bob", "/a" ), createSampleTree( "/a", 0 ) );
+    cache.put( createKey( "user:alice", "/a" ), createSampleTree( "/a", 0 ) );
+    cache.put( createKey( "user:alice", "/b" ), createSampleTree( "/b", 0 ) );
+    cache.put( createKey( "user:alice", "/c" ), createSampleTree( "/c", 0 ) );
+
+    assertEquals( 3, cache.size() );
+    assertEquals( 2, cache.size( "user:alice" ) );
+    assertEquals( 1, cache.size( "user:bob" ) );
+    assertNull( cache.get( createKey( "user:alice", "/a" ) ) );
+    assertEquals( "/a", cache.get( createKey( "user:bob", "/a" ) ).getFile().getPath() );
+  }
+
+  @Test
+  void testPutEvictsLeastRecentlyUsedEntriesOfSamePartitionWhenOverPartitionNodeBudget()
+    throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 10, 100, 10, 5 );
+
+    cache.put( createKey( "user:bob", "/a" ), createSampleTree( "/a", 4 ) );
+    cache.put( createKey( "user:alice", "/a" ), createSampleTree( "/a", 2 ) );
+    cache.put( createKey( "user:alice", "/b" ), createSampleTree( "/b", 2 ) );
+
+    assertNull( cache.get( createKey( "user:alice", "/a" ) ) );
+    assertEquals( 1, cache.size( "user:alice" ) );
+    assertEquals( 1, cache.size( "user:bob" ) );
+    assertEquals( 8, cache.getNodeCount() );
+  }
+
+  @Test
+  void testPutDoesNotStoreTreeLargerThanPartitionNodeBudget() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 10, 100, 10, 5 );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 5 ) );
+
+    assertEquals( 0, cache.size() );
+    assertEquals( 0, cache.size( TreeCacheKey.SHARED_PARTITION ) );
+  }
+
+  @Test
+  void testInvalidateRemovesAffectedEntriesOfAllPartitions() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    cache.put( createKey( "user:alice", "/a" ), createSampleTree( "/a", 2 ) );
+    cache.put( createKey( "user:bob", "/a" ), createSampleTree( "/a", 2 ) );
+    cache.put( createKey( "user:bob", "/b" ), createSampleTree( "/b", 2 ) );
+
+    cache.invalidate( GenericFilePath.parseRequired( "/a/new" ) );
+
+    assertEquals( 1, cache.size() );
+    assertEquals( 0, cache.size( "user:alice" ) );
+    assertEquals( 1, cache.size( "user:bob" ) );
+  }
+
+  @Test
+  void testInvalidateRemovesEntriesRootedInsideChangedPathAndKeepsUnrelatedOnes() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+    cache.put( createKey( "/a/child0" ), createSampleTree( "/a/child0", 1 ) );
+    cache.put( createKey( "/a/child0/x/y" ), createSampleTree( "/a/child0/x/y", 1 ) );
+    cache.put( createKey( "/a/child1" ), createSampleTree( "/a/child1", 1 ) );
+    cache.put( createKey( "scheme://a/child0" ), createSampleTree( "scheme://a/child0", 1 ) );
+
+    cache.invalidate( GenericFilePath.parseRequired( "/a/child0" ) );
+
+    assertNull( cache.get( createKey( "/a/child0" ) ) );
+    assertNull( cache.get( createKey( "/a/child0/x/y" ) ) );
+    assertNotNull( cache.get( createKey( "/a/child1" ) ) );
+    assertNotNull( cache.get( createKey( "scheme://a/child0" ) ) );
+    assertEquals( 2, cache.getInvalidationCount() );
+  }
+
+  @Test
+  void testInvalidateIgnoresEvictedEntries() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache( 1, 100 );
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 1 ) );
+
+    cache.invalidate( GenericFilePath.parseRequired( "/a/child0" ) );
+
+    assertEquals( 0, cache.getInvalidationCount() );
+    assertNotNull( cache.get( createKey( "/b" ) ) );
+  }
+
+  static LruTreeCache createExpiringCache( AtomicLong clock ) {
+    return new LruTreeCache( 10, 100, 10, 100, Duration.ofSeconds( 10 ), Duration.ofSeconds( 60 ), clock::get );
+  }
+
+  @Test
+  void testIsStaleIsFalseWithoutTtl() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+
+    assertFalse( cache.isStale( createKey( "/a" ) ) );
+    assertNull( cache.getSoftTtl() );
+    assertNull( cache.getHardTtl() );
+  }
+
+  @Test
+  void testIsStaleIsFalseForMissingEntry() throws InvalidPathException {
+    assertFalse( createExpiringCache( new AtomicLong() ).isStale( createKey( "/a" ) ) );
+  }
+
+  @Test
+  void testGetReturnsStaleEntryAfterSoftTtl() throws InvalidPathException {
+    AtomicLong clock = new AtomicLong();
+    LruTreeCache cache = createExpiringCache( clock );
+    BaseGenericFileTree tree = createSampleTree( "/a", 1 );
+
+    cache.put( createKey( "/a" ), tree );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 9 ) );
+    assertFalse( cache.isStale( createKey( "/a" ) ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 10 ) );
+    assertTrue( cache.isStale( createKey( "/a" ) ) );
+    assertSame( tree, cache.get( createKey( "/a" ) ) );
+  }
+
+  @Test
+  void testGetRemovesEntryAfterHardTtl() throws InvalidPathException {
+    AtomicLong clock = new AtomicLong();
+    LruTreeCache cache = createExpiringCache( clock );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 60 ) );
+
+    assertNull( cache.get( createKey( "/a" ) ) );
+    assertEquals( 0, cache.size() );
+    assertEquals( 0, cache.getNodeCount() );
+    assertEquals( 0, cache.size( TreeCacheKey.SHARED_PARTITION ) );
+  }
+
+  @Test
+  void testPutRestartsEntryAge() throws InvalidPathException {
+    AtomicLong clock = new AtomicLong();
+    LruTreeCache cache = createExpiringCache( clock );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 30 ) );
+    assertTrue( cache.isStale( createKey( "/a" ) ) );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+    assertFalse( cache.isStale( createKey( "/a" ) ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 80 ) );
+    assertNotNull( cache.get( createKey( "/a" ) ) );
+  }
+
+  @Test
+  void testEvictionCountCountsBudgetEvictionsAndExpiredEntries() throws InvalidPathException {
+    AtomicLong clock = new AtomicLong();
+    LruTreeCache cache =
+      new LruTreeCache( 2, 100, 2, 100, Duration.ofSeconds( 10 ), Duration.ofSeconds( 60 ), clock::get );
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 0 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 0 ) );
+    cache.put( createKey( "/c" ), createSampleTree( "/c", 0 ) );
+    assertEquals( 1, cache.getEvictionCount() );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 60 ) );
+    cache.get( createKey( "/b" ) );
+    assertEquals( 2, cache.getEvictionCount() );
+    assertEquals( 0, cache.getInvalidationCount() );
+  }
+
+  @Test
+  void testInvalidationCountCountsEntriesRemovedByInvalidateAndClear() throws InvalidPathException {
+    LruTreeCache cache = new LruTreeCache();
+
+    cache.put( createKey( "/a" ), createSampleTree( "/a", 1 ) );
+    cache.put( createKey( "/b" ), createSampleTree( "/b", 1 ) );
+    cache.put( createKey( "/c" ), createSampleTree( "/c", 1 ) );
+
+    cache.invalidate( GenericFilePath.parseRequired( "/a/child0" ) );
+    assertEquals( 1, cache.getInvalidationCount() );
+
+    cache.clear();
+    assertEquals( 3, cache.getInvalidationCount() );
+    assertEquals( 0, cache.getEvictionCount() );
+  }
+}
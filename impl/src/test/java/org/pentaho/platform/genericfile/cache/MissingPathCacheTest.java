@@ -0,0 +1,147 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.GenericFilePath;
+import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MissingPathCacheTest {
+  static final String PARTITION_1 = "user:admin";
+  static final String PARTITION_2 = "user:suzy";
+
+  static GenericFilePath path( String path ) throws InvalidPathException {
+    return GenericFilePath.parseRequired( path );
+  }
+
+  @Test
+  void testConstructorThrowsIfTtlIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new MissingPathCache( Duration.ZERO, 10 ) );
+  }
+
+  @Test
+  void testConstructorThrowsIfMaxEntriesIsNotPositive() {
+    assertThrows( IllegalArgumentException.class, () -> new MissingPathCache( Duration.ofSeconds( 1 ), 0 ) );
+  }
+
+  @Test
+  void testIsMissingOnlyForRecordedPathAndPartition() throws InvalidPathException {
+    MissingPathCache cache = new MissingPathCache();
+
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+    assertFalse( cache.isMissing( PARTITION_2, path( "/public/a" ) ) );
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/b" ) ) );
+  }
+
+  @Test
+  void testIsMissingExpiresAfterTtl() throws InvalidPathException {
+    AtomicLong clock = new AtomicLong();
+    MissingPathCache cache = new MissingPathCache( Duration.ofSeconds( 5 ), 10, clock::get );
+
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 4 ) );
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+
+    clock.set( TimeUnit.SECONDS.toNanos( 5 ) );
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  void testPutMissingEvictsOldestEntriesBeyondBudget() throws InvalidPathException {
+    MissingPathCache cache = new MissingPathCache( Duration.ofSeconds( 5 ), 2 );
+
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+    cache.putMissing( PARTITION_1, path( "/public/b" ) );
+    cache.putMissing( PARTITION_1, path( "/public/c" ) );
+
+    assertEquals( 2, cache.size() );
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/c" ) ) );
+  }
+
+  @Test
+  void testInvalidateRemovesPathAncestorsAndDescendantsInAllPartitions() throws InvalidPathException {
+    MissingPathCache cache = new MissingPathCache();
+
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+    cache.putMissing( PARTITION_2, path( "/public/a/b" ) );
+    cache.putMissing( PARTITION_1, path( "/public/a/b/c" ) );
+    cache.putMissing( PARTITION_1, path( "/public/ab" ) );
+    cache.putMissing( PARTITION_1, path( "/public/d" ) );
+
+    cache.invalidate( path( "/public/a/b" ) );
+
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+    assertFalse( cache.isMissing( PARTITION_2, path( "/public/a/b" ) ) );
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/a/b/c" ) ) );
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/ab" ) ) );
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/d" ) ) );
+  }
+
+  @Test
+  void testInvalidateAfterEvictionsRemovesOnlyRemainingAffectedEntries() throws InvalidPathException {
+    MissingPathCache cache = new MissingPathCache( Duration.ofSeconds( 5 ), 3 );
+
+    cache.putMissing( PARTITION_1, path( "/public/a/b" ) );
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+    cache.putMissing( PARTITION_2, path( "/public/a/b" ) );
+    // Evicts /public/a/b of partition 1.
+    cache.putMissing( PARTITION_1, path( "/public/c" ) );
+    // Re-recording moves the entry to the end, and so /public/a is evicted next.
+    cache.putMissing( PARTITION_2, path( "/public/a/b" ) );
+    cache.putMissing( PARTITION_1, path( "/public/a/b/d" ) );
+
+    assertEquals( 3, cache.size() );
+    assertFalse( cache.isMissing( PARTITION_1, path( "/public/a" ) ) );
+
+    cache.invalidate( path( "/public/a" ) );
+
+    assertEquals( 1, cache.size() );
+    assertTrue( cache.isMissing( PARTITION_1, path( "/public/c" ) ) );
+
+    // Invalidating paths which are not recorded changes nothing.
+    cache.invalidate( path( "/public/a/b" ) );
+    cache.invalidate( path( "/home" ) );
+
+    assertEquals( 1, cache.size() );
+
+    cache.invalidate( path( "/" ) );
+
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  void testClearRemovesAllEntries() throws InvalidPathException {
+    MissingPathCache cache = new MissingPathCache();
+
+    cache.putMissing( PARTITION_1, path( "/public/a" ) );
+    cache.putMissing( PARTITION_2, path( "/public/b" ) );
+
+    cache.clear();
+
+    assertEquals( 0, cache.size() );
+  }
+}
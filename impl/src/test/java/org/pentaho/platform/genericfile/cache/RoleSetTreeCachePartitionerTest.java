@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the {@link RoleSetTreeCachePartitioner} class.
+ */
+class RoleSetTreeCachePartitionerTest {
+  @AfterEach
+  void afterEach() {
+    SecurityContextHolder.clearContext();
+  }
+
+  static void setAuthenticationRoles( String... roles ) {
+    List<GrantedAuthority> authorities = new ArrayList<>();
+    for ( String role : roles ) {
+      authorities.add( new SimpleGrantedAuthority( role ) );
+    }
+
+    Authentication authentication = mock( Authentication.class );
+    doReturn( authorities ).when( authentication ).getAuthorities();
+    SecurityContextHolder.getContext().setAuthentication( authentication );
+  }
+
+  @Test
+  void testGetPartitionIsSharedByUsersWithSameRolesInAnyOrder() {
+    RoleSetTreeCachePartitioner partitioner = new RoleSetTreeCachePartitioner();
+
+    setAuthenticationRoles( "Authenticated", "Report Author", "Authenticated" );
+    String partition1 = partitioner.getPartition();
+
+    setAuthenticationRoles( "Report Author", "Authenticated" );
+    String partition2 = partitioner.getPartition();
+
+    assertEquals( partition1, partition2 );
+  }
+
+  @Test
+  void testGetPartitionIsDistinctForDifferentRoles() {
+    RoleSetTreeCachePartitioner partitioner = new RoleSetTreeCachePartitioner();
+
+    setAuthenticationRoles( "Authenticated", "Report Author" );
+    String partition1 = partitioner.getPartition();
+
+    setAuthenticationRoles( "Authenticated", "Administrator" );
+    String partition2 = partitioner.getPartition();
+
+    assertNotEquals( partition1, partition2 );
+  }
+
+  @Test
+  void testGetPartitionUsesFallbackPartitionerWhenNoAuthentication() {
+    RoleSetTreeCachePartitioner partitioner = new RoleSetTreeCachePartitioner( () -> "fallback" );
+
+    assertEquals( "fallback", partitioner.getPartition() );
+  }
+
+  @Test
+  void testGetFingerprintIsUnambiguous() {
+    String fingerprint1 = RoleSetTreeCachePartitioner.getFingerprint( new TreeSet<>( List.of( "a,b" ) ) );
+    String fingerprint2 = RoleSetTreeCachePartitioner.getFingerprint( new TreeSet<>( List.of( "a", "b" ) ) );
+
+    assertNotEquals( fingerprint1, fingerprint2 );
+  }
+}
@@ -0,0 +1,216 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link SingleFlight} class.
+ */
+class SingleFlightTest {
+  static final int FOLLOWER_COUNT = 5;
+
+  /**
+   * Waits until the given number of load calls are waiting on the in-flight load.
+   */
+  static void awaitFollowers( List<Thread> threads, int count ) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 10 );
+    while ( threads.stream().filter( thread -> thread.getState() == Thread.State.WAITING ).count() < count ) {
+      assertTrue( System.nanoTime() < deadline, "Followers did not start waiting." );
+      Thread.sleep( 5 );
+    }
+  }
+
+  static void awaitLatch( CountDownLatch latch ) throws OperationFailedException {
+    try {
+      assertTrue( latch.await( 10, TimeUnit.SECONDS ) );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new OperationFailedException( e );
+    }
+  }
+
+  @Test
+  void testLoadCallsLoaderAndReturnsItsValue() throws OperationFailedException {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    assertEquals( "value", singleFlight.load( "key", () -> "value", UnaryOperator.identity() ) );
+    assertEquals( 0, singleFlight.getInFlightCount() );
+  }
+
+  @Test
+  void testLoadAfterCompletedLoadCallsLoaderAgain() throws OperationFailedException {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    AtomicInteger loadCount = new AtomicInteger();
+
+    singleFlight.load( "key", () -> "value" + loadCount.incrementAndGet(), UnaryOperator.identity() );
+    String value = singleFlight.load( "key", () -> "value" + loadCount.incrementAndGet(), UnaryOperator.identity() );
+
+    assertEquals( "value2", value );
+    assertEquals( 2, loadCount.get() );
+  }
+
+  @Test
+  void testLoadPropagatesLoaderException() {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    OperationFailedException exception = new OperationFailedException( "Load failed." );
+
+    OperationFailedException thrown = assertThrows( OperationFailedException.class,
+      () -> singleFlight.load( "key", () -> {
+        throw exception;
+      }, UnaryOperator.identity() ) );
+
+    assertSame( exception, thrown );
+    assertEquals( 0, singleFlight.getInFlightCount() );
+  }
+
+  @Test
+  void testNestedLoadOfSameKeyInSameThreadDoesNotWaitForItself() throws OperationFailedException {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    String value = singleFlight.load( "key",
+      () -> "outer-" + singleFlight.load( "key", () -> "inner", UnaryOperator.identity() ),
+      UnaryOperator.identity() );
+
+    assertEquals( "outer-inner", value );
+  }
+
+  @Test
+  void testConcurrentLoadsOfEqualKeysShareSingleLoad() throws Exception {
+    SingleFlight<String, StringBuilder> singleFlight = new SingleFlight<>();
+    AtomicInteger loadCount = new AtomicInteger();
+    CountDownLatch leaderStarted = new CountDownLatch( 1 );
+    CountDownLatch releaseLeader = new CountDownLatch( 1 );
+    List<Thread> followerThreads = new CopyOnWriteArrayList<>();
+
+    ExecutorService executor = Executors.newFixedThreadPool( FOLLOWER_COUNT + 1 );
+    try {
+      Future<StringBuilder> leaderResult = executor.submit( () -> singleFlight.load( "key", () -> {
+        loadCount.incrementAndGet();
+        leaderStarted.countDown();
+        awaitLatch( releaseLeader );
+        return new StringBuilder( "value" );
+      }, StringBuilder::new ) );
+
+      assertTrue( leaderStarted.await( 10, TimeUnit.SECONDS ) );
+
+      List<Future<StringBuilder>> followerResults = new ArrayList<>();
+      for ( int i = 0; i < FOLLOWER_COUNT; i++ ) {
+        followerResults.add( executor.submit( () -> {
+          followerThreads.add( Thread.currentThread() );
+
+          return singleFlight.load( "key", () -> {
+            loadCount.incrementAndGet();
+            return new StringBuilder( "other" );
+          }, StringBuilder::new );
+        } ) );
+      }
+
+      awaitFollowers( followerThreads, FOLLOWER_COUNT );
+      releaseLeader.countDown();
+
+      StringBuilder leaderValue = leaderResult.get( 10, TimeUnit.SECONDS );
+      assertEquals( "value", leaderValue.toString() );
+
+      for ( Future<StringBuilder> followerResult : followerResults ) {
+        StringBuilder followerValue = followerResult.get( 10, TimeUnit.SECONDS );
+
+        assertEquals( "value", followerValue.toString() );
+        // Each follower gets its own copy.
+        assertTrue( followerValue != leaderValue );
+      }
+
+      assertEquals( 1, loadCount.get() );
+      assertEquals( 0, singleFlight.getInFlightCount() );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testConcurrentLoadsOfEqualKeysShareLoaderException() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    OperationFailedException exception = new OperationFailedException( "Load failed." );
+    CountDownLatch leaderStarted = new CountDownLatch( 1 );
+    CountDownLatch releaseLeader = new CountDownLatch( 1 );
+    List<Thread> followerThreads = new CopyOnWriteArrayList<>();
+
+    ExecutorService executor = Executors.newFixedThreadPool( 2 );
+    try {
+      executor.submit( () -> singleFlight.load( "key", () -> {
+        leaderStarted.countDown();
+        awaitLatch( releaseLeader );
+        throw exception;
+      }, UnaryOperator.identity() ) );
+
+      assertTrue( leaderStarted.await( 10, TimeUnit.SECONDS ) );
+
+      Future<OperationFailedException> followerResult = executor.submit( () -> {
+        followerThreads.add( Thread.currentThread() );
+
+        return assertThrows( OperationFailedException.class,
+          () -> singleFlight.load( "key", () -> "other", UnaryOperator.identity() ) );
+      } );
+
+      awaitFollowers( followerThreads, 1 );
+      releaseLeader.countDown();
+
+      assertSame( exception, followerResult.get( 10, TimeUnit.SECONDS ) );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testConcurrentLoadsOfDifferentKeysAreNotShared() throws Exception {
+    SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    CountDownLatch bothStarted = new CountDownLatch( 2 );
+
+    ExecutorService executor = Executors.newFixedThreadPool( 2 );
+    try {
+      Future<String> result1 = executor.submit( () -> singleFlight.load( "key1", () -> {
+        bothStarted.countDown();
+        awaitLatch( bothStarted );
+        return "value1";
+      }, UnaryOperator.identity() ) );
+
+      Future<String> result2 = executor.submit( () -> singleFlight.load( "key2", () -> {
+        bothStarted.countDown();
+        awaitLatch( bothStarted );
+        return "value2";
+      }, UnaryOperator.identity() ) );
+
+      assertEquals( "value1", result1.get( 10, TimeUnit.SECONDS ) );
+      assertEquals( "value2", result2.get( 10, TimeUnit.SECONDS ) );
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
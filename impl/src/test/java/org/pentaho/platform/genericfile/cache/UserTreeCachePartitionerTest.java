@@ -0,0 +1,65 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the {@link UserTreeCachePartitioner} class.
+ */
+class UserTreeCachePartitionerTest {
+  @AfterEach
+  void afterEach() {
+    PentahoSessionHolder.removeSession();
+  }
+
+  static void setSessionUser( String userName ) {
+    IPentahoSession session = mock( IPentahoSession.class );
+    doReturn( userName ).when( session ).getName();
+    PentahoSessionHolder.setSession( session );
+  }
+
+  @Test
+  void testGetPartitionIsDistinctPerUser() {
+    UserTreeCachePartitioner partitioner = new UserTreeCachePartitioner();
+
+    setSessionUser( "alice" );
+    String alicePartition = partitioner.getPartition();
+
+    setSessionUser( "bob" );
+    String bobPartition = partitioner.getPartition();
+
+    assertEquals( "user:alice", alicePartition );
+    assertNotEquals( alicePartition, bobPartition );
+  }
+
+  @Test
+  void testGetPartitionIsSharedPartitionWhenNoSession() {
+    assertEquals( TreeCacheKey.SHARED_PARTITION, new UserTreeCachePartitioner().getPartition() );
+  }
+
+  @Test
+  void testGetPartitionIsSharedPartitionWhenSessionHasNoUser() {
+    setSessionUser( null );
+
+    assertEquals( TreeCacheKey.SHARED_PARTITION, new UserTreeCachePartitioner().getPartition() );
+  }
+}
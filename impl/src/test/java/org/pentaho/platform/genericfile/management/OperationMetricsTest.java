@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.OperationStatistics;
+import org.pentaho.platform.api.genericfile.exception.NotFoundException;
+import org.pentaho.platform.api.genericfile.exception.OperationFailedException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link OperationMetrics} and {@link LatencyHistogram} classes.
+ */
+class OperationMetricsTest {
+  /**
+   * Creates operation metrics whose clock advances by the given time on each reading.
+   */
+  static OperationMetrics createMetrics( long timeNanosPerReading ) {
+    AtomicLong time = new AtomicLong();
+    return new OperationMetrics( () -> time.addAndGet( timeNanosPerReading ) );
+  }
+
+  @Nested
+  class TimingTests {
+    @Test
+    void testTimeCallRecordsCallsUnderProviderTypeAndOperation() throws OperationFailedException {
+      OperationMetrics metrics = createMetrics( 100 );
+
+      assertEquals( "result", metrics.timeCall( "repository", GenericFileOperation.GET_TREE, () -> "result" ) );
+      metrics.timeRun( "repository", GenericFileOperation.GET_TREE, () -> { } );
+
+      List<OperationStatistics> statistics = metrics.getStatistics();
+      assertEquals( 1, statistics.size() );
+      assertEquals( "repository", statistics.get( 0 ).getProviderType() );
+      assertEquals( "getTree", statistics.get( 0 ).getOperation() );
+      assertEquals( 2, statistics.get( 0 ).getCallCount() );
+      assertEquals( 0, statistics.get( 0 ).getErrorCount() );
+      assertEquals( 200, statistics.get( 0 ).getTotalTimeNanos() );
+      assertEquals( 100, statistics.get( 0 ).getAverageTimeNanos() );
+      assertEquals( 100, statistics.get( 0 ).getMaxTimeNanos() );
+    }
+
+    @Test
+    void testTimeCallRecordsErrorsAndRethrowsThem() {
+      OperationMetrics metrics = createMetrics( 100 );
+
+      assertThrows( NotFoundException.class, () -> metrics.timeCall( "vfs", GenericFileOperation.GET_FILE_CONTENT,
+        () -> {
+          throw new NotFoundException( "Not found." );
+        } ) );
+      assertThrows( IllegalStateException.class, () -> metrics.timeRun( "vfs", GenericFileOperation.GET_FILE_CONTENT,
+        () -> {
+          throw new IllegalStateException();
+        } ) );
+
+      OperationStatistics statistics = metrics.getStatistics().get( 0 );
+      assertEquals( "getFileContent", statistics.getOperation() );
+      assertEquals( 2, statistics.getCallCount() );
+      assertEquals( 2, statistics.getErrorCount() );
+    }
+
+    @Test
+    void testStatisticsOfServiceComeFirst() {
+      OperationMetrics metrics = createMetrics( 100 );
+      metrics.record( "repository", GenericFileOperation.GET_FILE, 50, false );
+      metrics.record( null, GenericFileOperation.GET_FILE, 100, false );
+
+      List<OperationStatistics> statistics = metrics.getStatistics();
+
+      assertEquals( 2, statistics.size() );
+      assertNull( statistics.get( 0 ).getProviderType() );
+      assertEquals( 100, statistics.get( 0 ).getTotalTimeNanos() );
+      assertEquals( "repository", statistics.get( 1 ).getProviderType() );
+      assertEquals( 50, statistics.get( 1 ).getTotalTimeNanos() );
+    }
+  }
+
+  @Test
+  void testPercentilesAreEstimatedFromLatencyHistogram() {
+    OperationMetrics metrics = createMetrics( 100 );
+    for ( int i = 1; i <= 100; i++ ) {
+      metrics.record( null, GenericFileOperation.GET_TREE, i * 1_000_000L, false );
+    }
+
+    OperationStatistics statistics = metrics.getStatistics().get( 0 );
+
+    assertEquals( 100_000_000L, statistics.getMaxTimeNanos() );
+    assertWithinHistogramPrecision( 50_000_000L, statistics.getP50TimeNanos() );
+    assertWithinHistogramPrecision( 95_000_000L, statistics.getP95TimeNanos() );
+    assertWithinHistogramPrecision( 99_000_000L, statistics.getP99TimeNanos() );
+  }
+
+  @Test
+  void testResetRemovesStatistics() {
+    OperationMetrics metrics = createMetrics( 100 );
+    metrics.record( null, GenericFileOperation.GET_TREE, 100, false );
+
+    metrics.reset();
+
+    assertTrue( metrics.getStatistics().isEmpty() );
+  }
+
+  static void assertWithinHistogramPrecision( long expected, long actual ) {
+    assertTrue( actual >= expected && actual <= expected + expected / LatencyHistogram.SUB_BUCKET_COUNT,
+      "Expected " + actual + " to be within 12.5% above " + expected );
+  }
+
+  @Nested
+  class LatencyHistogramTests {
+    @Test
+    void testSmallValuesAreExact() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      histogram.record( 3 );
+      histogram.record( 5 );
+
+      assertEquals( 3, histogram.getPercentile( 50 ) );
+      assertEquals( 5, histogram.getPercentile( 100 ) );
+    }
+
+    @Test
+    void testBucketsCoverAllValuesWithBoundedError() {
+      long[] values = { 8, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE };
+
+      for ( long value : values ) {
+        long highestValue = LatencyHistogram.getBucketHighestValue( LatencyHistogram.getBucketIndex( value ) );
+        assertTrue( highestValue >= value, "Bucket of " + value );
+        assertTrue( highestValue - value <= value / LatencyHistogram.SUB_BUCKET_COUNT, "Bucket of " + value );
+      }
+    }
+
+    @Test
+    void testEmptyHistogramAndReset() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals( 0, histogram.getPercentile( 99 ) );
+
+      histogram.record( 1_000 );
+      histogram.reset();
+
+      assertEquals( 0, histogram.getPercentile( 99 ) );
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.platform.genericfile.management;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link OperationStatisticsMBeanRegistrar} and {@link OperationStatisticsBean} classes.
+ */
+class OperationStatisticsMBeanRegistrarTest {
+  @Test
+  void testRegisterExposesOperationStatistics() throws Exception {
+    MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+
+    OperationMetrics metrics = new OperationMetrics();
+    metrics.record( "repository", GenericFileOperation.GET_TREE, 100, false );
+    metrics.record( "repository", GenericFileOperation.GET_TREE, 300, true );
+
+    OperationStatisticsMBeanRegistrar registrar = new OperationStatisticsMBeanRegistrar( metrics, mbeanServer );
+    registrar.register();
+
+    ObjectName name = OperationStatisticsMBeanRegistrar.getObjectName();
+    assertTrue( mbeanServer.isRegistered( name ) );
+
+    CompositeData[] operations = (CompositeData[]) mbeanServer.getAttribute( name, "Operations" );
+    assertEquals( 1, operations.length );
+    assertEquals( "repository", operations[ 0 ].get( "providerType" ) );
+    assertEquals( "getTree", operations[ 0 ].get( "operation" ) );
+    assertEquals( 2L, operations[ 0 ].get( "callCount" ) );
+    assertEquals( 1L, operations[ 0 ].get( "errorCount" ) );
+    assertEquals( 200L, operations[ 0 ].get( "averageTimeNanos" ) );
+
+    mbeanServer.invoke( name, "reset", null, null );
+    assertTrue( metrics.getStatistics().isEmpty() );
+
+    registrar.unregister();
+
+    assertFalse( mbeanServer.isRegistered( name ) );
+  }
+}
@@ -0,0 +1,88 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.management;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.IGenericFileProvider;
+import org.pentaho.platform.api.genericfile.TreeCacheStatistics;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the {@link TreeCacheStatisticsMBeanRegistrar} and {@link TreeCacheStatisticsBean} classes.
+ */
+class TreeCacheStatisticsMBeanRegistrarTest {
+  static IGenericFileProvider<?> createProvider( String type, TreeCacheStatistics statistics ) {
+    IGenericFileProvider<?> provider = mock( IGenericFileProvider.class );
+    doReturn( type ).when( provider ).getType();
+    doReturn( statistics ).when( provider ).getTreeCacheStatistics();
+    return provider;
+  }
+
+  @Test
+  void testRegisterExposesStatisticsOfCachingProviders() throws Exception {
+    MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+
+    TreeCacheStatistics statistics = new TreeCacheStatistics();
+    statistics.setHitCount( 3 );
+    statistics.setMissCount( 1 );
+    statistics.setLoadCount( 2 );
+    statistics.setTotalLoadTimeNanos( 100 );
+
+    TreeCacheStatisticsMBeanRegistrar registrar = new TreeCacheStatisticsMBeanRegistrar(
+      List.of( createProvider( "repository", statistics ), createProvider( "vfs", null ) ),
+      mbeanServer );
+
+    registrar.register();
+
+    ObjectName repositoryName = TreeCacheStatisticsMBeanRegistrar.getObjectName( "repository" );
+    assertTrue( mbeanServer.isRegistered( repositoryName ) );
+    assertFalse( mbeanServer.isRegistered( TreeCacheStatisticsMBeanRegistrar.getObjectName( "vfs" ) ) );
+
+    assertEquals( "repository", mbeanServer.getAttribute( repositoryName, "ProviderType" ) );
+    assertEquals( 3L, mbeanServer.getAttribute( repositoryName, "HitCount" ) );
+    assertEquals( 0.75, mbeanServer.getAttribute( repositoryName, "HitRatio" ) );
+    assertEquals( 50L, mbeanServer.getAttribute( repositoryName, "AverageLoadTimeNanos" ) );
+
+    registrar.unregister();
+
+    assertFalse( mbeanServer.isRegistered( repositoryName ) );
+  }
+
+  @Test
+  void testRegisterReplacesExistingMBeanOfSameProviderType() throws Exception {
+    MBeanServer mbeanServer = MBeanServerFactory.newMBeanServer();
+
+    TreeCacheStatistics statistics1 = new TreeCacheStatistics();
+    statistics1.setHitCount( 1 );
+    TreeCacheStatistics statistics2 = new TreeCacheStatistics();
+    statistics2.setHitCount( 2 );
+
+    new TreeCacheStatisticsMBeanRegistrar( List.of( createProvider( "repository", statistics1 ) ), mbeanServer )
+      .register();
+    new TreeCacheStatisticsMBeanRegistrar( List.of( createProvider( "repository", statistics2 ) ), mbeanServer )
+      .register();
+
+    ObjectName repositoryName = TreeCacheStatisticsMBeanRegistrar.getObjectName( "repository" );
+    assertEquals( 2L, mbeanServer.getAttribute( repositoryName, "HitCount" ) );
+  }
+}
@@ -0,0 +1,53 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.platform.genericfile.model;
+
+import org.junit.jupiter.api.Test;
+import org.pentaho.platform.api.genericfile.model.IGenericFileTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImmutableGenericFileTreeTest {
+  @Test
+  void testConstructorCopiesChildren() {
+    BaseGenericFileTree child = new BaseGenericFileTree( new BaseGenericFile() );
+    List<IGenericFileTree> children = new ArrayList<>( List.of( child ) );
+
+    ImmutableGenericFileTree tree = new ImmutableGenericFileTree( new BaseGenericFile(), children );
+    children.clear();
+
+    assertEquals( 1, tree.getChildren().size() );
+    assertSame( child, tree.getChildren().get( 0 ) );
+  }
+
+  @Test
+  void testConstructorWithNullChildren() {
+    assertNull( new ImmutableGenericFileTree( new BaseGenericFile(), null ).getChildren() );
+  }
+
+  @Test
+  void testChildrenCannotBeChanged() {
+    ImmutableGenericFileTree tree = new ImmutableGenericFileTree( new BaseGenericFile(), List.of() );
+    BaseGenericFileTree child = new BaseGenericFileTree( new BaseGenericFile() );
+
+    assertThrows( UnsupportedOperationException.class, () -> tree.setChildren( null ) );
+    assertThrows( UnsupportedOperationException.class, () -> tree.addChild( child ) );
+    assertThrows( UnsupportedOperationException.class, () -> tree.getChildren().add( child ) );
+  }
+}
@@ -15,17 +15,24 @@ package org.pentaho.platform.genericfile.providers.repository;
 
 import com.google.common.net.MediaType;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.NullSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
+import org.pentaho.platform.api.engine.IPentahoSession;
+import org.pentaho.platform.api.genericfile.FindOptions;
 import org.pentaho.platform.api.genericfile.GenericFilePath;
 import org.pentaho.platform.api.genericfile.GenericFilePermission;
 import org.pentaho.platform.api.genericfile.GenericFilePrincipalType;
 import org.pentaho.platform.api.genericfile.GetFileOptions;
+import org.pentaho.platform.api.genericfile.GetFilesResult;
 import org.pentaho.platform.api.genericfile.GetTreeOptions;
+import org.pentaho.platform.api.genericfile.ListFolderOptions;
+import org.pentaho.platform.api.genericfile.ListFolderResult;
 import org.pentaho.platform.api.genericfile.exception.AccessControlException;
+import org.pentaho.platform.api.genericfile.exception.BatchOperationFailedException;
 import org.pentaho.platform.api.genericfile.exception.ConflictException;
 import org.pentaho.platform.api.genericfile.exception.InvalidOperationException;
 import org.pentaho.platform.api.genericfile.exception.InvalidPathException;
@@ -54,6 +61,8 @@ import org.pentaho.platform.api.repository2.unified.webservices.RepositoryFileAc
 import org.pentaho.platform.api.repository2.unified.webservices.RepositoryFileDto;
 import org.pentaho.platform.api.repository2.unified.webservices.RepositoryFileTreeDto;
 import org.pentaho.platform.api.repository2.unified.webservices.StringKeyStringValueDto;
+import org.pentaho.platform.engine.core.system.PentahoSessionHolder;
+import org.pentaho.platform.genericfile.cache.LruTreeCache;
 import org.pentaho.platform.genericfile.messages.Messages;
 import org.pentaho.platform.genericfile.model.BaseGenericFileMetadata;
 import org.pentaho.platform.genericfile.providers.repository.model.RepositoryObject;
@@ -67,11 +76,14 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -87,6 +99,7 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -379,6 +392,32 @@ class RepositoryFileProviderTest {
   // endregion
 
   // region getTree
+  @Test
+  void testGetTreeCachePartitionUsesGivenPartitioner() {
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider(
+      mock( IUnifiedRepository.class ),
+      mock( FileService.class ),
+      new LruTreeCache(),
+      () -> "roles:partition" );
+
+    assertEquals( "roles:partition", repositoryProvider.getTreeCachePartition() );
+  }
+
+  @Test
+  void testGetTreeCachePartitionIsPerUserByDefault() {
+    RepositoryFileProvider repositoryProvider =
+      new RepositoryFileProvider( mock( IUnifiedRepository.class ), mock( FileService.class ) );
+
+    IPentahoSession session = mock( IPentahoSession.class );
+    doReturn( "alice" ).when( session ).getName();
+    PentahoSessionHolder.setSession( session );
+    try {
+      assertEquals( "user:alice", repositoryProvider.getTreeCachePartition() );
+    } finally {
+      PentahoSessionHolder.removeSession();
+    }
+  }
+
   @Test
   void testGetTreeThrowsNotFoundExceptionIfBasePathNotOwned() throws OperationFailedException {
     RepositoryFileProvider repositoryProvider =
@@ -990,6 +1029,417 @@ class RepositoryFileProviderTest {
   }
   // endregion
 
+  // region getFiles
+  @NonNull
+  private static RepositoryFileDto createOwnedNativeFileDto( String path, String name ) {
+    RepositoryFileDto nativeFile = createNativeFileDto( path, name, false );
+    nativeFile.setId( name + "Id" );
+    nativeFile.setOwner( "admin" );
+    return nativeFile;
+  }
+
+  @Test
+  void testGetFilesResolvesPathsOfSameFolderFromSingleListing() throws OperationFailedException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( List.of(
+      createOwnedNativeFileDto( "/public/a", "a" ),
+      createOwnedNativeFileDto( "/public/b", "b" ),
+      createOwnedNativeFileDto( "/public/c", "c" ),
+      createOwnedNativeFileDto( "/public/d", "d" ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/public" ), ALL_FILTER, true, true );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    List<GenericFilePath> paths = List.of(
+      GenericFilePath.parseRequired( "/public/c" ),
+      GenericFilePath.parseRequired( "/public/a" ),
+      GenericFilePath.parseRequired( "/public/b" ) );
+
+    GetFilesResult result = repositoryProvider.getFiles( paths, new GetFileOptions() );
+
+    assertFalse( result.hasErrors() );
+    assertEquals( paths, new ArrayList<>( result.getFiles().keySet() ) );
+
+    IGenericFile file = result.getFile( GenericFilePath.parseRequired( "/public/a" ) );
+    assertNotNull( file );
+    assertEquals( "/public/a", file.getPath() );
+    assertEquals( "/public", file.getParentPath() );
+    assertEquals( "admin", file.getOwner() );
+
+    verify( fileServiceMock, times( 1 ) ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    verify( repositoryMock, never() ).getFile( anyString() );
+    verify( repositoryMock, never() ).getAcl( any() );
+  }
+
+  @Test
+  void testGetFilesReportsPathsMissingFromListingAsNotFound() throws OperationFailedException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( List.of( createOwnedNativeFileDto( "/public/a", "a" ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/public" ), ALL_FILTER, true, true );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    GenericFilePath missingPath = GenericFilePath.parseRequired( "/public/missing" );
+    List<GenericFilePath> paths = List.of(
+      GenericFilePath.parseRequired( "/public/a" ),
+      missingPath,
+      GenericFilePath.parseRequired( "/public/other" ) );
+
+    GetFilesResult result = repositoryProvider.getFiles( paths, new GetFileOptions() );
+
+    assertEquals( 1, result.getFiles().size() );
+    assertEquals( 2, result.getErrors().size() );
+    assertInstanceOf( NotFoundException.class, result.getErrors().get( missingPath ) );
+
+    // Missing paths are remembered.
+    assertThrows( NotFoundException.class, () -> repositoryProvider.getFile( missingPath, new GetFileOptions() ) );
+    verify( repositoryMock, never() ).getFile( anyString() );
+  }
+
+  @Test
+  void testGetFilesResolvesPathsOneAtATimeWhenFolderListingFails() throws OperationFailedException {
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/public/a" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/public/b" );
+    GenericFilePath path3 = GenericFilePath.parseRequired( "/public/c" );
+
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doThrow( UnifiedRepositoryAccessDeniedException.class )
+      .when( fileServiceMock ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    doReturn( createNativeFile( "1", path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doReturn( createNativeFile( "2", path2, false ) ).when( repositoryMock ).getFile( path2.toString() );
+    doThrow( UnifiedRepositoryAccessDeniedException.class ).when( repositoryMock ).getFile( path3.toString() );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    GetFilesResult result = repositoryProvider.getFiles( List.of( path1, path2, path3 ), new GetFileOptions() );
+
+    assertEquals( "/public/a", result.getFiles().get( path1 ).getPath() );
+    assertEquals( "/public/b", result.getFiles().get( path2 ).getPath() );
+    assertInstanceOf( AccessControlException.class, result.getErrors().get( path3 ) );
+  }
+
+  @Test
+  void testGetFilesResolvesFewPathsOfSameFolderOneAtATime() throws OperationFailedException {
+    GenericFilePath path1 = GenericFilePath.parseRequired( "/public/testFile1" );
+    GenericFilePath path2 = GenericFilePath.parseRequired( "/home/testFile2" );
+    GenericFilePath notOwnedPath = GenericFilePath.parseRequired( "scheme://path" );
+
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( createNativeFile( "1", path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doThrow( UnifiedRepositoryAccessDeniedException.class ).when( repositoryMock ).getFile( path2.toString() );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    GetFilesResult result =
+      repositoryProvider.getFiles( List.of( path1, path2, notOwnedPath ), new GetFileOptions() );
+
+    assertEquals( "/public/testFile1", result.getFiles().get( path1 ).getPath() );
+    assertInstanceOf( AccessControlException.class, result.getErrors().get( path2 ) );
+    assertInstanceOf( NotFoundException.class, result.getErrors().get( notOwnedPath ) );
+    verify( fileServiceMock, never() ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+  }
+
+  @Test
+  void testGetFilesIncludesMetadataOfEachFileWhenEnabled() throws Exception {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( List.of(
+      createOwnedNativeFileDto( "/public/a", "a" ),
+      createOwnedNativeFileDto( "/public/b", "b" ),
+      createOwnedNativeFileDto( "/public/c", "c" ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/public" ), ALL_FILTER, true, true );
+
+    StringKeyStringValueDto metadatum = new StringKeyStringValueDto();
+    metadatum.setKey( "key" );
+    metadatum.setValue( "value" );
+    doReturn( List.of( metadatum ) ).when( fileServiceMock ).doGetMetadata( anyString() );
+    doThrow( FileNotFoundException.class ).when( fileServiceMock ).doGetMetadata( encodeRepositoryPath( "/public/b" ) );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    GetFileOptions options = new GetFileOptions();
+    options.setIncludeMetadata( true );
+
+    GetFilesResult result = repositoryProvider.getFiles( List.of(
+      GenericFilePath.parseRequired( "/public/a" ),
+      GenericFilePath.parseRequired( "/public/b" ),
+      GenericFilePath.parseRequired( "/public/c" ) ), options );
+
+    IGenericFile file = result.getFile( GenericFilePath.parseRequired( "/public/c" ) );
+    assertNotNull( file );
+    assertEquals( "value", ( (RepositoryObject) file ).getMetadata().getMetadata().get( "key" ) );
+    assertTrue( result.getErrors().containsKey( GenericFilePath.parseRequired( "/public/b" ) ) );
+    assertEquals( 2, result.getFiles().size() );
+  }
+  // endregion
+
+  // region listFolder
+  @NonNull
+  private static List<RepositoryFile> createNativeChildren( String folderPath, int count )
+    throws InvalidPathException {
+    List<RepositoryFile> nativeChildren = new ArrayList<>();
+    for ( int i = count; i > 0; i-- ) {
+      nativeChildren.add( createNativeFile( "id" + i, GenericFilePath.parse( folderPath + "/file" + i ), false ) );
+    }
+
+    return nativeChildren;
+  }
+
+  @Test
+  void testListFolderConvertsOnlyTheFilesOfThePage() throws OperationFailedException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    GenericFilePath folderPath = GenericFilePath.parseRequired( "/public/archive" );
+    doReturn( createNativeFile( "folderId", folderPath, true ) ).when( repositoryMock ).getFile( "/public/archive" );
+    doReturn( createNativeChildren( "/public/archive", 5 ) )
+      .when( repositoryMock ).getChildren( "folderId", ALL_FILTER, false );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    ListFolderOptions options = new ListFolderOptions();
+    options.setPageSize( 2 );
+
+    ListFolderResult page1 = repositoryProvider.listFolder( folderPath, options );
+
+    assertEquals(
+      List.of( "/public/archive/file1", "/public/archive/file2" ),
+      page1.getFiles().stream().map( IGenericFile::getPath ).toList() );
+    assertEquals( "/public/archive", page1.getFiles().get( 0 ).getParentPath() );
+    assertTrue( page1.hasMore() );
+
+    // Only the owners of the files of the page are obtained.
+    verify( repositoryMock, times( 2 ) ).getAcl( any() );
+    verify( fileServiceMock, never() ).doGetTree( anyString(), any(), anyString(), anyBoolean(), anyBoolean(),
+      anyBoolean() );
+
+    options.setCursor( page1.getNextCursor() );
+    ListFolderResult page2 = repositoryProvider.listFolder( folderPath, options );
+
+    options.setCursor( page2.getNextCursor() );
+    ListFolderResult page3 = repositoryProvider.listFolder( folderPath, options );
+
+    assertEquals(
+      List.of( "/public/archive/file3", "/public/archive/file4" ),
+      page2.getFiles().stream().map( IGenericFile::getPath ).toList() );
+    assertEquals(
+      List.of( "/public/archive/file5" ),
+      page3.getFiles().stream().map( IGenericFile::getPath ).toList() );
+    assertNull( page3.getNextCursor() );
+  }
+
+  @Test
+  void testListFolderOfFileThrowsNotFound() throws InvalidPathException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    GenericFilePath filePath = GenericFilePath.parse( "/public/file1" );
+    doReturn( createNativeFile( "fileId", filePath, false ) ).when( repositoryMock ).getFile( "/public/file1" );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+    ListFolderOptions options = new ListFolderOptions();
+
+    assertThrows( NotFoundException.class, () -> repositoryProvider.listFolder( filePath, options ) );
+    verify( repositoryMock, never() ).getChildren( any(), anyString(), anyBoolean() );
+  }
+
+  @Test
+  void testListFolderThrowsAccessControlExceptionWhenChildrenAccessIsDenied() throws InvalidPathException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    GenericFilePath folderPath = GenericFilePath.parse( "/public/archive" );
+    doReturn( createNativeFile( "folderId", folderPath, true ) ).when( repositoryMock ).getFile( "/public/archive" );
+    doThrow( UnifiedRepositoryAccessDeniedException.class )
+      .when( repositoryMock ).getChildren( any(), anyString(), anyBoolean() );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+    ListFolderOptions options = new ListFolderOptions();
+
+    assertThrows( AccessControlException.class, () -> repositoryProvider.listFolder( folderPath, options ) );
+  }
+  // endregion
+
+  // region find
+  @NonNull
+  private static List<String> getPaths( @NonNull List<IGenericFile> files ) {
+    return files.stream().map( IGenericFile::getPath ).toList();
+  }
+
+  /**
+   * Stubs the base folder and the folder listings of the native tree of a scenario, ignoring the repository filter.
+   */
+  @NonNull
+  private static RepositoryFileProvider createFindRepositoryProvider( @NonNull NativeDtoRepositoryScenario scenario,
+                                                                      @NonNull IUnifiedRepository repositoryMock,
+                                                                      @NonNull FileService fileServiceMock )
+    throws InvalidPathException {
+    doReturn( createNativeFile( "rootId", GenericFilePath.parseRequired( ROOT_PATH ), true ) )
+      .when( repositoryMock ).getFile( ROOT_PATH );
+
+    doAnswer( invocation -> {
+      RepositoryFileTreeDto nativeTree = findNativeTree( scenario.rootTree, invocation.getArgument( 0 ) );
+      if ( nativeTree == null || nativeTree.getChildren() == null ) {
+        return List.of();
+      }
+
+      return nativeTree.getChildren().stream().map( RepositoryFileTreeDto::getFile ).toList();
+    } ).when( fileServiceMock ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+
+    return new RepositoryFileProvider( repositoryMock, fileServiceMock );
+  }
+
+  @Nullable
+  private static RepositoryFileTreeDto findNativeTree( @NonNull RepositoryFileTreeDto nativeTree,
+                                                       @NonNull String encodedPath ) {
+    if ( encodedPath.equals( encodeRepositoryPath( nativeTree.getFile().getPath() ) ) ) {
+      return nativeTree;
+    }
+
+    if ( nativeTree.getChildren() != null ) {
+      for ( RepositoryFileTreeDto nativeChildTree : nativeTree.getChildren() ) {
+        RepositoryFileTreeDto result = findNativeTree( nativeChildTree, encodedPath );
+        if ( result != null ) {
+          return result;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Test
+  void testFindPushesNamePatternOfFilesToRepositoryFilterOfListingsAtMaxDepth() throws OperationFailedException {
+    NativeDtoRepositoryScenario scenario = new NativeDtoRepositoryScenario();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider =
+      createFindRepositoryProvider( scenario, repositoryMock, fileServiceMock );
+
+    FindOptions options = new FindOptions();
+    options.setFilter( GetTreeOptions.TreeFilter.FILES );
+    options.setNamePattern( "test*" );
+    options.setMaxDepth( 2 );
+
+    List<IGenericFile> files = repositoryProvider.find( GenericFilePath.parseRequired( ROOT_PATH ), options );
+
+    assertEquals( List.of( "/public/testFile1" ), getPaths( files ) );
+    assertEquals( "/public", files.get( 0 ).getParentPath() );
+    // Folders are listed regardless of their name, so that their subfolders are searched.
+    verify( fileServiceMock, times( 1 ) ).doGetChildren( ENCODED_ROOT_PATH, ALL_FILTER, false, false );
+    verify( fileServiceMock, times( 1 ) )
+      .doGetChildren( encodeRepositoryPath( "/public" ), "test*|FILES", false, false );
+    verify( fileServiceMock, times( 3 ) ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+  }
+
+  @Test
+  void testFindEvaluatesCriteriaWhichAreNotPushedAndGetsOnlyTheOwnersOfCandidates()
+    throws OperationFailedException {
+    NativeDtoRepositoryScenario scenario = new NativeDtoRepositoryScenario();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider =
+      spy( createFindRepositoryProvider( scenario, repositoryMock, fileServiceMock ) );
+    doReturn( "admin" ).when( repositoryProvider ).getOwnerByFileId( any() );
+
+    FindOptions options = new FindOptions();
+    options.setNamePattern( "test?older*" );
+    options.setOwner( "admin" );
+
+    List<IGenericFile> files = repositoryProvider.find( GenericFilePath.parseRequired( ROOT_PATH ), options );
+
+    assertEquals( List.of( "/public/testFolder2" ), getPaths( files ) );
+    assertEquals( "admin", files.get( 0 ).getOwner() );
+    // Each folder is listed once: /, /home, /public and /public/testFolder2.
+    verify( fileServiceMock, times( 4 ) ).doGetChildren( anyString(), eq( ALL_FILTER ), eq( false ), eq( false ) );
+    verify( repositoryProvider, times( 1 ) ).getOwnerByFileId( any() );
+  }
+
+  @Test
+  void testFindStopsAtMaxResultsAndLimitsDepth() throws OperationFailedException {
+    NativeDtoRepositoryScenario scenario = new NativeDtoRepositoryScenario();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider =
+      createFindRepositoryProvider( scenario, repositoryMock, fileServiceMock );
+    GenericFilePath basePath = GenericFilePath.parseRequired( ROOT_PATH );
+
+    FindOptions options = new FindOptions();
+    options.setMaxDepth( 1 );
+
+    assertEquals( List.of( "/home", "/public" ), getPaths( repositoryProvider.find( basePath, options ) ) );
+    verify( fileServiceMock, times( 1 ) ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    verify( fileServiceMock, times( 1 ) ).doGetChildren( ENCODED_ROOT_PATH, ALL_FILTER, false, false );
+
+    options.setMaxDepth( null );
+    options.setMaxResults( 3 );
+
+    assertEquals(
+      List.of( "/home", "/public", "/public/testFile1" ),
+      getPaths( repositoryProvider.find( basePath, options ) ) );
+
+    // The walk stops at the last result, without listing the remaining folders.
+    verify( fileServiceMock, never() )
+      .doGetChildren( eq( encodeRepositoryPath( "/public/testFolder2" ) ), anyString(), anyBoolean(), anyBoolean() );
+  }
+
+  @Test
+  void testFindSkipsFoldersWhichCannotBeListed() throws OperationFailedException {
+    NativeDtoRepositoryScenario scenario = new NativeDtoRepositoryScenario();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider =
+      createFindRepositoryProvider( scenario, repositoryMock, fileServiceMock );
+    doThrow( UnifiedRepositoryAccessDeniedException.class )
+      .when( fileServiceMock ).doGetChildren( eq( encodeRepositoryPath( "/public" ) ), anyString(), anyBoolean(),
+        anyBoolean() );
+
+    FindOptions options = new FindOptions();
+
+    assertEquals(
+      List.of( "/home", "/public" ),
+      getPaths( repositoryProvider.find( GenericFilePath.parseRequired( ROOT_PATH ), options ) ) );
+  }
+
+  @Test
+  void testFindOfFileThrowsNotFound() throws InvalidPathException {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    GenericFilePath basePath = GenericFilePath.parseRequired( "/public/testFile1" );
+    doReturn( createNativeFile( "fileId", basePath, false ) ).when( repositoryMock ).getFile( "/public/testFile1" );
+
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+    FindOptions options = new FindOptions();
+
+    assertThrows( NotFoundException.class, () -> repositoryProvider.find( basePath, options ) );
+    verify( fileServiceMock, never() ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+  }
+
+  @Test
+  void testGetRepositoryFindFilter() {
+    RepositoryFileProvider repositoryProvider =
+      new RepositoryFileProvider( mock( IUnifiedRepository.class ), mock( FileService.class ) );
+
+    FindOptions options = new FindOptions();
+    options.setNamePattern( "sales*" );
+    options.setExtension( "prpt" );
+
+    // Folders must be walked, regardless of their name.
+    assertEquals( ALL_FILTER, repositoryProvider.getRepositoryFindFilter( options ) );
+
+    options.setFilter( GetTreeOptions.TreeFilter.FILES );
+    assertEquals( "sales*|FILES", repositoryProvider.getRepositoryFindFilter( options ) );
+
+    // Not supported by the repository.
+    options.setNamePattern( "sales?" );
+    assertEquals( "*.prpt|FILES", repositoryProvider.getRepositoryFindFilter( options ) );
+
+    options.setExtension( "a|b" );
+    assertEquals( "*|FILES", repositoryProvider.getRepositoryFindFilter( options ) );
+  }
+  // endregion
+
   // region getDeletedFiles
   @Test
   void getDeletedFilesTestDeletedFile3HasExpectedProperties() {
@@ -1307,6 +1757,37 @@ class RepositoryFileProviderTest {
     verify( fileServiceMock, times( 1 ) ).doRestoreFiles( repositoryProvider.getTrashFileId( path ) );
   }
 
+  @Test
+  void testRestoreFileClearsTreeCacheOfRestoredPath() throws Exception {
+    String fileId = "8b69da2b-2a10-4a82-89bc-a376e52d5482";
+    GenericFilePath path = GenericFilePath.parse( "/home/admin/.trash/pho:" + fileId + "/PAZReport.xanalyzer" );
+    GenericFilePath restoredPath = GenericFilePath.parse( "/home/admin/PAZReport.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( fileId, restoredPath, false ) ).when( repositoryMock ).getFileById( fileId );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.restoreFile( path );
+
+    verify( repositoryProvider ).clearTreeCache( restoredPath );
+    verify( repositoryProvider, never() ).clearTreeCache();
+  }
+
+  @Test
+  void testRestoreFileClearsWholeTreeCacheWhenRestoredPathIsUnknown() throws Exception {
+    GenericFilePath path =
+      GenericFilePath.parse( "/home/admin/.trash/pho:8b69da2b-2a10-4a82-89bc-a376e52d5482" + "/PAZReport.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.restoreFile( path );
+
+    verify( repositoryProvider ).clearTreeCache();
+  }
+
   @Test
   void testRestoreFileInvalidPath() throws Exception {
     GenericFilePath path =
@@ -2438,6 +2919,281 @@ class RepositoryFileProviderTest {
   }
   // endregion
 
+  // region Batch Operations
+  private static final String FILE_ID_1 = "8b69da2b-2a10-4a82-89bc-a376e52d5481";
+  private static final String FILE_ID_2 = "8b69da2b-2a10-4a82-89bc-a376e52d5482";
+  private static final String FILE_ID_3 = "8b69da2b-2a10-4a82-89bc-a376e52d5483";
+  private static final String FILE_ID_4 = "8b69da2b-2a10-4a82-89bc-a376e52d5484";
+
+  private static RepositoryFileDto createNativeFileDtoWithId( GenericFilePath path, String id ) {
+    RepositoryFileDto nativeFile = createNativeFileDto( path.toString(), path.getLastSegment(), false );
+    nativeFile.setId( id );
+    return nativeFile;
+  }
+
+  @Test
+  void testHasNativeBatchOperations() {
+    RepositoryFileProvider repositoryProvider =
+      new RepositoryFileProvider( mock( IUnifiedRepository.class ), mock( FileService.class ) );
+
+    assertTrue( repositoryProvider.hasNativeBatchOperations() );
+  }
+
+  @Test
+  void testDeleteFilesPermanentlyIssuesSingleRepositoryCall() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/.trash/pho:" + FILE_ID_1 + "/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/.trash/pho:" + FILE_ID_2 + "/b.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    repositoryProvider.deleteFilesPermanently( List.of( path1, path2 ) );
+
+    verify( fileServiceMock, times( 1 ) ).doDeleteFilesPermanent( anyString() );
+    verify( fileServiceMock ).doDeleteFilesPermanent( FILE_ID_1 + "," + FILE_ID_2 );
+  }
+
+  @Test
+  void testDeleteFilesPermanentlyReportsInvalidPathsAndDeletesTheOthers() throws Exception {
+    GenericFilePath invalidPath = GenericFilePath.parse( "/home/admin/pho:" + FILE_ID_1 + "/a.xanalyzer" );
+    GenericFilePath path = GenericFilePath.parse( "/home/admin/.trash/pho:" + FILE_ID_2 + "/b.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> repositoryProvider.deleteFilesPermanently( List.of( invalidPath, path ) ) );
+
+    assertEquals( Set.of( invalidPath ), exception.getFailedFiles().keySet() );
+    assertInstanceOf( NotFoundException.class, exception.getFailedFiles().get( invalidPath ) );
+    verify( fileServiceMock ).doDeleteFilesPermanent( FILE_ID_2 );
+  }
+
+  @ParameterizedTest
+  @ValueSource( booleans = { true, false } )
+  void testDeleteFilesIssuesSingleRepositoryCall( boolean permanent ) throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( FILE_ID_1, path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doReturn( createNativeFile( FILE_ID_2, path2, false ) ).when( repositoryMock ).getFile( path2.toString() );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.deleteFiles( List.of( path1, path2 ), permanent );
+
+    String fileIds = FILE_ID_1 + "," + FILE_ID_2;
+    if ( permanent ) {
+      verify( fileServiceMock, times( 1 ) ).doDeleteFilesPermanent( fileIds );
+      verify( fileServiceMock, never() ).doDeleteFiles( anyString() );
+    } else {
+      verify( fileServiceMock, times( 1 ) ).doDeleteFiles( fileIds );
+      verify( fileServiceMock, never() ).doDeleteFilesPermanent( anyString() );
+    }
+
+    verify( repositoryProvider ).clearTreeCache( path1 );
+    verify( repositoryProvider ).clearTreeCache( path2 );
+  }
+
+  @Test
+  void testDeleteFilesResolvesIdsOfSameFolderFromSingleListing() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+    GenericFilePath missingPath = GenericFilePath.parse( "/home/admin/missing.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( List.of(
+      createNativeFileDtoWithId( path1, FILE_ID_1 ),
+      createNativeFileDtoWithId( path2, FILE_ID_2 ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/home/admin" ), ALL_FILTER, true, false );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> repositoryProvider.deleteFiles( List.of( path1, missingPath, path2 ), false ) );
+
+    assertEquals( Set.of( missingPath ), exception.getFailedFiles().keySet() );
+    assertInstanceOf( NotFoundException.class, exception.getFailedFiles().get( missingPath ) );
+    verify( fileServiceMock, times( 1 ) ).doDeleteFiles( FILE_ID_1 + "," + FILE_ID_2 );
+    verify( fileServiceMock, times( 1 ) ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    verify( repositoryMock, never() ).getFile( anyString() );
+  }
+
+  @Test
+  void testDeleteFilesResolvesIdsOneAtATimeWhenFolderListingFails() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+    GenericFilePath path3 = GenericFilePath.parse( "/home/admin/c.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doThrow( UnifiedRepositoryAccessDeniedException.class )
+      .when( fileServiceMock ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( FILE_ID_1, path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doReturn( createNativeFile( FILE_ID_2, path2, false ) ).when( repositoryMock ).getFile( path2.toString() );
+    doReturn( createNativeFile( FILE_ID_3, path3, false ) ).when( repositoryMock ).getFile( path3.toString() );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    repositoryProvider.deleteFiles( List.of( path1, path2, path3 ), false );
+
+    verify( fileServiceMock, times( 1 ) ).doDeleteFiles( FILE_ID_1 + "," + FILE_ID_2 + "," + FILE_ID_3 );
+    verify( repositoryMock, times( 3 ) ).getFile( anyString() );
+  }
+
+  @Test
+  void testDeleteFilesRepositoryFailureFailsAllPaths() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doThrow( mock( UnifiedRepositoryAccessDeniedException.class ) ).when( fileServiceMock ).doDeleteFiles( any() );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( FILE_ID_1, path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doReturn( createNativeFile( FILE_ID_2, path2, false ) ).when( repositoryMock ).getFile( path2.toString() );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> repositoryProvider.deleteFiles( List.of( path1, path2 ), false ) );
+
+    assertEquals( Set.of( path1, path2 ), exception.getFailedFiles().keySet() );
+    assertInstanceOf( AccessControlException.class, exception.getFailedFiles().get( path1 ) );
+    assertInstanceOf( AccessControlException.class, exception.getFailedFiles().get( path2 ) );
+  }
+
+  @Test
+  void testRestoreFilesIssuesSingleRepositoryCallAndClearsRestoredPaths() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/.trash/pho:" + FILE_ID_1 + "/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/.trash/pho:" + FILE_ID_2 + "/b.xanalyzer" );
+    GenericFilePath restoredPath1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath restoredPath2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( FILE_ID_1, restoredPath1, false ) ).when( repositoryMock ).getFileById( FILE_ID_1 );
+    doReturn( createNativeFile( FILE_ID_2, restoredPath2, false ) ).when( repositoryMock ).getFileById( FILE_ID_2 );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.restoreFiles( List.of( path1, path2 ) );
+
+    verify( fileServiceMock, times( 1 ) ).doRestoreFiles( FILE_ID_1 + "," + FILE_ID_2 );
+    verify( repositoryProvider ).clearTreeCache( restoredPath1 );
+    verify( repositoryProvider ).clearTreeCache( restoredPath2 );
+    verify( repositoryProvider, never() ).clearTreeCache();
+  }
+
+  @Test
+  void testRestoreFilesClearsWholeTreeCacheWithoutLookupsForManyFiles() throws Exception {
+    List<GenericFilePath> paths = new ArrayList<>();
+    for ( int index = 0; index < 11; index++ ) {
+      paths.add( GenericFilePath.parse( "/home/admin/.trash/pho:id" + index + "/file" + index + ".xanalyzer" ) );
+    }
+
+    FileService fileServiceMock = mock( FileService.class );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.restoreFiles( paths );
+
+    verify( fileServiceMock, times( 1 ) ).doRestoreFiles( any() );
+    verify( repositoryMock, never() ).getFileById( any() );
+    verify( repositoryProvider ).clearTreeCache();
+    verify( repositoryProvider, never() ).clearTreeCache( any( GenericFilePath.class ) );
+  }
+
+  @Test
+  void testCopyFilesIssuesSingleRepositoryCallForNonConflictingPaths() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+    GenericFilePath conflictPath = GenericFilePath.parse( "/home/admin/c.xanalyzer" );
+    GenericFilePath destPath = GenericFilePath.parse( "/archive/" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( "true" ).when( fileServiceMock ).doGetCanCreate();
+    doReturn( true ).when( fileServiceMock ).doesExist( encodeRepositoryPath( destPath.toString() ) );
+    doReturn( List.of(
+      createNativeFileDtoWithId( path1, FILE_ID_1 ),
+      createNativeFileDtoWithId( path2, FILE_ID_2 ),
+      createNativeFileDtoWithId( conflictPath, FILE_ID_3 ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/home/admin" ), ALL_FILTER, true, false );
+    doReturn( List.of( createNativeFileDtoWithId( GenericFilePath.parse( "/archive/c.xanalyzer" ), FILE_ID_4 ) ) )
+      .when( fileServiceMock ).doGetChildren( encodeRepositoryPath( "/archive" ), ALL_FILTER, true, false );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> repositoryProvider.copyFiles( List.of( path1, conflictPath, path2 ), destPath ) );
+
+    assertEquals( Set.of( conflictPath ), exception.getFailedFiles().keySet() );
+    assertInstanceOf( ConflictException.class, exception.getFailedFiles().get( conflictPath ) );
+    verify( fileServiceMock, times( 1 ) ).doCopyFiles( any(), any(), any() );
+    verify( fileServiceMock ).doCopyFiles( encodeRepositoryPath( destPath.toString() ), FileService.MODE_RENAME,
+      FILE_ID_1 + "," + FILE_ID_2 );
+
+    // The source IDs and the destination conflicts are resolved from a single listing of each folder.
+    verify( fileServiceMock, times( 2 ) ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    verify( fileServiceMock, times( 1 ) ).doesExist( anyString() );
+    verify( repositoryMock, never() ).getFile( anyString() );
+  }
+
+  @Test
+  void testCopyFilesChecksConflictsOneAtATimeForFewPaths() throws Exception {
+    GenericFilePath path = GenericFilePath.parse( "/home/admin/c.xanalyzer" );
+    GenericFilePath destPath = GenericFilePath.parse( "/archive/" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( "true" ).when( fileServiceMock ).doGetCanCreate();
+    doReturn( true ).when( fileServiceMock ).doesExist( encodeRepositoryPath( destPath.toString() ) );
+    doReturn( true ).when( fileServiceMock ).doesExist( encodeRepositoryPath( "/archive/c.xanalyzer" ) );
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    BatchOperationFailedException exception = assertThrows( BatchOperationFailedException.class,
+      () -> repositoryProvider.copyFiles( List.of( path ), destPath ) );
+
+    assertInstanceOf( ConflictException.class, exception.getFailedFiles().get( path ) );
+    verify( fileServiceMock, never() ).doGetChildren( anyString(), anyString(), anyBoolean(), anyBoolean() );
+    verify( fileServiceMock, never() ).doCopyFiles( any(), any(), any() );
+  }
+
+  @Test
+  void testCopyFilesMissingDestinationFailsWithoutRepositoryCall() throws Exception {
+    GenericFilePath path = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath destPath = GenericFilePath.parse( "/archive/" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( "true" ).when( fileServiceMock ).doGetCanCreate();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    assertThrows( NotFoundException.class, () -> repositoryProvider.copyFiles( List.of( path ), destPath ) );
+    verify( fileServiceMock, never() ).doCopyFiles( any(), any(), any() );
+  }
+
+  @Test
+  void testMoveFilesIssuesSingleRepositoryCall() throws Exception {
+    GenericFilePath path1 = GenericFilePath.parse( "/home/admin/a.xanalyzer" );
+    GenericFilePath path2 = GenericFilePath.parse( "/home/admin/b.xanalyzer" );
+    GenericFilePath destPath = GenericFilePath.parse( "/archive/" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( "true" ).when( fileServiceMock ).doGetCanCreate();
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    doReturn( createNativeFile( FILE_ID_1, path1, false ) ).when( repositoryMock ).getFile( path1.toString() );
+    doReturn( createNativeFile( FILE_ID_2, path2, false ) ).when( repositoryMock ).getFile( path2.toString() );
+    RepositoryFileProvider repositoryProvider = spy( new RepositoryFileProvider( repositoryMock, fileServiceMock ) );
+
+    repositoryProvider.moveFiles( List.of( path1, path2 ), destPath );
+
+    verify( fileServiceMock, times( 1 ) ).doMoveFiles( any(), any() );
+    verify( fileServiceMock ).doMoveFiles( encodeRepositoryPath( destPath.toString() ), FILE_ID_1 + "," + FILE_ID_2 );
+    verify( repositoryProvider ).clearTreeCache( path1 );
+    verify( repositoryProvider ).clearTreeCache( path2 );
+  }
+  // endregion
+
   // region getFileMetadata
   @Test
   void testGetFileMetadataSuccess() throws Exception {
@@ -2693,6 +3449,21 @@ class RepositoryFileProviderTest {
     verify( fileServiceMock, never() ).doGetFileAcl( any(), anyBoolean() );
   }
 
+  @Test
+  void testGetFileAclAnswersRepeatedProbesOfMissingPathFromCache() throws Exception {
+    GenericFilePath path = GenericFilePath.parse( "/public/testFile1" );
+
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( false ).when( fileServiceMock ).doesExist( encodeRepositoryPath( path.toString() ) );
+    RepositoryFileProvider repositoryProvider =
+      new RepositoryFileProvider( mock( IUnifiedRepository.class ), fileServiceMock );
+
+    assertThrows( NotFoundException.class, () -> repositoryProvider.getFileAcl( path, false ) );
+    assertThrows( NotFoundException.class, () -> repositoryProvider.getFileAcl( path, true ) );
+
+    verify( fileServiceMock, times( 1 ) ).doesExist( encodeRepositoryPath( path.toString() ) );
+  }
+
   @ParameterizedTest
   @ValueSource( booleans = { true, false } )
   void testGetFileAclAccessControlException( boolean forceInheriting ) throws Exception {
@@ -3131,6 +3902,64 @@ class RepositoryFileProviderTest {
     assertThrows( OperationFailedException.class, () -> repositoryProvider.doesFolderExist( path ) );
     verify( repositoryMock ).getFile( anyString() );
   }
+
+  @Test
+  void testDoesFolderExistAnswersRepeatedProbesOfMissingPathFromCache() throws OperationFailedException {
+    GenericFilePath path = GenericFilePath.parse( "/public/pending" );
+
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    assertFalse( repositoryProvider.doesFolderExist( path ) );
+    assertFalse( repositoryProvider.doesFolderExist( path ) );
+    assertThrows( NotFoundException.class, () -> repositoryProvider.getFile( path, new GetFileOptions() ) );
+
+    verify( repositoryMock, times( 1 ) ).getFile( path.toString() );
+  }
+
+  @Test
+  void testDoesFolderExistProbesRepositoryAgainAfterFolderIsCreated() throws Exception {
+    GenericFilePath path = GenericFilePath.parse( "/public/pending/child" );
+    GenericFilePath parentPath = GenericFilePath.parse( "/public/pending" );
+    RepositoryFile nativeFolder = createNativeFile( "12345", path, true );
+
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    doReturn( true ).when( fileServiceMock ).doCreateDirSafe( encodeRepositoryPath( path.toString() ) );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    assertFalse( repositoryProvider.doesFolderExist( path ) );
+    assertFalse( repositoryProvider.doesFolderExist( parentPath ) );
+
+    doReturn( nativeFolder ).when( repositoryMock ).getFile( path.toString() );
+    repositoryProvider.createFolder( path );
+
+    // Creating the folder also creates its missing parent.
+    assertTrue( repositoryProvider.doesFolderExist( path ) );
+    repositoryProvider.doesFolderExist( parentPath );
+
+    verify( repositoryMock, times( 2 ) ).getFile( path.toString() );
+    verify( repositoryMock, times( 2 ) ).getFile( parentPath.toString() );
+  }
+
+  @Test
+  void testDoesFolderExistDoesNotShareMissingPathsAcrossPartitions() throws OperationFailedException {
+    GenericFilePath path = GenericFilePath.parse( "/home/suzy/private" );
+
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    AtomicReference<String> partition = new AtomicReference<>( "user:admin" );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock,
+      new LruTreeCache(), partition::get );
+
+    assertFalse( repositoryProvider.doesFolderExist( path ) );
+
+    partition.set( "user:suzy" );
+    assertFalse( repositoryProvider.doesFolderExist( path ) );
+
+    verify( repositoryMock, times( 2 ) ).getFile( path.toString() );
+  }
   // endregion
 
   // region createFolder
@@ -3485,7 +4314,8 @@ class RepositoryFileProviderTest {
 
     repositoryProvider.createFile( path, inputStream, options );
 
-    verify( repositoryProvider ).clearTreeCache();
+    verify( repositoryProvider ).clearTreeCache( path );
+    verify( repositoryProvider, never() ).clearTreeCache();
   }
 
   @Test
@@ -3826,6 +4656,15 @@ class RepositoryFileProviderTest {
 
     assertFalse( repositoryProvider.owns( path ) );
   }
+
+  @Test
+  void testGetOwnedPathPrefixesReturnsRootPath() throws Exception {
+    IUnifiedRepository repositoryMock = mock( IUnifiedRepository.class );
+    FileService fileServiceMock = mock( FileService.class );
+    RepositoryFileProvider repositoryProvider = new RepositoryFileProvider( repositoryMock, fileServiceMock );
+
+    assertEquals( Set.of( GenericFilePath.parseRequired( "/" ) ), repositoryProvider.getOwnedPathPrefixes() );
+  }
   // endregion
 
   // region hasAccess